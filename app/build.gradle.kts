@@ -16,6 +16,12 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // RestaurantApi implementation provided by AppModule: "fake" (in memory), "database" (SQLite),
+        // "snapshot" (binary file mapped in memory) or "loadtest" (250 000 generated reviews per restaurant)
+        buildConfigField("String", "RESTAURANT_API", "\"fake\"")
+        // Source of the avatars loaded by Glide: "network" (their URL) or "local" (generated files, offline)
+        buildConfigField("String", "AVATAR_SOURCE", "\"network\"")
     }
 
     buildTypes {
@@ -34,10 +40,17 @@ android {
 
     buildFeatures {
         viewBinding = true
+        buildConfig = true
+    }
+
+    // Robolectric runs the SQLite tests on the JVM. Robolectric exécute les tests SQLite sur la JVM.
+    testOptions {
+        unitTests.isIncludeAndroidResources = true
     }
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation("androidx.work:work-runtime:2.8.1")
     val hiltVersion = "2.44"
 
@@ -52,11 +65,17 @@ dependencies {
     implementation("androidx.core:core-splashscreen:1.0.0")
 
     testImplementation("junit:junit:4.13.2")
+    testImplementation("androidx.arch.core:core-testing:2.2.0")
+    testImplementation("androidx.test:core:1.5.0")
+    testImplementation("org.robolectric:robolectric:4.10.3")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
 
     implementation ("com.github.bumptech.glide:glide:4.16.0")
     annotationProcessor ("com.github.bumptech.glide:compiler:4.16.0")
+    implementation ("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        isTransitive = false
+    }
 }
 dependencies {
     implementation("androidx.recyclerview:recyclerview:1.2.1")
@@ -0,0 +1,116 @@
+package com.openclassrooms.tajmahal;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how long the cold start of the application takes, phase by phase.
+ * <p>
+ * Each phase is recorded once, the first time it is reached, as the number of milliseconds elapsed
+ * since the start of the process. The timings are logged with the tag {@value #TAG} as they are
+ * recorded, and can be read with {@link #getMillis(Phase)} or as a whole with {@link #toString()}.
+ *<p>
+ * * Enregistre la durée du démarrage à froid de l'application, phase par phase.
+ * <p>
+ * Chaque phase est enregistrée une fois, la première fois qu'elle est atteinte, sous la forme du
+ * nombre de millisecondes écoulées depuis le démarrage du processus. Les durées sont journalisées
+ * avec l'étiquette {@value #TAG} au fur et à mesure, et peuvent être lues avec
+ * {@link #getMillis(Phase)} ou dans leur ensemble avec {@link #toString()}.
+ */
+public final class StartupTimings {
+
+    /** The tag of the logged timings. L'étiquette des durées journalisées. */
+    public static final String TAG = "TajMahalStartup";
+
+    /** The value of a phase not reached yet. La valeur d'une phase pas encore atteinte. */
+    public static final long NOT_REACHED = -1L;
+
+    /** The phases of the start, in the order they are reached.
+     * Les phases du démarrage, dans l'ordre où elles sont atteintes.
+     */
+    public enum Phase {
+        /** The end of {@link TajMahalApplication#onCreate()}. La fin de {@link TajMahalApplication#onCreate()}. */
+        APPLICATION_CREATED,
+        /** The first frame of the main activity is drawn. La première image de l'activité principale est dessinée. */
+        FIRST_FRAME,
+        /** The details of the restaurant are bound to their views. Les détails du restaurant sont liés à leurs vues. */
+        DETAILS_BOUND,
+        /** The first reviews are given to the list. Les premiers avis sont donnés à la liste. */
+        REVIEWS_BOUND
+    }
+
+    private static final StartupTimings INSTANCE = new StartupTimings();
+
+    /** The time of each phase, indexed by its ordinal. Le temps de chaque phase, indexé par son ordinal. */
+    private final AtomicLongArray millis = new AtomicLongArray(Phase.values().length);
+
+    StartupTimings() {
+        for (int i = 0; i < millis.length(); i++) {
+            millis.set(i, NOT_REACHED);
+        }
+    }
+
+    /** Returns the timings of the application. Renvoie les durées de l'application. */
+    public static StartupTimings getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a phase as reached now, unless it was already recorded, and logs it.
+     * Enregistre une phase comme atteinte maintenant, sauf si elle l'a déjà été, et la journalise.
+     */
+    public void mark(Phase phase) {
+        if (millis.get(phase.ordinal()) != NOT_REACHED) {
+            return;
+        }
+        long elapsed = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        if (record(phase, elapsed)) {
+            Log.i(TAG, phase + " after " + elapsed + " ms");
+        }
+    }
+
+    /**
+     * Records a phase unless it was already recorded.
+     * @param phase   The phase reached.
+     * @param elapsed The milliseconds elapsed since the start of the process.
+     * @return True if the phase was recorded, false if it was already.
+     * Enregistre une phase sauf si elle l'a déjà été.
+     * @param phase   La phase atteinte.
+     * @param elapsed Les millisecondes écoulées depuis le démarrage du processus.
+     * @return Vrai si la phase a été enregistrée, faux si elle l'était déjà.
+     */
+    boolean record(Phase phase, long elapsed) {
+        return millis.compareAndSet(phase.ordinal(), NOT_REACHED, elapsed);
+    }
+
+    /**
+     * Returns the milliseconds elapsed between the start of the process and a phase, or
+     * {@link #NOT_REACHED}. Renvoie les millisecondes écoulées entre le démarrage du processus et
+     * une phase, ou {@link #NOT_REACHED}.
+     */
+    public long getMillis(Phase phase) {
+        return millis.get(phase.ordinal());
+    }
+
+    /**
+     * Returns the phases reached so far, for example "APPLICATION_CREATED=120ms FIRST_FRAME=410ms".
+     * Renvoie les phases atteintes jusqu'ici, par exemple « APPLICATION_CREATED=120ms FIRST_FRAME=410ms ».
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            long elapsed = getMillis(phase);
+            if (elapsed != NOT_REACHED) {
+                if (builder.length() > 0) {
+                    builder.append(' ');
+                }
+                builder.append(phase).append('=').append(elapsed).append("ms");
+            }
+        }
+        return builder.toString();
+    }
+}
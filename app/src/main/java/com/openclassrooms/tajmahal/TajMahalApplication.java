@@ -1,7 +1,22 @@
 package com.openclassrooms.tajmahal;
 
 import android.app.Application;
+import android.util.Log;
 
+import com.bumptech.glide.Glide;
+import com.openclassrooms.tajmahal.data.executor.AppExecutors;
+import com.openclassrooms.tajmahal.data.metrics.MetricsRegistry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.inject.Inject;
+
+import dagger.Lazy;
 import dagger.hilt.android.HiltAndroidApp;
 
 /**
@@ -43,6 +58,81 @@ import dagger.hilt.android.HiltAndroidApp;
  * ont besoin à partir d'une source externe plutôt que de les créer en interne.
  *<p>
  * voir <a href="https://developer.android.com/training/dependency-injection/hilt-android">la documentation officielle de Hilt</a>
+ *<p>
+ * To keep the cold start short, nothing heavy is created in {@link #onCreate()}: the data sources
+ * are injected lazily, and the initializations not needed by the first screen are run by
+ * {@link #onFirstFrame()}, once the first frame is drawn. The duration of each phase of the start
+ * is recorded by {@link StartupTimings}.
+ *<p>
+ * Pour que le démarrage à froid reste court, rien de lourd n'est créé dans {@link #onCreate()} :
+ * les sources de données sont injectées de façon paresseuse, et les initialisations inutiles au
+ * premier écran sont lancées par {@link #onFirstFrame()}, une fois la première image dessinée. La
+ * durée de chaque phase du démarrage est enregistrée par {@link StartupTimings}.
  */
 @HiltAndroidApp
-public class TajMahalApplication extends Application{}
\ No newline at end of file
+public class TajMahalApplication extends Application {
+
+    /** The file of the metrics written by {@link #dumpMetrics()}, in the files directory.
+     * Le fichier des métriques écrit par {@link #dumpMetrics()}, dans le répertoire de fichiers.
+     */
+    public static final String METRICS_FILE = "metrics.prom";
+
+    /** The executors running the deferred initializations, created on their first use.
+     * Les exécuteurs qui lancent les initialisations différées, créés lors de leur première utilisation.
+     */
+    @Inject
+    Lazy<AppExecutors> executors;
+
+    /** True once the deferred initializations have been started, only read on the main thread.
+     * Vrai une fois les initialisations différées lancées, lu uniquement sur le thread principal.
+     */
+    private boolean firstFrameDrawn;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupTimings.getInstance().mark(StartupTimings.Phase.APPLICATION_CREATED);
+    }
+
+    /**
+     * Called on the main thread once the first frame of the main activity is drawn. Records the
+     * phase and starts, off the main thread, the initializations the first screen does not need:
+     * Glide, only used by the list of reviews, builds its caches and registry there.
+     * Appelée sur le thread principal une fois la première image de l'activité principale dessinée.
+     * Enregistre la phase et lance, hors du thread principal, les initialisations dont le premier
+     * écran n'a pas besoin : Glide, utilisé uniquement par la liste des avis, y construit ses caches
+     * et son registre.
+     */
+    public void onFirstFrame() {
+        if (firstFrameDrawn) {
+            return;
+        }
+        firstFrameDrawn = true;
+        StartupTimings.getInstance().mark(StartupTimings.Phase.FIRST_FRAME);
+        executors.get().reads().execute(() -> Glide.get(this));
+    }
+
+    /**
+     * Writes the {@link MetricsRegistry} of the application in the text format of Prometheus to
+     * {@value #METRICS_FILE} in the files directory, off the main thread. The file can then be read
+     * with {@code adb shell run-as com.openclassrooms.tajmahal cat files/metrics.prom}.
+     * Écrit le {@link MetricsRegistry} de l'application au format texte de Prometheus dans
+     * {@value #METRICS_FILE} du répertoire de fichiers, hors du thread principal. Le fichier peut
+     * ensuite être lu avec {@code adb shell run-as com.openclassrooms.tajmahal cat files/metrics.prom}.
+     */
+    public void dumpMetrics() {
+        executors.get().reads().execute(() -> {
+            File file = new File(getFilesDir(), METRICS_FILE);
+            File temporary = new File(getFilesDir(), METRICS_FILE + ".tmp");
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(temporary), StandardCharsets.UTF_8)) {
+                MetricsRegistry.getInstance().writePrometheus(out);
+            } catch (IOException e) {
+                Log.w(StartupTimings.TAG, "Cannot write the metrics", e);
+                return;
+            }
+            if (!temporary.renameTo(file)) {
+                Log.w(StartupTimings.TAG, "Cannot replace " + file);
+            }
+        });
+    }
+}
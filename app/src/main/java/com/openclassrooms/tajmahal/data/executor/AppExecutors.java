@@ -0,0 +1,122 @@
+package com.openclassrooms.tajmahal.data.executor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups the executors used by the data layer to keep the data sources off the main thread.
+ * <p>
+ * Reads run on a small pool of background threads. Writes are striped by key, for example the id
+ * of a restaurant: the writes of a key run one after the other on the same background thread, so
+ * they are applied in the order they were submitted, while the writes of keys on other stripes run
+ * in parallel. A last thread prepares work for the UI, such as the text layouts of the review list,
+ * without competing with the data sources. Tests can give an executor running the tasks directly on
+ * the calling thread to make them deterministic.
+ *<p>
+ * * Regroupe les exécuteurs utilisés par la couche de données pour garder les sources de données
+ * hors du thread principal.
+ * <p>
+ * Les lectures s'exécutent sur un petit groupe de threads d'arrière-plan. Les écritures sont
+ * réparties par clé, par exemple l'identifiant d'un restaurant : les écritures d'une clé
+ * s'exécutent l'une après l'autre sur le même thread d'arrière-plan, elles sont donc appliquées
+ * dans l'ordre où elles ont été soumises, tandis que celles des clés des autres bandes s'exécutent
+ * en parallèle. Un dernier thread prépare le travail de l'interface, comme la mise en page des
+ * textes de la liste des avis, sans concurrencer les sources de données. Les tests peuvent fournir
+ * un exécuteur qui lance les tâches directement sur le thread appelant pour les rendre déterministes.
+ */
+public class AppExecutors {
+
+    /** The number of threads reading from the data sources. Le nombre de threads de lecture. */
+    private static final int READ_THREADS = 2;
+
+    /** The number of serial write queues, a power of two. Le nombre de files d'écriture série, une puissance de deux. */
+    private static final int WRITE_STRIPES = 4;
+
+    private final Executor reads;
+
+    /** The serial write queues, one per stripe. Les files d'écriture série, une par bande. */
+    private final Executor[] writes;
+
+    /** The thread preparing work for the UI. Le thread préparant le travail de l'interface. */
+    private final Executor layouts;
+
+    /**
+     * Creates the executors used by the application: a pool for the reads, a few serial queues
+     * for the writes and a thread for the UI.
+     * Crée les exécuteurs utilisés par l'application : un groupe pour les lectures, quelques
+     * files série pour les écritures et un thread pour l'interface.
+     */
+    public AppExecutors() {
+        this.reads = Executors.newFixedThreadPool(READ_THREADS, namedThreads("tajmahal-read"));
+        this.writes = new Executor[WRITE_STRIPES];
+        ThreadFactory writeThreads = namedThreads("tajmahal-write");
+        for (int stripe = 0; stripe < WRITE_STRIPES; stripe++) {
+            writes[stripe] = Executors.newSingleThreadExecutor(writeThreads);
+        }
+        this.layouts = Executors.newSingleThreadExecutor(namedThreads("tajmahal-layout"));
+    }
+
+    /**
+     * Creates executors from the given ones, for example a direct executor in tests. The work of
+     * the UI runs on the executor of the reads.
+     * @param reads  The executor running the reads.
+     * @param writes The executor running the writes of every key, it must run them one at a time in order.
+     * Crée des exécuteurs à partir de ceux fournis, par exemple un exécuteur direct dans les tests.
+     * Le travail de l'interface s'exécute sur l'exécuteur des lectures.
+     * @param reads  L'exécuteur des lectures.
+     * @param writes L'exécuteur des écritures de toutes les clés, il doit les lancer une par une dans l'ordre.
+     */
+    public AppExecutors(Executor reads, Executor writes) {
+        this.reads = reads;
+        this.writes = new Executor[]{writes};
+        this.layouts = reads;
+    }
+
+    /** Returns the executor running the reads. Renvoie l'exécuteur des lectures. */
+    public Executor reads() {
+        return reads;
+    }
+
+    /**
+     * Returns the serial executor running the writes of a key. The same key always gets the same executor.
+     * Renvoie l'exécuteur série des écritures d'une clé. Une même clé obtient toujours le même exécuteur.
+     */
+    public Executor writes(long key) {
+        return writes[stripe(key, writes.length)];
+    }
+
+    /**
+     * Returns the executor preparing work for the UI off the main thread, such as text layouts.
+     * Renvoie l'exécuteur préparant le travail de l'interface hors du thread principal, comme la
+     * mise en page des textes.
+     */
+    public Executor layouts() {
+        return layouts;
+    }
+
+    /**
+     * Spreads a key over a number of stripes, a power of two, mixing its bits so that consecutive
+     * ids do not all fall on the same stripes.
+     * Répartit une clé sur un nombre de bandes, une puissance de deux, en mélangeant ses bits afin
+     * que des identifiants consécutifs ne tombent pas tous sur les mêmes bandes.
+     */
+    public static int stripe(long key, int stripes) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & (stripes - 1);
+    }
+
+    /**
+     * Creates daemon threads named after their role, which makes them easy to spot in a profiler.
+     * Crée des threads démons nommés d'après leur rôle, ce qui les rend faciles à repérer dans un profileur.
+     */
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,528 @@
+package com.openclassrooms.tajmahal.data.local;
+
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_ADDRESS;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_COMMENT;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_CREATED_AT;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_DINE_IN;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_HOURS;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_ID;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_NAME;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_PHONE_NUMBER;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_PICTURE;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_RATE;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_RESTAURANT_ID;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_TAKE_AWAY;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_TYPE;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_USERNAME;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.COLUMN_WEBSITE;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.TABLE_RESTAURANT;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.TABLE_REVIEW;
+import static com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper.TABLE_USER;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.openclassrooms.tajmahal.data.service.RatingTimeline;
+import com.openclassrooms.tajmahal.data.service.RestaurantApi;
+import com.openclassrooms.tajmahal.data.service.ReviewSearchIndex;
+import com.openclassrooms.tajmahal.data.service.StringPool;
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+import com.openclassrooms.tajmahal.domain.model.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An implementation of {@link RestaurantApi} persisting the data in a SQLite database, so that the
+ * reviews survive the death of the process.
+ * <p>
+ * Reviews are inserted with a prepared statement compiled once, inside a transaction covering the
+ * whole batch. The rating statistics are computed by the database with the rating index, without
+ * loading the reviews into the heap.
+ *<p>
+ * * Une implémentation de {@link RestaurantApi} qui persiste les données dans une base SQLite, afin
+ * que les avis survivent à la mort du processus.
+ * <p>
+ * Les avis sont insérés avec une instruction préparée compilée une seule fois, dans une transaction
+ * couvrant tout le lot. Les statistiques de notation sont calculées par la base de données grâce à
+ * l'index sur la note, sans charger les avis en mémoire.
+ * <p>
+ * The comments are searched with a {@link ReviewSearchIndex} keyed by the rank of the row in the
+ * index, the row ids, which are {@code long}, being kept in an array by rank. It is built from the
+ * table on the first search, then kept up to date by {@link #insertReviews(List)}.
+ * <p>
+ * Les commentaires sont recherchés avec un {@link ReviewSearchIndex} indexé par le rang de la ligne
+ * dans l'index, les identifiants de ligne, qui sont des {@code long}, étant gardés dans un tableau
+ * par rang. Il est construit à partir de la table lors de la première recherche, puis tenu à jour
+ * par {@link #insertReviews(List)}.
+ * <p>
+ * The recent trends are read from a {@link RatingTimeline}, built from the reviews of the retained
+ * days with the (restaurant, creation time) index on the first request, then kept up to date by
+ * {@link #insertReviews(List)} like the search index.
+ * <p>
+ * Les tendances récentes sont lues dans une {@link RatingTimeline}, construite à partir des avis
+ * des jours conservés grâce à l'index (restaurant, date d'écriture) lors de la première demande,
+ * puis tenue à jour par {@link #insertReviews(List)} comme l'index de recherche.
+ * <p>
+ * The pages can carry only a preview of the long comments: the page queries then select the first
+ * characters of the comment with {@code substr}, so a long comment is not copied out of the
+ * database until {@link #getComment(long)} reads it.
+ * <p>
+ * Les pages peuvent ne contenir qu'un aperçu des longs commentaires : les requêtes de page
+ * sélectionnent alors les premiers caractères du commentaire avec {@code substr}, un long
+ * commentaire n'est donc copié hors de la base que lorsque {@link #getComment(long)} le lit.
+ * <p>
+ * An instance reads and writes the reviews of one restaurant; the instances of several restaurants
+ * share the same {@link RestaurantDatabaseHelper}.
+ * <p>
+ * Une instance lit et écrit les avis d'un restaurant ; les instances de plusieurs restaurants
+ * partagent le même {@link RestaurantDatabaseHelper}.
+ *
+ * @see RestaurantDatabaseHelper
+ */
+public class RestaurantDatabaseApi implements RestaurantApi {
+
+    private static final String[] REVIEW_COLUMNS = {COLUMN_USERNAME, COLUMN_PICTURE, COLUMN_COMMENT, COLUMN_RATE, COLUMN_ID, COLUMN_CREATED_AT};
+
+    /** The number of bits of the row id in the cursor of a page sorted by rating.
+     * Le nombre de bits de l'identifiant de ligne dans le curseur d'une page triée par note.
+     */
+    private static final int CURSOR_RATE_SHIFT = 32;
+
+    private final RestaurantDatabaseHelper helper;
+
+    /** The id of the restaurant, in the restaurant table. L'identifiant du restaurant, dans la table des restaurants. */
+    private final long restaurantId;
+
+    /** The compiled insert statement, created on the first write. L'instruction d'insertion compilée,
+     * créée lors de la première écriture.
+     */
+    private SQLiteStatement insertReview;
+
+    /** The index of the comments by rank in {@link #indexedIds}, built on the first search. Guarded by this.
+     * L'index des commentaires par rang dans {@link #indexedIds}, construit lors de la première
+     * recherche. Protégé par this.
+     */
+    private ReviewSearchIndex searchIndex;
+
+    /** The row id of each indexed review, by rank, increasing. Guarded by this.
+     * L'identifiant de ligne de chaque avis indexé, par rang, croissant. Protégé par this.
+     */
+    private long[] indexedIds;
+
+    /** The statistics by day of the reviews, built on the first request of a trend. Guarded by this.
+     * Les statistiques par jour des avis, construites lors de la première demande d'une tendance.
+     * Protégées par this.
+     */
+    private RatingTimeline timeline;
+
+    /** The names and avatars already read, shared by the reviews built from the rows.
+     * Les noms et avatars déjà lus, partagés par les avis construits à partir des lignes.
+     */
+    private final StringPool authors = new StringPool();
+
+    /** The maximum length of the comments of the pages, or 0 to serve the full comments.
+     * La longueur maximale des commentaires des pages, ou 0 pour fournir les commentaires complets.
+     */
+    private final int commentPreviewLength;
+
+    /** The columns of the page queries. Les colonnes des requêtes de page. */
+    private final String[] pageColumns;
+
+    /**
+     * Creates an API serving the full comments in its pages.
+     * @param helper       The database, shared by every restaurant.
+     * @param restaurantId The id of the restaurant whose data is read and written.
+     * Crée une API fournissant les commentaires complets dans ses pages.
+     * @param helper       La base de données, partagée par tous les restaurants.
+     * @param restaurantId L'identifiant du restaurant dont les données sont lues et écrites.
+     */
+    public RestaurantDatabaseApi(RestaurantDatabaseHelper helper, long restaurantId) {
+        this(helper, restaurantId, 0);
+    }
+
+    /**
+     * @param helper               The database, shared by every restaurant.
+     * @param restaurantId         The id of the restaurant whose data is read and written.
+     * @param commentPreviewLength The maximum length of the comments of the pages, or 0 to serve the full comments.
+     * @param helper               La base de données, partagée par tous les restaurants.
+     * @param restaurantId         L'identifiant du restaurant dont les données sont lues et écrites.
+     * @param commentPreviewLength La longueur maximale des commentaires des pages, ou 0 pour fournir les commentaires complets.
+     */
+    public RestaurantDatabaseApi(RestaurantDatabaseHelper helper, long restaurantId, int commentPreviewLength) {
+        this.helper = helper;
+        this.restaurantId = restaurantId;
+        this.commentPreviewLength = commentPreviewLength;
+        this.pageColumns = REVIEW_COLUMNS.clone();
+        if (commentPreviewLength > 0) {
+            // One more character than the preview tells whether the comment is longer.
+            // Un caractère de plus que l'aperçu indique si le commentaire est plus long.
+            pageColumns[2] = "substr(" + COLUMN_COMMENT + ", 1, " + (commentPreviewLength + 1) + ")";
+        }
+    }
+
+    /**
+     * Reads the restaurant from the database. Lit le restaurant depuis la base de données.
+     */
+    @Override
+    public Restaurant getRestaurant() {
+        String[] columns = {COLUMN_NAME, COLUMN_TYPE, COLUMN_HOURS, COLUMN_ADDRESS, COLUMN_WEBSITE,
+                COLUMN_PHONE_NUMBER, COLUMN_DINE_IN, COLUMN_TAKE_AWAY};
+        try (Cursor cursor = helper.getReadableDatabase().query(TABLE_RESTAURANT, columns,
+                COLUMN_ID + " = ?", new String[]{String.valueOf(restaurantId)}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new Restaurant(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                    cursor.getString(3), cursor.getString(4), cursor.getString(5),
+                    cursor.getInt(6) != 0, cursor.getInt(7) != 0);
+        }
+    }
+
+    /**
+     * Reads the reviews of the restaurant, newest first, walking the (restaurant, creation) index.
+     * Lit les avis du restaurant, du plus récent au plus ancien, en parcourant l'index
+     * (restaurant, création).
+     */
+    @Override
+    public List<Review> getReviews() {
+        try (Cursor cursor = helper.getReadableDatabase().query(TABLE_REVIEW, REVIEW_COLUMNS,
+                COLUMN_RESTAURANT_ID + " = ?", new String[]{String.valueOf(restaurantId)},
+                null, null, COLUMN_ID + " DESC")) {
+            List<Review> reviews = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                reviews.add(readReview(cursor));
+            }
+            return reviews;
+        }
+    }
+
+    /**
+     * Reads one page of reviews with a keyset query on the (restaurant, creation) index: the cursor
+     * is the row id of the last review of the previous page, so no row before the page is read.
+     * Lit une page d'avis avec une requête par clé sur l'index (restaurant, création) : le curseur
+     * est l'identifiant de ligne du dernier avis de la page précédente, aucune ligne avant la page
+     * n'est donc lue.
+     */
+    @Override
+    public ReviewPage getReviews(Long cursor, int pageSize) {
+        String selection = COLUMN_RESTAURANT_ID + " = ?";
+        String[] selectionArgs = {String.valueOf(restaurantId)};
+        if (cursor != null) {
+            selection += " AND " + COLUMN_ID + " < ?";
+            selectionArgs = new String[]{String.valueOf(restaurantId), String.valueOf(cursor)};
+        }
+        try (Cursor rows = helper.getReadableDatabase().query(TABLE_REVIEW, pageColumns, selection,
+                selectionArgs, null, null, COLUMN_ID + " DESC", String.valueOf(pageSize))) {
+            List<Review> reviews = new ArrayList<>(rows.getCount());
+            long lastId = 0L;
+            while (rows.moveToNext()) {
+                reviews.add(readPageReview(rows));
+                lastId = rows.getLong(4);
+            }
+            return new ReviewPage(reviews, reviews.size() == pageSize ? Long.valueOf(lastId) : null);
+        }
+    }
+
+    /**
+     * Reads one page of filtered reviews with a keyset query on the (restaurant, rating) index.
+     * Newest first, the cursor is the row id of the last review read; sorted by rating, it holds
+     * the rating and the row id of the last review read, so no row before the page is read.
+     * Lit une page d'avis filtrés avec une requête par clé sur l'index (restaurant, note). Du plus
+     * récent au plus ancien, le curseur est l'identifiant de ligne du dernier avis lu ; trié par
+     * note, il contient la note et l'identifiant de ligne du dernier avis lu, aucune ligne avant la
+     * page n'est donc lue.
+     */
+    @Override
+    public ReviewPage getReviews(ReviewFilter filter, Long cursor, int pageSize) {
+        if (filter.isAll()) {
+            return getReviews(cursor, pageSize);
+        }
+        List<String> selectionArgs = new ArrayList<>();
+        selectionArgs.add(String.valueOf(restaurantId));
+        selectionArgs.add(String.valueOf(filter.getMinStars()));
+        selectionArgs.add(String.valueOf(filter.getMaxStars()));
+        String selection = COLUMN_RESTAURANT_ID + " = ? AND " + COLUMN_RATE + " BETWEEN ? AND ?";
+        String orderBy = COLUMN_ID + " DESC";
+        boolean sorted = filter.getOrder() != ReviewFilter.Order.NEWEST_FIRST;
+        String rateOrder = filter.getOrder() == ReviewFilter.Order.HIGHEST_RATED_FIRST ? " < ?" : " > ?";
+        if (sorted) {
+            orderBy = COLUMN_RATE + (filter.getOrder() == ReviewFilter.Order.HIGHEST_RATED_FIRST ? " DESC, " : " ASC, ") + orderBy;
+        }
+        if (cursor != null && sorted) {
+            String rate = String.valueOf(cursor >>> CURSOR_RATE_SHIFT);
+            selection += " AND (" + COLUMN_RATE + rateOrder + " OR (" + COLUMN_RATE + " = ? AND " + COLUMN_ID + " < ?))";
+            selectionArgs.add(rate);
+            selectionArgs.add(rate);
+            selectionArgs.add(String.valueOf(cursor & 0xFFFFFFFFL));
+        } else if (cursor != null) {
+            selection += " AND " + COLUMN_ID + " < ?";
+            selectionArgs.add(String.valueOf(cursor));
+        }
+        try (Cursor rows = helper.getReadableDatabase().query(TABLE_REVIEW, pageColumns, selection,
+                selectionArgs.toArray(new String[0]), null, null, orderBy, String.valueOf(pageSize))) {
+            List<Review> reviews = new ArrayList<>(rows.getCount());
+            long next = 0L;
+            while (rows.moveToNext()) {
+                Review review = readPageReview(rows);
+                reviews.add(review);
+                next = sorted ? ((long) review.getRate() << CURSOR_RATE_SHIFT) | rows.getLong(4) : rows.getLong(4);
+            }
+            return new ReviewPage(reviews, reviews.size() == pageSize ? Long.valueOf(next) : null);
+        }
+    }
+
+    /**
+     * Counts the reviews per rating with the (restaurant, rating) index.
+     * Compte les avis par note grâce à l'index (restaurant, note).
+     */
+    @Override
+    public RatingAggregate getRatingAggregate() {
+        int[] starCounts = new int[RatingAggregate.MAX_STARS + 1];
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery("SELECT " + COLUMN_RATE + ", COUNT(*) FROM "
+                        + TABLE_REVIEW + " WHERE " + COLUMN_RESTAURANT_ID + " = ? GROUP BY " + COLUMN_RATE,
+                new String[]{String.valueOf(restaurantId)})) {
+            while (cursor.moveToNext()) {
+                int rate = cursor.getInt(0);
+                if (rate >= RatingAggregate.MIN_STARS && rate <= RatingAggregate.MAX_STARS) {
+                    starCounts[rate] = cursor.getInt(1);
+                }
+            }
+        }
+        return RatingAggregate.ofStarCounts(starCounts);
+    }
+
+    /**
+     * Reads the trend from the timeline of the restaurant, in constant time once it is built.
+     * Lit la tendance dans la chronologie du restaurant, en temps constant une fois construite.
+     */
+    @Override
+    public synchronized RatingTrend getRatingTrend(long now, int days) {
+        return timeline().trend(now, days);
+    }
+
+    /**
+     * Returns the timeline, building it on the first call from the reviews of the retained days,
+     * read oldest first with the (restaurant, creation time) index. Called with the monitor held.
+     * Renvoie la chronologie, en la construisant au premier appel à partir des avis des jours
+     * conservés, lus du plus ancien au plus récent grâce à l'index (restaurant, date d'écriture).
+     * Appelée avec le moniteur tenu.
+     */
+    private RatingTimeline timeline() {
+        if (timeline == null) {
+            RatingTimeline built = new RatingTimeline();
+            long oldest = System.currentTimeMillis() - RatingTimeline.RETENTION_DAYS * RatingTimeline.DAY_MILLIS;
+            try (Cursor cursor = helper.getReadableDatabase().query(TABLE_REVIEW,
+                    new String[]{COLUMN_CREATED_AT, COLUMN_RATE},
+                    COLUMN_RESTAURANT_ID + " = ? AND " + COLUMN_CREATED_AT + " > ?",
+                    new String[]{String.valueOf(restaurantId), String.valueOf(oldest)},
+                    null, null, COLUMN_CREATED_AT)) {
+                while (cursor.moveToNext()) {
+                    built.add(cursor.getLong(0), cursor.getInt(1));
+                }
+            }
+            timeline = built;
+        }
+        return timeline;
+    }
+
+    /**
+     * Searches the comments with the index, then reads only the matching rows by their id.
+     * Recherche dans les commentaires avec l'index, puis lit uniquement les lignes trouvées par leur
+     * identifiant.
+     */
+    @Override
+    public List<Review> searchReviews(String query, int limit) {
+        long[] ids;
+        synchronized (this) {
+            int[] ranks = searchIndex().search(query, limit);
+            ids = new long[ranks.length];
+            for (int i = 0; i < ranks.length; i++) {
+                ids[i] = indexedIds[ranks[i]];
+            }
+        }
+        List<Review> matches = new ArrayList<>(ids.length);
+        if (ids.length == 0) {
+            return matches;
+        }
+        StringBuilder placeholders = new StringBuilder();
+        String[] selectionArgs = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+            selectionArgs[i] = String.valueOf(ids[i]);
+        }
+        Map<Long, Review> byId = new HashMap<>();
+        try (Cursor cursor = helper.getReadableDatabase().query(TABLE_REVIEW, REVIEW_COLUMNS,
+                COLUMN_ID + " IN (" + placeholders + ")", selectionArgs, null, null, null)) {
+            while (cursor.moveToNext()) {
+                Review review = readReview(cursor);
+                byId.put(review.getId(), review);
+            }
+        }
+        for (long id : ids) {
+            Review review = byId.get(id);
+            if (review != null) {
+                matches.add(review);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the comment of one row by its id. Lit le commentaire d'une ligne par son identifiant.
+     */
+    @Override
+    public String getComment(long reviewId) {
+        try (Cursor cursor = helper.getReadableDatabase().query(TABLE_REVIEW, new String[]{COLUMN_COMMENT},
+                COLUMN_ID + " = ? AND " + COLUMN_RESTAURANT_ID + " = ?",
+                new String[]{String.valueOf(reviewId), String.valueOf(restaurantId)}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    /**
+     * Returns the search index, building it from the comments of the table on the first call.
+     * Renvoie l'index de recherche, en le construisant à partir des commentaires de la table lors
+     * du premier appel.
+     */
+    private ReviewSearchIndex searchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new ReviewSearchIndex();
+            indexedIds = new long[16];
+            try (Cursor cursor = helper.getReadableDatabase().query(TABLE_REVIEW,
+                    new String[]{COLUMN_ID, COLUMN_COMMENT}, COLUMN_RESTAURANT_ID + " = ?",
+                    new String[]{String.valueOf(restaurantId)}, null, null, COLUMN_ID)) {
+                while (cursor.moveToNext()) {
+                    index(cursor.getLong(0), cursor.getString(1));
+                }
+            }
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Adds a row to the search index under its rank, the next one, whatever the size of its id.
+     * Ajoute une ligne à l'index de recherche sous son rang, le suivant, quelle que soit la taille
+     * de son identifiant.
+     */
+    private void index(long id, String comment) {
+        int rank = searchIndex.size();
+        if (rank == indexedIds.length) {
+            indexedIds = Arrays.copyOf(indexedIds, rank * 2);
+        }
+        indexedIds[rank] = id;
+        searchIndex.add(rank, comment);
+    }
+
+    /**
+     * Inserts a review with the same rules as {@link com.openclassrooms.tajmahal.data.service.RestaurantFakeApi}:
+     * a review without comment or without a rating from one to five stars is not added.
+     * Insère un avis avec les mêmes règles que {@link com.openclassrooms.tajmahal.data.service.RestaurantFakeApi} :
+     * un avis sans commentaire ou sans note d'une à cinq étoiles n'est pas ajouté.
+     */
+    @Override
+    public boolean addReview(String comment, Integer rating, String avatar, String userName) {
+        Review review = new Review(0L, userName, avatar, comment, rating == null ? 0 : rating, System.currentTimeMillis());
+        if (!RestaurantApi.isValid(review)) return false;
+        insertReviews(Collections.singletonList(review));
+        return true;
+    }
+
+    /**
+     * Validates the whole batch, then inserts it with {@link #insertReviews(List)}, in one transaction.
+     * Valide tout le lot, puis l'insère avec {@link #insertReviews(List)}, en une seule transaction.
+     */
+    @Override
+    public boolean addReviews(Collection<Review> reviews) {
+        for (Review review : reviews) {
+            if (!RestaurantApi.isValid(review)) return false;
+        }
+        insertReviews(new ArrayList<>(reviews));
+        return true;
+    }
+
+    /**
+     * Inserts a batch of reviews, oldest first, in a single transaction with the prepared insert
+     * statement. Either every review is written or none. Once the transaction is committed, the
+     * comments are added to the search index and the ratings to the timeline, if they have been built.
+     * @param reviews The reviews to insert, oldest first.
+     * Insère un lot d'avis, du plus ancien au plus récent, en une seule transaction avec
+     * l'instruction d'insertion préparée. Soit tous les avis sont écrits, soit aucun. Une fois la
+     * transaction validée, les commentaires sont ajoutés à l'index de recherche et les notes à la
+     * chronologie, s'ils ont été construits.
+     * @param reviews Les avis à insérer, du plus ancien au plus récent.
+     */
+    public synchronized void insertReviews(List<Review> reviews) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        if (insertReview == null) {
+            insertReview = db.compileStatement(RestaurantDatabaseHelper.INSERT_REVIEW);
+        }
+        long[] ids = new long[reviews.size()];
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                RestaurantDatabaseHelper.bindReview(insertReview, restaurantId, reviews.get(i));
+                ids[i] = insertReview.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (searchIndex != null) {
+            for (int i = 0; i < ids.length; i++) {
+                index(ids[i], reviews.get(i).getComment());
+            }
+        }
+        if (timeline != null) {
+            for (Review review : reviews) {
+                timeline.add(review.getCreatedAt(), review.getRate());
+            }
+        }
+    }
+
+    /**
+     * Reads the user from the database. Lit l'utilisateur depuis la base de données.
+     */
+    @Override
+    public User getUser() {
+        try (Cursor cursor = helper.getReadableDatabase().query(TABLE_USER,
+                new String[]{COLUMN_USERNAME, COLUMN_PICTURE}, null, null, null, null, null, "1")) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new User(cursor.getString(0), cursor.getString(1));
+        }
+    }
+
+    /**
+     * Builds a review from the current row of a cursor over {@link #REVIEW_COLUMNS}, sharing its name
+     * and avatar with the reviews of the same author already read.
+     * Construit un avis à partir de la ligne courante d'un curseur sur {@link #REVIEW_COLUMNS}, en
+     * partageant son nom et son avatar avec les avis du même auteur déjà lus.
+     */
+    private Review readReview(Cursor cursor) {
+        return new Review(cursor.getLong(4), authors.intern(cursor.getString(0)), authors.intern(cursor.getString(1)), cursor.getString(2), cursor.getInt(3), cursor.getLong(5));
+    }
+
+    /**
+     * Builds a review from the current row of a cursor over {@link #pageColumns}, with a preview of
+     * its comment if the pages carry previews.
+     * Construit un avis à partir de la ligne courante d'un curseur sur {@link #pageColumns}, avec un
+     * aperçu de son commentaire si les pages contiennent des aperçus.
+     */
+    private Review readPageReview(Cursor cursor) {
+        Review review = readReview(cursor);
+        return commentPreviewLength > 0 ? review.withCommentPreview(commentPreviewLength) : review;
+    }
+}
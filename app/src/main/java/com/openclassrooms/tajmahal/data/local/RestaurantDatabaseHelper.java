@@ -0,0 +1,201 @@
+package com.openclassrooms.tajmahal.data.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import com.openclassrooms.tajmahal.data.service.RestaurantApi;
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.User;
+
+import java.util.List;
+
+/**
+ * Creates and upgrades the SQLite database holding the restaurants, their reviews and the user.
+ * <p>
+ * Reviews are indexed by restaurant with their creation order (the row id), by restaurant with
+ * their rating and by restaurant with their creation time, so that the newest reviews, the rating
+ * statistics and the reviews of the last days of a restaurant can be read without scanning the
+ * whole table. On creation, the database is filled with the data of
+ * {@link RestaurantFakeApi} in a single transaction.
+ *<p>
+ * * Crée et met à jour la base de données SQLite contenant les restaurants, leurs avis et l'utilisateur.
+ * <p>
+ * Les avis sont indexés par restaurant avec leur ordre de création (l'identifiant de ligne), par
+ * restaurant avec leur note et par restaurant avec leur date d'écriture, afin de pouvoir lire les
+ * avis les plus récents, les statistiques de notation et les avis des derniers jours d'un
+ * restaurant sans parcourir toute la table. À sa création, la base est remplie avec
+ * les données de {@link RestaurantFakeApi} en une seule transaction.
+ */
+public class RestaurantDatabaseHelper extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "tajmahal.db";
+    private static final int DATABASE_VERSION = 2;
+
+    /** The id of the restaurant filled on creation. L'identifiant du restaurant rempli à la création. */
+    static final long TAJ_MAHAL_ID = Restaurant.TAJ_MAHAL_ID;
+
+    static final String TABLE_RESTAURANT = "restaurant";
+    static final String TABLE_REVIEW = "review";
+    static final String TABLE_USER = "user";
+
+    static final String COLUMN_ID = "_id";
+    static final String COLUMN_NAME = "name";
+    static final String COLUMN_TYPE = "type";
+    static final String COLUMN_HOURS = "hours";
+    static final String COLUMN_ADDRESS = "address";
+    static final String COLUMN_WEBSITE = "website";
+    static final String COLUMN_PHONE_NUMBER = "phone_number";
+    static final String COLUMN_DINE_IN = "dine_in";
+    static final String COLUMN_TAKE_AWAY = "take_away";
+    static final String COLUMN_RESTAURANT_ID = "restaurant_id";
+    static final String COLUMN_USERNAME = "username";
+    static final String COLUMN_PICTURE = "picture";
+    static final String COLUMN_COMMENT = "comment";
+    static final String COLUMN_RATE = "rate";
+    /** The creation time in milliseconds since the epoch, 0 if unknown. La date d'écriture en millisecondes depuis l'epoch, 0 si inconnue. */
+    static final String COLUMN_CREATED_AT = "created_at";
+
+    /** The prepared statement used to insert a review. L'instruction préparée d'insertion d'un avis. */
+    static final String INSERT_REVIEW = "INSERT INTO " + TABLE_REVIEW + " ("
+            + COLUMN_RESTAURANT_ID + ", " + COLUMN_USERNAME + ", " + COLUMN_PICTURE + ", "
+            + COLUMN_COMMENT + ", " + COLUMN_RATE + ", " + COLUMN_CREATED_AT + ") VALUES (?, ?, ?, ?, ?, ?)";
+
+    public RestaurantDatabaseHelper(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    /**
+     * Creates the tables and their indices, then fills them with the hard-coded data.
+     * Crée les tables et leurs index, puis les remplit avec les données codées en dur.
+     */
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_RESTAURANT + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY, "
+                + COLUMN_NAME + " TEXT NOT NULL, "
+                + COLUMN_TYPE + " TEXT, "
+                + COLUMN_HOURS + " TEXT, "
+                + COLUMN_ADDRESS + " TEXT, "
+                + COLUMN_WEBSITE + " TEXT, "
+                + COLUMN_PHONE_NUMBER + " TEXT, "
+                + COLUMN_DINE_IN + " INTEGER NOT NULL, "
+                + COLUMN_TAKE_AWAY + " INTEGER NOT NULL)");
+        db.execSQL("CREATE TABLE " + TABLE_REVIEW + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_RESTAURANT_ID + " INTEGER NOT NULL REFERENCES " + TABLE_RESTAURANT + "(" + COLUMN_ID + "), "
+                + COLUMN_USERNAME + " TEXT, "
+                + COLUMN_PICTURE + " TEXT, "
+                + COLUMN_COMMENT + " TEXT NOT NULL, "
+                + COLUMN_RATE + " INTEGER NOT NULL, "
+                + COLUMN_CREATED_AT + " INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX index_review_restaurant_created ON " + TABLE_REVIEW
+                + " (" + COLUMN_RESTAURANT_ID + ", " + COLUMN_ID + ")");
+        db.execSQL("CREATE INDEX index_review_restaurant_rate ON " + TABLE_REVIEW
+                + " (" + COLUMN_RESTAURANT_ID + ", " + COLUMN_RATE + ")");
+        createTimeIndex(db);
+        db.execSQL("CREATE TABLE " + TABLE_USER + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY, "
+                + COLUMN_USERNAME + " TEXT NOT NULL, "
+                + COLUMN_PICTURE + " TEXT)");
+        seed(db, new RestaurantFakeApi());
+    }
+
+    /**
+     * Version 2 adds the creation time of the reviews; the reviews written before have an unknown
+     * time, 0.
+     * La version 2 ajoute la date d'écriture des avis ; les avis écrits avant ont une date
+     * inconnue, 0.
+     */
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE " + TABLE_REVIEW + " ADD COLUMN " + COLUMN_CREATED_AT + " INTEGER NOT NULL DEFAULT 0");
+            createTimeIndex(db);
+        }
+    }
+
+    /**
+     * Creates the (restaurant, creation time) index, read to build the trends of a restaurant.
+     * Crée l'index (restaurant, date d'écriture), lu pour construire les tendances d'un restaurant.
+     */
+    private static void createTimeIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX index_review_restaurant_time ON " + TABLE_REVIEW
+                + " (" + COLUMN_RESTAURANT_ID + ", " + COLUMN_CREATED_AT + ")");
+    }
+
+    /**
+     * Copies the restaurant, the reviews and the user of the given API into the database.
+     * The reviews are listed newest first and are inserted oldest first to keep their order.
+     * Copie le restaurant, les avis et l'utilisateur de l'API donnée dans la base de données.
+     * Les avis sont listés du plus récent au plus ancien et sont insérés du plus ancien au plus
+     * récent pour conserver leur ordre.
+     */
+    private void seed(SQLiteDatabase db, RestaurantApi source) {
+        db.beginTransaction();
+        try {
+            Restaurant restaurant = source.getRestaurant();
+            SQLiteStatement insertRestaurant = db.compileStatement("INSERT INTO " + TABLE_RESTAURANT
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            insertRestaurant.bindLong(1, TAJ_MAHAL_ID);
+            bindString(insertRestaurant, 2, restaurant.getName());
+            bindString(insertRestaurant, 3, restaurant.getType());
+            bindString(insertRestaurant, 4, restaurant.getHours());
+            bindString(insertRestaurant, 5, restaurant.getAddress());
+            bindString(insertRestaurant, 6, restaurant.getWebsite());
+            bindString(insertRestaurant, 7, restaurant.getPhoneNumber());
+            insertRestaurant.bindLong(8, restaurant.isDineIn() ? 1 : 0);
+            insertRestaurant.bindLong(9, restaurant.isTakeAway() ? 1 : 0);
+            insertRestaurant.executeInsert();
+            insertRestaurant.close();
+
+            List<Review> reviews = source.getReviews();
+            SQLiteStatement insertReview = db.compileStatement(INSERT_REVIEW);
+            for (int i = reviews.size() - 1; i >= 0; i--) {
+                bindReview(insertReview, TAJ_MAHAL_ID, reviews.get(i));
+                insertReview.executeInsert();
+            }
+            insertReview.close();
+
+            User user = source.getUser();
+            SQLiteStatement insertUser = db.compileStatement("INSERT INTO " + TABLE_USER + " VALUES (1, ?, ?)");
+            bindString(insertUser, 1, user.getUserName());
+            bindString(insertUser, 2, user.getPictureUrl());
+            insertUser.executeInsert();
+            insertUser.close();
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Binds the fields of a review to the parameters of {@link #INSERT_REVIEW}.
+     * Lie les champs d'un avis aux paramètres de {@link #INSERT_REVIEW}.
+     */
+    static void bindReview(SQLiteStatement statement, long restaurantId, Review review) {
+        statement.clearBindings();
+        statement.bindLong(1, restaurantId);
+        bindString(statement, 2, review.getUsername());
+        bindString(statement, 3, review.getPicture());
+        bindString(statement, 4, review.getComment());
+        statement.bindLong(5, review.getRate());
+        statement.bindLong(6, review.getCreatedAt());
+    }
+
+    /**
+     * Binds a string that may be null, which {@link SQLiteStatement#bindString} does not accept.
+     * Lie une chaîne qui peut être nulle, ce que {@link SQLiteStatement#bindString} n'accepte pas.
+     */
+    private static void bindString(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+}
@@ -1,18 +1,42 @@
 package com.openclassrooms.tajmahal.data.repository;
 
+import android.util.Log;
+
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.openclassrooms.tajmahal.data.executor.AppExecutors;
+import com.openclassrooms.tajmahal.data.metrics.Counter;
+import com.openclassrooms.tajmahal.data.metrics.Gauge;
+import com.openclassrooms.tajmahal.data.metrics.Histogram;
+import com.openclassrooms.tajmahal.data.metrics.MetricsRegistry;
 import com.openclassrooms.tajmahal.data.service.RestaurantApi;
+import com.openclassrooms.tajmahal.data.service.RestaurantCatalog;
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
 import com.openclassrooms.tajmahal.domain.model.Restaurant;
 import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
 import com.openclassrooms.tajmahal.domain.model.User;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import dagger.Lazy;
+
 
 /**
  * This is the repository class for managing restaurant data. Repositories are responsible
@@ -29,78 +53,802 @@ import javax.inject.Singleton;
  * gère la logique permettant de décider s'il faut récupérer les données à partir d'une source réseau ou
  * utiliser les données d'un cache local.
  *<p>
+ * Every operation is keyed by the id of a restaurant, whose {@link RestaurantApi} is given by a
+ * {@link RestaurantCatalog}. Every call to an API runs on the background executors of
+ * {@link AppExecutors}: reads post their result to the returned LiveData, writes are applied one at
+ * a time on the serial queue of the stripe of the restaurant, so a slow data source never blocks
+ * the main thread and reviewing a restaurant never waits for the writes of the restaurants of the
+ * other stripes.
+ *<p>
+ * Chaque opération est indexée par l'identifiant d'un restaurant, dont le {@link RestaurantApi}
+ * est donné par un {@link RestaurantCatalog}. Chaque appel à une API s'exécute sur les exécuteurs
+ * d'arrière-plan de {@link AppExecutors} : les lectures publient leur résultat dans le LiveData
+ * renvoyé, les écritures sont appliquées une par une sur la file série de la bande du restaurant,
+ * une source de données lente ne bloque donc jamais le thread principal et donner un avis sur un
+ * restaurant n'attend jamais les écritures des restaurants des autres bandes.
+ *<p>
+ * The API, the details, the reviews stream and the rating statistics of the
+ * {@value #MAX_CACHED_RESTAURANTS} restaurants used most recently are kept in memory. Beyond that,
+ * the least recently used restaurant is evicted and its API is closed once the reads and writes
+ * already submitted to it have run, so the memory stays bounded however many restaurants are
+ * visited. A LiveData obtained before its restaurant is evicted is no longer updated: screens get
+ * it again when they are shown. The API of a restaurant is opened by the first call running on the
+ * executors, never on the calling thread.
+ *<p>
+ * L'API, les détails, le flux des avis et les statistiques de notation des
+ * {@value #MAX_CACHED_RESTAURANTS} restaurants utilisés le plus récemment sont conservés en mémoire.
+ * Au-delà, le restaurant utilisé le moins récemment est évincé et son API est fermée une fois
+ * exécutées les lectures et écritures qui lui ont déjà été soumises : la mémoire reste donc bornée
+ * quel que soit le nombre de restaurants visités. Un LiveData obtenu avant l'éviction de son
+ * restaurant n'est plus mis à jour : les écrans l'obtiennent à nouveau lorsqu'ils sont affichés.
+ * L'API d'un restaurant est ouverte par le premier appel exécuté sur les exécuteurs, jamais sur le
+ * thread appelant.
+ *<p>
+ * The catalog is injected lazily and only created when the first restaurant is used, so creating
+ * the repository, and the ViewModel using it, costs nothing at start-up.
+ *<p>
+ * Le catalogue est injecté de façon paresseuse et créé uniquement lorsque le premier restaurant est
+ * utilisé : créer le référentiel, et le ViewModel qui l'utilise, ne coûte donc rien au démarrage.
+ *<p>
  * @see Restaurant
  * @see RestaurantApi
  */
 @Singleton
 public class RestaurantRepository {
 
-    /** The API interface instance that will be used for network requests related to restaurant data.
-     * L'instance d'interface API qui sera utilisée pour les requêtes réseau liées aux données du restaurant.
+    /** The number of restaurants whose data is kept in memory.
+     * Le nombre de restaurants dont les données sont conservées en mémoire.
+     */
+    public static final int MAX_CACHED_RESTAURANTS = 8;
+
+    /** The number of locks ordering the closing and the opening of the APIs, a power of two.
+     * Le nombre de verrous ordonnant la fermeture et l'ouverture des API, une puissance de deux.
+     */
+    private static final int LOCK_STRIPES = 16;
+
+    private static final String TAG = "RestaurantRepository";
+
+    private static final Histogram GET_REVIEWS_LATENCY = MetricsRegistry.getInstance().latencyHistogram(
+            "tajmahal_repository_get_reviews_seconds", "Time to read every review from the API.");
+
+    private static final Histogram GET_REVIEW_PAGE_LATENCY = MetricsRegistry.getInstance().latencyHistogram(
+            "tajmahal_repository_get_review_page_seconds", "Time to read one page of reviews from the API.");
+
+    private static final Histogram ADD_REVIEW_LATENCY = MetricsRegistry.getInstance().latencyHistogram(
+            "tajmahal_repository_add_review_seconds", "Time to add one review or one batch through the API.");
+
+    private static final Counter REVIEWS_ADDED = MetricsRegistry.getInstance().counter(
+            "tajmahal_repository_reviews_added_total", "Reviews accepted by the API.");
+
+    private static final Counter REVIEWS_REJECTED = MetricsRegistry.getInstance().counter(
+            "tajmahal_repository_reviews_rejected_total", "Reviews or batches rejected by the API.");
+
+    private static final Gauge REVIEW_COUNT = MetricsRegistry.getInstance().gauge(
+            "tajmahal_repository_reviews", "Reviews in the latest list read from the API.");
+
+    private static final Counter RESTAURANTS_EVICTED = MetricsRegistry.getInstance().counter(
+            "tajmahal_repository_restaurants_evicted_total", "Restaurants evicted from the cache of the repository.");
+
+    /** The catalog giving the API of each restaurant, created on its first use.
+     * Le catalogue donnant l'API de chaque restaurant, créé lors de sa première utilisation.
+     */
+    private final Lazy<RestaurantCatalog> catalog;
+
+    /** The executors running the calls to the API off the main thread.
+     * Les exécuteurs qui lancent les appels à l'API hors du thread principal.
+     */
+    private final AppExecutors executors;
+
+    /** The cached restaurants by id, the least recently used first. Guarded by itself.
+     * Les restaurants en cache par identifiant, le moins récemment utilisé en premier. Protégé par lui-même.
+     */
+    private final LinkedHashMap<Long, CachedRestaurant> restaurants = new LinkedHashMap<Long, CachedRestaurant>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedRestaurant> eldest) {
+            if (size() <= MAX_CACHED_RESTAURANTS) {
+                return false;
+            }
+            retire(eldest.getValue());
+            return true;
+        }
+    };
+
+    /** The APIs of the evicted restaurants not closed yet, by restaurant id. Guarded by {@link #restaurants}.
+     * Les API des restaurants évincés pas encore fermées, par identifiant de restaurant. Protégé par {@link #restaurants}.
+     */
+    private final Map<Long, ApiHandle> retired = new HashMap<>();
+
+    /** The striped locks held while an API is closed or opened, so that the API of an evicted
+     * restaurant is closed before the restaurant opens a new one.
+     * Les verrous répartis tenus pendant la fermeture ou l'ouverture d'une API, afin que l'API d'un
+     * restaurant évincé soit fermée avant que le restaurant en ouvre une nouvelle.
      */
-    private final RestaurantApi restaurantApi;
+    private final Object[] locks = new Object[LOCK_STRIPES];
 
     /**
-     * Constructs a new instance of {@link RestaurantRepository} with the given {@link RestaurantApi}.
+     * Constructs a new instance of {@link RestaurantRepository} with the given {@link RestaurantCatalog}.
      *<p>
-     * @param restaurantApi The network API interface for fetching restaurant data.
-     * Construit une nouvelle instance de {@link RestaurantRepository} avec le {@link RestaurantApi} donné.
+     * @param catalog   The catalog giving the API of each restaurant, created when the first
+     *                  restaurant is used.
+     * @param executors The executors on which the APIs are called.
+     * Construit une nouvelle instance de {@link RestaurantRepository} avec le {@link RestaurantCatalog} donné.
      * <p>
-     * @param restaurantApi L'interface API réseau pour récupérer les données du restaurant.
+     * @param catalog   Le catalogue donnant l'API de chaque restaurant, créé lorsque le premier
+     *                  restaurant est utilisé.
+     * @param executors Les exécuteurs sur lesquels les API sont appelées.
      */
     @Inject
-    public RestaurantRepository(RestaurantApi restaurantApi) {
-        this.restaurantApi = restaurantApi;
+    public RestaurantRepository(Lazy<RestaurantCatalog> catalog, AppExecutors executors) {
+        this.catalog = catalog;
+        this.executors = executors;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Constructs a new instance of {@link RestaurantRepository} with an already created {@link RestaurantCatalog}.
+     * Construit une nouvelle instance de {@link RestaurantRepository} avec un {@link RestaurantCatalog} déjà créé.
+     */
+    public RestaurantRepository(RestaurantCatalog catalog, AppExecutors executors) {
+        this(() -> catalog, executors);
+    }
+
+    /**
+     * Returns the cached data of a restaurant, caching it if needed, which may evict the least
+     * recently used restaurant. The API of an evicted restaurant not closed yet is used again.
+     * Renvoie les données en cache d'un restaurant, en le mettant en cache si besoin, ce qui peut
+     * évincer le restaurant utilisé le moins récemment. L'API d'un restaurant évincé pas encore
+     * fermée est réutilisée.
+     */
+    private CachedRestaurant restaurant(long restaurantId) {
+        synchronized (restaurants) {
+            CachedRestaurant cached = restaurants.get(restaurantId);
+            if (cached == null) {
+                ApiHandle handle = retired.remove(restaurantId);
+                if (handle == null || !handle.revive()) {
+                    handle = new ApiHandle(restaurantId);
+                }
+                cached = new CachedRestaurant(restaurantId, handle);
+                restaurants.put(restaurantId, cached);
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Retires the API of an evicted restaurant: it is closed once the calls submitted to it have
+     * run. Called with {@link #restaurants} held.
+     * Retire l'API d'un restaurant évincé : elle est fermée une fois exécutés les appels qui lui ont
+     * été soumis. Appelée avec {@link #restaurants} tenu.
+     */
+    private void retire(CachedRestaurant evicted) {
+        RESTAURANTS_EVICTED.increment();
+        retired.put(evicted.id, evicted.handle);
+        evicted.handle.retire();
+    }
+
+    /**
+     * Runs a call to the API of a restaurant on an executor, the API being opened there by the
+     * first call. The API is retained from now until the call has run, so that it is not closed in
+     * between. Nothing runs if the API is already closed: the restaurant was evicted, and the
+     * LiveData of the call is no longer updated.
+     * Exécute un appel à l'API d'un restaurant sur un exécuteur, l'API y étant ouverte par le premier
+     * appel. L'API est retenue dès maintenant et jusqu'à l'exécution de l'appel, afin qu'elle ne soit
+     * pas fermée entre-temps. Rien n'est exécuté si l'API est déjà fermée : le restaurant a été
+     * évincé, et le LiveData de l'appel n'est plus mis à jour.
+     */
+    private void execute(Executor executor, CachedRestaurant restaurant, Consumer<RestaurantApi> call) {
+        ApiHandle handle = restaurant.handle;
+        if (!handle.retain()) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                call.accept(handle.api());
+            } finally {
+                handle.release();
+            }
+        });
+    }
+
+    private Object lock(long restaurantId) {
+        return locks[AppExecutors.stripe(restaurantId, LOCK_STRIPES)];
+    }
+
+    /**
+     * Reads every review of a restaurant from its API, recording how long it takes and how many there are.
+     * Lit tous les avis d'un restaurant depuis son API, en enregistrant le temps nécessaire et leur nombre.
+     */
+    private static List<Review> readReviews(RestaurantApi api) {
+        long start = System.nanoTime();
+        List<Review> read = api.getReviews();
+        GET_REVIEWS_LATENCY.recordSince(start);
+        REVIEW_COUNT.set(read.size());
+        return read;
     }
 
     /**
      * Fetches the restaurant details.
      *<p>
-     * This method will make a network call using the provided {@link RestaurantApi} instance
-     * to fetch restaurant data. Note that error handling and any transformations on the data
-     * would need to be managed.
+     * This method will make a network call on a background thread using the {@link RestaurantApi}
+     * of the restaurant to fetch restaurant data. The details are loaded once, then kept with the
+     * restaurant. Note that error handling and any transformations on the data would need to be managed.
      *<p>
-     * @return LiveData holding the restaurant details.
-     * Récupère les détails du restaurant. Cette méthode effectuera un appel réseau en utilisant
-     * l'instance {@link RestaurantApi} fournie pour récupérer les données du restaurant. Notez que
-     * la gestion des erreurs et toutes les transformations sur les données doivent être gérées.
-     * @return LiveData contenant les détails du restaurant.
+     * @param restaurantId The id of the restaurant.
+     * @return LiveData holding the restaurant details once they are loaded.
+     * Récupère les détails du restaurant. Cette méthode effectuera un appel réseau sur un thread
+     * d'arrière-plan en utilisant le {@link RestaurantApi} du restaurant pour récupérer les
+     * données du restaurant. Les détails sont chargés une fois, puis conservés avec le restaurant.
+     * Notez que la gestion des erreurs et toutes les transformations sur les données doivent être gérées.
+     * @param restaurantId L'identifiant du restaurant.
+     * @return LiveData contenant les détails du restaurant une fois chargés.
      */
-    public LiveData<Restaurant> getRestaurant() {
-        return new MutableLiveData<>(restaurantApi.getRestaurant());
+    public LiveData<Restaurant> getRestaurant(long restaurantId) {
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        if (!restaurant.detailsRequested) {
+            restaurant.detailsRequested = true;
+            execute(executors.reads(), restaurant, api -> restaurant.details.postValue(api.getRestaurant()));
+        }
+        return restaurant.details;
     }
 
-    /** Retrieves a user by calling the getUser method of the restaurantApi API and returns that user
-     *  as LiveData encapsulated in a MutableLiveData object (Android library class used to store
-     *  and manage observable data).
-     * Récupère un utilisateur en appelant la méthode getUser de l'API restaurantApi et retourne
-     * cet utilisateur sous forme de LiveData encapsulé dans un objet MutableLiveData (classe de
-     * bibliothèque Android utilisée pour stocker et gérer des données observables).
+    /** Retrieves a user by calling the getUser method of the API of a restaurant on a background
+     *  thread and returns that user as LiveData encapsulated in a MutableLiveData object (Android
+     *  library class used to store and manage observable data).
+     * Récupère un utilisateur en appelant la méthode getUser de l'API d'un restaurant sur un thread
+     * d'arrière-plan et retourne cet utilisateur sous forme de LiveData encapsulé dans un objet
+     * MutableLiveData (classe de bibliothèque Android utilisée pour stocker et gérer des données
+     * observables).
      */
-    public LiveData<User> getUser(){
-        return new MutableLiveData<>(restaurantApi.getUser());
+    public LiveData<User> getUser(long restaurantId){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        MutableLiveData<User> user = new MutableLiveData<>();
+        execute(executors.reads(), restaurant, api -> user.postValue(api.getUser()));
+        return user;
     }
+
     /**
-     * This code fetches reviews via {@link RestaurantApi} and exposes them as LiveData so that the
-     * UI can display them and react to updates in a simple and efficient way.
+     * This code fetches the reviews of a restaurant via its {@link RestaurantApi} on a background
+     * thread and exposes them as LiveData so that the UI can display them and react to updates in a
+     * simple and efficient way.
+     * <p>
+     * Every call for a restaurant returns the same long-lived LiveData while the restaurant is
+     * cached: it follows {@link #getReviewChanges(long)}, so it is loaded when first observed and
+     * reloaded once after each review added through
+     * {@link #addReview(long, String, Integer, String, String)}, and observers never need to
+     * subscribe again. The whole list is only read while the LiveData is observed: writes made
+     * without observer, or landing before the main thread delivers the previous change, are
+     * coalesced into one reload. Screens showing pages of reviews should follow
+     * {@link #getReviewChanges(long)} instead, which never reads the list.
      *<p>
+     * @param restaurantId The id of the restaurant.
      * @return LiveData holding the reviews details.
-     * Ce code récupère les avis via {@link RestaurantApi} et les expose sous forme de LiveData afin
-     * que l'interface utilisateur puisse les afficher et réagir aux mises à jour de manière simple
-     * et efficace.
+     * Ce code récupère les avis d'un restaurant via son {@link RestaurantApi} sur un thread
+     * d'arrière-plan et les expose sous forme de LiveData afin que l'interface utilisateur puisse
+     * les afficher et réagir aux mises à jour de manière simple et efficace.
+     * <p>
+     * Chaque appel pour un restaurant renvoie le même LiveData de longue durée tant que le
+     * restaurant est en cache : il suit {@link #getReviewChanges(long)}, il est donc chargé lorsqu'il
+     * est observé pour la première fois et rechargé une fois après chaque avis ajouté via
+     * {@link #addReview(long, String, Integer, String, String)}, et les observateurs n'ont jamais
+     * besoin de s'abonner à nouveau. La liste complète n'est lue que tant que le LiveData est
+     * observé : les écritures faites sans observateur, ou arrivant avant que le thread principal ait
+     * délivré le changement précédent, sont regroupées en un seul rechargement. Les écrans affichant
+     * des pages d'avis doivent plutôt suivre {@link #getReviewChanges(long)}, qui ne lit jamais la liste.
+     * @param restaurantId L'identifiant du restaurant.
      * @return LiveData contenant les détails des avis.
      */
-    public LiveData<List<Review>> getReviews(){
-        return new MutableLiveData<>(restaurantApi.getReviews());
+    public LiveData<List<Review>> getReviews(long restaurantId){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        if (restaurant.reviews == null) {
+            MediatorLiveData<List<Review>> reviews = new MediatorLiveData<>();
+            reviews.addSource(restaurant.reviewChanges, changes -> execute(executors.writes(restaurantId), restaurant,
+                    api -> reviews.postValue(readReviews(api))));
+            restaurant.reviews = reviews;
+        }
+        return restaurant.reviews;
+    }
+
+    /**
+     * Exposes the number of reviews writes accepted for a restaurant since it was cached, starting
+     * at 0. It changes after each accepted write, whoever made it, without reading any review: it
+     * tells the screens showing pages of reviews when to reload the pages they hold.
+     * @param restaurantId The id of the restaurant.
+     * @return LiveData holding the number of accepted writes.
+     * Expose le nombre d'écritures d'avis acceptées pour un restaurant depuis sa mise en cache, à
+     * partir de 0. Il change après chaque écriture acceptée, quel qu'en soit l'auteur, sans lire
+     * aucun avis : il indique aux écrans affichant des pages d'avis quand recharger celles qu'ils
+     * contiennent.
+     * @param restaurantId L'identifiant du restaurant.
+     * @return LiveData contenant le nombre d'écritures acceptées.
+     */
+    public LiveData<Long> getReviewChanges(long restaurantId){
+        return restaurant(restaurantId).reviewChanges;
+    }
+
+    /**
+     * Fetches one page of the reviews of a restaurant, newest first, via its {@link RestaurantApi}
+     * on a background thread.
+     *<p>
+     * @param restaurantId The id of the restaurant.
+     * @param cursor       The cursor returned with the previous page, or null for the first page.
+     * @param pageSize     The maximum number of reviews in the page.
+     * @return LiveData holding the page of reviews and the cursor of the next one.
+     * Récupère une page des avis d'un restaurant, du plus récent au plus ancien, via son
+     * {@link RestaurantApi} sur un thread d'arrière-plan.
+     * @param restaurantId L'identifiant du restaurant.
+     * @param cursor       Le curseur renvoyé avec la page précédente, ou null pour la première page.
+     * @param pageSize     Le nombre maximal d'avis dans la page.
+     * @return LiveData contenant la page d'avis et le curseur de la suivante.
+     */
+    public LiveData<ReviewPage> getReviewPage(long restaurantId, Long cursor, int pageSize){
+        return getReviewPage(restaurantId, ReviewFilter.ALL, cursor, pageSize);
+    }
+
+    /**
+     * Fetches one page of the reviews of a restaurant passing a filter, in the order of the filter,
+     * via its {@link RestaurantApi} on a background thread.
+     *<p>
+     * @param restaurantId The id of the restaurant.
+     * @param filter       The stars to keep and their order.
+     * @param cursor       The cursor returned with the previous page of the same filter, or null for the first page.
+     * @param pageSize     The maximum number of reviews in the page.
+     * @return LiveData holding the page of reviews and the cursor of the next one.
+     * Récupère une page des avis d'un restaurant passant un filtre, dans l'ordre du filtre, via son
+     * {@link RestaurantApi} sur un thread d'arrière-plan.
+     * @param restaurantId L'identifiant du restaurant.
+     * @param filter       Les étoiles à garder et leur ordre.
+     * @param cursor       Le curseur renvoyé avec la page précédente du même filtre, ou null pour la première page.
+     * @param pageSize     Le nombre maximal d'avis dans la page.
+     * @return LiveData contenant la page d'avis et le curseur de la suivante.
+     */
+    public LiveData<ReviewPage> getReviewPage(long restaurantId, ReviewFilter filter, Long cursor, int pageSize){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        MutableLiveData<ReviewPage> page = new MutableLiveData<>();
+        execute(executors.reads(), restaurant, api -> {
+            long start = System.nanoTime();
+            ReviewPage read = filter.isAll()
+                    ? api.getReviews(cursor, pageSize)
+                    : api.getReviews(filter, cursor, pageSize);
+            GET_REVIEW_PAGE_LATENCY.recordSince(start);
+            page.postValue(read);
+        });
+        return page;
     }
 
-    /** adds a review by calling the addReview method of the restaurantApi API with the comment,
-     * rating, avatar, and userName parameters.
-     * Ajoute un avis en appelant la méthode addReview de l'API restaurantApi avec les paramètres
-     * comment, rating, avatar, et userName.
+    /**
+     * Searches the reviews of a restaurant whose comment contains the words of the query via its
+     * {@link RestaurantApi} on a background thread.
+     *<p>
+     * @param restaurantId The id of the restaurant.
+     * @param query        The words to search, case and accents being ignored; each one may be the start of a word.
+     * @param limit        The maximum number of reviews to return.
+     * @return LiveData holding the matching reviews, the most relevant first.
+     * Recherche les avis d'un restaurant dont le commentaire contient les mots de la requête via
+     * son {@link RestaurantApi} sur un thread d'arrière-plan.
+     * @param restaurantId L'identifiant du restaurant.
+     * @param query        Les mots à rechercher, sans tenir compte de la casse ni des accents ;
+     *                     chacun peut être le début d'un mot.
+     * @param limit        Le nombre maximal d'avis à renvoyer.
+     * @return LiveData contenant les avis trouvés, le plus pertinent en premier.
      */
-    public void addReview(String comment, Integer rating, String avatar, String userName){
-        restaurantApi.addReview (comment, rating, avatar, userName);
+    public LiveData<List<Review>> searchReviews(long restaurantId, String query, int limit){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        MutableLiveData<List<Review>> matches = new MutableLiveData<>();
+        execute(executors.reads(), restaurant, api -> matches.postValue(api.searchReviews(query, limit)));
+        return matches;
     }
 
+    /**
+     * Reads the full comment of a review served with a preview of its comment, via the
+     * {@link RestaurantApi} of its restaurant on a background thread.
+     *<p>
+     * @param restaurantId The id of the restaurant.
+     * @param reviewId     The id of the review.
+     * @return LiveData holding the comment, or null if the review does not exist.
+     * Lit le commentaire complet d'un avis fourni avec un aperçu de son commentaire, via le
+     * {@link RestaurantApi} de son restaurant sur un thread d'arrière-plan.
+     * @param restaurantId L'identifiant du restaurant.
+     * @param reviewId     L'identifiant de l'avis.
+     * @return LiveData contenant le commentaire, ou null si l'avis n'existe pas.
+     */
+    public LiveData<String> getComment(long restaurantId, long reviewId){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        MutableLiveData<String> comment = new MutableLiveData<>();
+        execute(executors.reads(), restaurant, api -> comment.postValue(api.getComment(reviewId)));
+        return comment;
+    }
+
+    /**
+     * Exposes the rating statistics of a restaurant (count, sum and number of reviews per star).
+     * They are read from the API the first time, the statistics are then updated in constant time
+     * by {@link #addReview(long, String, Integer, String, String)}. Both run on the write queue of
+     * the restaurant, so no review can be counted twice or missed.
+     *<p>
+     * @param restaurantId The id of the restaurant.
+     * @return LiveData holding the rating statistics.
+     * Expose les statistiques de notation d'un restaurant (nombre, somme et nombre d'avis par étoile).
+     * Elles sont lues depuis l'API la première fois, les statistiques sont ensuite mises à jour
+     * en temps constant par {@link #addReview(long, String, Integer, String, String)}. Les deux
+     * s'exécutent sur la file d'écriture du restaurant, aucun avis ne peut donc être compté deux
+     * fois ou oublié.
+     * @param restaurantId L'identifiant du restaurant.
+     * @return LiveData contenant les statistiques de notation.
+     */
+    public LiveData<RatingAggregate> getRatingAggregate(long restaurantId){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        if (!restaurant.ratingAggregateRequested) {
+            restaurant.ratingAggregateRequested = true;
+            execute(executors.writes(restaurantId), restaurant, api -> {
+                restaurant.currentAggregate = api.getRatingAggregate();
+                restaurant.ratingAggregate.postValue(restaurant.currentAggregate);
+            });
+        }
+        return restaurant.ratingAggregate;
+    }
+
+    /**
+     * Exposes the recent rating trend of a restaurant: the statistics of the last {@code days} days
+     * and of the days before. The API answers from its statistics by day in constant time, on the
+     * write queue of the restaurant. The trend is read again after each accepted write and each
+     * time the LiveData becomes observed, so a screen shown again after midnight, rotated or
+     * recreated never keeps the trend of a previous day.
+     * @param restaurantId The id of the restaurant.
+     * @param days         The number of days of each period.
+     * @return LiveData holding the trend.
+     * Expose la tendance récente des notes d'un restaurant : les statistiques des {@code days}
+     * derniers jours et des jours précédents. L'API répond à partir de ses statistiques par jour en
+     * temps constant, sur la file d'écriture du restaurant. La tendance est relue après chaque
+     * écriture acceptée et chaque fois que le LiveData devient observé : un écran affiché à nouveau
+     * après minuit, tourné ou recréé ne garde donc jamais la tendance d'un jour précédent.
+     * @param restaurantId L'identifiant du restaurant.
+     * @param days         Le nombre de jours de chaque période.
+     * @return LiveData contenant la tendance.
+     */
+    public LiveData<RatingTrend> getRatingTrend(long restaurantId, int days){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        if (restaurant.ratingTrend == null) {
+            restaurant.ratingTrend = new RatingTrendLiveData(restaurant);
+        }
+        if (restaurant.trendDays != days) {
+            restaurant.trendDays = days;
+            if (restaurant.ratingTrend.hasActiveObservers()) {
+                restaurant.ratingTrend.refresh();
+            }
+        }
+        return restaurant.ratingTrend;
+    }
+
+    /**
+     * Reads the trend of a restaurant, if it has been requested, and posts it. Runs on the write
+     * queue of the restaurant.
+     * Lit la tendance d'un restaurant, si elle a été demandée, et la publie. S'exécute sur la file
+     * d'écriture du restaurant.
+     */
+    private static void postRatingTrend(CachedRestaurant restaurant, RestaurantApi api) {
+        int days = restaurant.trendDays;
+        if (days > 0) {
+            restaurant.ratingTrend.postValue(api.getRatingTrend(System.currentTimeMillis(), days));
+        }
+    }
+
+    /** adds a review to a restaurant by calling the addReview method of its API with the comment,
+     * rating, avatar, and userName parameters on the serial write queue of the restaurant. If the
+     * review is accepted, the rating statistics are updated with its rating, the trend is read again
+     * and the change is posted to {@link #getReviewChanges(long)}.
+     * @return LiveData holding true once the review is added, or false if it was rejected.
+     * Ajoute un avis à un restaurant en appelant la méthode addReview de son API avec les
+     * paramètres comment, rating, avatar, et userName sur la file d'écriture série du restaurant.
+     * Si l'avis est accepté, les statistiques de notation sont mises à jour avec sa note, la
+     * tendance est relue et le changement est publié dans {@link #getReviewChanges(long)}.
+     * @return LiveData contenant true une fois l'avis ajouté, ou false s'il a été refusé.
+     */
+    public LiveData<Boolean> addReview(long restaurantId, String comment, Integer rating, String avatar, String userName){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        MutableLiveData<Boolean> added = new MutableLiveData<>();
+        execute(executors.writes(restaurantId), restaurant, api -> {
+            long start = System.nanoTime();
+            boolean accepted = api.addReview(comment, rating, avatar, userName);
+            ADD_REVIEW_LATENCY.recordSince(start);
+            if (accepted) {
+                applyWrite(restaurant, api, 1, isRating(rating) ? RatingAggregate.EMPTY.plus(rating) : null);
+            } else {
+                REVIEWS_REJECTED.increment();
+            }
+            added.postValue(accepted);
+        });
+        return added;
+    }
+
+    /** Tells whether a rating counts in the aggregate, from one to five stars.
+     * Indique si une note compte dans l'agrégat, d'une à cinq étoiles.
+     */
+    private static boolean isRating(Integer rating) {
+        return rating != null && rating >= RatingAggregate.MIN_STARS && rating <= RatingAggregate.MAX_STARS;
+    }
+
+    /** Returns the aggregate of reviews, or null if one of their ratings is outside one to five stars.
+     * Renvoie l'agrégat d'avis, ou null si l'une de leurs notes est hors d'une à cinq étoiles.
+     */
+    private static RatingAggregate ratingsOf(List<Review> reviews) {
+        for (Review review : reviews) {
+            if (!isRating(review.getRate())) {
+                return null;
+            }
+        }
+        return RatingAggregate.of(reviews);
+    }
+
+    /**
+     * Publishes a write accepted by the API, on the write queue of the restaurant: counts the
+     * reviews added, updates the rating statistics, reads the trend again and posts the change.
+     * @param count   The number of reviews added.
+     * @param written The aggregate of the reviews added, or null if one of their ratings is outside
+     *                one to five stars: such a rating, which the API should have refused, is not
+     *                counted blindly but the aggregate is read again, so the cached one never
+     *                drifts from the API.
+     * Publie une écriture acceptée par l'API, sur la file d'écriture du restaurant : compte les avis
+     * ajoutés, met à jour les statistiques de notation, relit la tendance et publie le changement.
+     * @param count   Le nombre d'avis ajoutés.
+     * @param written L'agrégat des avis ajoutés, ou null si l'une de leurs notes est hors d'une à
+     *                cinq étoiles : une telle note, que l'API aurait dû refuser, n'est pas comptée
+     *                aveuglément mais l'agrégat est relu, afin que celui en cache ne s'écarte
+     *                jamais de l'API.
+     */
+    private static void applyWrite(CachedRestaurant restaurant, RestaurantApi api, int count, RatingAggregate written) {
+        REVIEWS_ADDED.add(count);
+        if (restaurant.currentAggregate != null) {
+            restaurant.currentAggregate = written != null
+                    ? restaurant.currentAggregate.plus(written) : api.getRatingAggregate();
+            restaurant.ratingAggregate.postValue(restaurant.currentAggregate);
+        }
+        postRatingTrend(restaurant, api);
+        restaurant.reviewChanges.postValue(++restaurant.acceptedWrites);
+    }
+
+    /** Adds a batch of reviews to a restaurant, oldest first, by calling the addReviews method of
+     * its API on the serial write queue of the restaurant. The batch is copied first, so the caller
+     * may reuse its collection. If the batch is accepted, the rating statistics are updated with the
+     * aggregate of the batch and a single change is posted, however many reviews the batch holds.
+     * @param restaurantId The id of the restaurant.
+     * @param batch        The reviews to add, oldest first.
+     * @return LiveData holding true once the batch is added, or false if it was rejected.
+     * Ajoute un lot d'avis à un restaurant, du plus ancien au plus récent, en appelant la méthode
+     * addReviews de son API sur la file d'écriture série du restaurant. Le lot est d'abord copié,
+     * l'appelant peut donc réutiliser sa collection. Si le lot est accepté, les statistiques de
+     * notation sont mises à jour avec l'agrégat du lot et un seul changement est publié, quel que
+     * soit le nombre d'avis du lot.
+     * @param restaurantId L'identifiant du restaurant.
+     * @param batch        Les avis à ajouter, du plus ancien au plus récent.
+     * @return LiveData contenant true une fois le lot ajouté, ou false s'il a été refusé.
+     */
+    public LiveData<Boolean> addReviews(long restaurantId, Collection<Review> batch){
+        CachedRestaurant restaurant = restaurant(restaurantId);
+        List<Review> copy = new ArrayList<>(batch);
+        MutableLiveData<Boolean> added = new MutableLiveData<>();
+        execute(executors.writes(restaurantId), restaurant, api -> {
+            long start = System.nanoTime();
+            boolean accepted = api.addReviews(copy);
+            ADD_REVIEW_LATENCY.recordSince(start);
+            if (accepted) {
+                applyWrite(restaurant, api, copy.size(), ratingsOf(copy));
+            } else {
+                REVIEWS_REJECTED.increment();
+            }
+            added.postValue(accepted);
+        });
+        return added;
+    }
+
+    /**
+     * The rating trend of a restaurant, read again each time it becomes observed: the days of the
+     * trend follow the clock, not only the writes.
+     * La tendance des notes d'un restaurant, relue chaque fois qu'elle devient observée : les jours
+     * de la tendance suivent l'horloge, et pas seulement les écritures.
+     */
+    private final class RatingTrendLiveData extends MutableLiveData<RatingTrend> {
+
+        private final CachedRestaurant restaurant;
+
+        RatingTrendLiveData(CachedRestaurant restaurant) {
+            this.restaurant = restaurant;
+        }
+
+        @Override
+        protected void onActive() {
+            refresh();
+        }
+
+        /** Reads the trend on the write queue of the restaurant. Lit la tendance sur la file d'écriture du restaurant. */
+        void refresh() {
+            execute(executors.writes(restaurant.id), restaurant, api -> postRatingTrend(restaurant, api));
+        }
+    }
+
+    /**
+     * The API of a restaurant, opened by its first call and closed once it is retired and no call
+     * retains it. It outlives its cached restaurant while calls submitted before the eviction have
+     * not run, and is used again if the restaurant is cached again before it is closed.
+     * L'API d'un restaurant, ouverte par son premier appel et fermée une fois retirée et retenue par
+     * aucun appel. Elle survit à son restaurant en cache tant que des appels soumis avant l'éviction
+     * n'ont pas été exécutés, et est réutilisée si le restaurant est remis en cache avant sa fermeture.
+     */
+    private final class ApiHandle {
+
+        final long restaurantId;
+
+        /** The fields below are guarded by this handle. Les champs ci-dessous sont protégés par ce descripteur. */
+        private RestaurantApi api;
+
+        /** The number of calls submitted and not run yet. Le nombre d'appels soumis et pas encore exécutés. */
+        private int users;
+
+        private boolean retired;
+
+        private boolean closed;
+
+        ApiHandle(long restaurantId) {
+            this.restaurantId = restaurantId;
+        }
+
+        /** Retains the API for a call, unless it is closed. Retient l'API pour un appel, sauf si elle est fermée. */
+        synchronized boolean retain() {
+            if (closed) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        /**
+         * Returns the API, opening it from the catalog on the first call. It is opened with the
+         * lock of the restaurant held, so after the closing of a previous API of the restaurant.
+         * Renvoie l'API, en l'ouvrant à partir du catalogue au premier appel. Elle est ouverte avec le
+         * verrou du restaurant tenu, donc après la fermeture d'une API précédente du restaurant.
+         */
+        RestaurantApi api() {
+            synchronized (this) {
+                if (api != null) {
+                    return api;
+                }
+            }
+            synchronized (lock(restaurantId)) {
+                synchronized (this) {
+                    if (api == null) {
+                        api = catalog.get().open(restaurantId);
+                    }
+                    return api;
+                }
+            }
+        }
+
+        /** Releases the API after a call, closing it if it is retired and was the last one.
+         * Libère l'API après un appel, en la fermant si elle est retirée et qu'il était le dernier.
+         */
+        void release() {
+            synchronized (this) {
+                users--;
+                if (!retired || users > 0) {
+                    return;
+                }
+            }
+            closeIfUnused();
+        }
+
+        /** Marks the API as retired and schedules its closing on the write queue of the restaurant.
+         * Marque l'API comme retirée et planifie sa fermeture sur la file d'écriture du restaurant.
+         */
+        void retire() {
+            synchronized (this) {
+                retired = true;
+            }
+            executors.writes(restaurantId).execute(this::closeIfUnused);
+        }
+
+        /** Keeps a retired API for the restaurant cached again, unless it is closed.
+         * Garde une API retirée pour le restaurant remis en cache, sauf si elle est fermée.
+         */
+        synchronized boolean revive() {
+            if (closed) {
+                return false;
+            }
+            retired = false;
+            return true;
+        }
+
+        /** Closes the API if it is retired and no call retains it. Ferme l'API si elle est retirée et qu'aucun appel ne la retient. */
+        private void closeIfUnused() {
+            synchronized (lock(restaurantId)) {
+                RestaurantApi opened;
+                synchronized (this) {
+                    if (!retired || users > 0 || closed) {
+                        return;
+                    }
+                    closed = true;
+                    opened = api;
+                }
+                synchronized (restaurants) {
+                    RestaurantRepository.this.retired.remove(restaurantId, this);
+                }
+                if (opened instanceof Closeable) {
+                    try {
+                        ((Closeable) opened).close();
+                    } catch (IOException e) {
+                        Log.w(TAG, "Cannot close the API of restaurant " + restaurantId, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The API and the data of a cached restaurant.
+     * L'API et les données d'un restaurant en cache.
+     */
+    private static final class CachedRestaurant {
+
+        final long id;
+
+        final ApiHandle handle;
+
+        /** The details of the restaurant, loaded once. Les détails du restaurant, chargés une fois. */
+        final MutableLiveData<Restaurant> details = new MutableLiveData<>();
+
+        /** True once the details have been requested, only used on the main thread.
+         * Vrai une fois les détails demandés, utilisé uniquement sur le thread principal.
+         */
+        boolean detailsRequested;
+
+        /** The single stream of the reviews of the restaurant, shared by every observer and reloaded
+         * on the changes observed, created on the main thread when first requested.
+         * L'unique flux des avis du restaurant, partagé par tous les observateurs et rechargé aux
+         * changements observés, créé sur le thread principal lors de la première demande.
+         */
+        MediatorLiveData<List<Review>> reviews;
+
+        /** The number of accepted writes, posted after each of them.
+         * Le nombre d'écritures acceptées, publié après chacune d'elles.
+         */
+        final MutableLiveData<Long> reviewChanges = new MutableLiveData<>(0L);
+
+        /** The number of accepted writes, only read and written on the write queue of the restaurant.
+         * Le nombre d'écritures acceptées, lu et écrit uniquement sur la file d'écriture du restaurant.
+         */
+        long acceptedWrites;
+
+        /** The rating statistics of the restaurant, computed once and then updated on each added review.
+         * Les statistiques de notation du restaurant, calculées une fois puis mises à jour à chaque avis ajouté.
+         */
+        final MutableLiveData<RatingAggregate> ratingAggregate = new MutableLiveData<>();
+
+        /** The latest rating statistics, only read and written on the write queue of the restaurant.
+         * Les dernières statistiques de notation, lues et écrites uniquement sur la file d'écriture du restaurant.
+         */
+        RatingAggregate currentAggregate;
+
+        /** True once the loading of the rating statistics has been requested.
+         * Vrai une fois le chargement des statistiques de notation demandé.
+         */
+        boolean ratingAggregateRequested;
+
+        /** The recent rating trend, read again after each accepted write and when observed again,
+         * created on the main thread when first requested.
+         * La tendance récente des notes, relue après chaque écriture acceptée et lorsqu'elle est à
+         * nouveau observée, créée sur le thread principal lors de la première demande.
+         */
+        RatingTrendLiveData ratingTrend;
+
+        /** The number of days of the requested trend, or 0 if none was requested. Written on the
+         * main thread, read by the write queue.
+         * Le nombre de jours de la tendance demandée, ou 0 si aucune n'a été demandée. Écrit sur le
+         * thread principal, lu par la file d'écriture.
+         */
+        volatile int trendDays;
+
+        CachedRestaurant(long id, ApiHandle handle) {
+            this.id = id;
+            this.handle = handle;
+        }
+    }
 }
@@ -1,13 +1,29 @@
 package com.openclassrooms.tajmahal.di;
 
-import com.openclassrooms.tajmahal.data.service.RestaurantApi;
+import android.content.Context;
+
+import com.openclassrooms.tajmahal.BuildConfig;
+import com.openclassrooms.tajmahal.data.executor.AppExecutors;
+import com.openclassrooms.tajmahal.data.local.RestaurantDatabaseApi;
+import com.openclassrooms.tajmahal.data.local.RestaurantDatabaseHelper;
+import com.openclassrooms.tajmahal.data.service.JournaledRestaurantApi;
+import com.openclassrooms.tajmahal.data.service.RestaurantCatalog;
 import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.data.service.RestaurantSnapshotApi;
+import com.openclassrooms.tajmahal.data.service.SyntheticDataGenerator;
+import com.openclassrooms.tajmahal.data.service.SyntheticRestaurantApi;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.ReviewUtils;
+
+import java.io.File;
+import java.util.Locale;
 
 import javax.inject.Singleton;
 
 import dagger.Module;
 import dagger.Provides;
 import dagger.hilt.InstallIn;
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import dagger.hilt.components.SingletonComponent;
 
 /**
@@ -24,18 +40,142 @@ import dagger.hilt.components.SingletonComponent;
 @InstallIn(SingletonComponent.class)
 public class AppModule {
 
+    /** Value of {@code BuildConfig.RESTAURANT_API} selecting the in-memory fake API.
+     * Valeur de {@code BuildConfig.RESTAURANT_API} sélectionnant la fausse API en mémoire.
+     */
+    static final String API_FAKE = "fake";
+
+    /** Value of {@code BuildConfig.RESTAURANT_API} selecting the SQLite database.
+     * Valeur de {@code BuildConfig.RESTAURANT_API} sélectionnant la base de données SQLite.
+     */
+    static final String API_DATABASE = "database";
+
+    /** Value of {@code BuildConfig.RESTAURANT_API} selecting the memory-mapped review snapshot.
+     * Valeur de {@code BuildConfig.RESTAURANT_API} sélectionnant l'instantané d'avis projeté en mémoire.
+     */
+    static final String API_SNAPSHOT = "snapshot";
+
+    /** Value of {@code BuildConfig.RESTAURANT_API} selecting the reviews generated for load tests.
+     * Valeur de {@code BuildConfig.RESTAURANT_API} sélectionnant les avis générés pour les tests de charge.
+     */
+    static final String API_LOAD_TEST = "loadtest";
+
+    /** The number of reviews generated for each restaurant in load test mode: about 35 MB of
+     * columns, which leaves room in the default heap of most devices for a few cached restaurants.
+     * Le nombre d'avis générés pour chaque restaurant en mode test de charge : environ 35 Mo de
+     * colonnes, ce qui laisse de la place dans le tas par défaut de la plupart des appareils pour
+     * quelques restaurants en cache.
+     */
+    static final int LOAD_TEST_REVIEWS = 250_000;
+
+    /** The file of the review snapshot of a restaurant, in the files directory, formatted with its id.
+     * Le fichier de l'instantané d'avis d'un restaurant, dans le répertoire de fichiers, formaté avec son identifiant.
+     */
+    static final String REVIEW_SNAPSHOT_FILE = "reviews-%d.snapshot";
+
+    /** The file of the write-ahead log of a restaurant, in the files directory, formatted with its id.
+     * Le fichier du journal d'écriture anticipée d'un restaurant, dans le répertoire de fichiers, formaté avec son identifiant.
+     */
+    static final String REVIEW_LOG_FILE = "reviews-%d.wal";
+
+    /** The files of the snapshot and of the log before the data was kept per restaurant, which
+     * hold the reviews of the Taj Mahal.
+     * Les fichiers de l'instantané et du journal d'avant la conservation des données par
+     * restaurant, qui contiennent les avis du Taj Mahal.
+     */
+    static final String LEGACY_REVIEW_SNAPSHOT_FILE = "reviews.snapshot";
+    static final String LEGACY_REVIEW_LOG_FILE = "reviews.wal";
+
+    /**
+     * Provides the catalog giving the RestaurantApi of each restaurant. The implementation is
+     * selected by the {@code RESTAURANT_API} build config field: a fake in-memory implementation,
+     * which can be helpful during testing or mock scenarios, or a SQLite database keeping the
+     * reviews across restarts, or a binary snapshot mapped in memory and read lazily, for a fast
+     * start with a large number of reviews, or a large number of reviews generated from a fixed
+     * seed, for reproducible load tests. The reviews written to the fake and snapshot
+     * implementations are kept in a write-ahead log per restaurant, so they are replayed after a
+     * restart too, or when a restaurant evicted by the repository is opened again. The database and
+     * the snapshot serve pages with only a preview of the long comments, the full comment being
+     * read when the user expands it. Only the Taj Mahal is seeded with the hard-coded reviews, the
+     * other restaurants start empty, and the files written before the data was kept per restaurant
+     * are renamed to those of the Taj Mahal when it is first opened. The repository opens the
+     * restaurants on its executors, so the files directory is never read on the main thread.
+     * @return A singleton instance of the selected catalog.
+     * Fournit le catalogue donnant le RestaurantApi de chaque restaurant. L'implémentation est
+     * choisie par le champ de configuration {@code RESTAURANT_API} : une fausse implémentation en
+     * mémoire, utile lors de tests ou de scénarios fictifs, ou une base de données SQLite qui
+     * conserve les avis entre les redémarrages, ou un instantané binaire projeté en mémoire et lu à
+     * la demande, pour un démarrage rapide avec un grand nombre d'avis, ou un grand nombre d'avis
+     * générés à partir d'une graine fixe, pour des tests de charge reproductibles. Les avis écrits
+     * dans les implémentations fausse et instantané sont conservés dans un journal d'écriture
+     * anticipée par restaurant, ils sont donc eux aussi rejoués après un redémarrage, ou lorsqu'un restaurant
+     * évincé par le référentiel est rouvert. La base de données et l'instantané fournissent des
+     * pages avec seulement un aperçu des longs commentaires, le commentaire complet étant lu
+     * lorsque l'utilisateur le déplie. Seul le Taj Mahal est amorcé avec les avis codés en dur, les
+     * autres restaurants commencent vides, et les fichiers écrits avant la conservation des données
+     * par restaurant sont renommés en ceux du Taj Mahal lors de sa première ouverture. Le
+     * référentiel ouvre les restaurants sur ses exécuteurs, le répertoire de fichiers n'est donc
+     * jamais lu sur le thread principal.
+     */
+    @Provides
+    @Singleton
+    public RestaurantCatalog provideRestaurantCatalog(@ApplicationContext Context context) {
+        if (API_DATABASE.equals(BuildConfig.RESTAURANT_API)) {
+            RestaurantDatabaseHelper helper = new RestaurantDatabaseHelper(context);
+            return restaurantId -> new RestaurantDatabaseApi(helper, restaurantId, ReviewUtils.COMMENT_PREVIEW_LENGTH);
+        }
+        if (API_SNAPSHOT.equals(BuildConfig.RESTAURANT_API)) {
+            return restaurantId -> new JournaledRestaurantApi(
+                    new RestaurantSnapshotApi(file(context, REVIEW_SNAPSHOT_FILE, LEGACY_REVIEW_SNAPSHOT_FILE, restaurantId),
+                            seed(restaurantId), ReviewUtils.COMMENT_PREVIEW_LENGTH),
+                    file(context, REVIEW_LOG_FILE, LEGACY_REVIEW_LOG_FILE, restaurantId));
+        }
+        if (API_LOAD_TEST.equals(BuildConfig.RESTAURANT_API)) {
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(SyntheticDataGenerator.DEFAULT_SEED, System.currentTimeMillis());
+            return restaurantId -> new SyntheticRestaurantApi(generator, restaurantId, LOAD_TEST_REVIEWS);
+        }
+        return restaurantId -> new JournaledRestaurantApi(seed(restaurantId),
+                file(context, REVIEW_LOG_FILE, LEGACY_REVIEW_LOG_FILE, restaurantId));
+    }
+
+    /**
+     * Returns the hard-coded data for the Taj Mahal, and an unknown restaurant without any review
+     * for the other ids.
+     * Renvoie les données codées en dur pour le Taj Mahal, et un restaurant inconnu sans aucun avis
+     * pour les autres identifiants.
+     */
+    static RestaurantFakeApi seed(long restaurantId) {
+        return restaurantId == Restaurant.TAJ_MAHAL_ID ? new RestaurantFakeApi() : new RestaurantFakeApi((Restaurant) null);
+    }
+
+    /**
+     * Returns the file of a restaurant in the files directory. For the Taj Mahal, the file written
+     * before the data was kept per restaurant is renamed first, or read in place if it cannot be.
+     * Renvoie le fichier d'un restaurant dans le répertoire de fichiers. Pour le Taj Mahal, le
+     * fichier écrit avant la conservation des données par restaurant est d'abord renommé, ou lu sur
+     * place s'il ne peut pas l'être.
+     */
+    private static File file(Context context, String format, String legacyName, long restaurantId) {
+        File file = new File(context.getFilesDir(), String.format(Locale.ROOT, format, restaurantId));
+        if (restaurantId == Restaurant.TAJ_MAHAL_ID && !file.exists()) {
+            File legacy = new File(context.getFilesDir(), legacyName);
+            if (legacy.exists() && !legacy.renameTo(file)) {
+                return legacy;
+            }
+        }
+        return file;
+    }
+
     /**
-     * Provides a singleton instance of the RestaurantApi. In this example,
-     * a fake implementation of the API is being used, which can be helpful
-     * during testing or mock scenarios.
-     * @return A singleton instance of the RestaurantFakeApi.
-     * Fournit une instance singleton de RestaurantApi (Design Pattern de création qui garantit que
-     * l'instance d'une classe n'existe qu'en un seul exemplaire). Dans cet exemple, une fausse
-     * implémentation de l'API est utilisée, ce qui peut être utile lors de tests ou de scénarios fictifs.
+     * Provides the executors on which the repository calls the RestaurantApi: a pool of threads
+     * for the reads and a single thread for the writes.
+     * @return A singleton instance of AppExecutors.
+     * Fournit les exécuteurs sur lesquels le référentiel appelle RestaurantApi : un groupe de
+     * threads pour les lectures et un thread unique pour les écritures.
      */
     @Provides
     @Singleton
-    public RestaurantApi provideRestaurantApi() {
-        return new RestaurantFakeApi();
+    public AppExecutors provideAppExecutors() {
+        return new AppExecutors();
     }
 }
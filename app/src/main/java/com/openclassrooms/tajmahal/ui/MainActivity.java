@@ -2,9 +2,12 @@ package com.openclassrooms.tajmahal.ui;
 
 import androidx.appcompat.app.AppCompatActivity;
 import android.os.Bundle;
+import android.view.Choreographer;
 import android.view.View;
 
+import com.openclassrooms.tajmahal.BuildConfig;
 import com.openclassrooms.tajmahal.R;
+import com.openclassrooms.tajmahal.TajMahalApplication;
 import com.openclassrooms.tajmahal.databinding.ActivityMainBinding;
 import com.openclassrooms.tajmahal.ui.restaurant.DetailsFragment;
 
@@ -35,6 +38,21 @@ public class MainActivity extends AppCompatActivity {
                     .replace(R.id.container, DetailsFragment.newInstance())
                     .commitNow();
         }
+        // The frame callback runs at the start of the first frame, the posted task once it is drawn.
+        // Le rappel d'image s'exécute au début de la première image, la tâche postée une fois celle-ci dessinée.
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos ->
+                view.post(((TajMahalApplication) getApplication())::onFirstFrame));
     }
 
-}
\ No newline at end of file
+    /**
+     * In debug builds, writes the metrics of the application each time it leaves the screen.
+     * Dans les versions de débogage, écrit les métriques de l'application chaque fois qu'elle quitte l'écran.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (BuildConfig.DEBUG) {
+            ((TajMahalApplication) getApplication()).dumpMetrics();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.openclassrooms.tajmahal.ui.image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts where the images loaded by Glide come from, to measure the hit rate of its caches.
+ * <p>
+ * It is registered as a global request listener by {@link TajMahalGlideModule}, so every request
+ * is counted, including the preloads. A request served by the memory cache or by one of the disk
+ * caches is a hit, a request that had to fetch the image ({@link DataSource#REMOTE} or
+ * {@link DataSource#LOCAL}) is a miss.
+ *<p>
+ * * Compte la provenance des images chargées par Glide, afin de mesurer le taux de réussite de ses caches.
+ * <p>
+ * Il est enregistré comme écouteur global des requêtes par {@link TajMahalGlideModule}, chaque
+ * requête est donc comptée, y compris les préchargements. Une requête servie par le cache mémoire
+ * ou par l'un des caches disque est une réussite, une requête qui a dû récupérer l'image
+ * ({@link DataSource#REMOTE} ou {@link DataSource#LOCAL}) est un échec.
+ */
+public final class AvatarCacheStats implements RequestListener<Object> {
+
+    private static final AvatarCacheStats INSTANCE = new AvatarCacheStats();
+
+    /** The number of loads per {@link DataSource}, indexed by its ordinal.
+     * Le nombre de chargements par {@link DataSource}, indexé par son ordinal.
+     */
+    private final AtomicLongArray loads = new AtomicLongArray(DataSource.values().length);
+
+    AvatarCacheStats() {
+    }
+
+    /** Returns the statistics of the application. Renvoie les statistiques de l'application. */
+    public static AvatarCacheStats getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean onLoadFailed(@Nullable GlideException e, @Nullable Object model,
+                                @NonNull Target<Object> target, boolean isFirstResource) {
+        return false;
+    }
+
+    @Override
+    public boolean onResourceReady(@NonNull Object resource, @NonNull Object model, Target<Object> target,
+                                   @NonNull DataSource dataSource, boolean isFirstResource) {
+        record(dataSource);
+        return false;
+    }
+
+    /** Records one load from the given source. Enregistre un chargement depuis la source donnée. */
+    void record(DataSource dataSource) {
+        loads.incrementAndGet(dataSource.ordinal());
+    }
+
+    /** Returns the number of loads from the given source. Renvoie le nombre de chargements depuis la source donnée. */
+    public long getLoads(DataSource dataSource) {
+        return loads.get(dataSource.ordinal());
+    }
+
+    /**
+     * Returns the share of the loads served by a cache, between 0 and 1, or 0 if nothing was loaded.
+     * Renvoie la part des chargements servis par un cache, entre 0 et 1, ou 0 si rien n'a été chargé.
+     */
+    public double getHitRate() {
+        long hits = getLoads(DataSource.MEMORY_CACHE) + getLoads(DataSource.RESOURCE_DISK_CACHE)
+                + getLoads(DataSource.DATA_DISK_CACHE);
+        long total = hits + getLoads(DataSource.REMOTE) + getLoads(DataSource.LOCAL);
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /** Resets every counter, for example before a measurement. Remet tous les compteurs à zéro, par exemple avant une mesure. */
+    public void reset() {
+        for (int i = 0; i < loads.length(); i++) {
+            loads.set(i, 0L);
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("AvatarCacheStats{");
+        for (DataSource dataSource : DataSource.values()) {
+            builder.append(dataSource).append('=').append(getLoads(dataSource)).append(", ");
+        }
+        return builder.append("hitRate=").append(getHitRate()).append('}').toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.openclassrooms.tajmahal.ui.image;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.openclassrooms.tajmahal.R;
+
+/**
+ * Builds the Glide requests of the avatars.
+ * <p>
+ * Every avatar is decoded at the size of its view, {@code R.dimen.avatar_size}, instead of the size
+ * of the downloaded picture. The bitmaps kept in memory are therefore small, and the displayed
+ * avatars and the preloaded ones share the same cache key, since Glide includes the target size and
+ * the transformations in it.
+ *<p>
+ * * Construit les requêtes Glide des avatars.
+ * <p>
+ * Chaque avatar est décodé à la taille de sa vue, {@code R.dimen.avatar_size}, au lieu de la taille
+ * de l'image téléchargée. Les bitmaps conservés en mémoire sont donc petits, et les avatars affichés
+ * et préchargés partagent la même clé de cache, puisque Glide y inclut la taille cible et les
+ * transformations.
+ */
+public final class AvatarRequests {
+
+    private AvatarRequests() {
+    }
+
+    /** Returns the size of an avatar, in pixels. Renvoie la taille d'un avatar, en pixels. */
+    public static int getAvatarSize(Context context) {
+        return context.getResources().getDimensionPixelSize(R.dimen.avatar_size);
+    }
+
+    /**
+     * Builds the request of an avatar, downsampled to {@code size} pixels and cropped to fill it.
+     * @param requestManager The request manager of the screen.
+     * @param url            The URL of the avatar.
+     * @param size           The size of the avatar, in pixels, see {@link #getAvatarSize(Context)}.
+     * Construit la requête d'un avatar, sous-échantillonné à {@code size} pixels et recadré pour le remplir.
+     * @param requestManager Le gestionnaire de requêtes de l'écran.
+     * @param url            L'URL de l'avatar.
+     * @param size           La taille de l'avatar, en pixels, voir {@link #getAvatarSize(Context)}.
+     */
+    public static RequestBuilder<Drawable> avatar(RequestManager requestManager, String url, int size) {
+        return requestManager.load(url)
+                .override(size)
+                .centerCrop();
+    }
+}
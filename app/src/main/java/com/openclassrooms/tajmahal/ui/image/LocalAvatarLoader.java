@@ -0,0 +1,199 @@
+package com.openclassrooms.tajmahal.ui.image;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the HTTP avatar server, used when {@code BuildConfig.AVATAR_SOURCE} is
+ * {@value TajMahalGlideModule#AVATAR_SOURCE_LOCAL}, so that the image pipeline and its cache hit
+ * rates can be measured offline and without the variability of the network.
+ * <p>
+ * Each URL is served from a file of the application's files directory. The first time a URL is
+ * requested, its file is generated: a JPEG picture of {@value #PICTURE_SIZE} pixels, larger than an
+ * avatar view like the real ones, filled with a colour derived from the URL. The fetcher reports its
+ * data as {@link DataSource#REMOTE}, so Glide caches it exactly like a downloaded picture, and counts
+ * every fetch, which is every miss of the caches.
+ *<p>
+ * * Remplaçant du serveur HTTP des avatars, utilisé lorsque {@code BuildConfig.AVATAR_SOURCE} vaut
+ * {@value TajMahalGlideModule#AVATAR_SOURCE_LOCAL}, afin de pouvoir mesurer la chaîne de chargement
+ * des images et les taux de réussite de ses caches hors ligne et sans la variabilité du réseau.
+ * <p>
+ * Chaque URL est servie depuis un fichier du répertoire de fichiers de l'application. La première
+ * fois qu'une URL est demandée, son fichier est généré : une image JPEG de {@value #PICTURE_SIZE}
+ * pixels, plus grande qu'une vue d'avatar comme les vraies, remplie d'une couleur dérivée de l'URL.
+ * Le récupérateur déclare ses données comme {@link DataSource#REMOTE}, Glide les met donc en cache
+ * exactement comme une image téléchargée, et compte chaque récupération, c'est-à-dire chaque échec
+ * des caches.
+ */
+public final class LocalAvatarLoader implements ModelLoader<GlideUrl, InputStream> {
+
+    /** The size of the generated pictures, in pixels. La taille des images générées, en pixels. */
+    static final int PICTURE_SIZE = 512;
+
+    private static final String DIRECTORY = "avatars";
+
+    private static final AtomicLong FETCH_COUNT = new AtomicLong();
+
+    private final File directory;
+
+    LocalAvatarLoader(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the number of pictures fetched since the start of the process, that is the number of
+     * requests no cache could serve.
+     * Renvoie le nombre d'images récupérées depuis le démarrage du processus, c'est-à-dire le nombre
+     * de requêtes qu'aucun cache n'a pu servir.
+     */
+    public static long getFetchCount() {
+        return FETCH_COUNT.get();
+    }
+
+    @Nullable
+    @Override
+    public LoadData<InputStream> buildLoadData(@NonNull GlideUrl model, int width, int height, @NonNull Options options) {
+        return new LoadData<>(model, new Fetcher(directory, model.toStringUrl()));
+    }
+
+    @Override
+    public boolean handles(@NonNull GlideUrl model) {
+        return true;
+    }
+
+    /**
+     * Creates the loader, replacing the HTTP loader of Glide for {@link GlideUrl}.
+     * Crée le chargeur, qui remplace le chargeur HTTP de Glide pour les {@link GlideUrl}.
+     */
+    static final class Factory implements ModelLoaderFactory<GlideUrl, InputStream> {
+
+        private final File directory;
+
+        Factory(Context context) {
+            directory = new File(context.getFilesDir(), DIRECTORY);
+        }
+
+        @NonNull
+        @Override
+        public ModelLoader<GlideUrl, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new LocalAvatarLoader(directory);
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+
+    /**
+     * Opens the file of a URL, generating it first if needed.
+     * Ouvre le fichier d'une URL, en le générant d'abord si nécessaire.
+     */
+    private static final class Fetcher implements DataFetcher<InputStream> {
+
+        private final File directory;
+        private final String url;
+        private InputStream stream;
+
+        Fetcher(File directory, String url) {
+            this.directory = directory;
+            this.url = url;
+        }
+
+        @Override
+        public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super InputStream> callback) {
+            FETCH_COUNT.incrementAndGet();
+            try {
+                File file = new File(directory, Integer.toHexString(url.hashCode()) + ".jpg");
+                if (!file.exists()) {
+                    generate(file);
+                }
+                stream = new FileInputStream(file);
+                callback.onDataReady(stream);
+            } catch (IOException e) {
+                callback.onLoadFailed(e);
+            }
+        }
+
+        /**
+         * Writes the picture of the URL to a temporary file, then renames it, so that a concurrent
+         * fetch of the same URL never reads a partial file.
+         * Écrit l'image de l'URL dans un fichier temporaire, puis le renomme, afin qu'une
+         * récupération concurrente de la même URL ne lise jamais un fichier partiel.
+         */
+        private void generate(File file) throws IOException {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            int hash = url.hashCode();
+            Bitmap bitmap = Bitmap.createBitmap(PICTURE_SIZE, PICTURE_SIZE, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            canvas.drawColor(Color.rgb(hash & 0xFF, (hash >> 8) & 0xFF, (hash >> 16) & 0xFF));
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColor(Color.WHITE);
+            canvas.drawCircle(PICTURE_SIZE / 2f, PICTURE_SIZE * 0.4f, PICTURE_SIZE * 0.2f, paint);
+            canvas.drawCircle(PICTURE_SIZE / 2f, PICTURE_SIZE * 1.05f, PICTURE_SIZE * 0.45f, paint);
+            File temporary = File.createTempFile("avatar", ".tmp", directory);
+            try (OutputStream output = new FileOutputStream(temporary)) {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, 90, output);
+            } finally {
+                bitmap.recycle();
+            }
+            if (!temporary.renameTo(file)) {
+                temporary.delete();
+                if (!file.exists()) {
+                    throw new IOException("Cannot write " + file);
+                }
+            }
+        }
+
+        @Override
+        public void cleanup() {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                    // Nothing to do, the data has been read. Rien à faire, les données ont été lues.
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @NonNull
+        @Override
+        public Class<InputStream> getDataClass() {
+            return InputStream.class;
+        }
+
+        @NonNull
+        @Override
+        public DataSource getDataSource() {
+            return DataSource.REMOTE;
+        }
+    }
+}
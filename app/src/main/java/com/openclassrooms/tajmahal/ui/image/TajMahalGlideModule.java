@@ -0,0 +1,94 @@
+package com.openclassrooms.tajmahal.ui.image;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+import com.openclassrooms.tajmahal.BuildConfig;
+
+import java.io.InputStream;
+
+/**
+ * Configures Glide for the application.
+ * <p>
+ * The memory cache and the bitmap pool are sized in screens of pixels, which is enough for the few
+ * avatars of the list since they are decoded at the size of their view (see {@link AvatarRequests}),
+ * and the disk cache of the pictures is bounded to {@value #DISK_CACHE_SIZE_BYTES} bytes. Avatars
+ * have no transparency, so they are decoded as RGB_565, which halves their memory. Every load is
+ * counted by {@link AvatarCacheStats}, and the pictures are read from {@link LocalAvatarLoader}
+ * instead of the network when {@code BuildConfig.AVATAR_SOURCE} is {@value #AVATAR_SOURCE_LOCAL}.
+ *<p>
+ * * Configure Glide pour l'application.
+ * <p>
+ * Le cache mémoire et le réservoir de bitmaps sont dimensionnés en écrans de pixels, ce qui suffit
+ * pour les quelques avatars de la liste puisqu'ils sont décodés à la taille de leur vue (voir
+ * {@link AvatarRequests}), et le cache disque des images est limité à {@value #DISK_CACHE_SIZE_BYTES}
+ * octets. Les avatars n'ont pas de transparence, ils sont donc décodés en RGB_565, ce qui divise leur
+ * mémoire par deux. Chaque chargement est compté par {@link AvatarCacheStats}, et les images sont
+ * lues depuis {@link LocalAvatarLoader} au lieu du réseau lorsque {@code BuildConfig.AVATAR_SOURCE}
+ * vaut {@value #AVATAR_SOURCE_LOCAL}.
+ */
+@GlideModule
+public final class TajMahalGlideModule extends AppGlideModule {
+
+    /** Value of {@code BuildConfig.AVATAR_SOURCE} loading the avatars from their URL.
+     * Valeur de {@code BuildConfig.AVATAR_SOURCE} chargeant les avatars depuis leur URL.
+     */
+    static final String AVATAR_SOURCE_NETWORK = "network";
+
+    /** Value of {@code BuildConfig.AVATAR_SOURCE} loading the avatars from {@link LocalAvatarLoader}.
+     * Valeur de {@code BuildConfig.AVATAR_SOURCE} chargeant les avatars depuis {@link LocalAvatarLoader}.
+     */
+    static final String AVATAR_SOURCE_LOCAL = "local";
+
+    /** The number of screens of pixels kept in the memory cache. Le nombre d'écrans de pixels gardés dans le cache mémoire. */
+    private static final float MEMORY_CACHE_SCREENS = 2f;
+
+    /** The number of screens of pixels kept in the bitmap pool. Le nombre d'écrans de pixels gardés dans le réservoir de bitmaps. */
+    private static final float BITMAP_POOL_SCREENS = 3f;
+
+    /** The maximum size of the disk cache. La taille maximale du cache disque. */
+    private static final long DISK_CACHE_SIZE_BYTES = 20L * 1024 * 1024;
+
+    private static final String DISK_CACHE_NAME = "images";
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME, DISK_CACHE_SIZE_BYTES));
+        builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+        builder.addGlobalRequestListener(AvatarCacheStats.getInstance());
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        if (AVATAR_SOURCE_LOCAL.equals(BuildConfig.AVATAR_SOURCE)) {
+            registry.replace(GlideUrl.class, InputStream.class, new LocalAvatarLoader.Factory(context));
+        }
+    }
+
+    /** Every Glide module of the application is declared with the annotation, not in the manifest.
+     * Chaque module Glide de l'application est déclaré avec l'annotation, pas dans le manifeste.
+     */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
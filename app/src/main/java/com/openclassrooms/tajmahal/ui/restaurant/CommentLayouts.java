@@ -0,0 +1,222 @@
+package com.openclassrooms.tajmahal.ui.restaurant;
+
+import android.util.LruCache;
+import android.widget.TextView;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import com.openclassrooms.tajmahal.data.metrics.Counter;
+import com.openclassrooms.tajmahal.data.metrics.MetricsRegistry;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+/**
+ * Computes the text layout of the review comments off the main thread and keeps it by review id.
+ * <p>
+ * Measuring and breaking a long comment into lines is the most expensive part of binding a row.
+ * {@link #precompute(List, int, int)} computes the {@link PrecomputedTextCompat} of the comments
+ * of the rows about to be shown on a background executor, as pages are loaded and as the list is
+ * scrolled, so that {@link #bind(TextView, long, String)} only attaches a ready layout to the
+ * view. The text of a row is the one shown for its review, the preview of a long comment or the
+ * full comment once expanded, so the full comment is only laid out when it is shown. A comment
+ * bound before its layout is ready is set as plain text: waiting for it at measure time would block
+ * the main thread behind every layout queued before it. The layouts that will not be shown are
+ * cancelled before they run, those evicted from the cache and those of the rows scrolled past, so
+ * that the executor only works for the rows about to be shown.
+ * <p>
+ * The layouts depend on the style of the comment view: they are computed with the parameters of
+ * the first view given to {@link #setParams(TextView)}, every row sharing the same style. The
+ * cache is bounded and its methods are called on the main thread.
+ *<p>
+ * * Calcule la mise en page du texte des commentaires hors du thread principal et la conserve par
+ * identifiant d'avis.
+ * <p>
+ * Mesurer un long commentaire et le découper en lignes est la partie la plus coûteuse de la liaison
+ * d'une ligne. {@link #precompute(List, int, int)} calcule le {@link PrecomputedTextCompat} des
+ * commentaires des lignes sur le point d'être affichées sur un exécuteur d'arrière-plan, au fil du
+ * chargement des pages et du défilement de la liste, afin que {@link #bind(TextView, long, String)}
+ * ne fasse qu'attacher une mise en page prête à la vue. Le texte d'une ligne est celui affiché pour
+ * son avis, l'aperçu d'un long commentaire ou le commentaire complet une fois déplié, le
+ * commentaire complet n'est donc mis en page que lorsqu'il est affiché. Un commentaire lié avant
+ * que sa mise en page ne soit prête est affiché en texte simple : l'attendre au moment de la mesure
+ * bloquerait le thread principal derrière toutes les mises en page en attente avant elle. Les mises
+ * en page qui ne seront pas affichées sont annulées avant leur exécution, celles évincées du cache
+ * et celles des lignes dépassées par le défilement, afin que l'exécuteur ne travaille que pour les
+ * lignes sur le point d'être affichées.
+ * <p>
+ * Les mises en page dépendent du style de la vue du commentaire : elles sont calculées avec les
+ * paramètres de la première vue donnée à {@link #setParams(TextView)}, toutes les lignes partageant
+ * le même style. Le cache est borné et ses méthodes sont appelées sur le thread principal.
+ */
+class CommentLayouts {
+
+    private static final Counter MISSES = MetricsRegistry.getInstance().counter(
+            "tajmahal_ui_comment_layout_misses_total",
+            "Review comments bound before their text layout was computed.");
+
+    /** A layout and the text it was computed for. Une mise en page et le texte pour lequel elle a été calculée. */
+    private static final class Entry {
+        final String text;
+        final Future<PrecomputedTextCompat> layout;
+
+        Entry(String text, Future<PrecomputedTextCompat> layout) {
+            this.text = text;
+            this.layout = layout;
+        }
+    }
+
+    private final Executor executor;
+
+    /** Gives the text shown for a review. Donne le texte affiché pour un avis. */
+    private final Function<Review, String> shownText;
+
+    /** The layouts by review id, computed or being computed. Les mises en page par identifiant d'avis, calculées ou en cours de calcul. */
+    private final LruCache<Long, Entry> layouts;
+
+    /** The ids of the reviews whose layouts were requested last. Les identifiants des avis dont les mises en page ont été demandées en dernier. */
+    private Set<Long> requested = new HashSet<>();
+
+    @Nullable
+    private PrecomputedTextCompat.Params params;
+
+    /**
+     * @param executor  The executor computing the layouts.
+     * @param shownText Gives the text shown for a review, called on the main thread.
+     * @param capacity  The maximum number of layouts kept.
+     * @param executor  L'exécuteur calculant les mises en page.
+     * @param shownText Donne le texte affiché pour un avis, appelée sur le thread principal.
+     * @param capacity  Le nombre maximal de mises en page conservées.
+     */
+    CommentLayouts(Executor executor, Function<Review, String> shownText, int capacity) {
+        this.executor = executor;
+        this.shownText = shownText;
+        this.layouts = new LruCache<Long, Entry>(capacity) {
+            @Override
+            protected void entryRemoved(boolean evicted, Long reviewId, Entry oldEntry, Entry newEntry) {
+                // A layout evicted or replaced before it ran will never be shown.
+                // Une mise en page évincée ou remplacée avant son exécution ne sera jamais affichée.
+                if (oldEntry != newEntry) {
+                    oldEntry.layout.cancel(false);
+                }
+            }
+        };
+    }
+
+    /**
+     * Takes the text parameters of the comment views from the first one, and returns true if they
+     * were not known yet.
+     * Prend les paramètres de texte des vues de commentaire de la première d'entre elles, et renvoie
+     * vrai s'ils n'étaient pas encore connus.
+     */
+    @MainThread
+    boolean setParams(TextView commentView) {
+        if (params != null) {
+            return false;
+        }
+        params = TextViewCompat.getTextMetricsParams(commentView);
+        return true;
+    }
+
+    /**
+     * Starts computing the layouts of the texts shown for {@code count} reviews from {@code from},
+     * for those not already cached, and cancels the layouts requested before for other reviews that
+     * have not started. Does nothing until the text parameters are known.
+     * Commence à calculer les mises en page des textes affichés pour {@code count} avis à partir de
+     * {@code from}, pour ceux qui ne sont pas déjà en cache, et annule les mises en page demandées
+     * auparavant pour d'autres avis qui n'ont pas commencé. Ne fait rien tant que les paramètres de
+     * texte ne sont pas connus.
+     */
+    @MainThread
+    void precompute(List<Review> reviews, int from, int count) {
+        if (params == null) {
+            return;
+        }
+        Set<Long> previous = requested;
+        requested = new HashSet<>();
+        int to = Math.min(reviews.size(), from + count);
+        for (int i = Math.max(0, from); i < to; i++) {
+            Review review = reviews.get(i);
+            String text = shownText.apply(review);
+            if (text != null) {
+                layoutOf(review.getId(), text);
+                requested.add(review.getId());
+            }
+        }
+        previous.removeAll(requested);
+        for (Long reviewId : previous) {
+            Entry entry = layouts.get(reviewId);
+            if (entry != null && !entry.layout.isDone()) {
+                layouts.remove(reviewId);
+            }
+        }
+    }
+
+    /**
+     * Sets the text shown for a review on its view, with its precomputed layout if it is ready, or
+     * as plain text otherwise.
+     * @param commentView The view of the comment.
+     * @param reviewId    The identifier of the review.
+     * @param text        The text shown, the comment or its preview.
+     * Affiche le texte d'un avis dans sa vue, avec sa mise en page précalculée si elle est prête, ou
+     * en texte simple sinon.
+     * @param commentView La vue du commentaire.
+     * @param reviewId    L'identifiant de l'avis.
+     * @param text        Le texte affiché, le commentaire ou son aperçu.
+     */
+    @MainThread
+    void bind(TextView commentView, long reviewId, String text) {
+        if (params == null || text == null) {
+            commentView.setText(text);
+            return;
+        }
+        Future<PrecomputedTextCompat> layout = layoutOf(reviewId, text);
+        if (layout.isDone()) {
+            PrecomputedTextCompat precomputed = getDone(layout);
+            if (precomputed != null) {
+                TextViewCompat.setPrecomputedText(commentView, precomputed);
+                return;
+            }
+        }
+        MISSES.increment();
+        commentView.setText(text);
+    }
+
+    /**
+     * Returns the layout of the text of a review, submitting its computation if it is not cached.
+     * Renvoie la mise en page du texte d'un avis, en soumettant son calcul s'il n'est pas en cache.
+     */
+    private Future<PrecomputedTextCompat> layoutOf(long reviewId, String text) {
+        Entry entry = layouts.get(reviewId);
+        if (entry != null && entry.text.equals(text)) {
+            return entry.layout;
+        }
+        PrecomputedTextCompat.Params textParams = params;
+        FutureTask<PrecomputedTextCompat> layout = new FutureTask<>(
+                () -> PrecomputedTextCompat.create(text, textParams));
+        layouts.put(reviewId, new Entry(text, layout));
+        executor.execute(layout);
+        return layout;
+    }
+
+    /** Returns the result of a completed layout, or null if it failed or was cancelled. Renvoie le résultat d'une mise en page terminée, ou null si elle a échoué ou a été annulée. */
+    @Nullable
+    private static PrecomputedTextCompat getDone(Future<PrecomputedTextCompat> layout) {
+        try {
+            return layout.get();
+        } catch (ExecutionException | InterruptedException | CancellationException e) {
+            return null;
+        }
+    }
+}
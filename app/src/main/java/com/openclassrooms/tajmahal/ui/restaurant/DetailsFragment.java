@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.graphics.Color;
 import android.net.Uri;
 import android.os.Bundle;
+import android.text.format.DateUtils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
@@ -15,10 +16,11 @@ import android.view.Window;
 import android.widget.Toast;
 
 import com.openclassrooms.tajmahal.R;
+import com.openclassrooms.tajmahal.StartupTimings;
 import com.openclassrooms.tajmahal.databinding.FragmentDetailsBinding;
+import com.openclassrooms.tajmahal.domain.model.OpeningHours;
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
 import com.openclassrooms.tajmahal.domain.model.Restaurant;
-import com.openclassrooms.tajmahal.domain.model.Review;
-import com.openclassrooms.tajmahal.domain.model.ReviewUtils;
 
 import java.util.Locale;
 
@@ -85,7 +87,8 @@ public class DetailsFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
         setupUI(); // Sets up user interface components.
         setupViewModel(); // Prepares the ViewModel for the fragment.
-        detailsViewModel.getTajMahalRestaurant().observe(requireActivity(), this::updateUIWithRestaurant); // Observes changes in the restaurant data and updates the UI accordingly.
+        detailsViewModel.getRestaurant().observe(requireActivity(), this::updateUIWithRestaurant); // Observes changes in the restaurant data and updates the UI accordingly.
+        detailsViewModel.getOpeningStatus().observe(getViewLifecycleOwner(), this::updateOpeningStatus); // Shows whether the restaurant is open, updated when it opens or closes.
     }
 
     /**
@@ -152,93 +155,79 @@ public class DetailsFragment extends Fragment {
         binding.tvRestaurantPhoneNumber.setText(restaurant.getPhoneNumber());
         binding.chipOnPremise.setVisibility(restaurant.isDineIn() ? View.VISIBLE : View.GONE);
         binding.chipTakeAway.setVisibility(restaurant.isTakeAway() ? View.VISIBLE : View.GONE);
+        StartupTimings.getInstance().mark(StartupTimings.Phase.DETAILS_BOUND);
 
         binding.buttonAdress.setOnClickListener(v -> openMap(restaurant.getAddress()));
         binding.buttonPhone.setOnClickListener(v -> dialPhoneNumber(restaurant.getPhoneNumber()));
         binding.buttonWebsite.setOnClickListener(v -> openBrowser(restaurant.getWebsite()));
 
-        /** Observe changes in a list of reviews using a LiveData in a ViewModel. When a review
-         * update occurs, it calculates the number of reviews for each rating from 1 to 5 stars and
-         * updates the corresponding progress bars.
-         * - total stores the total number of reviews.
-         * - The variables reviewFiveStars, reviewFourStars, reviewThreeStars, reviewTwoStars, and
-         * reviewOneStar initialized to zero count the reviews for each rating.
-         * - Loops through each review and increments the corresponding counter based on the review
-         * rating (review.getRate()).
-         * - Updates the progress bars for each review rating with the number of corresponding reviews.
+        /** Observe the rating statistics maintained by the repository. When they change, the total
+         * number of reviews and the progress bars are updated from the precomputed counts, without
+         * walking the list of reviews.
          * - setProgress sets the number of reviews for that rating.
          * - setMax sets the total number of reviews so that the progress bar is proportional to the total.
-         * Observe les changements dans une liste d'avis à l'aide d'un LiveData dans un ViewModel.
-         * Lorsqu'une mise à jour des avis se produit, il calcule le nombre d'avis pour chaque note
-         * de 1 à 5 étoiles et met à jour les barres de progression correspondantes.
-         * - total stocke le nombre total d'avis.
-         * - Les variables reviewFiveStars, reviewFourStars, reviewThreeStars, reviewTwoStars et
-         * reviewOneStar initialisées à zéro comptent les avis pour chaque note.
-         * - Parcoure chaque avis et incrémente le compteur correspondant en fonction de la note de
-         * l'avis (review.getRate()).
-         * - Met à jour les barres de progression pour chaque note d'avis avec le nombre d'avis
-         * correspondants.
+         * Observe les statistiques de notation tenues à jour par le référentiel. Lorsqu'elles
+         * changent, le nombre total d'avis et les barres de progression sont mis à jour à partir
+         * des nombres précalculés, sans parcourir la liste des avis.
          * - setProgress définit le nombre d'avis pour cette note.
          * - setMax définit le nombre total d'avis pour que la barre de progression soit
          * proportionnelle au total.
          */
-        detailsViewModel.getReviews().observe(this, reviews -> {
-        int total = reviews.size();
-        //Displays the total number of reviews Affiche le nombre total d'avis données
-        binding.tvRestaurantTotalRatings.setText(String.valueOf(total));
-        int reviewFiveStars = 0;
-        int reviewFourStars = 0;
-        int reviewThreeStars = 0;
-        int reviewTwoStars = 0;
-        int reviewOneStar = 0;
-
-        for (Review review:reviews) {
-            if (review.getRate() == 5){
-                reviewFiveStars += 1;
-            } else if (review.getRate() == 4) {
-                reviewFourStars +=1;
-            } else if (review.getRate() == 3) {
-                reviewThreeStars +=1;
-            } else if (review.getRate() == 2) {
-                reviewTwoStars +=1;
-            }  else if (review.getRate() == 1) {
-                reviewOneStar +=1;
-            }
-        }
-        binding.progressFive.setProgress(reviewFiveStars);
-        binding.progressFive.setMax(total);
+        detailsViewModel.getRatingAggregate().observe(this, aggregate -> {
+            int total = aggregate.getCount();
+            //Displays the total number of reviews Affiche le nombre total d'avis données
+            binding.tvRestaurantTotalRatings.setText(String.valueOf(total));
 
-        binding.progressFour.setProgress(reviewFourStars);
-        binding.progressFour.setMax(total);
+            binding.progressFive.setMax(total);
+            binding.progressFive.setProgress(aggregate.getStarCount(5));
 
-        binding.progressThree.setProgress(reviewThreeStars);
-        binding.progressThree.setMax(total);
+            binding.progressFour.setMax(total);
+            binding.progressFour.setProgress(aggregate.getStarCount(4));
 
-        binding.progressTwo.setProgress(reviewTwoStars);
-        binding.progressTwo.setMax(total);
+            binding.progressThree.setMax(total);
+            binding.progressThree.setProgress(aggregate.getStarCount(3));
 
-        binding.progressOne.setProgress(reviewOneStar);
-        binding.progressOne.setMax(total);
+            binding.progressTwo.setMax(total);
+            binding.progressTwo.setProgress(aggregate.getStarCount(2));
 
-            /**
-             * Observes the average rating LiveData and updates UI components accordingly.
-             * Observe la note moyenne LiveData et met à jour les composants de l'interface
-             * utilisateur en conséquence.
-             */
-            detailsViewModel.getAverageRating().observe(this, averageRating -> {
-                binding.tvRestaurantRate.setText(String.format(Locale.getDefault(), "%.1f", averageRating));
-                binding.rbRestaurant.setRating(averageRating);
-            });
+            binding.progressOne.setMax(total);
+            binding.progressOne.setProgress(aggregate.getStarCount(1));
 
             /**
-             * Calculates and updates the average rating and total reviews based on the provided list of reviews.
-             * @param reviews The list of reviews used to calculate the average rating and total reviews.
-             * Calcule et met à jour la note moyenne et le nombre total d'avis en fonction de la liste d'avis fournie.
-             * @param reviews La liste des avis utilisée pour calculer la note moyenne et le nombre total d'avis.
+             * Updates the average rating and total reviews from the rating statistics.
+             * Met à jour la note moyenne et le nombre total d'avis à partir des statistiques de notation.
              */
-            detailsViewModel.calculateReviewsData(reviews);
+            detailsViewModel.calculateReviewsData(aggregate);
+        });
+
+        /**
+         * Observes the recent rating trend and shows the average of the last days, its change since
+         * the days before and the number of recent reviews.
+         * Observe la tendance récente des notes et affiche la moyenne des derniers jours, son
+         * évolution depuis les jours précédents et le nombre d'avis récents.
+         */
+        detailsViewModel.getRatingTrend().observe(this, trend -> {
+            RatingAggregate recent = trend.getCurrent();
+            if (recent.getCount() == 0) {
+                binding.tvRatingTrend.setText(getString(R.string.rating_trend_empty, trend.getDays()));
+            } else if (trend.getPrevious().getCount() == 0) {
+                binding.tvRatingTrend.setText(getString(R.string.rating_trend_without_change, trend.getDays(),
+                        recent.getAverage(), recent.getCount()));
+            } else {
+                binding.tvRatingTrend.setText(getString(R.string.rating_trend, trend.getDays(),
+                        recent.getAverage(), trend.getAverageChange(), recent.getCount()));
+            }
+        });
 
-    });
+        /**
+         * Observes the average rating LiveData and updates UI components accordingly.
+         * Observe la note moyenne LiveData et met à jour les composants de l'interface
+         * utilisateur en conséquence.
+         */
+        detailsViewModel.getAverageRating().observe(this, averageRating -> {
+            binding.tvRestaurantRate.setText(String.format(Locale.getDefault(), "%.1f", averageRating));
+            binding.rbRestaurant.setRating(averageRating);
+        });
 
     binding.tvLeaveReview.setOnClickListener(v -> {
         changeFragment ();
@@ -246,13 +235,41 @@ public class DetailsFragment extends Fragment {
 
     }
 
+    /**
+     * Shows whether the restaurant is open and when it next closes or opens, with the day when it
+     * is not today. The status is hidden when the hours cannot be read.
+     * @param status The opening status of the restaurant.
+     * Affiche si le restaurant est ouvert et quand il ferme ou ouvre la prochaine fois, avec le jour
+     * lorsque ce n'est pas aujourd'hui. L'état est masqué lorsque les horaires sont illisibles.
+     * @param status L'état d'ouverture du restaurant.
+     */
+    private void updateOpeningStatus(OpeningHours.Status status) {
+        if (status == null || !status.isKnown()) {
+            binding.tvRestaurantOpenStatus.setVisibility(View.GONE);
+            return;
+        }
+        binding.tvRestaurantOpenStatus.setVisibility(View.VISIBLE);
+        binding.tvRestaurantOpenStatus.setTextColor(requireContext().getColor(status.isOpen() ? R.color.green : R.color.red));
+        if (!status.changes()) {
+            binding.tvRestaurantOpenStatus.setText(status.isOpen() ? R.string.open_status_open_always : R.string.open_status_closed_always);
+            return;
+        }
+        long next = status.getNextTransition();
+        int flags = DateUtils.FORMAT_SHOW_TIME;
+        if (!DateUtils.isToday(next)) {
+            flags |= DateUtils.FORMAT_SHOW_WEEKDAY | DateUtils.FORMAT_ABBREV_WEEKDAY;
+        }
+        String time = DateUtils.formatDateTime(requireContext(), next, flags);
+        binding.tvRestaurantOpenStatus.setText(getString(status.isOpen() ? R.string.open_status_closes : R.string.open_status_opens, time));
+    }
+
     /** The changeFragment method replaces the current fragment with a new instance of ReviewFragment.
      * The fragment transaction is added to allow back navigation when clicking the arrow.
      * La méthode changeFragment remplace le fragment actuel par une nouvelle instance de ReviewFragment.
      */
     private void changeFragment(){
         requireActivity().getSupportFragmentManager().beginTransaction()
-                .replace(R.id.container, ReviewFragment.newInstance())
+                .replace(R.id.container, ReviewFragment.newInstance(detailsViewModel.getRestaurantId()))
                 .addToBackStack(null)
                 .commit();
     }
@@ -313,11 +330,23 @@ public class DetailsFragment extends Fragment {
         }
     }
 
-    /** Creates and returns a new instance of DetailsFragment.
-     * Crée et retourne une nouvelle instance de DetailsFragment.
+    /** Creates and returns a new instance of DetailsFragment showing the Taj Mahal.
+     * Crée et retourne une nouvelle instance de DetailsFragment affichant le Taj Mahal.
      */
     public static DetailsFragment newInstance() {
-        return new DetailsFragment();
+        return newInstance(Restaurant.TAJ_MAHAL_ID);
+    }
+
+    /** Creates and returns a new instance of DetailsFragment showing a restaurant.
+     * Crée et retourne une nouvelle instance de DetailsFragment affichant un restaurant.
+     * @param restaurantId The id of the restaurant. L'identifiant du restaurant.
+     */
+    public static DetailsFragment newInstance(long restaurantId) {
+        DetailsFragment fragment = new DetailsFragment();
+        Bundle args = new Bundle();
+        args.putLong(DetailsViewModel.ARG_RESTAURANT_ID, restaurantId);
+        fragment.setArguments(args);
+        return fragment;
     }
 
 }
\ No newline at end of file
@@ -1,23 +1,32 @@
 package com.openclassrooms.tajmahal.ui.restaurant;
 
 import android.content.Context;
+import android.os.Bundle;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.SavedStateHandle;
 import androidx.lifecycle.ViewModel;
 
 import com.openclassrooms.tajmahal.R;
 import com.openclassrooms.tajmahal.data.repository.RestaurantRepository;
-import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.domain.model.OpeningHours;
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
 import com.openclassrooms.tajmahal.domain.model.Restaurant;
 import com.openclassrooms.tajmahal.domain.model.Review;
-import com.openclassrooms.tajmahal.domain.model.ReviewUtils;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
 import com.openclassrooms.tajmahal.domain.model.User;
 
 import javax.inject.Inject;
 
-import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
 
 import dagger.hilt.android.lifecycle.HiltViewModel;
 
@@ -38,8 +47,87 @@ import dagger.hilt.android.lifecycle.HiltViewModel;
 @HiltViewModel
 public class DetailsViewModel extends ViewModel {
 
+    /**
+     * The number of reviews loaded at once when the user scrolls the list of reviews.
+     * Le nombre d'avis chargés à la fois lorsque l'utilisateur fait défiler la liste des avis.
+     */
+    public static final int REVIEW_PAGE_SIZE = 20;
+
+    /**
+     * The number of days of the recent rating trend shown on the details screen.
+     * Le nombre de jours de la tendance récente des notes affichée sur l'écran de détails.
+     */
+    public static final int TREND_DAYS = 30;
+
+    /**
+     * The argument of the fragments holding the id of the restaurant they show, the Taj Mahal if missing.
+     * L'argument des fragments contenant l'identifiant du restaurant qu'ils affichent, le Taj Mahal s'il manque.
+     */
+    public static final String ARG_RESTAURANT_ID = "restaurantId";
+
+    /** The saved state key of the ids of the expanded reviews. La clé d'état sauvegardé des identifiants des avis dépliés. */
+    private static final String STATE_EXPANDED_REVIEW_IDS = "expandedReviewIds";
+
+    /** The names of the days, from Monday. Les noms des jours, à partir de lundi. */
+    private static final int[] DAY_NAMES = {
+            R.string.monday, R.string.tuesday, R.string.wednesday, R.string.thursday,
+            R.string.friday, R.string.saturday, R.string.sunday};
+
     private final RestaurantRepository restaurantRepository;
 
+    /** The id of the restaurant shown. L'identifiant du restaurant affiché. */
+    private final long restaurantId;
+
+    /**
+     * The reviews loaded so far, newest first, one page after the other.
+     * Les avis chargés jusqu'ici, du plus récent au plus ancien, une page après l'autre.
+     */
+    private final MediatorLiveData<List<Review>> pagedReviews = new MediatorLiveData<>();
+
+    /** The pages behind {@link #pagedReviews}. Les pages derrière {@link #pagedReviews}. */
+    private ReviewPages loadedReviews;
+
+    /** The cursor of the next page of reviews, null before the first page is loaded.
+     * Le curseur de la page d'avis suivante, null avant le chargement de la première page.
+     */
+    private Long nextReviewCursor;
+
+    /** True once the oldest review has been loaded. Vrai une fois l'avis le plus ancien chargé. */
+    private boolean lastReviewPageLoaded;
+
+    /** True while a page is being loaded. Vrai pendant le chargement d'une page. */
+    private boolean reviewPageLoading;
+
+    /** Incremented on each refresh so that a page requested before it is ignored.
+     * Incrémenté à chaque rafraîchissement afin qu'une page demandée avant soit ignorée.
+     */
+    private int reviewGeneration;
+
+    /** The ids of the reviews whose full comment is shown. Les identifiants des avis dont le commentaire complet est affiché. */
+    private final Set<Long> expandedReviewIds = new HashSet<>();
+
+    /** The stars and order of the paged reviews. Les étoiles et l'ordre des avis paginés. */
+    private ReviewFilter reviewFilter = ReviewFilter.ALL;
+
+    /** True once the paged reviews follow the review changes of the repository.
+     * Vrai une fois que les avis paginés suivent les changements d'avis du référentiel.
+     */
+    private boolean followingReviews;
+
+    /** The opening status of the restaurant, following its hours. L'état d'ouverture du restaurant, suivant ses horaires. */
+    private final MediatorLiveData<OpeningHours.Status> openingStatus = new MediatorLiveData<>();
+
+    /** The status of the hours followed, null before the restaurant is loaded.
+     * L'état des horaires suivis, null avant le chargement du restaurant.
+     */
+    private OpeningStatusLiveData openingStatusSource;
+
+    /** The hours followed. Les horaires suivis. */
+    private String followedHours;
+
+    /** True once the opening status follows the restaurant. Vrai une fois que l'état d'ouverture suit le restaurant. */
+    private boolean followingHours;
+
     /**
      * MutableLiveData object for storing and observing the average rating value.
      * Objet MutableLiveData pour stocker et observer la valeur de notation moyenne.
@@ -73,46 +161,97 @@ public class DetailsViewModel extends ViewModel {
     }
 
     /**
-     * Calculates and updates the average rating and total number of reviews.
-     * @param reviews The list of reviews used to calculate the average rating and total reviews.
-     * Calcule et met à jour la note moyenne et le nombre total d'avis.
-     * @param reviews La liste des avis utilisés pour calculer la note moyenne et le nombre total d'avis.
+     * Updates the average rating and total number of reviews from the precomputed statistics.
+     * @param aggregate The rating statistics maintained by the repository.
+     * Met à jour la note moyenne et le nombre total d'avis à partir des statistiques précalculées.
+     * @param aggregate Les statistiques de notation tenues à jour par le référentiel.
      */
-    public void calculateReviewsData(List<Review> reviews) {
-        float avgRating = ReviewUtils.calculateAverageRating(reviews);
-        averageRating.setValue(avgRating);
-        totalReviews.setValue(reviews.size());
+    public void calculateReviewsData(RatingAggregate aggregate) {
+        averageRating.setValue(aggregate.getAverage());
+        totalReviews.setValue(aggregate.getCount());
     }
 
     /**
      * Constructor that Hilt will use to create an instance of MainViewModel.
      * @param restaurantRepository The repository which will provide restaurant data.
+     * @param savedStateHandle     The arguments of the fragment, holding {@link #ARG_RESTAURANT_ID}, and the saved state of the reviews expanded.
      * Constructeur que Hilt utilisera pour créer une instance de MainViewModel.
      * @param restaurantRepository Le référentiel qui fournira les données du restaurant.
+     * @param savedStateHandle     Les arguments du fragment, contenant {@link #ARG_RESTAURANT_ID}, et l'état sauvegardé des avis dépliés.
      */
     @Inject
-    public DetailsViewModel(RestaurantRepository restaurantRepository) {
+    public DetailsViewModel(RestaurantRepository restaurantRepository, SavedStateHandle savedStateHandle) {
         this.restaurantRepository = restaurantRepository;
+        Long id = savedStateHandle.get(ARG_RESTAURANT_ID);
+        this.restaurantId = id != null ? id : Restaurant.TAJ_MAHAL_ID;
+        Bundle saved = savedStateHandle.get(STATE_EXPANDED_REVIEW_IDS);
+        long[] expanded = saved != null ? saved.getLongArray(STATE_EXPANDED_REVIEW_IDS) : null;
+        if (expanded != null) {
+            for (long reviewId : expanded) {
+                expandedReviewIds.add(reviewId);
+            }
+        }
+        savedStateHandle.setSavedStateProvider(STATE_EXPANDED_REVIEW_IDS, this::saveExpandedReviewIds);
+    }
+
+    /** Saves the ids of the expanded reviews. Sauvegarde les identifiants des avis dépliés. */
+    private Bundle saveExpandedReviewIds() {
+        long[] expanded = new long[expandedReviewIds.size()];
+        int i = 0;
+        for (long reviewId : expandedReviewIds) {
+            expanded[i++] = reviewId;
+        }
+        Bundle state = new Bundle();
+        state.putLongArray(STATE_EXPANDED_REVIEW_IDS, expanded);
+        return state;
+    }
+
+    /** Returns the id of the restaurant shown. Renvoie l'identifiant du restaurant affiché. */
+    public long getRestaurantId() {
+        return restaurantId;
     }
 
     /**
-     * the code initializes the "DetailsViewModel" with a "RestaurantRepository" using a
-     * "RestaurantFakeApi", which allows to simulate the behavior of a real API.
-     * le code initialise le "DetailsViewModel" avec un "RestaurantRepository" en utilisant un
-     * "RestaurantFakeApi", ce qui permet de simuler le comportement d'une API réelle
+     * Fetches the details of the restaurant.
+     * @return LiveData object containing the details of the restaurant.
+     * Récupère les détails du restaurant.
+     * Objet @return LiveData contenant les détails du restaurant.
      */
-    public DetailsViewModel(){
-        this.restaurantRepository = new RestaurantRepository(new RestaurantFakeApi());
+    public LiveData<Restaurant> getRestaurant() {
+        return restaurantRepository.getRestaurant(restaurantId);
     }
 
     /**
-     * Fetches the details of the Taj Mahal restaurant.
-     * @return LiveData object containing the details of the Taj Mahal restaurant.
-     * Récupère les détails du restaurant Taj Mahal.
-     * Objet @return LiveData contenant les détails du restaurant Taj Mahal.
+     * Returns the opening status of the restaurant: whether it is open and when it next opens or
+     * closes. The hours are parsed once per change of the restaurant hours, and the status is
+     * updated at its transitions only, while observed.
+     * @return LiveData object containing the status.
+     * Renvoie l'état d'ouverture du restaurant : s'il est ouvert et quand il ouvre ou ferme la
+     * prochaine fois. Les horaires sont analysés une fois par changement des horaires du restaurant,
+     * et l'état n'est mis à jour qu'à ses transitions, tant qu'il est observé.
+     * @return Objet LiveData contenant l'état.
      */
-    public LiveData<Restaurant> getTajMahalRestaurant() {
-        return restaurantRepository.getRestaurant();
+    public LiveData<OpeningHours.Status> getOpeningStatus() {
+        if (!followingHours) {
+            followingHours = true;
+            openingStatus.addSource(getRestaurant(), this::followHours);
+        }
+        return openingStatus;
+    }
+
+    /** Follows the status of the hours of the restaurant when they change.
+     * Suit l'état des horaires du restaurant lorsqu'ils changent.
+     */
+    private void followHours(Restaurant restaurant) {
+        if (restaurant == null || restaurant.getHours() == null || restaurant.getHours().equals(followedHours)) {
+            return;
+        }
+        if (openingStatusSource != null) {
+            openingStatus.removeSource(openingStatusSource);
+        }
+        followedHours = restaurant.getHours();
+        openingStatusSource = new OpeningStatusLiveData(restaurant);
+        openingStatus.addSource(openingStatusSource, openingStatus::setValue);
     }
 
     /** Returns a LiveData object that contains the user's information, obtained from the restaurantRepository.
@@ -120,7 +259,7 @@ public class DetailsViewModel extends ViewModel {
      * restaurantRepository.
      */
     public LiveData<User> getUser() {
-        return restaurantRepository.getUser();
+        return restaurantRepository.getUser(restaurantId);
     }
 
     /**
@@ -130,55 +269,203 @@ public class DetailsViewModel extends ViewModel {
      * Objet @return LiveData contenant les détails des avis.
      */
     public LiveData<List<Review>> getReviews(){
-        return restaurantRepository.getReviews();
+        return restaurantRepository.getReviews(restaurantId);
+    }
+
+    /**
+     * Retrieves the rating statistics of the restaurant.
+     * @return LiveData object containing the count, sum and number of reviews per star.
+     * Récupère les statistiques de notation du restaurant.
+     * @return Objet LiveData contenant le nombre, la somme et le nombre d'avis par étoile.
+     */
+    public LiveData<RatingAggregate> getRatingAggregate(){
+        return restaurantRepository.getRatingAggregate(restaurantId);
+    }
+
+    /**
+     * Retrieves the recent rating trend of the restaurant, over {@link #TREND_DAYS} days.
+     * @return LiveData object containing the statistics of the last days and of the days before.
+     * Récupère la tendance récente des notes du restaurant, sur {@link #TREND_DAYS} jours.
+     * @return Objet LiveData contenant les statistiques des derniers jours et des jours précédents.
+     */
+    public LiveData<RatingTrend> getRatingTrend(){
+        return restaurantRepository.getRatingTrend(restaurantId, TREND_DAYS);
+    }
+
+    /**
+     * Returns the reviews loaded page by page, newest first. The paged reviews follow the review
+     * changes of the repository, which never read the whole list: the first page is loaded with
+     * their first value and the loaded pages are refreshed each time a review is written, whoever
+     * wrote it. The following
+     * pages are requested with {@link #loadNextReviewPage()}.
+     * @return LiveData object containing the reviews loaded so far.
+     * Renvoie les avis chargés page par page, du plus récent au plus ancien. Les avis paginés
+     * suivent les changements d'avis du référentiel, qui ne lisent jamais la liste complète : la
+     * première page est chargée avec leur première valeur et les pages chargées sont rafraîchies à chaque écriture d'un avis, quel
+     * qu'en soit l'auteur. Les pages suivantes sont demandées avec {@link #loadNextReviewPage()}.
+     * @return Objet LiveData contenant les avis chargés jusqu'ici.
+     */
+    public LiveData<List<Review>> getPagedReviews() {
+        if (!followingReviews) {
+            followingReviews = true;
+            pagedReviews.addSource(restaurantRepository.getReviewChanges(restaurantId), changes -> refreshReviews());
+        }
+        return pagedReviews;
+    }
+
+    /**
+     * Requests the next page of reviews, unless the first page is not there yet, a page is already
+     * loading or every review is loaded.
+     * Demande la page d'avis suivante, sauf si la première page n'est pas encore là, si une page
+     * est déjà en cours de chargement ou si tous les avis sont chargés.
+     */
+    public void loadNextReviewPage() {
+        if (pagedReviews.getValue() == null || reviewPageLoading || lastReviewPageLoaded) return;
+        loadReviewPage(nextReviewCursor, false);
+    }
+
+    /**
+     * Reads the full comment of a review whose page only carried a preview, when the user expands it.
+     * @param reviewId The id of the review.
+     * @return LiveData holding the comment.
+     * Lit le commentaire complet d'un avis dont la page ne contenait qu'un aperçu, lorsque
+     * l'utilisateur le déplie.
+     * @param reviewId L'identifiant de l'avis.
+     * @return LiveData contenant le commentaire.
+     */
+    public LiveData<String> getFullComment(long reviewId) {
+        return restaurantRepository.getComment(restaurantId, reviewId);
+    }
+
+    /**
+     * Returns the ids of the reviews whose full comment is shown, updated by the list of reviews.
+     * They are kept across the recreations of the view, and saved with the state of the screen.
+     * Renvoie les identifiants des avis dont le commentaire complet est affiché, mis à jour par la
+     * liste des avis. Ils sont conservés entre les recréations de la vue, et sauvegardés avec l'état
+     * de l'écran.
+     */
+    public Set<Long> getExpandedReviewIds() {
+        return expandedReviewIds;
+    }
+
+    /**
+     * Returns the filter of the paged reviews. Renvoie le filtre des avis paginés.
+     */
+    public ReviewFilter getReviewFilter() {
+        return reviewFilter;
+    }
+
+    /**
+     * Displays the reviews passing another filter: the pages of the previous filter are dropped and
+     * the first page of the new one is loaded. Nothing is copied nor sorted, the repository serves
+     * the filtered pages directly.
+     * @param filter The stars to keep and their order.
+     * Affiche les avis passant un autre filtre : les pages du filtre précédent sont abandonnées et
+     * la première page du nouveau est chargée. Rien n'est copié ni trié, le référentiel sert
+     * directement les pages filtrées.
+     * @param filter Les étoiles à garder et leur ordre.
+     */
+    public void setReviewFilter(ReviewFilter filter) {
+        if (filter.equals(reviewFilter)) return;
+        reviewFilter = filter;
+        reviewGeneration++;
+        // A refresh before the first page of the new filter must not splice it onto the old one.
+        // Un rafraîchissement avant la première page du nouveau filtre ne doit pas la raccorder à l'ancien.
+        loadedReviews = null;
+        lastReviewPageLoaded = false;
+        loadReviewPage(null, true);
+    }
+
+    /**
+     * Reloads the first page of the filter and splices it in front of the reviews loaded after it,
+     * so that a write reads one page whatever the number of reviews loaded, and the list does not
+     * shrink under the user. If the page does not join the loaded reviews, because more reviews
+     * than a page were written since, the later pages are dropped and loaded again on scroll.
+     * Recharge la première page du filtre et la raccorde devant les avis chargés après elle, afin
+     * qu'une écriture lise une page quel que soit le nombre d'avis chargés, et que la liste ne
+     * rétrécisse pas sous les yeux de l'utilisateur. Si la page ne rejoint pas les avis chargés,
+     * parce que plus d'avis qu'une page ont été écrits depuis, les pages suivantes sont abandonnées
+     * et chargées à nouveau au défilement.
+     */
+    public void refreshReviews() {
+        reviewGeneration++;
+        if (loadedReviews == null) {
+            loadReviewPage(null, true);
+            return;
+        }
+        reviewPageLoading = true;
+        int generation = reviewGeneration;
+        LiveData<ReviewPage> source = restaurantRepository.getReviewPage(restaurantId, reviewFilter, null, REVIEW_PAGE_SIZE);
+        pagedReviews.addSource(source, page -> {
+            pagedReviews.removeSource(source);
+            if (generation != reviewGeneration) return;
+            ReviewPages spliced = page.hasNext() ? loadedReviews.spliceFirstPage(page.getReviews()) : null;
+            if (spliced != null) {
+                // The tail and its cursor are kept. La suite et son curseur sont conservés.
+                showReviews(spliced, nextReviewCursor);
+            } else {
+                showReviews(ReviewPages.EMPTY.append(page.getReviews()), page.getNextCursor());
+            }
+        });
+    }
+
+    /**
+     * Loads a page from the repository and appends it to the loaded reviews, or replaces them. The
+     * reviews already loaded are shared with the new list, not copied.
+     * Charge une page depuis le référentiel et l'ajoute aux avis chargés, ou les remplace. Les avis
+     * déjà chargés sont partagés avec la nouvelle liste, pas copiés.
+     */
+    private void loadReviewPage(Long cursor, boolean replace) {
+        reviewPageLoading = true;
+        int generation = reviewGeneration;
+        LiveData<ReviewPage> source = restaurantRepository.getReviewPage(restaurantId, reviewFilter, cursor, REVIEW_PAGE_SIZE);
+        pagedReviews.addSource(source, page -> {
+            pagedReviews.removeSource(source);
+            if (generation != reviewGeneration) return;
+            ReviewPages loaded = replace || loadedReviews == null ? ReviewPages.EMPTY : loadedReviews;
+            showReviews(loaded.append(page.getReviews()), page.getNextCursor());
+        });
+    }
+
+    /** Shows the loaded reviews, followed by the page at the cursor. Affiche les avis chargés, suivis de la page au curseur. */
+    private void showReviews(ReviewPages reviews, Long nextCursor) {
+        loadedReviews = reviews;
+        nextReviewCursor = nextCursor;
+        lastReviewPageLoaded = nextCursor == null;
+        reviewPageLoading = false;
+        pagedReviews.setValue(loadedReviews);
     }
 
     /** Adds a new review associated with a user with a specified comment, rating and avatar, using
-     * the restaurantRepository to perform the operation.
+     * the restaurantRepository to perform the operation. The displayed reviews are refreshed by the
+     * review changes once the review is written.
      *  Ajoute une nouvel avis associé à un utilisateur avec un commentaire, une note et un avatar
-     *  spécifiés, en utilisant le restaurantRepository pour effectuer l'opération.
+     *  spécifiés, en utilisant le restaurantRepository pour effectuer l'opération. Les avis affichés
+     *  sont rafraîchis par les changements d'avis une fois l'avis écrit.
      */
     public void addReview(String comment, Integer rating, String avatar, String userName) {
-        restaurantRepository.addReview(comment, rating, avatar, userName);
+        restaurantRepository.addReview(restaurantId, comment, rating, avatar, userName);
+    }
+
+    /** Adds a batch of reviews, oldest first, for example the reviews written while offline. The
+     * whole batch is accepted or rejected, and the displayed reviews are refreshed once for the
+     * whole batch.
+     * Ajoute un lot d'avis, du plus ancien au plus récent, par exemple les avis écrits hors ligne.
+     * Le lot entier est accepté ou refusé, et les avis affichés sont rafraîchis une seule fois pour
+     * tout le lot.
+     */
+    public LiveData<Boolean> addReviews(Collection<Review> reviews) {
+        return restaurantRepository.addReviews(restaurantId, reviews);
     }
 
     /**
-     * Retrieves the current day of the week in French.
-     * @return A string representing the current day of the week in French.
-     * Récupère le jour actuel de la semaine en français.
-     * @return Une chaîne de charactère représentant le jour actuel de la semaine en français.
+     * Retrieves the current day of the week, in the language of the device.
+     * @return A string representing the current day of the week.
+     * Récupère le jour actuel de la semaine, dans la langue de l'appareil.
+     * @return Une chaîne de charactère représentant le jour actuel de la semaine.
      */
     public String getCurrentDay(Context context) {
-        Calendar calendar = Calendar.getInstance();
-        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-        String dayString;
-
-        switch (dayOfWeek) {
-            case Calendar.MONDAY:
-                dayString = context.getString(R.string.monday);
-                break;
-            case Calendar.TUESDAY:
-                dayString = context.getString(R.string.tuesday);
-                break;
-            case Calendar.WEDNESDAY:
-                dayString = context.getString(R.string.wednesday);
-                break;
-            case Calendar.THURSDAY:
-                dayString = context.getString(R.string.thursday);
-                break;
-            case Calendar.FRIDAY:
-                dayString = context.getString(R.string.friday);
-                break;
-            case Calendar.SATURDAY:
-                dayString = context.getString(R.string.saturday);
-                break;
-            case Calendar.SUNDAY:
-                dayString = context.getString(R.string.sunday);
-                break;
-            default:
-                dayString = "";
-        }
-        return dayString;
+        return context.getString(DAY_NAMES[OpeningHours.dayOfWeek(System.currentTimeMillis(), TimeZone.getDefault())]);
     }
 
 }
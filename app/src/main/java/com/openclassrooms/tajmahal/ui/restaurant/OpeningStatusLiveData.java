@@ -0,0 +1,61 @@
+package com.openclassrooms.tajmahal.ui.restaurant;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+
+import com.openclassrooms.tajmahal.domain.model.OpeningHours;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+
+/**
+ * The opening status of a restaurant, updated when it opens or closes.
+ * <p>
+ * Rather than polling the clock, the status is computed when the data becomes active and the next
+ * update is scheduled on the main thread at its next transition, the only time it can change.
+ * Nothing is scheduled while the data has no active observer, nor for hours that never change. The
+ * hours are taken from the restaurant at each update, in the time zone of the device at that time.
+ *<p>
+ * * L'état d'ouverture d'un restaurant, mis à jour lorsqu'il ouvre ou ferme.
+ * <p>
+ * Au lieu d'interroger l'horloge régulièrement, l'état est calculé lorsque la donnée devient active
+ * et la mise à jour suivante est planifiée sur le thread principal à sa prochaine transition, le
+ * seul moment où il peut changer. Rien n'est planifié tant que la donnée n'a pas d'observateur
+ * actif, ni pour des horaires qui ne changent jamais. Les horaires sont pris du restaurant à chaque
+ * mise à jour, dans le fuseau horaire de l'appareil à ce moment.
+ */
+class OpeningStatusLiveData extends LiveData<OpeningHours.Status> {
+
+    private final Restaurant restaurant;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final Runnable update = this::update;
+
+    OpeningStatusLiveData(Restaurant restaurant) {
+        this.restaurant = restaurant;
+    }
+
+    @Override
+    protected void onActive() {
+        update();
+    }
+
+    @Override
+    protected void onInactive() {
+        handler.removeCallbacks(update);
+    }
+
+    /** Publishes the current status and schedules the next update. Publie l'état actuel et planifie la mise à jour suivante. */
+    private void update() {
+        handler.removeCallbacks(update);
+        long now = System.currentTimeMillis();
+        OpeningHours.Status status = restaurant.getOpeningHours().status(now);
+        if (!status.equals(getValue())) {
+            setValue(status);
+        }
+        if (status.changes()) {
+            handler.postDelayed(update, status.getNextTransition() - now);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.openclassrooms.tajmahal.ui.restaurant;
+
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.ui.image.AvatarRequests;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tells the Glide preloader of the review list which avatar to load for a row. The request is the
+ * one of {@link ReviewListViewHolder}, so a preloaded avatar is found in the memory cache when its
+ * row is bound.
+ * Indique au préchargeur Glide de la liste des avis quel avatar charger pour une ligne. La requête
+ * est celle de {@link ReviewListViewHolder}, un avatar préchargé est donc trouvé dans le cache
+ * mémoire lorsque sa ligne est liée.
+ */
+class ReviewAvatarPreloadProvider implements ListPreloader.PreloadModelProvider<Review> {
+
+    private final ReviewListAdapter adapter;
+    private final RequestManager requestManager;
+    private final int avatarSize;
+
+    ReviewAvatarPreloadProvider(ReviewListAdapter adapter, RequestManager requestManager, int avatarSize) {
+        this.adapter = adapter;
+        this.requestManager = requestManager;
+        this.avatarSize = avatarSize;
+    }
+
+    @NonNull
+    @Override
+    public List<Review> getPreloadItems(int position) {
+        List<Review> reviews = adapter.getCurrentList();
+        if (position < 0 || position >= reviews.size()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(reviews.get(position));
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<Drawable> getPreloadRequestBuilder(@NonNull Review review) {
+        if (review.getPicture() == null) {
+            return null;
+        }
+        return AvatarRequests.avatar(requestManager, review.getPicture(), avatarSize);
+    }
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.tajmahal.ui.restaurant;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+/** ReviewDiffCallback tells the ReviewListAdapter how to compare two lists of reviews.
+ * - areItemsTheSame compares the stable ids, so a review keeps its row when the list changes.
+ * - areContentsTheSame compares all the fields, so a row is only rebound if its review changed.
+ * ReviewDiffCallback indique au ReviewListAdapter comment comparer deux listes d'avis.
+ * - areItemsTheSame compare les identifiants stables, un avis conserve donc sa ligne lorsque la
+ * liste change.
+ * - areContentsTheSame compare tous les champs, une ligne n'est donc liée à nouveau que si son
+ * avis a changé.
+ */
+public class ReviewDiffCallback extends DiffUtil.ItemCallback<Review> {
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Review oldItem, @NonNull Review newItem) {
+        return oldItem.getId() == newItem.getId();
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Review oldItem, @NonNull Review newItem) {
+        return oldItem.equals(newItem);
+    }
+}
@@ -15,37 +15,72 @@ import android.view.ViewGroup;
 import android.widget.Toast;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
 import com.openclassrooms.tajmahal.R;
+import com.openclassrooms.tajmahal.StartupTimings;
+import com.openclassrooms.tajmahal.data.executor.AppExecutors;
 import com.openclassrooms.tajmahal.databinding.FragmentReviewBinding;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
 import com.openclassrooms.tajmahal.domain.model.User;
+import com.openclassrooms.tajmahal.ui.image.AvatarRequests;
 
+import java.util.List;
 import java.util.Objects;
 
+import javax.inject.Inject;
+
+import dagger.hilt.android.AndroidEntryPoint;
+
 /**Fragment that displays a list of reviews and allows the user to add a new review.
- * Uses DetailsViewModel to manage data and UI interactions.
+ * Uses DetailsViewModel to manage data and UI interactions. The ViewModel is created by Hilt, so it
+ * shares the singleton repository, and therefore the reviews, with DetailsFragment.
  * Fragment qui affiche une liste d'avis et permet à l'utilisateur d'ajouter un nouvel avis.
  * Utilise DetailsViewModel pour gérer les données et les interactions avec l'interface utilisateur.
+ * Le ViewModel est créé par Hilt, il partage donc le référentiel singleton, et donc les avis, avec
+ * DetailsFragment.
  */
+@AndroidEntryPoint
 public class ReviewFragment extends Fragment {
 
+    /** The number of rows before the end of the list at which the next page of reviews is loaded.
+     * Le nombre de lignes avant la fin de la liste à partir duquel la page d'avis suivante est chargée.
+     */
+    private static final int REVIEW_PREFETCH_DISTANCE = 5;
+
+    /** The number of rows ahead of the visible ones whose avatars are preloaded.
+     * Le nombre de lignes après les lignes visibles dont les avatars sont préchargés.
+     */
+    private static final int AVATAR_PRELOAD_DISTANCE = 10;
+
    private ReviewListAdapter reviewListAdapter;
    private DetailsViewModel detailsViewModel;
 
    private FragmentReviewBinding binding;
 
+    /** The executors of the application, the comment layouts being computed on the one of the UI.
+     * Les exécuteurs de l'application, les mises en page des commentaires étant calculées sur celui de l'interface.
+     */
+    @Inject
+    AppExecutors appExecutors;
+
     public ReviewFragment() {
         // Required empty public constructor
     }
 
-    /** Creates a new instance of ReviewFragment with optional arguments.
+    /** Creates a new instance of ReviewFragment showing the reviews of a restaurant.
      * Uses a Bundle to pass data between fragments.
-     * Crée une nouvelle instance de ReviewFragment avec des arguments facultatifs.
+     * Crée une nouvelle instance de ReviewFragment affichant les avis d'un restaurant.
      * Utilise un Bundle pour passer des données entre fragments (c'est un conteneur utilisé pour
      * stocker les données qui doivent être transférées entre différent composant de l'application) .
+     * @param restaurantId The id of the restaurant. L'identifiant du restaurant.
      */
-    public static ReviewFragment newInstance() {
+    public static ReviewFragment newInstance(long restaurantId) {
         ReviewFragment fragment = new ReviewFragment();
         Bundle args = new Bundle();
+        args.putLong(DetailsViewModel.ARG_RESTAURANT_ID, restaurantId);
         fragment.setArguments(args);
         return fragment;
     }
@@ -66,13 +101,18 @@ public class ReviewFragment extends Fragment {
                              Bundle savedInstanceState) {
         // Inflate the layout for this fragment
         binding = FragmentReviewBinding.inflate(inflater, container, false);
-        reviewListAdapter = new ReviewListAdapter();
+        setupViewModel();
+        reviewListAdapter = new ReviewListAdapter(REVIEW_PREFETCH_DISTANCE, appExecutors.layouts(),
+                detailsViewModel.getExpandedReviewIds());
         binding.fragmentReviewRecyclerView.setLayoutManager(new LinearLayoutManager(getContext(), LinearLayoutManager.VERTICAL, false));
         binding.fragmentReviewRecyclerView.setAdapter(reviewListAdapter);
-            setupViewModel();
+        setupAvatarPreloader();
+            reviewListAdapter.setOnLoadMoreListener(detailsViewModel::loadNextReviewPage);
+            reviewListAdapter.setOnFullCommentListener(this::loadFullComment);
             updateUI();
             setupAddReview();
             setupAvatar();
+            setupReviewFilter();
 
             binding.buttonBack.setOnClickListener(view -> {
                 returnFragment();
@@ -85,11 +125,64 @@ public class ReviewFragment extends Fragment {
      */
     private void returnFragment(){
         requireActivity().getSupportFragmentManager().beginTransaction()
-                .replace(R.id.container, DetailsFragment.newInstance())
+                .replace(R.id.container, DetailsFragment.newInstance(detailsViewModel.getRestaurantId()))
                 .addToBackStack(null)
                 .commit();
     }
 
+    /** Preloads the avatars of the next rows while the list is scrolled, at the size they are
+     * displayed, so that they are already in the memory cache when their rows are bound.
+     * Précharge les avatars des lignes suivantes pendant le défilement de la liste, à la taille à
+     * laquelle ils sont affichés, afin qu'ils soient déjà dans le cache mémoire lorsque leurs lignes
+     * sont liées.
+     */
+    private void setupAvatarPreloader() {
+        RequestManager requestManager = Glide.with(this);
+        int avatarSize = AvatarRequests.getAvatarSize(requireContext());
+        RecyclerViewPreloader<Review> preloader = new RecyclerViewPreloader<>(requestManager,
+                new ReviewAvatarPreloadProvider(reviewListAdapter, requestManager, avatarSize),
+                new FixedPreloadSizeProvider<>(avatarSize, avatarSize), AVATAR_PRELOAD_DISTANCE);
+        binding.fragmentReviewRecyclerView.addOnScrollListener(preloader);
+    }
+
+    /** Reads the full comment of a review expanded by the user, its page having only a preview.
+     * Lit le commentaire complet d'un avis déplié par l'utilisateur, sa page n'ayant qu'un aperçu.
+     */
+    private void loadFullComment(long reviewId) {
+        detailsViewModel.getFullComment(reviewId).observe(getViewLifecycleOwner(),
+                comment -> reviewListAdapter.setFullComment(reviewId, comment));
+    }
+
+    /** Applies the filter of the selected chip to the list of reviews. The chip of the current
+     * filter is selected first, so the choice survives a rotation.
+     * Applique le filtre de la puce sélectionnée à la liste des avis. La puce du filtre courant est
+     * d'abord sélectionnée, le choix survit donc à une rotation.
+     */
+    private void setupReviewFilter() {
+        binding.cgReviewFilter.check(chipOf(detailsViewModel.getReviewFilter()));
+        binding.cgReviewFilter.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            detailsViewModel.setReviewFilter(filterOf(checkedIds));
+            binding.fragmentReviewRecyclerView.scrollToPosition(0);
+        });
+    }
+
+    /** Returns the filter of the checked chip. Renvoie le filtre de la puce cochée. */
+    private static ReviewFilter filterOf(List<Integer> checkedIds) {
+        int checkedId = checkedIds.isEmpty() ? R.id.chipFilterAll : checkedIds.get(0);
+        if (checkedId == R.id.chipFilterOneStar) return ReviewFilter.stars(1);
+        if (checkedId == R.id.chipFilterFourStarsAndUp) return ReviewFilter.atLeast(4);
+        if (checkedId == R.id.chipFilterByRating) return ReviewFilter.ALL.orderBy(ReviewFilter.Order.HIGHEST_RATED_FIRST);
+        return ReviewFilter.ALL;
+    }
+
+    /** Returns the chip of a filter. Renvoie la puce d'un filtre. */
+    private static int chipOf(ReviewFilter filter) {
+        if (filter.equals(ReviewFilter.stars(1))) return R.id.chipFilterOneStar;
+        if (filter.equals(ReviewFilter.atLeast(4))) return R.id.chipFilterFourStarsAndUp;
+        if (filter.equals(ReviewFilter.ALL.orderBy(ReviewFilter.Order.HIGHEST_RATED_FIRST))) return R.id.chipFilterByRating;
+        return R.id.chipFilterAll;
+    }
+
     /** Sets the display of the user's avatar and name in the UI.
      * Uses detailsViewModel to get the user's information through a LiveData object.
      * When the user's data is updated:
@@ -106,9 +199,7 @@ public class ReviewFragment extends Fragment {
         LiveData<User> user = detailsViewModel.getUser();
         user.observe(getViewLifecycleOwner(), user1 -> {
             //avec glide mettre en place l'avatar dans l'ui
-            Glide.with(binding.ivNewReviewAvatar.getContext())
-                    .load(user1.getPictureUrl())
-                    .centerCrop()
+            AvatarRequests.avatar(Glide.with(this), user1.getPictureUrl(), AvatarRequests.getAvatarSize(requireContext()))
                     .into(binding.ivNewReviewAvatar);
             binding.tvNewReviewName.setText(user1.getUserName());
         });
@@ -118,15 +209,15 @@ public class ReviewFragment extends Fragment {
      * - Retrieves the user-entered comment and rating from the associated views.
      * - Validates that the comment is not empty and that the rating is non-zero.
      * - Displays appropriate toast messages if the input is invalid.
-     * - Uses the detailsViewModel to add the review with the user's default data.
-     * - Updates the UI after the review is added.
+     * - Uses the detailsViewModel to add the review with the user's default data, which reloads
+     * the displayed reviews.
      * - Resets the comment and rating input fields.
      * Configure le gestionnaire de clics pour le bouton de validation. Lorsque le bouton est cliqué :
      * - Récupère le commentaire et la note saisis par l'utilisateur depuis les vues associées.
      * - Valide que le commentaire n'est pas vide et que la note est différent de zéro.
      * - Affiche des messages Toast appropriés en cas de saisie invalide.
-     * - Utilise detailsViewModel pour ajouter l'avis avec les données par défaut de l'utilisateur.
-     * - Met à jour l'interface utilisateur après l'ajout de l'avis.
+     * - Utilise detailsViewModel pour ajouter l'avis avec les données par défaut de l'utilisateur,
+     * ce qui recharge les avis affichés.
      * - Réinitialise les champs de saisie de commentaire et de note.
      */
     private void setupAddReview() {
@@ -152,7 +243,6 @@ public class ReviewFragment extends Fragment {
                     String avatar = "https://xsgames.co/randomusers/assets/avatars/female/1.jpg";
                     String userName = "Manon Garcia";
                     detailsViewModel.addReview(comment, (int) rating, avatar, userName);
-                    updateUI();
 
                     binding.tietNewReviewComment.setText("");
                     binding.rbNewReviewRate.setRating(0);
@@ -160,16 +250,19 @@ public class ReviewFragment extends Fragment {
         );
     }
 
-    /** Updates the UI by observing changes in the list of reviews obtained from detailsViewModel.
+    /** Updates the UI by observing changes in the reviews loaded page by page by detailsViewModel.
      * When the list is updated, it is passed to reviewListAdapter to display the new data.
-     * Met à jour l'interface utilisateur en observant les changements dans la liste des avis
-     * obtenue depuis detailsViewModel. Lorsque la liste est mise à jour, elle est transmise à
+     * Met à jour l'interface utilisateur en observant les changements dans les avis chargés page
+     * par page par detailsViewModel. Lorsque la liste est mise à jour, elle est transmise à
      * reviewListAdapter pour afficher les nouvelles données.
      */
     private void updateUI (){
-        detailsViewModel.getReviews().observe(getViewLifecycleOwner(), reviews -> {
+        detailsViewModel.getPagedReviews().observe(getViewLifecycleOwner(), reviews -> {
             Log.d("TEST", "updateUI: "+reviews.size());
             reviewListAdapter.updateList(reviews);
+            if (!reviews.isEmpty()) {
+                StartupTimings.getInstance().mark(StartupTimings.Phase.REVIEWS_BOUND);
+            }
         });
     }
 
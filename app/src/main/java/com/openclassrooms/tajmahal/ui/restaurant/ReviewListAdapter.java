@@ -6,39 +6,204 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.openclassrooms.tajmahal.R;
+import com.openclassrooms.tajmahal.data.metrics.Counter;
+import com.openclassrooms.tajmahal.data.metrics.Histogram;
+import com.openclassrooms.tajmahal.data.metrics.MetricsRegistry;
 import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewUtils;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 
 /** ReviewListAdapter is an adapter class for a RecyclerView that manages a list of Review objects.
  * It binds the data of the reviews to the corresponding views using ViewHolders.
- * - The constructor initializes the empty review list.
- * - The updateList method updates the review list and notifies the RecyclerView of changes.
+ * - The constructor initializes the prefetch distance and enables stable ids based on Review.getId().
+ * - The updateList method submits the new review list: the differences with the previous list are
+ * computed off the main thread by {@link ReviewDiffCallback}, then only the inserted, moved or
+ * changed rows are notified to the RecyclerView.
  * - onCreateViewHolder creates and returns a ReviewListViewHolder for an item in the list.
- * - onBindViewHolder binds the data of a Review object to the corresponding view.
- * - getItemCount returns the size of the review list.
+ * - onBindViewHolder binds the data of a Review object to the corresponding view, and asks for the
+ * next page when the bound row is within the prefetch distance of the end of the list.
+ * - The text layouts of the comments of the next rows are computed in the background by
+ * {@link CommentLayouts} when a list is submitted and as the bound rows move down the list.
+ * - A comment longer than {@link ReviewUtils#COMMENT_PREVIEW_LENGTH} is shown as a preview with an
+ * expand control. The expanded reviews are kept by id in a set given by the caller, so they stay
+ * expanded when their rows are bound again, the list changes or the view is recreated. The full
+ * comment of a review served with a preview is asked to the {@link OnFullCommentListener} when it
+ * is expanded, and dropped when it is collapsed, so only the comments shown are kept.
  * ReviewListAdapter est une classe d'adaptateur pour un RecyclerView qui gère une liste d'objets Review.
  * Elle lie les données des avis aux vues correspondantes en utilisant des ViewHolder.
- *  - Le constructeur initialise la liste d'avis vide.
- *  - La méthode updateList met à jour la liste des avis et notifie le RecyclerView des changements.
+ *  - Le constructeur initialise la distance de préchargement et active les identifiants stables
+ *  basés sur Review.getId().
+ *  - La méthode updateList soumet la nouvelle liste d'avis : les différences avec la liste
+ *  précédente sont calculées hors du thread principal par {@link ReviewDiffCallback}, puis seules
+ *  les lignes insérées, déplacées ou modifiées sont notifiées au RecyclerView.
  *  - onCreateViewHolder crée et retourne un ReviewListViewHolder pour un élément (item) de la liste.
- *  - onBindViewHolder lie les données d'un objet Review à la vue correspondante.
- *  - getItemCount retourne la taille de la liste d'avis.
+ *  - onBindViewHolder lie les données d'un objet Review à la vue correspondante, et demande la page
+ *  suivante lorsque la ligne liée se trouve à moins de la distance de préchargement de la fin de la liste.
+ *  - Les mises en page des commentaires des lignes suivantes sont calculées en arrière-plan par
+ *  {@link CommentLayouts} lorsqu'une liste est soumise et à mesure que les lignes liées descendent.
+ *  - Un commentaire de plus de {@link ReviewUtils#COMMENT_PREVIEW_LENGTH} caractères est affiché
+ *  sous forme d'aperçu avec un contrôle pour le déplier. Les avis dépliés sont conservés par
+ *  identifiant dans un ensemble donné par l'appelant, ils restent donc dépliés lorsque leurs lignes
+ *  sont liées à nouveau, que la liste change ou que la vue est recréée. Le commentaire complet d'un
+ *  avis fourni avec un aperçu est demandé à l'{@link OnFullCommentListener} lorsqu'il est déplié, et
+ *  abandonné lorsqu'il est replié, seuls les commentaires affichés sont donc conservés.
  */
-public class ReviewListAdapter extends RecyclerView.Adapter<ReviewListViewHolder>{
-    private List<Review> listReview;
-    public ReviewListAdapter() {
-        listReview = new ArrayList<>();
+public class ReviewListAdapter extends ListAdapter<Review, ReviewListViewHolder> {
+
+    private static final Counter BINDS = MetricsRegistry.getInstance().counter(
+            "tajmahal_ui_review_binds_total", "Rows of the list of reviews bound to a review.");
+
+    private static final Histogram BIND_LATENCY = MetricsRegistry.getInstance().latencyHistogram(
+            "tajmahal_ui_review_bind_seconds", "Time to bind one row of the list of reviews.");
+
+    private static final Histogram LIST_SIZE = MetricsRegistry.getInstance().histogram(
+            "tajmahal_ui_review_list_size", "Reviews in each list given to the adapter.",
+            0, 20, 50, 100, 200, 500, 1_000, 5_000, 10_000, 100_000);
+
+    /** The number of rows from the bound one whose comment layouts are computed in advance.
+     * Le nombre de lignes à partir de la ligne liée dont la mise en page des commentaires est calculée à l'avance.
+     */
+    private static final int COMMENT_PRECOMPUTE_DISTANCE = 40;
+
+    /** The number of comment layouts kept. Le nombre de mises en page de commentaires conservées. */
+    private static final int COMMENT_LAYOUT_CAPACITY = 5 * COMMENT_PRECOMPUTE_DISTANCE;
+
+    /** Listener called when more reviews should be loaded.
+     * Écouteur appelé lorsque davantage d'avis doivent être chargés.
+     */
+    public interface OnLoadMoreListener {
+        void onLoadMore();
+    }
+
+    /** The number of rows before the end of the list at which the next page is requested.
+     * Le nombre de lignes avant la fin de la liste à partir duquel la page suivante est demandée.
+     */
+    private final int prefetchDistance;
+
+    /** Listener called when the full comment of a review served with a preview is needed.
+     * Écouteur appelé lorsque le commentaire complet d'un avis fourni avec un aperçu est nécessaire.
+     */
+    public interface OnFullCommentListener {
+        void onFullCommentNeeded(long reviewId);
+    }
+
+    private OnLoadMoreListener onLoadMoreListener;
+
+    private OnFullCommentListener onFullCommentListener;
+
+    /** The ids of the reviews whose full comment is shown. Les identifiants des avis dont le commentaire complet est affiché. */
+    private final Set<Long> expandedIds;
+
+    /** The full comments read for the expanded reviews served with a preview, by id.
+     * Les commentaires complets lus pour les avis dépliés fournis avec un aperçu, par identifiant.
+     */
+    private final Map<Long, String> fullComments = new HashMap<>();
+
+    /** The positions of the rows whose full comment has been asked and not received yet, by review id.
+     * Les positions des lignes dont le commentaire complet a été demandé et pas encore reçu, par
+     * identifiant d'avis.
+     */
+    private final Map<Long, Integer> requestedComments = new HashMap<>();
+
+    /** True once the next page has been requested for the current list.
+     * Vrai une fois la page suivante demandée pour la liste actuelle.
+     */
+    private boolean loadMoreRequested;
+
+    private RecyclerView recyclerView;
+
+    private final CommentLayouts commentLayouts;
+
+    /** The range of rows whose comment layouts were requested last, the end excluded.
+     * La plage de lignes dont la mise en page des commentaires a été demandée en dernier, fin exclue.
+     */
+    private int precomputedFrom;
+    private int precomputedTo;
+
+    private int lastBoundPosition;
+
+    /**
+     * @param prefetchDistance The number of rows before the end of the list at which the next page is requested.
+     * @param layoutExecutor   The executor computing the layouts of the comments.
+     * @param expandedIds      The ids of the expanded reviews, kept by the caller across recreations and updated by the adapter.
+     * @param prefetchDistance Le nombre de lignes avant la fin de la liste à partir duquel la page suivante est demandée.
+     * @param layoutExecutor   L'exécuteur calculant les mises en page des commentaires.
+     * @param expandedIds      Les identifiants des avis dépliés, conservés par l'appelant entre les recréations et mis à jour par l'adaptateur.
+     */
+    public ReviewListAdapter(int prefetchDistance, Executor layoutExecutor, Set<Long> expandedIds) {
+        super(new ReviewDiffCallback());
+        this.prefetchDistance = prefetchDistance;
+        this.expandedIds = expandedIds;
+        this.commentLayouts = new CommentLayouts(layoutExecutor, this::shownComment, COMMENT_LAYOUT_CAPACITY);
+        setHasStableIds(true);
+    }
+
+    public void setOnLoadMoreListener(OnLoadMoreListener onLoadMoreListener) {
+        this.onLoadMoreListener = onLoadMoreListener;
+    }
+
+    public void setOnFullCommentListener(OnFullCommentListener onFullCommentListener) {
+        this.onFullCommentListener = onFullCommentListener;
+    }
+
+    /**
+     * Shows the full comment of an expanded review, once read.
+     * @param reviewId The id of the review.
+     * @param comment  Its full comment, or null if it could not be read.
+     * Affiche le commentaire complet d'un avis déplié, une fois lu.
+     * @param reviewId L'identifiant de l'avis.
+     * @param comment  Son commentaire complet, ou null s'il n'a pas pu être lu.
+     */
+    public void setFullComment(long reviewId, String comment) {
+        Integer position = requestedComments.remove(reviewId);
+        // A comment received after its review was collapsed is not kept.
+        // Un commentaire reçu après le repliage de son avis n'est pas conservé.
+        if (comment == null || !expandedIds.contains(reviewId)) {
+            return;
+        }
+        fullComments.put(reviewId, comment);
+        notifyReviewChanged(reviewId, position != null ? position : RecyclerView.NO_POSITION);
     }
 
     public void updateList(List<Review> listReview) {
-        this.listReview = listReview;
-        notifyDataSetChanged();
+        LIST_SIZE.record(listReview.size());
+        submitList(listReview, () -> {
+            loadMoreRequested = false;
+            precomputeComments(lastBoundPosition);
+        });
+    }
+
+    /**
+     * Starts computing the comment layouts of the rows from a position, ahead of their binding.
+     * Commence à calculer les mises en page des commentaires des lignes à partir d'une position,
+     * avant leur liaison.
+     */
+    private void precomputeComments(int from) {
+        precomputedFrom = from;
+        precomputedTo = from + COMMENT_PRECOMPUTE_DISTANCE;
+        commentLayouts.precompute(getCurrentList(), precomputedFrom, COMMENT_PRECOMPUTE_DISTANCE);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        this.recyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        this.recyclerView = null;
     }
 
     @NonNull
@@ -47,16 +212,130 @@ public class ReviewListAdapter extends RecyclerView.Adapter<ReviewListViewHolder
         Context context = parent.getContext();
         LayoutInflater inflater = LayoutInflater.from(context);
         View view = inflater.inflate(R.layout.fragment_review_item, parent, false);
-        return new ReviewListViewHolder(view);
+        ReviewListViewHolder viewHolder = new ReviewListViewHolder(view, commentLayouts);
+        viewHolder.getExpandView().setOnClickListener(v -> toggleComment(viewHolder.getBindingAdapterPosition()));
+        if (commentLayouts.setParams(viewHolder.getCommentView())) {
+            precomputeComments(lastBoundPosition);
+        }
+        return viewHolder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ReviewListViewHolder viewHolder, int position) {
-        viewHolder.setReview(this.listReview.get(position));
+        long start = System.nanoTime();
+        Review review = getItem(position);
+        if (expandedIds.contains(review.getId())) {
+            requestFullComment(review, position);
+        }
+        viewHolder.setReview(review, shownComment(review), isExpandable(review), expandedIds.contains(review.getId()));
+        BIND_LATENCY.recordSince(start);
+        BINDS.increment();
+        lastBoundPosition = position;
+        if (position < precomputedFrom || position >= precomputedTo - COMMENT_PRECOMPUTE_DISTANCE / 2) {
+            precomputeComments(position);
+        }
+        if (!loadMoreRequested && onLoadMoreListener != null && recyclerView != null
+                && position >= getItemCount() - 1 - prefetchDistance) {
+            loadMoreRequested = true;
+            // The list can't be updated while the RecyclerView is laying out its rows.
+            // La liste ne peut pas être mise à jour pendant que le RecyclerView dispose ses lignes.
+            recyclerView.post(onLoadMoreListener::onLoadMore);
+        }
     }
 
     @Override
-    public int getItemCount() {
-        return this.listReview.size();
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    /**
+     * Returns the text shown for the comment of a review: its full comment if it is expanded and
+     * known, otherwise its preview.
+     * Renvoie le texte affiché pour le commentaire d'un avis : son commentaire complet s'il est
+     * déplié et connu, sinon son aperçu.
+     */
+    private String shownComment(Review review) {
+        if (expandedIds.contains(review.getId())) {
+            String fullComment = fullComments.get(review.getId());
+            return fullComment != null ? fullComment : review.getComment();
+        }
+        if (review.isCommentTruncated()) {
+            return review.getComment();
+        }
+        return ReviewUtils.commentPreview(review.getComment(), ReviewUtils.COMMENT_PREVIEW_LENGTH);
+    }
+
+    /** Tells whether the comment of a review is longer than its preview. Indique si le commentaire d'un avis est plus long que son aperçu. */
+    private static boolean isExpandable(Review review) {
+        return review.isCommentTruncated()
+                || (review.getComment() != null && review.getComment().length() > ReviewUtils.COMMENT_PREVIEW_LENGTH);
+    }
+
+    /**
+     * Expands or collapses the comment of a row. The full comment of a review served with a preview
+     * is asked when it is expanded and dropped when it is collapsed.
+     * Déplie ou replie le commentaire d'une ligne. Le commentaire complet d'un avis fourni avec un
+     * aperçu est demandé lorsqu'il est déplié et abandonné lorsqu'il est replié.
+     */
+    private void toggleComment(int position) {
+        if (position == RecyclerView.NO_POSITION) {
+            return;
+        }
+        Review review = getItem(position);
+        long id = review.getId();
+        if (expandedIds.remove(id)) {
+            fullComments.remove(id);
+        } else {
+            expandedIds.add(id);
+            requestFullComment(review, position);
+        }
+        notifyItemChanged(position);
+    }
+
+    /**
+     * Asks for the full comment of an expanded review served with a preview, unless it is known or
+     * already asked. An expanded review restored with the view has its comment asked at its bind.
+     * The position of its row is kept to rebind it when the comment arrives.
+     * Demande le commentaire complet d'un avis déplié fourni avec un aperçu, sauf s'il est connu ou
+     * déjà demandé. Un avis déplié restauré avec la vue a son commentaire demandé à sa liaison. La
+     * position de sa ligne est gardée pour la lier à nouveau à l'arrivée du commentaire.
+     */
+    private void requestFullComment(Review review, int position) {
+        long id = review.getId();
+        if (review.isCommentTruncated() && onFullCommentListener != null
+                && !fullComments.containsKey(id) && !requestedComments.containsKey(id)) {
+            requestedComments.put(id, position);
+            onFullCommentListener.onFullCommentNeeded(id);
+        }
+    }
+
+    /**
+     * Rebinds the row of a review, if it is in the list. The row is looked up at the position it had
+     * when its comment was asked, then among the rows shown, by their stable ids; the list is only
+     * scanned if it moved the review out of both, which costs O(n).
+     * Lie à nouveau la ligne d'un avis, s'il est dans la liste. La ligne est cherchée à la position
+     * qu'elle avait lorsque son commentaire a été demandé, puis parmi les lignes affichées, par leurs
+     * identifiants stables ; la liste n'est parcourue que si elle a déplacé l'avis hors des deux, ce
+     * qui coûte O(n).
+     */
+    private void notifyReviewChanged(long reviewId, int position) {
+        List<Review> reviews = getCurrentList();
+        if (position >= 0 && position < reviews.size() && reviews.get(position).getId() == reviewId) {
+            notifyItemChanged(position);
+            return;
+        }
+        if (recyclerView != null) {
+            RecyclerView.ViewHolder shown = recyclerView.findViewHolderForItemId(reviewId);
+            if (shown != null && shown.getBindingAdapterPosition() != RecyclerView.NO_POSITION) {
+                notifyItemChanged(shown.getBindingAdapterPosition());
+                return;
+            }
+        }
+        for (position = 0; position < reviews.size(); position++) {
+            if (reviews.get(position).getId() == reviewId) {
+                notifyItemChanged(position);
+                return;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,45 +1,85 @@
 package com.openclassrooms.tajmahal.ui.restaurant;
 
 import android.view.View;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.openclassrooms.tajmahal.R;
 import com.openclassrooms.tajmahal.databinding.FragmentReviewItemBinding;
 import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.ui.image.AvatarRequests;
 
 /** ReviewListViewHolder is a ViewHolder class for a RecyclerView that binds the data of a Review to
  * a review list view. It uses View Binding to access the views in the list item's layout and Glide
  * to load images efficiently.
- * - The constructor initializes the View Binding for the list item.
+ * - The constructor initializes the View Binding for the list item and the size at which avatars
+ * are decoded, the size of the avatar view.
  * - The setReview method binds the properties of a Review object to the corresponding views in the
- * layout.
+ * layout. The comment is attached with the text layout computed in the background by
+ * {@link CommentLayouts}, so binding a long comment costs no more than binding a short one. A long
+ * comment shows its preview and an expand control, which shows the full comment once expanded.
  * ReviewListViewHolder est une classe ViewHolder pour un RecyclerView qui lie les données d'un
  * Review à une vue de liste d'avis. Elle utilise View Binding pour accéder aux vues du layout de
  * l'élément de la liste (FragmentReviewItem) et Glide pour charger les images de manière efficace.
  * (bibliothèque de gestion d'images conçue pour simplifier le chargement et l'affichage d'images)
- * - Le constructeur initialise le View Binding pour l'élément de la liste.
+ * - Le constructeur initialise le View Binding pour l'élément de la liste et la taille à laquelle
+ * les avatars sont décodés, celle de la vue de l'avatar.
  * - La méthode setReview lie les propriétés d'un objet Review aux vues correspondantes dans le layout.
+ * Le commentaire est attaché avec la mise en page du texte calculée en arrière-plan par
+ * {@link CommentLayouts}, lier un long commentaire ne coûte donc pas plus que lier un court. Un
+ * long commentaire affiche son aperçu et un contrôle pour le déplier, qui affiche le commentaire
+ * complet une fois déplié.
  */
 public class
 ReviewListViewHolder extends RecyclerView.ViewHolder {
     private Review review;
     private FragmentReviewItemBinding binding;
-    public ReviewListViewHolder(@NonNull View itemView) {
+    private final RequestManager requestManager;
+    private final int avatarSize;
+    private final CommentLayouts commentLayouts;
+    public ReviewListViewHolder(@NonNull View itemView, CommentLayouts commentLayouts) {
         super(itemView);
+        this.commentLayouts = commentLayouts;
         binding = FragmentReviewItemBinding.bind(itemView);
+        requestManager = Glide.with(itemView);
+        avatarSize = AvatarRequests.getAvatarSize(itemView.getContext());
     }
 
-    public void setReview(Review review) {
+    /**
+     * Binds a review.
+     * @param review     The review.
+     * @param comment    The text shown for its comment, the full comment or its preview.
+     * @param expandable True if the comment is longer than its preview.
+     * @param expanded   True if the full comment is shown.
+     * Lie un avis.
+     * @param review     L'avis.
+     * @param comment    Le texte affiché pour son commentaire, le commentaire complet ou son aperçu.
+     * @param expandable Vrai si le commentaire est plus long que son aperçu.
+     * @param expanded   Vrai si le commentaire complet est affiché.
+     */
+    public void setReview(Review review, String comment, boolean expandable, boolean expanded) {
         this.review = review;
-        binding.tvReviewComment.setText(review.getComment());
-        Glide.with(binding.ivItemAvatar.getContext())
-                .load(review.getPicture())
-                .centerCrop()
+        commentLayouts.bind(binding.tvReviewComment, review.getId(), comment);
+        binding.tvReviewExpand.setVisibility(expandable ? View.VISIBLE : View.GONE);
+        binding.tvReviewExpand.setText(expanded ? R.string.review_show_less : R.string.review_read_more);
+        AvatarRequests.avatar(requestManager, review.getPicture(), avatarSize)
                 .into(binding.ivItemAvatar);
         binding.tvItemName.setText(review.getUsername());
         binding.rbItemRate.setRating(review.getRate());
     }
+
+    /** Returns the view of the comment. Renvoie la vue du commentaire. */
+    TextView getCommentView() {
+        return binding.tvReviewComment;
+    }
+
+    /** Returns the control expanding or collapsing the comment. Renvoie le contrôle dépliant ou repliant le commentaire. */
+    View getExpandView() {
+        return binding.tvReviewExpand;
+    }
 }
 
@@ -0,0 +1,178 @@
+package com.openclassrooms.tajmahal.ui.restaurant;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The reviews loaded so far, as the pages they were loaded in.
+ * <p>
+ * Appending a page does not copy the reviews already loaded: every list shares the pages of the
+ * list it was appended to and only adds a reference to the new page, so loading N pages costs O(N)
+ * instead of O(N²). Each append still returns a new list, which the adapter needs to compute its
+ * difference, and a list never sees the pages appended after it: it can be read by the diff thread
+ * while the next page is appended. Positions are found by a binary search on the page ends.
+ *<p>
+ * * Les avis chargés jusqu'ici, sous la forme des pages dans lesquelles ils ont été chargés.
+ * <p>
+ * Ajouter une page ne copie pas les avis déjà chargés : chaque liste partage les pages de la liste
+ * à laquelle elle a été ajoutée et n'ajoute qu'une référence vers la nouvelle page, si bien que
+ * charger N pages coûte O(N) au lieu de O(N²). Chaque ajout renvoie tout de même une nouvelle
+ * liste, dont l'adaptateur a besoin pour calculer sa différence, et une liste ne voit jamais les
+ * pages ajoutées après elle : elle peut être lue par le thread de différence pendant l'ajout de la
+ * page suivante. Les positions sont trouvées par une recherche dichotomique sur les fins de page.
+ */
+final class ReviewPages extends AbstractList<Review> {
+
+    /** The empty list, to which the first page is appended. La liste vide, à laquelle la première page est ajoutée. */
+    static final ReviewPages EMPTY = new ReviewPages(new Shared(0), 0, 0);
+
+    /**
+     * The page slots shared by the lists appended one to another. A list only reads its first
+     * {@link #pageCount} slots, which are never written again.
+     * Les emplacements de page partagés par les listes ajoutées les unes aux autres. Une liste ne lit
+     * que ses {@link #pageCount} premiers emplacements, qui ne sont plus jamais écrits.
+     */
+    private static final class Shared {
+        final List<?>[] pages;
+        /** The end position of each page. La position de fin de chaque page. */
+        final int[] ends;
+        /** The number of slots written. Le nombre d'emplacements écrits. */
+        int used;
+
+        Shared(int capacity) {
+            pages = new List<?>[capacity];
+            ends = new int[capacity];
+        }
+    }
+
+    private final Shared shared;
+
+    private final int pageCount;
+
+    private final int size;
+
+    private ReviewPages(Shared shared, int pageCount, int size) {
+        this.shared = shared;
+        this.pageCount = pageCount;
+        this.size = size;
+    }
+
+    /**
+     * Returns a list holding these reviews followed by the page. The page is kept, not copied, and
+     * must not change afterwards.
+     * @param page The reviews of the page.
+     * @return The new list, or this one if the page is empty.
+     * Renvoie une liste contenant ces avis suivis de la page. La page est gardée, pas copiée, et ne
+     * doit plus changer ensuite.
+     * @param page Les avis de la page.
+     * @return La nouvelle liste, ou celle-ci si la page est vide.
+     */
+    ReviewPages append(List<Review> page) {
+        if (page.isEmpty()) {
+            return this;
+        }
+        Shared target = shared;
+        // Another list was already appended to this one, or the slots are full: start new slots
+        // holding the references to the pages, never the reviews.
+        // Une autre liste a déjà été ajoutée à celle-ci, ou les emplacements sont pleins : de nouveaux
+        // emplacements sont créés avec les références des pages, jamais les avis.
+        if (target.used != pageCount || pageCount == target.pages.length) {
+            target = new Shared(Math.max(4, pageCount * 2));
+            System.arraycopy(shared.pages, 0, target.pages, 0, pageCount);
+            System.arraycopy(shared.ends, 0, target.ends, 0, pageCount);
+            target.used = pageCount;
+        }
+        target.pages[pageCount] = page;
+        target.ends[pageCount] = size + page.size();
+        target.used = pageCount + 1;
+        return new ReviewPages(target, pageCount + 1, size + page.size());
+    }
+
+    /**
+     * Returns a list holding a new first page followed by the reviews of this list loaded after the
+     * last review of the page, so that a refresh reads one page instead of every loaded review.
+     * The last review of the page is only looked for among as many first reviews of this list as the
+     * page holds: reviews written since the last load push it down, they never pull it up. The pages
+     * of the tail are shared; only the one the cut falls in is copied, without the reviews of the
+     * new page.
+     * @param page The reviews of the new first page, in the order of this list.
+     * @return The new list, or null if the page does not join this list and the tail must be loaded
+     * again.
+     * Renvoie une liste contenant une nouvelle première page suivie des avis de cette liste chargés
+     * après le dernier avis de la page, afin qu'un rafraîchissement lise une page au lieu de tous les
+     * avis chargés. Le dernier avis de la page n'est cherché que parmi autant de premiers avis de
+     * cette liste que la page en contient : les avis écrits depuis le dernier chargement le font
+     * descendre, jamais remonter. Les pages de la suite sont partagées ; seule celle où tombe la
+     * coupure est copiée, sans les avis de la nouvelle page.
+     * @param page Les avis de la nouvelle première page, dans l'ordre de cette liste.
+     * @return La nouvelle liste, ou null si la page ne rejoint pas cette liste et que la suite doit
+     * être chargée à nouveau.
+     */
+    @SuppressWarnings("unchecked")
+    ReviewPages spliceFirstPage(List<Review> page) {
+        if (page.isEmpty()) {
+            return null;
+        }
+        long lastId = page.get(page.size() - 1).getId();
+        int from = -1;
+        for (int index = 0; index < Math.min(size, page.size()); index++) {
+            if (get(index).getId() == lastId) {
+                from = index + 1;
+                break;
+            }
+        }
+        if (from < 0) {
+            return null;
+        }
+        ReviewPages spliced = EMPTY.append(page);
+        if (from == size) {
+            return spliced;
+        }
+        Set<Long> pageIds = new HashSet<>();
+        for (Review review : page) {
+            pageIds.add(review.getId());
+        }
+        int cutPage = pageOf(from);
+        List<Review> cut = new ArrayList<>();
+        for (int index = from; index < shared.ends[cutPage]; index++) {
+            Review review = get(index);
+            if (!pageIds.contains(review.getId())) {
+                cut.add(review);
+            }
+        }
+        spliced = spliced.append(cut);
+        for (int tail = cutPage + 1; tail < pageCount; tail++) {
+            spliced = spliced.append((List<Review>) shared.pages[tail]);
+        }
+        return spliced;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Review get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        int page = pageOf(index);
+        int start = page == 0 ? 0 : shared.ends[page - 1];
+        return ((List<Review>) shared.pages[page]).get(index - start);
+    }
+
+    /** Returns the page holding a position. Renvoie la page contenant une position. */
+    private int pageOf(int index) {
+        // The first page whose end is after the index. La première page dont la fin est après l'index.
+        int page = Arrays.binarySearch(shared.ends, 0, pageCount, index);
+        return page >= 0 ? page + 1 : -page - 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
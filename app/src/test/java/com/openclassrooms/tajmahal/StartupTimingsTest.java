@@ -0,0 +1,31 @@
+package com.openclassrooms.tajmahal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link StartupTimings}.
+ * Tests unitaires de {@link StartupTimings}.
+ */
+public class StartupTimingsTest {
+
+    /** Only the first time a phase is reached is kept, and phases not reached are left out.
+     * Seule la première fois qu'une phase est atteinte est conservée, et les phases non atteintes sont omises.
+     */
+    @Test
+    public void firstTimeOfEachPhaseIsKept() {
+        StartupTimings timings = new StartupTimings();
+        assertEquals(StartupTimings.NOT_REACHED, timings.getMillis(StartupTimings.Phase.FIRST_FRAME));
+        assertEquals("", timings.toString());
+
+        assertTrue(timings.record(StartupTimings.Phase.APPLICATION_CREATED, 120L));
+        assertTrue(timings.record(StartupTimings.Phase.DETAILS_BOUND, 450L));
+        assertFalse(timings.record(StartupTimings.Phase.APPLICATION_CREATED, 900L));
+
+        assertEquals(120L, timings.getMillis(StartupTimings.Phase.APPLICATION_CREATED));
+        assertEquals("APPLICATION_CREATED=120ms DETAILS_BOUND=450ms", timings.toString());
+    }
+}
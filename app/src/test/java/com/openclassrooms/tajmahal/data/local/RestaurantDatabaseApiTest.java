@@ -0,0 +1,204 @@
+package com.openclassrooms.tajmahal.data.local;
+
+import static com.openclassrooms.tajmahal.domain.model.Restaurant.TAJ_MAHAL_ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Unit tests of {@link RestaurantDatabaseApi} and {@link RestaurantDatabaseHelper} against the
+ * SQLite of Robolectric: the seed, the inserts, the pages with and without filter, and the upgrade
+ * of a version 1 database.
+ * Tests unitaires de {@link RestaurantDatabaseApi} et de {@link RestaurantDatabaseHelper} avec le
+ * SQLite de Robolectric : les données initiales, les insertions, les pages avec et sans filtre, et
+ * la mise à jour d'une base de données en version 1.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RestaurantDatabaseApiTest {
+
+    private Context context;
+    private RestaurantDatabaseHelper helper;
+    private RestaurantDatabaseApi api;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase("tajmahal.db");
+        helper = new RestaurantDatabaseHelper(context);
+        api = new RestaurantDatabaseApi(helper, TAJ_MAHAL_ID);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    /** The new database holds the hard-coded data, in the same order.
+     * La nouvelle base de données contient les données codées en dur, dans le même ordre.
+     */
+    @Test
+    public void databaseIsSeededWithTheFakeData() {
+        RestaurantFakeApi fake = new RestaurantFakeApi();
+
+        assertEquals(fake.getRestaurant(), api.getRestaurant());
+        assertEquals(comments(fake.getReviews()), comments(api.getReviews()));
+        assertEquals(fake.getRatingAggregate(), api.getRatingAggregate());
+        assertEquals(fake.getUser().getUserName(), api.getUser().getUserName());
+        assertNull(new RestaurantDatabaseApi(helper, 42L).getRestaurant());
+    }
+
+    /** Inserted reviews are read back newest first, and invalid ones are refused.
+     * Les avis insérés sont relus du plus récent au plus ancien, et les avis invalides sont refusés.
+     */
+    @Test
+    public void insertedReviewsAreReadNewestFirst() {
+        int before = api.getReviews().size();
+
+        assertTrue(api.addReview("Très bon", 5, "", "Manon Garcia"));
+        assertFalse(api.addReview("", 4, "", "Manon Garcia"));
+        assertFalse(api.addReview(null, 4, "", "Manon Garcia"));
+        assertFalse(api.addReview("Sans note", null, "", "Manon Garcia"));
+        assertFalse(api.addReview("Trop bon", 0, "", "Manon Garcia"));
+        assertFalse(api.addReview("Trop bon", 6, "", "Manon Garcia"));
+
+        List<Review> reviews = api.getReviews();
+        assertEquals(before + 1, reviews.size());
+        assertEquals("Très bon", reviews.get(0).getComment());
+        assertEquals("Très bon", api.getComment(reviews.get(0).getId()));
+        assertEquals(RatingAggregate.of(reviews), api.getRatingAggregate());
+        assertEquals(1, api.searchReviews("très bon", 10).size());
+    }
+
+    /** Row ids beyond the range of an int are found by the search, and a comment repeating its
+     * words matches once.
+     * Les identifiants de ligne au-delà de la plage d'un int sont trouvés par la recherche, et un
+     * commentaire répétant ses mots n'est trouvé qu'une fois.
+     */
+    @Test
+    public void searchKeepsLongRowIds() {
+        assertEquals(0, api.searchReviews("curry", 10).size());
+        long id = Integer.MAX_VALUE + 10L;
+        helper.getWritableDatabase().execSQL("INSERT INTO review (_id, restaurant_id, username, picture, comment, rate, created_at) "
+                + "VALUES (" + id + ", " + TAJ_MAHAL_ID + ", 'Ranjit', '', 'Curry curry curry', 5, 1000)");
+        assertTrue(api.addReview("Le curry de la maison", 4, "", "Ranjit"));
+
+        // The index built before the raw insert only gained the review added through the API.
+        // L'index construit avant l'insertion brute n'a gagné que l'avis ajouté via l'API.
+        assertEquals(Collections.singletonList(id + 1), ids(api.searchReviews("curry", 10)));
+        List<Long> ids = ids(new RestaurantDatabaseApi(helper, TAJ_MAHAL_ID).searchReviews("curry", 10));
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains(id));
+        assertTrue(ids.contains(id + 1));
+    }
+
+    /** Following the cursors returns every review once, in the order of the filter.
+     * Suivre les curseurs renvoie chaque avis une fois, dans l'ordre du filtre.
+     */
+    @Test
+    public void pagesFollowTheFilterAndItsOrder() {
+        List<Review> batch = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            batch.add(new Review(0L, "user " + i, "", "comment " + i, 1 + (i * 7) % 5, 1_000L + i));
+        }
+        assertTrue(api.addReviews(batch));
+        List<Review> all = api.getReviews();
+
+        assertEquals(ids(all), ids(readAll(ReviewFilter.ALL, 7)));
+        for (ReviewFilter filter : new ReviewFilter[]{ReviewFilter.stars(3), ReviewFilter.atLeast(4),
+                ReviewFilter.atLeast(2).orderBy(ReviewFilter.Order.HIGHEST_RATED_FIRST),
+                ReviewFilter.ALL.orderBy(ReviewFilter.Order.LOWEST_RATED_FIRST)}) {
+            List<Review> expected = new ArrayList<>();
+            for (Review review : all) {
+                if (filter.accepts(review.getRate())) {
+                    expected.add(review);
+                }
+            }
+            if (filter.getOrder() == ReviewFilter.Order.HIGHEST_RATED_FIRST) {
+                expected.sort(Comparator.comparingInt(Review::getRate).reversed());
+            } else if (filter.getOrder() == ReviewFilter.Order.LOWEST_RATED_FIRST) {
+                expected.sort(Comparator.comparingInt(Review::getRate));
+            }
+            assertEquals(filter.toString(), ids(expected), ids(readAll(filter, 7)));
+        }
+    }
+
+    /** A version 1 database keeps its reviews, with an unknown creation time, once upgraded.
+     * Une base de données en version 1 garde ses avis, avec une date d'écriture inconnue, une fois
+     * mise à jour.
+     */
+    @Test
+    public void versionOneDatabaseIsUpgraded() {
+        helper.close();
+        context.deleteDatabase("tajmahal.db");
+        SQLiteDatabase v1 = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath("tajmahal.db"), null);
+        v1.execSQL("CREATE TABLE restaurant (_id INTEGER PRIMARY KEY, name TEXT NOT NULL, type TEXT, hours TEXT, "
+                + "address TEXT, website TEXT, phone_number TEXT, dine_in INTEGER NOT NULL, take_away INTEGER NOT NULL)");
+        v1.execSQL("CREATE TABLE review (_id INTEGER PRIMARY KEY AUTOINCREMENT, restaurant_id INTEGER NOT NULL, "
+                + "username TEXT, picture TEXT, comment TEXT NOT NULL, rate INTEGER NOT NULL)");
+        v1.execSQL("CREATE TABLE user (_id INTEGER PRIMARY KEY, username TEXT NOT NULL, picture TEXT)");
+        v1.execSQL("INSERT INTO restaurant VALUES (1, 'Taj Mahal', 'Indien', '11h30 - 14h30', '', '', '', 1, 1)");
+        v1.execSQL("INSERT INTO review (restaurant_id, username, picture, comment, rate) VALUES (1, 'Ranjit', '', 'Très bon', 4)");
+        v1.setVersion(1);
+        v1.close();
+
+        helper = new RestaurantDatabaseHelper(context);
+        api = new RestaurantDatabaseApi(helper, TAJ_MAHAL_ID);
+
+        List<Review> reviews = api.getReviews();
+        assertEquals(1, reviews.size());
+        assertEquals(0L, reviews.get(0).getCreatedAt());
+        assertTrue(api.addReview("Encore meilleur", 5, "", "Ranjit"));
+        assertTrue(api.getReviews().get(0).getCreatedAt() > 0L);
+        assertEquals(2, helper.getReadableDatabase().getVersion());
+    }
+
+    private List<Review> readAll(ReviewFilter filter, int pageSize) {
+        List<Review> reviews = new ArrayList<>();
+        Long cursor = null;
+        do {
+            ReviewPage page = api.getReviews(filter, cursor, pageSize);
+            reviews.addAll(page.getReviews());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return reviews;
+    }
+
+    private static List<Long> ids(List<Review> reviews) {
+        List<Long> ids = new ArrayList<>();
+        for (Review review : reviews) {
+            ids.add(review.getId());
+        }
+        return ids;
+    }
+
+    private static List<String> comments(List<Review> reviews) {
+        List<String> comments = new ArrayList<>();
+        for (Review review : reviews) {
+            comments.add(review.getComment());
+        }
+        return comments;
+    }
+}
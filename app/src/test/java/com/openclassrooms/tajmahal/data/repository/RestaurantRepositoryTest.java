@@ -0,0 +1,334 @@
+package com.openclassrooms.tajmahal.data.repository;
+
+import static com.openclassrooms.tajmahal.domain.model.Restaurant.TAJ_MAHAL_ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+import com.openclassrooms.tajmahal.data.executor.AppExecutors;
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Unit tests of {@link RestaurantRepository}. The background executors are replaced by queues run
+ * explicitly by the test, which makes the order of the calls deterministic.
+ * Tests unitaires de {@link RestaurantRepository}. Les exécuteurs d'arrière-plan sont remplacés
+ * par des files lancées explicitement par le test, ce qui rend l'ordre des appels déterministe.
+ */
+public class RestaurantRepositoryTest {
+
+    /** Makes LiveData.postValue deliver its value immediately.
+     * Fait en sorte que LiveData.postValue délivre sa valeur immédiatement.
+     */
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private QueueExecutor reads;
+    private QueueExecutor writes;
+    private List<Long> opened;
+    private List<TrackedApi> apis;
+    private int fullReads;
+    private int trendReads;
+    private RestaurantRepository repository;
+
+    @Before
+    public void setUp() {
+        reads = new QueueExecutor();
+        writes = new QueueExecutor();
+        opened = new ArrayList<>();
+        apis = new ArrayList<>();
+        repository = new RestaurantRepository(restaurantId -> {
+            opened.add(restaurantId);
+            TrackedApi api = new TrackedApi();
+            apis.add(api);
+            return api;
+        }, new AppExecutors(reads, writes));
+    }
+
+    /** The API is neither opened nor called on the calling thread: the restaurant is only posted
+     * once the read runs.
+     * L'API n'est ni ouverte ni appelée sur le thread appelant : le restaurant n'est publié qu'une
+     * fois la lecture exécutée.
+     */
+    @Test
+    public void readsRunOnReadExecutor() {
+        LiveData<Restaurant> restaurant = repository.getRestaurant(TAJ_MAHAL_ID);
+        assertNull(restaurant.getValue());
+        assertTrue(opened.isEmpty());
+
+        reads.runAll();
+
+        assertEquals("Taj Mahal", restaurant.getValue().getName());
+    }
+
+    /** Writes are applied in order on the write queue and update the rating statistics.
+     * Les écritures sont appliquées dans l'ordre sur la file d'écriture et mettent à jour les
+     * statistiques de notation.
+     */
+    @Test
+    public void writesUpdateRatingAggregateInOrder() {
+        LiveData<RatingAggregate> aggregate = repository.getRatingAggregate(TAJ_MAHAL_ID);
+        LiveData<Boolean> first = repository.addReview(TAJ_MAHAL_ID, "Très bon", 5, "", "Manon Garcia");
+        LiveData<Boolean> rejected = repository.addReview(TAJ_MAHAL_ID, "", 3, "", "Manon Garcia");
+        assertNull(first.getValue());
+
+        writes.runAll();
+
+        assertTrue(first.getValue());
+        assertEquals(Boolean.FALSE, rejected.getValue());
+        assertEquals(6, aggregate.getValue().getCount());
+        assertEquals(3, aggregate.getValue().getStarCount(5));
+    }
+
+    /** A rating outside one to five stars accepted by an API is not added to the cached aggregate,
+     * which is read again from the API instead.
+     * Une note hors d'une à cinq étoiles acceptée par une API n'est pas ajoutée à l'agrégat en cache,
+     * qui est relu depuis l'API à la place.
+     */
+    @Test
+    public void outOfRangeRatingRereadsTheAggregate() {
+        RestaurantFakeApi lenient = new RestaurantFakeApi() {
+            @Override
+            public boolean addReview(String comment, Integer rating, String avatar, String userName) {
+                return true;
+            }
+        };
+        repository = new RestaurantRepository(restaurantId -> lenient, new AppExecutors(reads, writes));
+        LiveData<RatingAggregate> aggregate = repository.getRatingAggregate(TAJ_MAHAL_ID);
+        writes.runAll();
+        RatingAggregate before = aggregate.getValue();
+
+        repository.addReview(TAJ_MAHAL_ID, "Trop bon", 6, "", "Manon Garcia");
+        writes.runAll();
+
+        assertEquals(lenient.getRatingAggregate(), aggregate.getValue());
+        assertEquals(before.getCount(), aggregate.getValue().getCount());
+    }
+
+    /** The reviews stream is shared: a single observer registered once receives exactly one
+     * emission per accepted review, and rejected reviews emit nothing.
+     * Le flux des avis est partagé : un unique observateur enregistré une fois reçoit exactement
+     * une émission par avis accepté, et les avis refusés n'émettent rien.
+     */
+    @Test
+    public void reviewsStreamIsSharedAndEmitsOncePerWrite() {
+        LiveData<List<Review>> reviews = repository.getReviews(TAJ_MAHAL_ID);
+        List<Integer> emittedSizes = new ArrayList<>();
+        reviews.observeForever(list -> emittedSizes.add(list.size()));
+        writes.runAll();
+
+        for (int i = 0; i < 10; i++) {
+            repository.addReview(TAJ_MAHAL_ID, "Avis " + i, 4, "", "Manon Garcia");
+            writes.runAll();
+        }
+        repository.addReview(TAJ_MAHAL_ID, "", 4, "", "Manon Garcia");
+        writes.runAll();
+
+        assertSame(reviews, repository.getReviews(TAJ_MAHAL_ID));
+        assertEquals(11, emittedSizes.size());
+        assertEquals(Integer.valueOf(15), emittedSizes.get(10));
+    }
+
+    /** The review changes follow the accepted writes without reading the reviews, and the reviews
+     * stream is only read while it is observed.
+     * Les changements d'avis suivent les écritures acceptées sans lire les avis, et le flux des avis
+     * n'est lu que tant qu'il est observé.
+     */
+    @Test
+    public void reviewChangesDoNotReadTheReviews() {
+        LiveData<Long> changes = repository.getReviewChanges(TAJ_MAHAL_ID);
+        List<Long> emitted = new ArrayList<>();
+        changes.observeForever(emitted::add);
+        LiveData<List<Review>> reviews = repository.getReviews(TAJ_MAHAL_ID);
+
+        for (int i = 0; i < 5; i++) {
+            repository.addReview(TAJ_MAHAL_ID, "Avis " + i, 4, "", "Manon Garcia");
+        }
+        repository.addReview(TAJ_MAHAL_ID, "", 4, "", "Manon Garcia");
+        writes.runAll();
+
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L), emitted);
+        assertEquals(0, fullReads);
+        reviews.observeForever(list -> { });
+        writes.runAll();
+        assertEquals(1, fullReads);
+        assertEquals(10, reviews.getValue().size());
+    }
+
+    /** The trend is read when it becomes observed, after each accepted write, and again each time
+     * it is observed again, such as by a screen shown again after midnight or recreated.
+     * La tendance est lue lorsqu'elle devient observée, après chaque écriture acceptée, et à nouveau
+     * chaque fois qu'elle est de nouveau observée, comme par un écran affiché à nouveau après minuit
+     * ou recréé.
+     */
+    @Test
+    public void trendIsReadAgainWhenObservedAgain() {
+        LiveData<RatingTrend> trend = repository.getRatingTrend(TAJ_MAHAL_ID, 7);
+        writes.runAll();
+        assertEquals(0, trendReads);
+
+        Observer<RatingTrend> screen = value -> { };
+        trend.observeForever(screen);
+        writes.runAll();
+        assertEquals(1, trendReads);
+        assertEquals(7, trend.getValue().getDays());
+        repository.addReview(TAJ_MAHAL_ID, "Très bon", 5, "", "Manon Garcia");
+        writes.runAll();
+        assertEquals(2, trendReads);
+
+        trend.removeObserver(screen);
+        assertSame(trend, repository.getRatingTrend(TAJ_MAHAL_ID, 7));
+        trend.observeForever(screen);
+        writes.runAll();
+        assertEquals(3, trendReads);
+    }
+
+    /** Each restaurant has its own reviews: a review added to one restaurant leaves the others unchanged.
+     * Chaque restaurant a ses propres avis : un avis ajouté à un restaurant laisse les autres inchangés.
+     */
+    @Test
+    public void restaurantsAreIndependent() {
+        LiveData<RatingAggregate> first = repository.getRatingAggregate(1L);
+        LiveData<RatingAggregate> second = repository.getRatingAggregate(2L);
+        repository.addReview(2L, "Très bon", 5, "", "Manon Garcia");
+
+        writes.runAll();
+
+        assertEquals(5, first.getValue().getCount());
+        assertEquals(6, second.getValue().getCount());
+        assertEquals(Arrays.asList(1L, 2L), opened);
+    }
+
+    /** Only the restaurants used most recently stay open: the least recently used one is evicted,
+     * and opened again on its next use.
+     * Seuls les restaurants utilisés le plus récemment restent ouverts : le moins récemment utilisé
+     * est évincé, puis rouvert lors de sa prochaine utilisation.
+     */
+    @Test
+    public void leastRecentlyUsedRestaurantIsEvicted() {
+        for (long id = 1L; id <= RestaurantRepository.MAX_CACHED_RESTAURANTS; id++) {
+            repository.getRestaurant(id);
+        }
+        repository.getRestaurant(1L);
+        repository.getRestaurant(RestaurantRepository.MAX_CACHED_RESTAURANTS + 1L);
+        repository.getRestaurant(1L);
+        reads.runAll();
+        writes.runAll();
+        assertEquals(RestaurantRepository.MAX_CACHED_RESTAURANTS + 1, opened.size());
+
+        repository.getRestaurant(2L);
+        reads.runAll();
+
+        assertEquals(RestaurantRepository.MAX_CACHED_RESTAURANTS + 2, opened.size());
+        assertEquals(Long.valueOf(2L), opened.get(opened.size() - 1));
+    }
+
+    /** An evicted restaurant closes its API only after the calls already submitted to it, and
+     * cached again before, it keeps using the same API.
+     * Un restaurant évincé ne ferme son API qu'après les appels qui lui ont déjà été soumis, et
+     * remis en cache avant, il continue d'utiliser la même API.
+     */
+    @Test
+    public void evictedApiClosesAfterItsPendingCalls() {
+        LiveData<Restaurant> evicted = repository.getRestaurant(1L);
+        reads.runAll();
+        LiveData<List<Review>> search = repository.searchReviews(1L, "curry", 10);
+        for (long id = 2L; id <= RestaurantRepository.MAX_CACHED_RESTAURANTS + 1L; id++) {
+            repository.getRestaurant(id);
+        }
+        writes.runAll();
+        assertFalse(apis.get(0).closed);
+
+        reads.runAll();
+        assertEquals("Taj Mahal", evicted.getValue().getName());
+        assertEquals(1, search.getValue().size());
+        assertTrue(apis.get(0).closed);
+
+        // Cached again while a read is pending: the API is not closed, nor opened again.
+        // Remis en cache pendant qu'une lecture est en attente : l'API n'est ni fermée, ni rouverte.
+        LiveData<List<Review>> pending = repository.searchReviews(2L, "curry", 10);
+        for (long id = 3L; id <= RestaurantRepository.MAX_CACHED_RESTAURANTS + 1L; id++) {
+            repository.getRestaurant(id);
+        }
+        repository.getRestaurant(RestaurantRepository.MAX_CACHED_RESTAURANTS + 2L);
+        repository.getRestaurant(2L);
+        reads.runAll();
+        writes.runAll();
+        assertEquals(1, pending.getValue().size());
+        assertEquals(1, Collections.frequency(opened, 2L));
+        assertFalse(apis.get(opened.indexOf(2L)).closed);
+    }
+
+    /** A fake API counting its full reads and refusing to be read once closed.
+     * Une fausse API comptant ses lectures complètes et refusant d'être lue une fois fermée.
+     */
+    private class TrackedApi extends RestaurantFakeApi implements Closeable {
+        boolean closed;
+
+        @Override
+        public Restaurant getRestaurant() {
+            assertFalse(closed);
+            return super.getRestaurant();
+        }
+
+        @Override
+        public List<Review> getReviews() {
+            assertFalse(closed);
+            fullReads++;
+            return super.getReviews();
+        }
+
+        @Override
+        public RatingTrend getRatingTrend(long now, int days) {
+            trendReads++;
+            return super.getRatingTrend(now, days);
+        }
+
+        @Override
+        public void close() {
+            assertFalse(closed);
+            closed = true;
+        }
+    }
+
+    /** An executor keeping its tasks until the test runs them. Un exécuteur qui garde ses tâches
+     * jusqu'à ce que le test les lance.
+     */
+    private static class QueueExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
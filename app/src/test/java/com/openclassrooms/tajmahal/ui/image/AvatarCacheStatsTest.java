@@ -0,0 +1,34 @@
+package com.openclassrooms.tajmahal.ui.image;
+
+import static org.junit.Assert.assertEquals;
+
+import com.bumptech.glide.load.DataSource;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link AvatarCacheStats}.
+ * Tests unitaires de {@link AvatarCacheStats}.
+ */
+public class AvatarCacheStatsTest {
+
+    /** Loads served by the memory or disk caches are hits, fetched ones are misses.
+     * Les chargements servis par les caches mémoire ou disque sont des réussites, ceux récupérés sont des échecs.
+     */
+    @Test
+    public void hitRateCountsCachesOnly() {
+        AvatarCacheStats stats = new AvatarCacheStats();
+        assertEquals(0.0, stats.getHitRate(), 0.0);
+
+        stats.record(DataSource.REMOTE);
+        stats.record(DataSource.DATA_DISK_CACHE);
+        stats.record(DataSource.MEMORY_CACHE);
+        stats.record(DataSource.MEMORY_CACHE);
+
+        assertEquals(2L, stats.getLoads(DataSource.MEMORY_CACHE));
+        assertEquals(0.75, stats.getHitRate(), 1e-9);
+
+        stats.reset();
+        assertEquals(0L, stats.getLoads(DataSource.REMOTE));
+    }
+}
@@ -0,0 +1,134 @@
+package com.openclassrooms.tajmahal.ui.restaurant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.widget.TextView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests of {@link CommentLayouts}: the layouts are kept by review id and shown text, those that
+ * will not be shown are cancelled, and a comment bound before its layout is set as plain text.
+ * Tests unitaires de {@link CommentLayouts} : les mises en page sont conservées par identifiant d'avis
+ * et texte affiché, celles qui ne seront pas affichées sont annulées, et un commentaire lié avant sa
+ * mise en page est affiché en texte simple.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CommentLayoutsTest {
+
+    /** The layouts submitted, run by the test. Les mises en page soumises, exécutées par le test. */
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    /** The texts shown instead of the comments, by review id. Les textes affichés à la place des commentaires, par identifiant d'avis. */
+    private final Map<Long, String> shown = new HashMap<>();
+
+    private TextView commentView;
+
+    @Before
+    public void setUp() {
+        commentView = new TextView(ApplicationProvider.getApplicationContext());
+    }
+
+    /** A layout is computed once for a review and its text, and again once the text shown changes.
+     * Une mise en page est calculée une fois pour un avis et son texte, et à nouveau lorsque le
+     * texte affiché change.
+     */
+    @Test
+    public void layoutIsKeyedByReviewAndText() {
+        CommentLayouts layouts = layouts(10);
+        List<Review> reviews = reviews(3);
+
+        layouts.precompute(reviews, 0, 3);
+        layouts.precompute(reviews, 0, 3);
+        assertEquals(3, tasks.size());
+
+        shown.put(0L, "le commentaire complet");
+        layouts.precompute(reviews, 0, 3);
+        assertEquals(4, tasks.size());
+        assertTrue(task(0).isCancelled());
+        assertFalse(task(3).isCancelled());
+    }
+
+    /** Layouts evicted from the cache, or of rows scrolled past, are cancelled unless they already ran.
+     * Les mises en page évincées du cache, ou des lignes dépassées par le défilement, sont annulées
+     * sauf si elles ont déjà été exécutées.
+     */
+    @Test
+    public void staleLayoutsAreCancelled() {
+        CommentLayouts evicting = layouts(2);
+        evicting.precompute(reviews(3), 0, 3);
+        assertTrue(task(0).isCancelled());
+        assertFalse(task(2).isCancelled());
+
+        tasks.clear();
+        CommentLayouts layouts = layouts(10);
+        List<Review> reviews = reviews(6);
+        layouts.precompute(reviews, 0, 3);
+        tasks.get(0).run();
+        layouts.precompute(reviews, 3, 3);
+
+        assertFalse(task(0).isCancelled());
+        assertTrue(task(1).isCancelled());
+        assertTrue(task(2).isCancelled());
+        assertEquals(6, tasks.size());
+        // The layout that ran is still cached. La mise en page exécutée est toujours en cache.
+        layouts.precompute(reviews, 0, 1);
+        assertEquals(6, tasks.size());
+    }
+
+    /** A comment bound before its layout is ready is set as plain text without waiting for it.
+     * Un commentaire lié avant que sa mise en page ne soit prête est affiché en texte simple sans
+     * l'attendre.
+     */
+    @Test
+    public void missIsBoundAsPlainText() {
+        CommentLayouts layouts = new CommentLayouts(tasks::add, Review::getComment, 10);
+        layouts.bind(commentView, 0L, "comment 0");
+        assertEquals("comment 0", commentView.getText().toString());
+        assertTrue(tasks.isEmpty());
+
+        layouts.setParams(commentView);
+        layouts.bind(commentView, 1L, "comment 1");
+        assertEquals("comment 1", commentView.getText().toString());
+        assertFalse(task(0).isDone());
+
+        tasks.get(0).run();
+        layouts.bind(commentView, 1L, "comment 1");
+        assertEquals("comment 1", commentView.getText().toString());
+        assertEquals(1, tasks.size());
+    }
+
+    private CommentLayouts layouts(int capacity) {
+        CommentLayouts layouts = new CommentLayouts(tasks::add,
+                review -> shown.getOrDefault(review.getId(), review.getComment()), capacity);
+        layouts.setParams(commentView);
+        return layouts;
+    }
+
+    private Future<?> task(int index) {
+        return (Future<?>) tasks.get(index);
+    }
+
+    private static List<Review> reviews(int count) {
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reviews.add(new Review(i, "user " + i, "", "comment " + i, 1 + i % 5, 1_000L + i));
+        }
+        return reviews;
+    }
+}
@@ -0,0 +1,119 @@
+package com.openclassrooms.tajmahal.ui.restaurant;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.openclassrooms.tajmahal.data.service.RestaurantApi;
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the rows the {@link ReviewListAdapter} has to bind when its list is updated, using the same
+ * {@link ReviewDiffCallback} as the adapter.
+ * Compte les lignes que le {@link ReviewListAdapter} doit lier lorsque sa liste est mise à jour, en
+ * utilisant le même {@link ReviewDiffCallback} que l'adaptateur.
+ */
+public class ReviewDiffCallbackTest {
+
+    /** Adding one review must insert exactly one row and rebind none of the existing ones.
+     * L'ajout d'un avis doit insérer exactement une ligne et ne lier à nouveau aucune des lignes existantes.
+     */
+    @Test
+    public void addingOneReviewBindsOneRow() {
+        RestaurantApi api = new RestaurantFakeApi();
+        List<Review> before = new ArrayList<>(api.getReviews());
+        api.addReview("Délicieux", 5, "", "Manon Garcia");
+        List<Review> after = new ArrayList<>(api.getReviews());
+
+        BindCounter counter = dispatch(before, after);
+
+        assertEquals(1, counter.inserted);
+        assertEquals(0, counter.changed);
+        assertEquals(0, counter.removed);
+        assertEquals(1, counter.binds());
+    }
+
+    /** Submitting an equal list must not bind anything.
+     * Soumettre une liste égale ne doit rien lier.
+     */
+    @Test
+    public void sameListBindsNothing() {
+        List<Review> reviews = new RestaurantFakeApi().getReviews();
+
+        BindCounter counter = dispatch(new ArrayList<>(reviews), new ArrayList<>(reviews));
+
+        assertEquals(0, counter.binds());
+    }
+
+    /** Computes the difference between two lists with {@link ReviewDiffCallback} and counts the updates.
+     * Calcule la différence entre deux listes avec {@link ReviewDiffCallback} et compte les mises à jour.
+     */
+    private static BindCounter dispatch(List<Review> oldList, List<Review> newList) {
+        ReviewDiffCallback itemCallback = new ReviewDiffCallback();
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldList.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newList.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return itemCallback.areItemsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                return itemCallback.areContentsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+            }
+        });
+        BindCounter counter = new BindCounter();
+        result.dispatchUpdatesTo(counter);
+        return counter;
+    }
+
+    /** Records the notifications the adapter would receive. Only inserted and changed rows are bound.
+     * Enregistre les notifications que recevrait l'adaptateur. Seules les lignes insérées et
+     * modifiées sont liées.
+     */
+    private static class BindCounter implements ListUpdateCallback {
+        int inserted;
+        int removed;
+        int changed;
+
+        @Override
+        public void onInserted(int position, int count) {
+            inserted += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            removed += count;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            changed += count;
+        }
+
+        int binds() {
+            return inserted + changed;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.openclassrooms.tajmahal.ui.restaurant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests of {@link ReviewPages}: appended pages read as one list, and a list is not changed by
+ * the pages appended after it.
+ * Tests unitaires de {@link ReviewPages} : les pages ajoutées se lisent comme une seule liste, et une
+ * liste n'est pas modifiée par les pages ajoutées après elle.
+ */
+public class ReviewPagesTest {
+
+    @Test
+    public void appendedPagesReadAsOneList() {
+        List<Review> expected = new ArrayList<>();
+        ReviewPages pages = ReviewPages.EMPTY;
+        for (int page = 0; page < 50; page++) {
+            List<Review> reviews = reviews(expected.size(), page % 7);
+            expected.addAll(reviews);
+            pages = pages.append(reviews);
+            assertEquals(expected, pages);
+        }
+        assertSame(pages, pages.append(Collections.<Review>emptyList()));
+    }
+
+    @Test
+    public void earlierListsKeepTheirPages() {
+        ReviewPages first = ReviewPages.EMPTY.append(reviews(0, 3));
+        ReviewPages second = first.append(reviews(3, 2));
+        // Appending twice to the same list must not overwrite the page of the other branch.
+        // Ajouter deux fois à la même liste ne doit pas écraser la page de l'autre branche.
+        ReviewPages other = first.append(reviews(100, 4));
+
+        assertEquals(3, first.size());
+        assertEquals(reviews(0, 5), second);
+        List<Review> expected = new ArrayList<>(reviews(0, 3));
+        expected.addAll(reviews(100, 4));
+        assertEquals(expected, other);
+        assertEquals(0, ReviewPages.EMPTY.size());
+    }
+
+    /** A refreshed first page is joined to the loaded reviews after its last one, without duplicates,
+     * and a page that does not reach them is refused.
+     * Une première page rafraîchie est raccordée aux avis chargés après son dernier, sans doublons, et
+     * une page qui ne les atteint pas est refusée.
+     */
+    @Test
+    public void refreshedFirstPageIsSplicedOntoTheTail() {
+        ReviewPages loaded = ReviewPages.EMPTY.append(reviews(10, 4)).append(reviews(14, 4)).append(reviews(18, 4));
+        // Two reviews written in front push the page down to the loaded review 11.
+        // Deux avis écrits devant font descendre la page jusqu'à l'avis chargé 11.
+        List<Review> page = new ArrayList<>(reviews(0, 2));
+        page.addAll(reviews(10, 2));
+
+        List<Review> expected = new ArrayList<>(page);
+        expected.addAll(reviews(12, 10));
+        assertEquals(expected, loaded.spliceFirstPage(page));
+        assertEquals(reviews(10, 12), loaded.spliceFirstPage(reviews(10, 4)));
+        assertEquals(reviews(10, 4), ReviewPages.EMPTY.append(reviews(10, 4)).spliceFirstPage(reviews(10, 4)));
+
+        assertNull(loaded.spliceFirstPage(reviews(0, 4)));
+        assertNull(loaded.spliceFirstPage(Collections.<Review>emptyList()));
+    }
+
+    private static List<Review> reviews(int from, int count) {
+        List<Review> reviews = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            reviews.add(new Review(i, "user " + i, "", "comment " + i, 1 + i % 5, 1_000L + i));
+        }
+        return reviews;
+    }
+}
@@ -0,0 +1,38 @@
+// JMH benchmarks of the pure Java code of the :core module.
+// Run them with: ./gradlew :benchmark:jmh
+// Measure the heap held by one million reviews with: ./gradlew :benchmark:footprint
+plugins {
+    id("java")
+    id("me.champeau.jmh")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    jmh(project(":core"))
+    jmh("org.openjdk.jol:jol-core:0.17")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+}
+
+tasks.register<JavaExec>("footprint") {
+    description = "Prints the heap held by one million reviews, as objects and as columns."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.openclassrooms.tajmahal.benchmark.ReviewFootprint")
+    maxHeapSize = "4g"
+    jvmArgs("-Djdk.attach.allowAttachSelf=true")
+}
@@ -0,0 +1,72 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the import of a batch of reviews into an empty {@link RestaurantFakeApi}: one call to
+ * {@link RestaurantFakeApi#addReviews} against as many calls to {@link RestaurantFakeApi#addReview}
+ * followed each by the reload of the reviews done by the repository. The score is the number of
+ * reviews imported per second.
+ * Mesure l'import d'un lot d'avis dans un {@link RestaurantFakeApi} vide : un appel à
+ * {@link RestaurantFakeApi#addReviews} contre autant d'appels à {@link RestaurantFakeApi#addReview}
+ * suivis chacun du rechargement des avis effectué par le référentiel. Le score est le nombre d'avis
+ * importés par seconde.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BulkAddBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"false", "true"})
+    public boolean reloadAfterEachAdd;
+
+    private List<Review> batch;
+
+    @Setup
+    public void setUp() {
+        batch = ReviewCorpus.generate(BATCH_SIZE, ReviewCorpus.SEED);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public RestaurantFakeApi singleAdds(Blackhole blackhole) {
+        RestaurantFakeApi api = new RestaurantFakeApi();
+        for (Review review : batch) {
+            api.addReview(review.getComment(), review.getRate(), review.getPicture(), review.getUsername());
+            if (reloadAfterEachAdd) {
+                blackhole.consume(api.getReviews());
+            }
+        }
+        return api;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public RestaurantFakeApi batchAdd(Blackhole blackhole) {
+        RestaurantFakeApi api = new RestaurantFakeApi();
+        api.addReviews(batch);
+        if (reloadAfterEachAdd) {
+            blackhole.consume(api.getReviews());
+        }
+        return api;
+    }
+}
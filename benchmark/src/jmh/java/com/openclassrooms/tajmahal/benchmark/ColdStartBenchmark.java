@@ -0,0 +1,90 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.data.service.RestaurantSnapshotApi;
+import com.openclassrooms.tajmahal.data.service.ReviewSnapshot;
+import com.openclassrooms.tajmahal.data.service.ReviewWriteAheadLog;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time from a cold start to the first page of reviews: opening a
+ * {@link ReviewSnapshot} through {@link RestaurantSnapshotApi}, against replaying the same reviews
+ * from a {@link ReviewWriteAheadLog} into a {@link RestaurantFakeApi}, which parses and stores
+ * every review up front.
+ * Mesure le temps entre un démarrage à froid et la première page d'avis : ouverture d'un
+ * {@link ReviewSnapshot} via {@link RestaurantSnapshotApi}, contre le rejeu des mêmes avis depuis
+ * un {@link ReviewWriteAheadLog} dans un {@link RestaurantFakeApi}, qui analyse et stocke chaque
+ * avis d'emblée.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ColdStartBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private File directory;
+
+    private File snapshotFile;
+
+    private File logFile;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        directory = File.createTempFile("coldstart", "");
+        directory.delete();
+        directory.mkdirs();
+        List<Review> reviews = ReviewCorpus.generate(size, ReviewCorpus.SEED);
+        snapshotFile = new File(directory, "reviews.snapshot");
+        ReviewSnapshot.write(snapshotFile, reviews);
+        logFile = new File(directory, "reviews.wal");
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(logFile)) {
+            log.awaitDurable(log.appendAll(reviews));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        snapshotFile.delete();
+        logFile.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public ReviewPage snapshotFirstPage() {
+        RestaurantSnapshotApi api = new RestaurantSnapshotApi(snapshotFile, null);
+        ReviewPage page = api.getReviews(null, PAGE_SIZE);
+        page.getReviews().forEach(Review::getComment);
+        return page;
+    }
+
+    @Benchmark
+    public ReviewPage replayFirstPage() throws IOException {
+        RestaurantFakeApi api = new RestaurantFakeApi();
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(logFile)) {
+            api.addReviews(log.takeRecovered());
+        }
+        return api.getReviews(null, PAGE_SIZE);
+    }
+}
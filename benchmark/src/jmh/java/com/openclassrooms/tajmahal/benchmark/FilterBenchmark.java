@@ -0,0 +1,87 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.ReviewLog;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first page of a filtered view of the reviews: read from the star buckets of a
+ * {@link ReviewLog}, and computed the naive way by filtering and sorting a copy of the list.
+ * Mesure la première page d'une vue filtrée des avis : lue dans les compartiments d'étoiles d'un
+ * {@link ReviewLog}, et calculée de façon naïve en filtrant et en triant une copie de la liste.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FilterBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"ONE_STAR", "FOUR_STARS_AND_UP", "BY_RATING"})
+    public String view;
+
+    private List<Review> reviews;
+
+    private ReviewLog log;
+
+    private ReviewFilter filter;
+
+    @Setup
+    public void setUp() {
+        reviews = ReviewCorpus.generate(size, ReviewCorpus.SEED);
+        log = new ReviewLog();
+        for (Review review : reviews) {
+            log.add(review.getUsername(), review.getPicture(), review.getComment(), review.getRate());
+        }
+        reviews = log.newestFirst();
+        switch (view) {
+            case "ONE_STAR":
+                filter = ReviewFilter.stars(1);
+                break;
+            case "FOUR_STARS_AND_UP":
+                filter = ReviewFilter.atLeast(4);
+                break;
+            default:
+                filter = ReviewFilter.ALL.orderBy(ReviewFilter.Order.HIGHEST_RATED_FIRST);
+        }
+    }
+
+    @Benchmark
+    public ReviewPage bucketPage() {
+        return log.page(filter, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Review> filterAndSortList() {
+        List<Review> kept = new ArrayList<>();
+        for (Review review : reviews) {
+            if (filter.accepts(review.getRate())) {
+                kept.add(review);
+            }
+        }
+        if (filter.getOrder() == ReviewFilter.Order.HIGHEST_RATED_FIRST) {
+            kept.sort(Comparator.comparingInt(Review::getRate).reversed());
+        }
+        return new ArrayList<>(kept.subList(0, Math.min(PAGE_SIZE, kept.size())));
+    }
+}
@@ -0,0 +1,74 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.metrics.Counter;
+import com.openclassrooms.tajmahal.data.metrics.Histogram;
+import com.openclassrooms.tajmahal.data.metrics.MetricsRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of recording a metric from four threads at once, against a histogram guarded
+ * by a lock, to check that the instrumentation stays negligible on the hot paths.
+ * Mesure le coût de l'enregistrement d'une métrique depuis quatre threads à la fois, face à un
+ * histogramme protégé par un verrou, pour vérifier que l'instrumentation reste négligeable sur les
+ * chemins critiques.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final Counter counter = MetricsRegistry.getInstance().counter(
+            "benchmark_increments_total", "Increments of the benchmark.");
+
+    private final Histogram histogram = MetricsRegistry.getInstance().latencyHistogram(
+            "benchmark_latency_seconds", "Samples of the benchmark.");
+
+    private final LockedHistogram lockedHistogram = new LockedHistogram();
+
+    @Benchmark
+    public void counterIncrement() {
+        counter.increment();
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(ThreadLocalRandom.current().nextInt(10_000_000));
+    }
+
+    @Benchmark
+    public void lockedHistogramRecord() {
+        lockedHistogram.record(ThreadLocalRandom.current().nextInt(10_000_000));
+    }
+
+    /** The same buckets behind a lock. Les mêmes intervalles derrière un verrou. */
+    private static final class LockedHistogram {
+
+        private static final long[] BOUNDS = {10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+                1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L};
+
+        private final long[] counts = new long[BOUNDS.length + 1];
+        private long sum;
+
+        synchronized void record(long value) {
+            int bucket = 0;
+            while (bucket < BOUNDS.length && value > BOUNDS[bucket]) {
+                bucket++;
+            }
+            counts[bucket]++;
+            sum += value;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.SyntheticDataGenerator;
+import com.openclassrooms.tajmahal.domain.model.OpeningHours;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ranking restaurants by their opening status: open first, those closing latest ahead,
+ * then closed, those opening soonest ahead. Each restaurant costs one status and one next
+ * transition query on its parsed hours.
+ * Mesure le classement de restaurants selon leur état d'ouverture : ouverts d'abord, ceux fermant
+ * le plus tard en tête, puis fermés, ceux ouvrant le plus tôt en tête. Chaque restaurant coûte une
+ * requête d'état et une de prochaine transition sur ses horaires analysés.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class OpeningHoursBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private OpeningHours[] hours;
+
+    private String[] texts;
+
+    private long now;
+
+    @Setup
+    public void setUp() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(SyntheticDataGenerator.DEFAULT_SEED);
+        TimeZone zone = TimeZone.getTimeZone("Europe/Paris");
+        hours = new OpeningHours[size];
+        texts = new String[size];
+        for (int i = 0; i < size; i++) {
+            texts[i] = generator.restaurant(i + 1L).getHours();
+            hours[i] = OpeningHours.parse(texts[i], zone);
+        }
+        // A Tuesday at 14h00 in Paris, when some restaurants are about to close.
+        // Un mardi à 14h00 à Paris, lorsque certains restaurants sont sur le point de fermer.
+        now = 1_704_805_200_000L;
+    }
+
+    @Benchmark
+    public int[] rankByOpenStatus() {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            OpeningHours restaurant = hours[i];
+            long next = Math.min(restaurant.nextTransition(now) - now, Integer.MAX_VALUE);
+            // Open ones first by latest closing, then closed ones by soonest opening, in the high
+            // bits; the index in the low bits.
+            // Les ouverts d'abord par fermeture la plus tardive, puis les fermés par ouverture la plus
+            // proche, dans les bits de poids fort ; l'index dans les bits de poids faible.
+            long rank = restaurant.isOpen(now) ? Integer.MAX_VALUE - next : Integer.MAX_VALUE + next;
+            keys[i] = (rank << 20) | i;
+        }
+        Arrays.sort(keys);
+        int[] ranking = new int[size];
+        for (int i = 0; i < size; i++) {
+            ranking[i] = (int) (keys[i] & 0xFFFFF);
+        }
+        return ranking;
+    }
+
+    @Benchmark
+    public OpeningHours[] parse() {
+        TimeZone zone = hours[0].getZone();
+        OpeningHours[] parsed = new OpeningHours[size];
+        for (int i = 0; i < size; i++) {
+            parsed[i] = OpeningHours.parse(texts[i], zone);
+        }
+        return parsed;
+    }
+}
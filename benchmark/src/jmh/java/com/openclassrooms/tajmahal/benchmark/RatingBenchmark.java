@@ -0,0 +1,63 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.ReviewLog;
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full scans over a list of reviews: the average rating and the star histogram, and
+ * the same histogram read from the star buckets of a {@link ReviewLog}.
+ * Mesure les parcours complets d'une liste d'avis : la note moyenne et l'histogramme des étoiles,
+ * ainsi que le même histogramme lu dans les compartiments d'étoiles d'un {@link ReviewLog}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RatingBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Review> reviews;
+
+    private ReviewLog log;
+
+    @Setup
+    public void setUp() {
+        reviews = ReviewCorpus.generate(size, ReviewCorpus.SEED);
+        log = new ReviewLog();
+        for (Review review : reviews) {
+            log.add(review.getUsername(), review.getPicture(), review.getComment(), review.getRate());
+        }
+    }
+
+    @Benchmark
+    public float averageRating() {
+        return ReviewUtils.calculateAverageRating(reviews);
+    }
+
+    @Benchmark
+    public RatingAggregate starHistogram() {
+        return RatingAggregate.of(reviews);
+    }
+
+    @Benchmark
+    public RatingAggregate columnStarHistogram() {
+        return log.ratingAggregate();
+    }
+}
@@ -0,0 +1,70 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the write and read paths of {@link RestaurantFakeApi} on a store already holding
+ * {@code size} reviews.
+ * Mesure les chemins d'écriture et de lecture de {@link RestaurantFakeApi} sur un stockage
+ * contenant déjà {@code size} avis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RestaurantFakeApiBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private RestaurantFakeApi api;
+
+    private int counter;
+
+    /**
+     * Fills a new API for each iteration, so that the writes of an iteration do not grow the store
+     * measured by the next one.
+     * Remplit une nouvelle API à chaque itération, afin que les écritures d'une itération ne fassent
+     * pas grossir le stockage mesuré par la suivante.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        api = new RestaurantFakeApi();
+        for (Review review : ReviewCorpus.generate(size, ReviewCorpus.SEED)) {
+            api.addReview(review.getComment(), review.getRate(), review.getPicture(), review.getUsername());
+        }
+    }
+
+    @Benchmark
+    public boolean addReview() {
+        return api.addReview("Très bon restaurant Indien !", 1 + (counter++ % 5), "avatar", "Manon Garcia");
+    }
+
+    @Benchmark
+    public List<Review> getReviews() {
+        return api.getReviews();
+    }
+
+    @Benchmark
+    public ReviewPage getFirstPage() {
+        return api.getReviews(null, PAGE_SIZE);
+    }
+}
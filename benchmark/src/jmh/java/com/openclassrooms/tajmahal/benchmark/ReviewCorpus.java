@@ -0,0 +1,35 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.SyntheticDataGenerator;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import java.util.List;
+
+/**
+ * Builds deterministic synthetic corpora of reviews for the benchmarks, with the
+ * {@link SyntheticDataGenerator} of the load tests, so that the benchmarks and the application
+ * measure the same data.
+ *<p>
+ * * Construit des corpus synthétiques et déterministes d'avis pour les benchmarks, avec le
+ * {@link SyntheticDataGenerator} des tests de charge, afin que les benchmarks et l'application
+ * mesurent les mêmes données.
+ */
+final class ReviewCorpus {
+
+    /** The seed used by every benchmark. La graine utilisée par tous les benchmarks. */
+    static final long SEED = SyntheticDataGenerator.DEFAULT_SEED;
+
+    /** The restaurant whose reviews are generated. Le restaurant dont les avis sont générés. */
+    private static final long RESTAURANT_ID = 1L;
+
+    private ReviewCorpus() {
+    }
+
+    /**
+     * Generates {@code size} reviews, oldest first.
+     * Génère {@code size} avis, du plus ancien au plus récent.
+     */
+    static List<Review> generate(int size, long seed) {
+        return new SyntheticDataGenerator(seed).reviewList(RESTAURANT_ID, size);
+    }
+}
@@ -0,0 +1,68 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Review#equals(Object)} and {@link Review#hashCode()} over a whole corpus, as done
+ * when reviews are diffed or put in hash based collections.
+ * Mesure {@link Review#equals(Object)} et {@link Review#hashCode()} sur tout un corpus, comme lors
+ * de la comparaison des listes d'avis ou de leur insertion dans des collections par hachage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ReviewEqualityBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Review> reviews;
+
+    /** Equal but distinct copies of {@link #reviews}. Des copies égales mais distinctes de {@link #reviews}. */
+    private List<Review> copies;
+
+    @Setup
+    public void setUp() {
+        reviews = ReviewCorpus.generate(size, ReviewCorpus.SEED);
+        copies = new ArrayList<>(size);
+        for (Review review : reviews) {
+            copies.add(new Review(review.getId(), review.getUsername(), review.getPicture(),
+                    new String(review.getComment()), review.getRate()));
+        }
+    }
+
+    @Benchmark
+    public int hashCodes() {
+        int hash = 0;
+        for (Review review : reviews) {
+            hash += review.hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int equalities() {
+        int equal = 0;
+        for (int i = 0; i < size; i++) {
+            if (reviews.get(i).equals(copies.get(i))) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+}
@@ -0,0 +1,63 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.ReviewLog;
+import com.openclassrooms.tajmahal.data.service.StringPool;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the retained heap of one million reviews held as a list of {@link Review} objects, as a
+ * list of reviews whose names and avatars go through a {@link StringPool}, and held in the columns
+ * of a {@link ReviewLog}.
+ * <p>
+ * Every string is copied before being stored, like the strings decoded from a response or read
+ * from a database, so that equal usernames are distinct objects in the first list. The sizes are
+ * computed by walking the object graph with JOL. Run it with: ./gradlew :benchmark:footprint
+ *<p>
+ * * Mesure la mémoire retenue par un million d'avis conservés sous forme de liste d'objets
+ * {@link Review}, sous forme de liste d'avis dont les noms et avatars passent par une
+ * {@link StringPool}, et dans les colonnes d'un {@link ReviewLog}.
+ * <p>
+ * Chaque chaîne est copiée avant d'être stockée, comme les chaînes décodées d'une réponse ou lues
+ * dans une base de données, afin que des noms d'utilisateur égaux soient des objets distincts dans
+ * la première liste. Les tailles sont calculées en parcourant le graphe d'objets avec JOL.
+ */
+public final class ReviewFootprint {
+
+    private static final int DEFAULT_SIZE = 1_000_000;
+
+    private ReviewFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        List<Review> corpus = ReviewCorpus.generate(size, ReviewCorpus.SEED);
+
+        List<Review> objects = new ArrayList<>(size);
+        List<Review> pooled = new ArrayList<>(size);
+        StringPool authors = new StringPool();
+        ReviewLog columns = new ReviewLog();
+        for (Review review : corpus) {
+            String username = new String(review.getUsername());
+            String picture = new String(review.getPicture());
+            String comment = new String(review.getComment());
+            objects.add(new Review(review.getId(), username, picture, comment, review.getRate()));
+            pooled.add(new Review(review.getId(), authors.intern(new String(username)), authors.intern(new String(picture)),
+                    new String(comment), review.getRate()));
+            columns.add(username, picture, comment, review.getRate());
+        }
+        corpus = null;
+
+        report("List<Review>", GraphLayout.parseInstance(objects).totalSize(), size);
+        report("pooled", GraphLayout.parseInstance(pooled, authors).totalSize(), size);
+        report("ReviewLog", GraphLayout.parseInstance(columns).totalSize(), size);
+    }
+
+    private static void report(String name, long bytes, int size) {
+        System.out.printf("%-14s %,15d bytes %8.1f bytes/review%n", name, bytes, (double) bytes / size);
+    }
+}
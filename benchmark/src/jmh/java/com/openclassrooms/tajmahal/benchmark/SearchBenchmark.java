@@ -0,0 +1,55 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the search of the review comments through {@link RestaurantFakeApi#searchReviews}.
+ * The corpus only has a few distinct comments, so every word matches a large share of the reviews:
+ * this is the worst case of the index.
+ * Mesure la recherche dans les commentaires des avis via {@link RestaurantFakeApi#searchReviews}.
+ * Le corpus n'a que quelques commentaires distincts, chaque mot correspond donc à une grande part
+ * des avis : c'est le pire cas de l'index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SearchBenchmark {
+
+    private static final int LIMIT = 20;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"curry", "service rapide", "sav"})
+    public String query;
+
+    private RestaurantFakeApi api;
+
+    @Setup
+    public void setUp() {
+        api = new RestaurantFakeApi();
+        for (Review review : ReviewCorpus.generate(size, ReviewCorpus.SEED)) {
+            api.addReview(review.getComment(), review.getRate(), review.getPicture(), review.getUsername());
+        }
+    }
+
+    @Benchmark
+    public List<Review> search() {
+        return api.searchReviews(query, LIMIT);
+    }
+}
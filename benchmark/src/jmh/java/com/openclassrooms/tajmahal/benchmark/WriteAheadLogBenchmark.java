@@ -0,0 +1,66 @@
+package com.openclassrooms.tajmahal.benchmark;
+
+import com.openclassrooms.tajmahal.data.service.ReviewWriteAheadLog;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the appends to a {@link ReviewWriteAheadLog}: without waiting, the syncs being grouped
+ * by the committer thread, and waiting for each record to be on the disk, one sync per record.
+ * The score is the number of reviews appended per second.
+ * Mesure les ajouts à un {@link ReviewWriteAheadLog} : sans attendre, les synchronisations étant
+ * groupées par le thread d'écriture, et en attendant que chaque enregistrement soit sur le disque,
+ * une synchronisation par enregistrement. Le score est le nombre d'avis ajoutés par seconde.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+public class WriteAheadLogBenchmark {
+
+    private final Review review = new Review("Manon Garcia", "https://xsgames.co/randomusers/assets/avatars/female/1.jpg",
+            "Service très rapide et nourriture délicieuse, nous mangeons ici chaque week-end.", 5);
+
+    private File file;
+
+    private ReviewWriteAheadLog log;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        file = File.createTempFile("reviews", ".wal");
+        file.delete();
+        log = ReviewWriteAheadLog.open(file);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        log.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public long groupCommit() {
+        return log.append(review);
+    }
+
+    @Benchmark
+    public long syncEachRecord() throws IOException, InterruptedException {
+        long sequence = log.append(review);
+        log.awaitDurable(sequence);
+        return sequence;
+    }
+}
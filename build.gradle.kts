@@ -2,4 +2,5 @@
 plugins {
     id("com.android.application") version "8.4.1" apply false
     id("com.google.dagger.hilt.android") version "2.44" apply false
+    id("me.champeau.jmh") version "0.7.2" apply false
 }
\ No newline at end of file
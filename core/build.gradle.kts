@@ -0,0 +1,18 @@
+// Pure Java code of the application (domain model and data services), without any Android
+// dependency so that it can be unit tested and benchmarked on the JVM.
+plugins {
+    id("java-library")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
@@ -0,0 +1,37 @@
+package com.openclassrooms.tajmahal.data.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, such as the number of reviews added. Incrementing it takes no lock
+ * and allocates nothing: concurrent threads update separate cells, summed when the count is read.
+ *<p>
+ * * Un nombre qui ne fait qu'augmenter, comme le nombre d'avis ajoutés. L'incrémenter ne prend
+ * aucun verrou et n'alloue rien : les threads concurrents mettent à jour des cellules distinctes,
+ * additionnées lorsque le nombre est lu.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    /** Adds one. Ajoute un. */
+    public void increment() {
+        value.increment();
+    }
+
+    /** Adds a non-negative amount. Ajoute une quantité positive ou nulle. */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("A counter cannot go down: " + amount);
+        }
+        value.add(amount);
+    }
+
+    /** Returns the current count. Renvoie le nombre actuel. */
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.tajmahal.data.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A value that goes up and down, such as the number of reviews in the list, of which only the
+ * latest one is kept.
+ *<p>
+ * * Une valeur qui monte et descend, comme le nombre d'avis de la liste, dont seule la dernière
+ * est conservée.
+ */
+public final class Gauge {
+
+    private final AtomicLong value = new AtomicLong();
+
+    Gauge() {
+    }
+
+    /** Replaces the value. Remplace la valeur. */
+    public void set(long value) {
+        this.value.set(value);
+    }
+
+    /** Returns the latest value. Renvoie la dernière valeur. */
+    public long get() {
+        return value.get();
+    }
+}
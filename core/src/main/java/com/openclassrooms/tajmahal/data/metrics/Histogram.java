@@ -0,0 +1,102 @@
+package com.openclassrooms.tajmahal.data.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts samples, such as durations or list sizes, in buckets whose upper bounds are fixed when the
+ * histogram is created, and keeps their sum.
+ * <p>
+ * Recording a sample takes no lock and allocates nothing: it finds the bucket among a few bounds
+ * and increments one atomic counter. The buckets and the sum are read separately, so a snapshot
+ * taken while samples are recorded may be off by those samples.
+ *<p>
+ * * Compte des échantillons, comme des durées ou des tailles de liste, dans des intervalles dont les
+ * bornes supérieures sont fixées à la création de l'histogramme, et conserve leur somme.
+ * <p>
+ * Enregistrer un échantillon ne prend aucun verrou et n'alloue rien : l'intervalle est trouvé parmi
+ * quelques bornes et un seul compteur atomique est incrémenté. Les intervalles et la somme sont lus
+ * séparément, un instantané pris pendant l'enregistrement d'échantillons peut donc être décalé de
+ * ces échantillons.
+ */
+public final class Histogram {
+
+    /** The inclusive upper bounds of the buckets, in ascending order, in recorded units.
+     * Les bornes supérieures incluses des intervalles, par ordre croissant, en unités enregistrées.
+     */
+    private final long[] bounds;
+
+    /** The number of samples per bucket, the last one counting the samples above every bound.
+     * Le nombre d'échantillons par intervalle, le dernier comptant ceux au-dessus de toutes les bornes.
+     */
+    private final AtomicLongArray counts;
+
+    private final LongAdder sum = new LongAdder();
+
+    /** The number of recorded units in one exported unit, for example 10^9 from nanoseconds to seconds.
+     * Le nombre d'unités enregistrées dans une unité exportée, par exemple 10^9 des nanosecondes aux secondes.
+     */
+    private final long unitsPerExported;
+
+    Histogram(long[] bounds, long unitsPerExported) {
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("Bounds must be in ascending order");
+            }
+        }
+        this.bounds = bounds.clone();
+        this.counts = new AtomicLongArray(bounds.length + 1);
+        this.unitsPerExported = unitsPerExported;
+    }
+
+    /** Records a sample. Enregistre un échantillon. */
+    public void record(long value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        sum.add(value);
+    }
+
+    /**
+     * Records the nanoseconds elapsed since a start read with {@link System#nanoTime()}.
+     * Enregistre les nanosecondes écoulées depuis un début lu avec {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /** Returns the number of samples. Renvoie le nombre d'échantillons. */
+    public long getCount() {
+        long count = 0L;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /** Returns the sum of the samples, in recorded units. Renvoie la somme des échantillons, en unités enregistrées. */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /** Returns the number of buckets, the last one having no bound. Renvoie le nombre d'intervalles, le dernier n'ayant pas de borne. */
+    int getBucketCount() {
+        return counts.length();
+    }
+
+    /** Returns the number of samples of a bucket. Renvoie le nombre d'échantillons d'un intervalle. */
+    long getBucket(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /** Returns the upper bound of a bucket, in recorded units. Renvoie la borne supérieure d'un intervalle, en unités enregistrées. */
+    long getBound(int bucket) {
+        return bounds[bucket];
+    }
+
+    long getUnitsPerExported() {
+        return unitsPerExported;
+    }
+}
@@ -0,0 +1,179 @@
+package com.openclassrooms.tajmahal.data.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The named counters, gauges and histograms of the application, exported in the text format of
+ * Prometheus.
+ * <p>
+ * A metric is registered once, usually in a static field of the class it measures, and then
+ * recorded without any lookup, lock or allocation. Registering a name again returns the same
+ * metric, so the classes sharing a metric do not need to know which one registers it first.
+ * Latencies are recorded in nanoseconds and exported in seconds, as Prometheus expects.
+ *<p>
+ * * Les compteurs, jauges et histogrammes nommés de l'application, exportés au format texte de
+ * Prometheus.
+ * <p>
+ * Une métrique est enregistrée une fois, en général dans un champ statique de la classe qu'elle
+ * mesure, puis alimentée sans recherche, verrou ni allocation. Enregistrer à nouveau un nom renvoie
+ * la même métrique, les classes partageant une métrique n'ont donc pas besoin de savoir laquelle
+ * l'enregistre en premier. Les latences sont enregistrées en nanosecondes et exportées en secondes,
+ * comme l'attend Prometheus.
+ */
+public final class MetricsRegistry {
+
+    /** The bounds of the latency histograms, from 10 µs to 10 s, in nanoseconds.
+     * Les bornes des histogrammes de latence, de 10 µs à 10 s, en nanosecondes.
+     */
+    private static final long[] LATENCY_BOUNDS_NANOS = {
+            10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 10_000_000_000L};
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<String, Entry> metrics = new ConcurrentHashMap<>();
+
+    MetricsRegistry() {
+    }
+
+    /** Returns the metrics of the application. Renvoie les métriques de l'application. */
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the counter with this name, registering it if needed.
+     * @param name The name of the counter, ending with "_total" by convention.
+     * @param help What the counter counts.
+     * Renvoie le compteur portant ce nom, en l'enregistrant si besoin.
+     * @param name Le nom du compteur, se terminant par « _total » par convention.
+     * @param help Ce que compte le compteur.
+     */
+    public Counter counter(String name, String help) {
+        return register(name, help, "counter", Counter.class, new Counter());
+    }
+
+    /**
+     * Returns the gauge with this name, registering it if needed.
+     * Renvoie la jauge portant ce nom, en l'enregistrant si besoin.
+     */
+    public Gauge gauge(String name, String help) {
+        return register(name, help, "gauge", Gauge.class, new Gauge());
+    }
+
+    /**
+     * Returns the latency histogram with this name, registering it if needed. Its samples are
+     * recorded in nanoseconds and exported in seconds.
+     * @param name The name of the histogram, ending with "_seconds" by convention.
+     * @param help What the histogram measures.
+     * Renvoie l'histogramme de latence portant ce nom, en l'enregistrant si besoin. Ses
+     * échantillons sont enregistrés en nanosecondes et exportés en secondes.
+     * @param name Le nom de l'histogramme, se terminant par « _seconds » par convention.
+     * @param help Ce que mesure l'histogramme.
+     */
+    public Histogram latencyHistogram(String name, String help) {
+        return register(name, help, "histogram", Histogram.class, new Histogram(LATENCY_BOUNDS_NANOS, NANOS_PER_SECOND));
+    }
+
+    /**
+     * Returns the histogram with this name, registering it with the given bounds if needed.
+     * @param bounds The inclusive upper bounds of the buckets, in ascending order.
+     * Renvoie l'histogramme portant ce nom, en l'enregistrant avec les bornes données si besoin.
+     * @param bounds Les bornes supérieures incluses des intervalles, par ordre croissant.
+     */
+    public Histogram histogram(String name, String help, long... bounds) {
+        return register(name, help, "histogram", Histogram.class, new Histogram(bounds, 1L));
+    }
+
+    private <T> T register(String name, String help, String type, Class<T> metricClass, T metric) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+        Entry entry = metrics.computeIfAbsent(name, key -> new Entry(help, type, metric));
+        if (!metricClass.isInstance(entry.metric)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + entry.type);
+        }
+        return metricClass.cast(entry.metric);
+    }
+
+    /**
+     * Writes every metric, sorted by name, in the text format of Prometheus.
+     * Écrit toutes les métriques, triées par nom, au format texte de Prometheus.
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Map.Entry<String, Entry> named : new TreeMap<>(metrics).entrySet()) {
+            String name = named.getKey();
+            Entry entry = named.getValue();
+            out.append("# HELP ").append(name).append(' ').append(escapeHelp(entry.help)).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(entry.type).append('\n');
+            if (entry.metric instanceof Counter) {
+                out.append(name).append(' ').append(Long.toString(((Counter) entry.metric).get())).append('\n');
+            } else if (entry.metric instanceof Gauge) {
+                out.append(name).append(' ').append(Long.toString(((Gauge) entry.metric).get())).append('\n');
+            } else {
+                writeHistogram(out, name, (Histogram) entry.metric);
+            }
+        }
+    }
+
+    /** Returns every metric in the text format of Prometheus. Renvoie toutes les métriques au format texte de Prometheus. */
+    public String toPrometheus() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            writePrometheus(builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the cumulative buckets of a histogram, then its sum and count.
+     * Écrit les intervalles cumulés d'un histogramme, puis sa somme et son nombre.
+     */
+    private static void writeHistogram(Appendable out, String name, Histogram histogram) throws IOException {
+        long units = histogram.getUnitsPerExported();
+        long cumulative = 0L;
+        int last = histogram.getBucketCount() - 1;
+        for (int bucket = 0; bucket <= last; bucket++) {
+            cumulative += histogram.getBucket(bucket);
+            String bound = bucket == last ? "+Inf" : format(histogram.getBound(bucket), units);
+            out.append(name).append("_bucket{le=\"").append(bound).append("\"} ")
+                    .append(Long.toString(cumulative)).append('\n');
+        }
+        out.append(name).append("_sum ").append(format(histogram.getSum(), units)).append('\n');
+        out.append(name).append("_count ").append(Long.toString(cumulative)).append('\n');
+    }
+
+    private static String format(long value, long units) {
+        return units == 1L ? Long.toString(value) : Double.toString((double) value / units);
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    /** A registered metric with its description. Une métrique enregistrée avec sa description. */
+    private static final class Entry {
+
+        final String help;
+        final String type;
+        final Object metric;
+
+        Entry(String help, String type, Object metric) {
+            this.help = help;
+            this.type = type;
+            this.metric = metric;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+import com.openclassrooms.tajmahal.domain.model.User;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link RestaurantApi} keeping the reviews of an in-memory store, such as
+ * {@link RestaurantFakeApi}, across the death of the process with a {@link ReviewWriteAheadLog}.
+ * <p>
+ * Each review is fully validated, then appended to the log, and applied to the store once it is on
+ * the disk: a write returning true survives the death of the process, and a record that the store
+ * would refuse is never logged. The writers wait for the disk without holding any lock, so the
+ * batches of concurrent writers are synced together by the group commit of the log, then applied
+ * to the store in the order of the log. The log is opened and replayed into the store on the first call,
+ * not in the constructor, so that creating the API on the main thread does not read the disk: the
+ * repository makes every call on its executors. Records the store cannot apply, written by an
+ * older version, are skipped by the replay instead of failing every start.
+ * <p>
+ * When the store is a {@link RestaurantSnapshotApi}, the log is folded into a new snapshot once it
+ * holds {@link #COMPACT_AFTER_RECORDS} records, then emptied: neither the log replayed at start nor
+ * the reviews kept in memory grow without bound. The snapshot stores the epoch the emptied log
+ * starts, so a log left behind by a crash between the two steps is discarded, not replayed twice.
+ *<p>
+ * * Une {@link RestaurantApi} qui conserve les avis d'un stockage en mémoire, comme
+ * {@link RestaurantFakeApi}, au-delà de la mort du processus grâce à un {@link ReviewWriteAheadLog}.
+ * <p>
+ * Chaque avis est entièrement validé, puis ajouté au journal, et appliqué au stockage une fois sur
+ * le disque : une écriture renvoyant true survit à la mort du processus, et un enregistrement que
+ * le stockage refuserait n'est jamais journalisé. Les écrivains attendent le disque sans tenir de
+ * verrou, les lots d'écrivains concurrents sont donc synchronisés ensemble par l'écriture groupée
+ * du journal, puis appliqués au stockage dans l'ordre du journal. Le journal est ouvert et rejoué dans le stockage
+ * au premier appel, et non dans le constructeur, afin que la création de l'API sur le thread
+ * principal ne lise pas le disque : le référentiel fait tous ses appels sur ses exécuteurs. Les
+ * enregistrements que le stockage ne peut pas appliquer, écrits par une version plus ancienne,
+ * sont ignorés par le rejeu au lieu de faire échouer chaque démarrage.
+ * <p>
+ * Lorsque le stockage est un {@link RestaurantSnapshotApi}, le journal est intégré à un nouvel
+ * instantané dès qu'il contient {@link #COMPACT_AFTER_RECORDS} enregistrements, puis vidé : ni le
+ * journal rejoué au démarrage ni les avis gardés en mémoire ne grandissent sans limite.
+ * L'instantané stocke l'époque que commence le journal vidé, un journal laissé par un plantage
+ * entre les deux étapes est donc écarté, et non rejoué une seconde fois.
+ */
+public class JournaledRestaurantApi implements RestaurantApi, Closeable {
+
+    /** The number of records after which the log is folded into the snapshot.
+     * Le nombre d'enregistrements après lequel le journal est intégré à l'instantané.
+     */
+    public static final int COMPACT_AFTER_RECORDS = 1024;
+
+    private final RestaurantApi store;
+
+    private final File file;
+
+    private final int compactAfter;
+
+    /** The number of records in the log, written with {@link #writeLock} held.
+     * Le nombre d'enregistrements du journal, écrit avec {@link #writeLock} tenu.
+     */
+    private int loggedRecords;
+
+    /** The number of records at which the next compaction is tried.
+     * Le nombre d'enregistrements auquel la prochaine compaction est tentée.
+     */
+    private int nextCompaction;
+
+    /** Held by the writers to append their reviews, then to apply them to the store in the order
+     * of the log, so that the log replays the reviews in the order of the store; it is released
+     * while they wait for the disk, and the readers never take it.
+     * Tenu par les écrivains pour ajouter leurs avis, puis pour les appliquer au stockage dans
+     * l'ordre du journal, afin que le journal rejoue les avis dans l'ordre du stockage ; il est
+     * relâché pendant qu'ils attendent le disque, et les lecteurs ne le prennent jamais.
+     */
+    private final Object writeLock = new Object();
+
+    /** The sequence number of the last record appended, written with {@link #writeLock} held.
+     * Le numéro du dernier enregistrement ajouté, écrit avec {@link #writeLock} tenu.
+     */
+    private long appended;
+
+    /** The sequence number of the last record applied to the store or given up, written with
+     * {@link #writeLock} held.
+     * Le numéro du dernier enregistrement appliqué au stockage ou abandonné, écrit avec
+     * {@link #writeLock} tenu.
+     */
+    private long applied;
+
+    /** The log, opened and replayed on the first call. Le journal, ouvert et rejoué au premier appel. */
+    private volatile ReviewWriteAheadLog log;
+
+    /**
+     * @param store The in-memory store receiving the reviews.
+     * @param file  The file of the log, for example in the files directory of the application.
+     * @param store Le stockage en mémoire recevant les avis.
+     * @param file  Le fichier du journal, par exemple dans le répertoire de fichiers de l'application.
+     */
+    public JournaledRestaurantApi(RestaurantApi store, File file) {
+        this(store, file, COMPACT_AFTER_RECORDS);
+    }
+
+    /**
+     * @param store        The in-memory store receiving the reviews.
+     * @param file         The file of the log.
+     * @param compactAfter The number of records after which the log is folded into the snapshot,
+     *                     if the store is a {@link RestaurantSnapshotApi}.
+     * @param store        Le stockage en mémoire recevant les avis.
+     * @param file         Le fichier du journal.
+     * @param compactAfter Le nombre d'enregistrements après lequel le journal est intégré à
+     *                     l'instantané, si le stockage est un {@link RestaurantSnapshotApi}.
+     */
+    public JournaledRestaurantApi(RestaurantApi store, File file, int compactAfter) {
+        this.store = store;
+        this.file = file;
+        this.compactAfter = compactAfter;
+        this.nextCompaction = compactAfter;
+    }
+
+    /**
+     * Returns the log, opening it and replaying its reviews into the store on the first call. The
+     * records the store would refuse are skipped, so that one bad record cannot fail every start.
+     * Renvoie le journal, en l'ouvrant et en rejouant ses avis dans le stockage au premier appel.
+     * Les enregistrements que le stockage refuserait sont ignorés, afin qu'un mauvais enregistrement
+     * ne puisse pas faire échouer chaque démarrage.
+     */
+    ReviewWriteAheadLog log() {
+        ReviewWriteAheadLog opened = log;
+        if (opened == null) {
+            synchronized (this) {
+                opened = log;
+                if (opened == null) {
+                    try {
+                        int minEpoch = store instanceof RestaurantSnapshotApi ? ((RestaurantSnapshotApi) store).logEpoch() : 0;
+                        opened = ReviewWriteAheadLog.open(file, minEpoch);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    List<Review> recovered = new ArrayList<>();
+                    for (Review review : opened.takeRecovered()) {
+                        loggedRecords++;
+                        if (RestaurantApi.isValid(review)) {
+                            recovered.add(review);
+                        }
+                    }
+                    if (!recovered.isEmpty()) {
+                        store.addReviews(recovered);
+                    }
+                    log = opened;
+                }
+            }
+        }
+        return opened;
+    }
+
+    @Override
+    public Restaurant getRestaurant() {
+        return store.getRestaurant();
+    }
+
+    @Override
+    public List<Review> getReviews() {
+        log();
+        return store.getReviews();
+    }
+
+    @Override
+    public ReviewPage getReviews(Long cursor, int pageSize) {
+        log();
+        return store.getReviews(cursor, pageSize);
+    }
+
+    @Override
+    public ReviewPage getReviews(ReviewFilter filter, Long cursor, int pageSize) {
+        log();
+        return store.getReviews(filter, cursor, pageSize);
+    }
+
+    @Override
+    public RatingAggregate getRatingAggregate() {
+        log();
+        return store.getRatingAggregate();
+    }
+
+    @Override
+    public RatingTrend getRatingTrend(long now, int days) {
+        log();
+        return store.getRatingTrend(now, days);
+    }
+
+    @Override
+    public List<Review> searchReviews(String query, int limit) {
+        log();
+        return store.searchReviews(query, limit);
+    }
+
+    @Override
+    public String getComment(long reviewId) {
+        log();
+        return store.getComment(reviewId);
+    }
+
+    /**
+     * Stamps the review with the current time and validates it like a review of a batch, a rating
+     * from one to five stars, then logs it and adds it to the store once it is on the disk. The
+     * store receives the stamped review, so a replay gives it the same creation time.
+     * @throws UncheckedIOException if the review could not be written to the disk; it is then not
+     *                              added to the store.
+     * Date l'avis de l'heure actuelle et le valide comme un avis d'un lot, une note d'une à cinq
+     * étoiles, puis le journalise et l'ajoute au stockage une fois sur le disque. Le stockage reçoit
+     * l'avis daté, un rejeu lui donne donc la même date d'écriture.
+     * @throws UncheckedIOException si l'avis n'a pas pu être écrit sur le disque ; il n'est alors
+     *                              pas ajouté au stockage.
+     */
+    @Override
+    public boolean addReview(String comment, Integer rating, String avatar, String userName) {
+        if (comment == null || comment.isEmpty()) return false;
+        if (rating == null) return false;
+        Review review = new Review(0L, userName, avatar, comment, rating, System.currentTimeMillis());
+        return addReviews(Collections.singletonList(review));
+    }
+
+    /**
+     * Validates the whole batch and logs it, waits until it is on the disk without holding the
+     * write lock, so that the batches of concurrent writers share one sync, then adds it to the
+     * store once the batches logged before it are applied.
+     * @throws UncheckedIOException if the batch could not be written to the disk; it is then not
+     *                              added to the store, though the records that did reach the disk
+     *                              are replayed at the next start.
+     * Valide tout le lot et le journalise, attend qu'il soit sur le disque sans tenir le verrou
+     * d'écriture, afin que les lots d'écrivains concurrents partagent une synchronisation, puis
+     * l'ajoute au stockage une fois les lots journalisés avant lui appliqués.
+     * @throws UncheckedIOException si le lot n'a pas pu être écrit sur le disque ; il n'est alors
+     *                              pas ajouté au stockage, mais les enregistrements ayant atteint
+     *                              le disque sont rejoués au démarrage suivant.
+     */
+    @Override
+    public boolean addReviews(Collection<Review> reviews) {
+        for (Review review : reviews) {
+            if (!RestaurantApi.isValid(review)) return false;
+        }
+        ReviewWriteAheadLog opened = log();
+        long sequence;
+        synchronized (writeLock) {
+            sequence = opened.appendAll(reviews);
+            appended = sequence;
+        }
+        long previous = sequence - reviews.size();
+        try {
+            opened.awaitDurable(sequence);
+        } catch (IOException e) {
+            giveUp(previous, sequence);
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            giveUp(previous, sequence);
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while writing the reviews"));
+        }
+        synchronized (writeLock) {
+            awaitTurn(previous);
+            loggedRecords += reviews.size();
+            boolean added;
+            try {
+                added = store.addReviews(reviews);
+            } finally {
+                applied = sequence;
+                writeLock.notifyAll();
+            }
+            // Only once no batch is between the log and the store, so the snapshot holds every
+            // record of the log it empties; otherwise the last batch applied compacts.
+            // Seulement lorsqu'aucun lot n'est entre le journal et le stockage, afin que
+            // l'instantané contienne tous les enregistrements du journal qu'il vide ; sinon le
+            // dernier lot appliqué compacte.
+            if (loggedRecords >= nextCompaction && applied == appended) {
+                compact(opened);
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Waits, with {@link #writeLock} held, until the batches logged before a sequence number are
+     * applied to the store or given up.
+     * Attend, avec {@link #writeLock} tenu, que les lots journalisés avant un numéro soient
+     * appliqués au stockage ou abandonnés.
+     */
+    private void awaitTurn(long previous) {
+        boolean interrupted = false;
+        while (applied < previous) {
+            try {
+                writeLock.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Passes the turn of a batch that did not reach the disk, so that the batches logged after it
+     * are not blocked.
+     * Passe le tour d'un lot qui n'a pas atteint le disque, afin que les lots journalisés après lui
+     * ne soient pas bloqués.
+     */
+    private void giveUp(long previous, long sequence) {
+        synchronized (writeLock) {
+            awaitTurn(previous);
+            applied = sequence;
+            writeLock.notifyAll();
+        }
+    }
+
+    /**
+     * Folds the log into a new snapshot, if the store is one, then empties the log. If the snapshot
+     * cannot be written, both are kept as they are and the compaction is tried again after as many
+     * records. Called with {@link #writeLock} held, once every record is on the disk and applied.
+     * Intègre le journal à un nouvel instantané, si le stockage en est un, puis vide le journal. Si
+     * l'instantané ne peut pas être écrit, les deux sont gardés tels quels et la compaction est
+     * retentée après autant d'enregistrements. Appelée avec {@link #writeLock} tenu, une fois tous
+     * les enregistrements sur le disque et appliqués.
+     */
+    private void compact(ReviewWriteAheadLog opened) {
+        if (!(store instanceof RestaurantSnapshotApi)) {
+            return;
+        }
+        int epoch = opened.getEpoch() + 1;
+        try {
+            ((RestaurantSnapshotApi) store).compact(epoch);
+        } catch (IOException | UncheckedIOException e) {
+            nextCompaction = loggedRecords + compactAfter;
+            return;
+        }
+        try {
+            opened.reset(epoch);
+        } catch (IOException e) {
+            // The reviews are in the new snapshot, so this write succeeded; the log now fails the
+            // next ones, whose records would be discarded at the next start with the old epoch.
+            // Les avis sont dans le nouvel instantané, cette écriture a donc réussi ; le journal fait
+            // désormais échouer les suivantes, dont les enregistrements seraient écartés au
+            // démarrage suivant avec l'ancienne époque.
+            return;
+        }
+        loggedRecords = 0;
+        nextCompaction = compactAfter;
+    }
+
+    @Override
+    public User getUser() {
+        return store.getUser();
+    }
+
+    /**
+     * Writes the reviews not yet on the disk and closes the log, if it was opened.
+     * Écrit les avis qui ne sont pas encore sur le disque et ferme le journal, s'il a été ouvert.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+}
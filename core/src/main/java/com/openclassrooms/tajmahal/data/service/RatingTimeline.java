@@ -0,0 +1,188 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+
+/**
+ * Rating statistics of a restaurant by day, answering sliding-window queries such as "the average
+ * of the last 30 days" in constant time, however many reviews were written.
+ * <p>
+ * The timeline is a ring of {@value #RETENTION_DAYS} buckets, one per UTC day ending with the day
+ * of the newest review. Each bucket holds the running totals up to the end of its day: the number
+ * of reviews, the sum of their ratings and their number per star. The statistics of any window of
+ * retained days are then the difference of two buckets. When a new day starts, the bucket of the
+ * day leaving the ring is reused and its totals become the base of the oldest retained day.
+ * <p>
+ * Adding a review of the newest day costs O(1). A review written earlier, for example in a batch
+ * added out of order, updates the buckets from its day to the newest one, and a review older than
+ * the ring or without a creation time is not counted. Windows are clamped to the retained days.
+ * <p>
+ * The timeline is thread-safe: its methods are serialised by its monitor.
+ *<p>
+ * * Statistiques de notation d'un restaurant par jour, répondant en temps constant aux requêtes
+ * sur une fenêtre glissante comme « la moyenne des 30 derniers jours », quel que soit le nombre
+ * d'avis écrits.
+ * <p>
+ * La chronologie est un anneau de {@value #RETENTION_DAYS} compartiments, un par jour UTC se
+ * terminant par le jour de l'avis le plus récent. Chaque compartiment contient les totaux cumulés
+ * jusqu'à la fin de son jour : le nombre d'avis, la somme de leurs notes et leur nombre par étoile.
+ * Les statistiques de toute fenêtre de jours conservés sont alors la différence de deux
+ * compartiments. Lorsqu'un nouveau jour commence, le compartiment du jour qui quitte l'anneau est
+ * réutilisé et ses totaux deviennent la base du plus ancien jour conservé.
+ * <p>
+ * L'ajout d'un avis du jour le plus récent coûte O(1). Un avis écrit plus tôt, par exemple dans un
+ * lot ajouté dans le désordre, met à jour les compartiments de son jour jusqu'au plus récent, et
+ * un avis plus ancien que l'anneau ou sans date d'écriture n'est pas compté. Les fenêtres sont
+ * limitées aux jours conservés.
+ * <p>
+ * La chronologie est sûre entre threads : ses méthodes sont sérialisées par son moniteur.
+ */
+public final class RatingTimeline {
+
+    /** The length of a day, in milliseconds. La durée d'un jour, en millisecondes. */
+    public static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+
+    /** The number of days kept by the ring. Le nombre de jours conservés par l'anneau. */
+    public static final int RETENTION_DAYS = 366;
+
+    /** The index of the number of reviews in a bucket. L'index du nombre d'avis dans un compartiment. */
+    private static final int COUNT = 0;
+
+    /** The index of the sum of the ratings in a bucket. L'index de la somme des notes dans un compartiment. */
+    private static final int SUM = 1;
+
+    /** The number of totals of a bucket: the count, the sum and one per star from index 2.
+     * Le nombre de totaux d'un compartiment : le nombre, la somme et un par étoile à partir de l'index 2.
+     */
+    private static final int TOTALS = 2 + RatingAggregate.MAX_STARS;
+
+    /** The buckets, {@value #TOTALS} running totals per day, at the index of the day modulo the retention.
+     * Les compartiments, {@value #TOTALS} totaux cumulés par jour, à l'index du jour modulo la rétention.
+     */
+    private final long[] buckets = new long[RETENTION_DAYS * TOTALS];
+
+    /** The running totals up to the end of the day before the oldest retained one.
+     * Les totaux cumulés jusqu'à la fin du jour précédant le plus ancien jour conservé.
+     */
+    private final long[] base = new long[TOTALS];
+
+    /** The first day ever counted, or -1 if the timeline is empty. Le premier jour compté, ou -1 si la chronologie est vide. */
+    private long firstDay = -1L;
+
+    /** The newest day of the ring. Le jour le plus récent de l'anneau. */
+    private long newestDay = -1L;
+
+    /**
+     * Counts a review.
+     * @param createdAt The time the review was written, in milliseconds since the epoch, or 0 if unknown.
+     * @param rate      The rating of the review.
+     * Compte un avis.
+     * @param createdAt La date d'écriture de l'avis, en millisecondes depuis l'epoch, ou 0 si elle est inconnue.
+     * @param rate      La note de l'avis.
+     */
+    public synchronized void add(long createdAt, int rate) {
+        if (createdAt <= 0L) {
+            return;
+        }
+        long day = createdAt / DAY_MILLIS;
+        if (firstDay < 0L) {
+            firstDay = day;
+            newestDay = day;
+        } else if (day > newestDay) {
+            advanceTo(day);
+        } else if (day < oldestDay()) {
+            return;
+        }
+        if (day < firstDay) {
+            firstDay = day;
+        }
+        for (long d = day; d <= newestDay; d++) {
+            int offset = offset(d);
+            buckets[offset + COUNT]++;
+            buckets[offset + SUM] += rate;
+            if (rate >= RatingAggregate.MIN_STARS && rate <= RatingAggregate.MAX_STARS) {
+                buckets[offset + 1 + rate]++;
+            }
+        }
+    }
+
+    /**
+     * Moves the ring to a newer day: the days in between take the totals of the previous newest
+     * day, and the totals of each day leaving the ring become the base.
+     * Déplace l'anneau vers un jour plus récent : les jours intermédiaires prennent les totaux de
+     * l'ancien jour le plus récent, et les totaux de chaque jour quittant l'anneau deviennent la base.
+     */
+    private void advanceTo(long day) {
+        long[] totals = new long[TOTALS];
+        System.arraycopy(buckets, offset(newestDay), totals, 0, TOTALS);
+        long leaving = day - RETENTION_DAYS;
+        if (leaving >= firstDay) {
+            // The newest day leaving the ring: its totals include every older day.
+            // Le jour le plus récent quittant l'anneau : ses totaux incluent tous les jours plus anciens.
+            if (leaving <= newestDay) {
+                System.arraycopy(buckets, offset(leaving), base, 0, TOTALS);
+            } else {
+                System.arraycopy(totals, 0, base, 0, TOTALS);
+            }
+        }
+        for (long d = Math.max(newestDay + 1, leaving + 1); d <= day; d++) {
+            System.arraycopy(totals, 0, buckets, offset(d), TOTALS);
+        }
+        newestDay = day;
+    }
+
+    /**
+     * Returns the statistics of the reviews written during a window of days.
+     * @param now         The current time, in milliseconds since the epoch.
+     * @param fromDaysAgo The number of days between today and the last day of the window, 0 to end today.
+     * @param days        The number of days of the window.
+     * @return The statistics of the window, clamped to the retained days.
+     * Renvoie les statistiques des avis écrits pendant une fenêtre de jours.
+     * @param now         L'heure actuelle, en millisecondes depuis l'epoch.
+     * @param fromDaysAgo Le nombre de jours entre aujourd'hui et le dernier jour de la fenêtre, 0 pour finir aujourd'hui.
+     * @param days        Le nombre de jours de la fenêtre.
+     * @return Les statistiques de la fenêtre, limitée aux jours conservés.
+     */
+    public synchronized RatingAggregate window(long now, int fromDaysAgo, int days) {
+        if (firstDay < 0L || days <= 0) {
+            return RatingAggregate.EMPTY;
+        }
+        long lastDay = now / DAY_MILLIS - fromDaysAgo;
+        long start = Math.max(lastDay - days + 1, Math.max(firstDay, oldestDay()));
+        if (start > lastDay || start > newestDay) {
+            return RatingAggregate.EMPTY;
+        }
+        long[] totals = new long[TOTALS];
+        System.arraycopy(buckets, offset(Math.min(lastDay, newestDay)), totals, 0, TOTALS);
+        boolean fromBase = start == oldestDay();
+        int startOffset = fromBase ? 0 : offset(start - 1);
+        for (int i = 0; i < TOTALS; i++) {
+            totals[i] -= fromBase ? base[i] : buckets[startOffset + i];
+        }
+        int[] starCounts = new int[RatingAggregate.MAX_STARS + 1];
+        for (int star = RatingAggregate.MIN_STARS; star <= RatingAggregate.MAX_STARS; star++) {
+            starCounts[star] = (int) totals[1 + star];
+        }
+        return RatingAggregate.of((int) totals[COUNT], totals[SUM], starCounts);
+    }
+
+    /**
+     * Returns the statistics of the last {@code days} days, today included, and of the same number
+     * of days before, in constant time.
+     * Renvoie, en temps constant, les statistiques des {@code days} derniers jours, aujourd'hui
+     * compris, et du même nombre de jours avant.
+     */
+    public synchronized RatingTrend trend(long now, int days) {
+        return new RatingTrend(days, window(now, 0, days), window(now, days, days));
+    }
+
+    /** Returns the oldest day of the ring. Renvoie le plus ancien jour de l'anneau. */
+    private long oldestDay() {
+        return newestDay - RETENTION_DAYS + 1;
+    }
+
+    /** Returns the offset of the bucket of a day. Renvoie la position du compartiment d'un jour. */
+    private static int offset(long day) {
+        return (int) (day % RETENTION_DAYS) * TOTALS;
+    }
+}
@@ -0,0 +1,251 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+import com.openclassrooms.tajmahal.domain.model.User;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface for fetching restaurant data.
+ * <p>
+ * Represents the API for accessing restaurant information. In a real-world application,
+ * this interface might be implemented using a library like Retrofit, and would include annotations
+ * specifying the HTTP methods (like GET, POST), the endpoint URL, and other API-specific details.
+ * </p>
+ *<p>
+ * For beginners: An interface in Java is a blueprint of a class or you can say it is a collection of
+ * abstract methods and static constants. In an interface, each method is public and abstract but it does
+ * not contain any constructor. An interface is not a class. Writing an interface is similar to writing a class,
+ * but they are two different concepts. A class describes the attributes and behaviors of an object.
+ * An interface contains behaviors that a class implements.
+ *
+ * <p>
+ * Here, {@link RestaurantApi} provides a method to get details of a restaurant.
+ * </p>
+ *
+ *  * Interface pour récupérer les données du restaurant.
+ * <p>
+ * Représente l'API permettant d'accéder aux informations sur le restaurant. Dans une application réelle, cette
+ * interface peut être implémentée à l'aide d'une bibliothèque comme Retrofit et inclurait des annotations
+ * spécifiant les méthodes HTTP (comme GET, POST), l'URL du point de terminaison et d'autres détails spécifiques à l'API.
+ * <p>
+ * Pour les débutants: une interface en Java est un plan directeur d'une classe ou vous pouvez dire qu'il s'agit
+ * d'une collection de méthodes abstraites et de constantes statiques. Dans une interface, chaque méthode est
+ * publique et abstraite mais elle ne contient aucun constructeur. Une interface n'est pas une classe. L'écriture
+ * d'une interface est similaire à l'écriture d'une classe, mais ce sont deux concepts différents. Une classe
+ * décrit les attributs et les comportements d'un objet.
+ * <p>
+ * Une interface contient des comportements qu'une classe implémente.
+ * <p>
+ * Ici, {@link RestaurantApi} fournit une méthode pour obtenir les détails d'un restaurant.
+ * <p>
+ * An instance serves the data of one restaurant; {@link RestaurantCatalog} gives the instance of
+ * each restaurant from its id.
+ * <p>
+ * Une instance fournit les données d'un restaurant ; {@link RestaurantCatalog} donne l'instance de
+ * chaque restaurant à partir de son identifiant.
+ *
+ * @see Restaurant
+ */
+public interface RestaurantApi {
+
+    /**
+     * Retrieves the details of a restaurant.
+     * <p>
+     * This method will usually be connected to a network call or database query in its
+     * implementing class, fetching the required restaurant information.
+     * </p>
+     * @return The {@link Restaurant} object containing all the details of the restaurant.
+     * Récupère les détails d'un restaurant. Cette méthode sera généralement connectée à un appel
+     * réseau ou à une requête de base de données dans sa classe d'implémentation, récupérant les
+     * informations requises sur le restaurant.
+     * @return L'objet {@link Restaurant} contenant tous les détails du restaurant.
+     */
+    Restaurant getRestaurant();
+
+    /**
+     * Retrieves all the reviews of the restaurant.
+     * <p>
+     * This method will usually be connected to a network call or database query in its
+     * implementing class, fetching the list of the existing reviews.
+     * </p>
+     * @return The {@link Restaurant} object containing all the details of the restaurant.
+     * Récupère tous les avis du restaurant. Cette méthode sera généralement connectée à un appel
+     * réseau ou à une requête de base de données dans sa classe d'implémentation, récupérant la
+     * liste des avis existants.
+     * @return L'objet {@link Restaurant} contenant tous les détails du restaurant.
+     */
+    List<Review> getReviews();
+
+    /**
+     * Retrieves one page of the reviews of the restaurant, newest first.
+     * <p>
+     * Only the reviews of the page are loaded, so the cost of a call depends on the page size and
+     * not on the total number of reviews.
+     * </p>
+     * @param cursor   The cursor of the page, as returned by {@link ReviewPage#getNextCursor()},
+     *                 or null to read the first page.
+     * @param pageSize The maximum number of reviews to return.
+     * @return The {@link ReviewPage} holding the reviews and the cursor of the next page.
+     * Récupère une page des avis du restaurant, du plus récent au plus ancien. Seuls les avis de la
+     * page sont chargés, le coût d'un appel dépend donc de la taille de la page et non du nombre
+     * total d'avis.
+     * @param cursor   Le curseur de la page, tel que renvoyé par {@link ReviewPage#getNextCursor()},
+     *                 ou null pour lire la première page.
+     * @param pageSize Le nombre maximal d'avis à renvoyer.
+     * @return La {@link ReviewPage} contenant les avis et le curseur de la page suivante.
+     */
+    ReviewPage getReviews(Long cursor, int pageSize);
+
+    /**
+     * Retrieves one page of the reviews of the restaurant passing a filter, in the order of the filter.
+     * <p>
+     * Like {@link #getReviews(Long, int)}, the cost of a call depends on the page size only: changing
+     * the filter must not copy nor sort the reviews. A cursor is only valid with the filter that
+     * returned it.
+     * </p>
+     * @param filter   The stars to keep and their order.
+     * @param cursor   The cursor of the page, or null to read the first page.
+     * @param pageSize The maximum number of reviews to return.
+     * @return The {@link ReviewPage} holding the reviews and the cursor of the next page.
+     * Récupère une page des avis du restaurant passant un filtre, dans l'ordre du filtre. Comme pour
+     * {@link #getReviews(Long, int)}, le coût d'un appel ne dépend que de la taille de la page :
+     * changer de filtre ne doit ni copier ni trier les avis. Un curseur n'est valable qu'avec le
+     * filtre qui l'a renvoyé.
+     * @param filter   Les étoiles à garder et leur ordre.
+     * @param cursor   Le curseur de la page, ou null pour lire la première page.
+     * @param pageSize Le nombre maximal d'avis à renvoyer.
+     * @return La {@link ReviewPage} contenant les avis et le curseur de la page suivante.
+     */
+    ReviewPage getReviews(ReviewFilter filter, Long cursor, int pageSize);
+
+    /**
+     * Retrieves the rating statistics of the restaurant.
+     * <p>
+     * Implementations backed by a database should compute them with a query instead of loading
+     * every review.
+     * </p>
+     * @return The {@link RatingAggregate} of all the reviews of the restaurant.
+     * Récupère les statistiques de notation du restaurant. Les implémentations adossées à une base
+     * de données doivent les calculer par une requête plutôt qu'en chargeant chaque avis.
+     * @return Le {@link RatingAggregate} de tous les avis du restaurant.
+     */
+    RatingAggregate getRatingAggregate();
+
+    /**
+     * Retrieves the recent rating trend of the restaurant: the statistics of the reviews written
+     * during the last days and during the same number of days before.
+     * <p>
+     * Only the reviews whose creation time is known are counted. Implementations should answer from
+     * statistics by day kept up to date on each write, such as a {@link RatingTimeline}, rather than
+     * by reading the reviews of the period.
+     * </p>
+     * @param now  The current time, in milliseconds since the epoch.
+     * @param days The number of days of each period, today included.
+     * @return The {@link RatingTrend} of the two periods.
+     * Récupère la tendance récente des notes du restaurant : les statistiques des avis écrits
+     * pendant les derniers jours et pendant le même nombre de jours avant. Seuls les avis dont la
+     * date d'écriture est connue sont comptés. Les implémentations doivent répondre à partir de
+     * statistiques par jour tenues à jour à chaque écriture, comme une {@link RatingTimeline},
+     * plutôt qu'en lisant les avis de la période.
+     * @param now  L'heure actuelle, en millisecondes depuis l'epoch.
+     * @param days Le nombre de jours de chaque période, aujourd'hui compris.
+     * @return La {@link RatingTrend} des deux périodes.
+     */
+    RatingTrend getRatingTrend(long now, int days);
+
+    /**
+     * Searches the reviews of the restaurant by the words of their comment.
+     * <p>
+     * Every word of the query must start a word of the comment, case and accents being ignored.
+     * Implementations should answer from an index kept up to date on each write rather than by
+     * reading every comment.
+     * </p>
+     * @param query The words to search, for example "service rapide".
+     * @param limit The maximum number of reviews to return.
+     * @return The matching reviews, the most relevant first.
+     * Recherche les avis du restaurant par les mots de leur commentaire. Chaque mot de la requête
+     * doit commencer un mot du commentaire, sans tenir compte de la casse ni des accents. Les
+     * implémentations doivent répondre à partir d'un index tenu à jour à chaque écriture plutôt
+     * qu'en lisant chaque commentaire.
+     * @param query Les mots à rechercher, par exemple « service rapide ».
+     * @param limit Le nombre maximal d'avis à renvoyer.
+     * @return Les avis trouvés, le plus pertinent en premier.
+     */
+    List<Review> searchReviews(String query, int limit);
+
+    /**
+     * Reads the full comment of a review, for example of a review served with a preview of its
+     * comment, see {@link Review#isCommentTruncated()}.
+     * @param reviewId The identifier of the review.
+     * @return The comment, or null if the restaurant has no review with this identifier.
+     * Lit le commentaire complet d'un avis, par exemple d'un avis fourni avec un aperçu de son
+     * commentaire, voir {@link Review#isCommentTruncated()}.
+     * @param reviewId L'identifiant de l'avis.
+     * @return Le commentaire, ou null si le restaurant n'a aucun avis avec cet identifiant.
+     */
+    String getComment(long reviewId);
+
+    /**
+     * Retrieves the average rating of the restaurant.
+     * <p>
+     * This method adds a review to the restaurant, written at the current time.
+     * </p>
+     * @param comment
+     * @param rating
+     * @param avatar
+     * @param userName
+     * @return true if the review was added, false if it was rejected (no comment, or no rating
+     *         from one to five stars, see {@link #isValid(Review)}).
+     * Récupère la note moyenne du restaurant. Cette méthode ajoute un avis sur le restaurant, écrit à
+     * l'heure actuelle.
+     * @return true si l'avis a été ajouté, false s'il a été refusé (pas de commentaire, ou pas de
+     *         note d'une à cinq étoiles, voir {@link #isValid(Review)}).
+     */
+    boolean addReview(String comment,Integer rating, String avatar, String userName);
+
+    /**
+     * Adds a batch of reviews, for example a restaurant's backlog or the reviews written offline.
+     * <p>
+     * The batch follows the rules of {@link #addReview(String, Integer, String, String)}: it is
+     * rejected as a whole if one of its reviews has no comment or no rating, a rating below one star
+     * standing for a missing one, or a rating above five stars. Otherwise every review is added as
+     * one write, oldest first.
+     * </p>
+     * @param reviews The reviews to add, oldest first.
+     * @return true if the batch was added, false if it was rejected and nothing was added.
+     * Ajoute un lot d'avis, par exemple l'historique d'un restaurant ou les avis écrits hors ligne.
+     * Le lot suit les règles de {@link #addReview(String, Integer, String, String)} : il est refusé
+     * en entier si l'un de ses avis n'a pas de commentaire ou pas de note, une note inférieure à une
+     * étoile valant absence de note, ou une note supérieure à cinq étoiles. Sinon, tous les avis sont
+     * ajoutés en une seule écriture, du plus ancien au plus récent.
+     * @param reviews Les avis à ajouter, du plus ancien au plus récent.
+     * @return true si le lot a été ajouté, false s'il a été refusé et que rien n'a été ajouté.
+     */
+    boolean addReviews(Collection<Review> reviews);
+
+    /**
+     * Tells whether a review of a batch passed to {@link #addReviews(Collection)} can be added.
+     * @param review The review to check.
+     * @return true if the review has a comment and a rating from one to five stars.
+     * Indique si un avis d'un lot passé à {@link #addReviews(Collection)} peut être ajouté.
+     * @param review L'avis à vérifier.
+     * @return true si l'avis a un commentaire et une note d'une à cinq étoiles.
+     */
+    static boolean isValid(Review review) {
+        return review != null && review.getComment() != null && !review.getComment().isEmpty()
+                && review.getRate() >= RatingAggregate.MIN_STARS && review.getRate() <= RatingAggregate.MAX_STARS;
+    }
+
+    /**
+     * Declares a getUser method that returns an object of type User.
+     * Déclare une méthode getUser qui renvoie un objet de type User.
+     */
+    User getUser();
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.tajmahal.data.service;
+
+/**
+ * Gives the {@link RestaurantApi} of each restaurant served by the application, from its id.
+ * <p>
+ * Opening a restaurant should be cheap: the returned API opens its data source on its first call.
+ * The repository opens the restaurants on its background executors, so opening may touch the disk,
+ * for example to find the file of a restaurant. The caller owns the returned API and closes it, if
+ * it is {@link java.io.Closeable}, once it no longer uses it, so an implementation should not keep it.
+ *<p>
+ * * Donne le {@link RestaurantApi} de chaque restaurant servi par l'application, à partir de son
+ * identifiant.
+ * <p>
+ * Ouvrir un restaurant devrait être peu coûteux : l'API renvoyée ouvre sa source de données lors
+ * de son premier appel. Le référentiel ouvre les restaurants sur ses exécuteurs d'arrière-plan,
+ * l'ouverture peut donc accéder au disque, par exemple pour trouver le fichier d'un restaurant.
+ * L'appelant possède l'API renvoyée et la ferme, si elle est {@link java.io.Closeable}, lorsqu'il
+ * ne l'utilise plus ; une implémentation ne devrait donc pas la conserver.
+ */
+public interface RestaurantCatalog {
+
+    /**
+     * Returns a new API serving the data of a restaurant.
+     * @param restaurantId The id of the restaurant.
+     * @return The API of the restaurant.
+     * Renvoie une nouvelle API fournissant les données d'un restaurant.
+     * @param restaurantId L'identifiant du restaurant.
+     * @return L'API du restaurant.
+     */
+    RestaurantApi open(long restaurantId);
+}
@@ -0,0 +1,275 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+import com.openclassrooms.tajmahal.domain.model.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A mock implementation of the {@link RestaurantApi} for testing and development purposes.
+ * <p>
+ * This class simulates an API by returning a hard-coded {@link Restaurant} object, eliminating the
+ * need for real network or database calls. Such fake or mock implementations are commonly used in
+ * unit testing and when prototyping an application.
+ * </p>
+ * <p>
+ * For beginners: In software development, a mock is a simulated version of an external system
+ * (like an API). Mocks are used to isolate and test certain parts of the software without
+ * depending on external systems. By using a mock, developers can simulate how the real system
+ * would behave. In this case, instead of making a real API call to get restaurant details,
+ * we are using hardcoded values.
+ *
+ * <p>
+ * This class returns details of a specific restaurant, "Taj Mahal", with pre-defined attributes.
+ * </p>
+ *
+ *  * * Une implémentation fictive de {@link RestaurantApi} à des fins de test et de développement.
+ *  *
+ *  * Cette classe simule une API en renvoyant un objet {@link Restaurant} codé en dur, éliminant ainsi
+ *  * le besoin d'appels réels au réseau ou à la base de données. De telles implémentations factices ou
+ *  * fictives sont couramment utilisées dans les tests unitaires et lors du prototypage d'une application.
+ *  *
+ *  * * Pour les débutants: dans le développement de logiciels, un mock est une version simulée
+ *  * d'un système externe (comme une API). Les mocks sont utilisés pour isoler et tester certaines
+ *  * parties du logiciel sans dépendre de systèmes externes. En utilisant un mock, les développeurs
+ *  * peuvent simuler le comportement du système réel. Dans ce cas, au lieu de faire un véritable appel
+ *  * d'API pour obtenir les détails du restaurant, nous utilisons des valeurs codées en dur.
+ *  *
+ *  * Cette classe renvoie les détails d'un restaurant spécifique, "Taj Mahal", avec des attributs prédéfinis.
+ *  *
+ * @see Restaurant
+ * @see RestaurantApi
+ */
+public class RestaurantFakeApi implements RestaurantApi {
+
+
+    /** The reviews of the restaurant, stored column by column in an append-only log read newest first.
+     * Les avis du restaurant, stockés colonne par colonne dans un journal en ajout seul lu du plus
+     * récent au plus ancien.
+     */
+    private final ReviewLog reviews = new ReviewLog();
+
+    /** The index of the comments, by position of the reviews in the log.
+     * L'index des commentaires, par position des avis dans le journal.
+     */
+    private final ReviewSearchIndex searchIndex = new ReviewSearchIndex();
+
+    /** Held by the writers so that the reviews are indexed in the order of the log; the readers
+     * never take it.
+     * Tenu par les écrivains afin que les avis soient indexés dans l'ordre du journal ; les lecteurs
+     * ne le prennent jamais.
+     */
+    private final Object writeLock = new Object();
+
+    /** The restaurant returned by {@link #getRestaurant()}. Le restaurant renvoyé par {@link #getRestaurant()}. */
+    private final Restaurant restaurant;
+
+    /**
+     * Fills the log with the hard-coded reviews. They are listed newest first, so they are added
+     * starting from the end of the list.
+     * Remplit le journal avec les avis codés en dur. Ils sont listés du plus récent au plus ancien,
+     * ils sont donc ajoutés en partant de la fin de la liste.
+     */
+    public RestaurantFakeApi() {
+        this(new Restaurant("Taj Mahal", "Indien", "11h30 - 14h30・18h30 - 22h00",
+                "12 Avenue de la Brique - 75010 Paris", "http://www.tajmahal.fr", "06 12 34 56 78",
+                true, true));
+        List<Review> initialReviews = Arrays.asList(
+                new Review("Ranjit Singh", "https://xsgames.co/randomusers/assets/avatars/male/71.jpg", "Service très rapide et nourriture délicieuse, nous mangeons ici chaque week-end, c'est très rapide et savoureux. Continuez ainsi!", 5),
+                new Review("Martyna Siddeswara", "https://xsgames.co/randomusers/assets/avatars/female/31.jpg", "Un service excellent et des plats incroyablement savoureux. Nous sommes vraiment satisfaits de notre expérience au restaurant.", 4),
+                new Review("Komala Alanazi", "https://xsgames.co/randomusers/assets/avatars/male/46.jpg", "La cuisine est délicieuse et le service est également excellent. Le propriétaire est très sympathique et veille toujours à ce que votre repas soit satisfaisant. Cet endroit est un choix sûr!", 5),
+                new Review("David John", "https://xsgames.co/randomusers/assets/avatars/male/67.jpg", "Les currys manquaient de diversité de saveurs et semblaient tous à base de tomates. Malgré les évaluations élevées que nous avons vues et nos attentes, nous avons été déçus.", 2),
+                new Review("Emilie Hood", "https://xsgames.co/randomusers/assets/avatars/female/20.jpg", "Très bon restaurant Indien ! Je recommande.", 4)
+        );
+        for (int i = initialReviews.size() - 1; i >= 0; i--) {
+            Review review = initialReviews.get(i);
+            append(review.getUsername(), review.getPicture(), review.getComment(), review.getRate(), review.getCreatedAt());
+        }
+    }
+
+    /**
+     * Creates a store without any review for a restaurant, to be filled with
+     * {@link #addReviews(Collection)}, for example with generated reviews.
+     * Crée un stockage sans aucun avis pour un restaurant, à remplir avec
+     * {@link #addReviews(Collection)}, par exemple avec des avis générés.
+     */
+    public RestaurantFakeApi(Restaurant restaurant) {
+        this.restaurant = restaurant;
+    }
+
+
+    /**
+     * Retrieves a hard-coded {@link Restaurant} object for the "Taj Mahal".
+     * <p>
+     * This method simulates an API call by immediately returning a Restaurant object
+     *<p>
+     * with pre-defined attributes. The object represents the "Taj Mahal" restaurant
+     * with specific details.
+     * </p>
+     * @return The hard-coded {@link Restaurant} object for the "Taj Mahal".
+     * Récupère un objet {@link Restaurant} codé en dur (intégrer directement des valeurs spécifiques
+     * ou des données statiques dans le code source d'un programme) pour le "Taj Mahal". Cette
+     * méthode simule un appel d'API en renvoyant immédiatement un objet Restaurant. Avec des attributs prédéfinis.
+     * L'objet représente le restaurant "Taj Mahal" avec des détails spécifiques.
+     * @return L'objet {@link Restaurant} codé en dur pour le "Taj Mahal".
+     */
+    @Override
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    /**
+     * Retrieves a hard-coded {@link Review} object for the "Taj Mahal".
+     * <p>
+     * This method simulates an API call by immediately returning a Review list
+     * with pre-defined attributes.
+     * </p>
+     * @return The hard-coded list {@link Review} for the "Taj Mahal".
+     * Récupère un objet {@link Review} codé en dur pour le "Taj Mahal". Cette méthode simule un
+     * appel d'API en renvoyant immédiatement une liste d'avis avec des attributs prédéfinis.
+     * @return La liste codée en dur {@link Review} pour le « Taj Mahal ».
+     */
+    @Override
+    public List<Review> getReviews() {
+        return reviews.newestFirst();
+    }
+
+    /**
+     * Returns a page of the reviews held in the log, without copying them.
+     * Renvoie une page des avis conservés dans le journal, sans les copier.
+     */
+    @Override
+    public ReviewPage getReviews(Long cursor, int pageSize) {
+        return reviews.page(cursor, pageSize);
+    }
+
+    /**
+     * Returns a page of the reviews passing the filter, read from the star buckets of the log.
+     * Renvoie une page des avis passant le filtre, lue dans les compartiments d'étoiles du journal.
+     */
+    @Override
+    public ReviewPage getReviews(ReviewFilter filter, Long cursor, int pageSize) {
+        return reviews.page(filter, cursor, pageSize);
+    }
+
+    /**
+     * Reads the rating statistics from the star buckets of the log, without building any review.
+     * Lit les statistiques de notation dans les compartiments d'étoiles du journal, sans construire d'avis.
+     */
+    @Override
+    public RatingAggregate getRatingAggregate() {
+        return reviews.ratingAggregate();
+    }
+
+    /**
+     * Reads the recent trend from the timeline of the log. The hard-coded reviews have no creation
+     * time, so only the reviews added since the start are counted.
+     * Lit la tendance récente dans la chronologie du journal. Les avis codés en dur n'ont pas de
+     * date d'écriture, seuls les avis ajoutés depuis le démarrage sont donc comptés.
+     */
+    @Override
+    public RatingTrend getRatingTrend(long now, int days) {
+        return reviews.ratingTrend(now, days);
+    }
+
+    /**
+     * Searches the comments with the index, then builds only the matching reviews.
+     * Recherche dans les commentaires avec l'index, puis construit uniquement les avis trouvés.
+     */
+    @Override
+    public List<Review> searchReviews(String query, int limit) {
+        int[] positions = searchIndex.search(query, limit);
+        List<Review> matches = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            matches.add(reviews.get(position));
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the comment from its column: the identifier of a review is its position in the log plus one.
+     * Lit le commentaire dans sa colonne : l'identifiant d'un avis est sa position dans le journal plus un.
+     */
+    @Override
+    public String getComment(long reviewId) {
+        if (reviewId < 1 || reviewId > reviews.size()) {
+            return null;
+        }
+        return reviews.comment((int) (reviewId - 1));
+    }
+
+    /** This code is an addReview method that adds a new review to a list of reviews.
+     * The method first checks the review with {@link RestaurantApi#isValid(Review)}, like a review of
+     * a batch: without a comment, or without a rating from one to five stars, it returns false
+     * without doing anything. Otherwise, it appends the
+     * information provided, stamped with the current time, to the columns of the review log in
+     * amortized constant time, without copying the existing reviews.
+     * Ce code est une méthode addReview qui ajoute un nouvel avis (review) à une liste d'avis.
+     * Elle accepte quatre paramètres : comment (un commentaire sous forme de chaîne de caractères),
+     * rating (une note sous forme d'entier), avatar (un avatar sous forme de chaîne de caractères),
+     * et userName (un nom d'utilisateur sous forme de chaîne de caractères).
+     * La méthode vérifie d'abord l'avis avec {@link RestaurantApi#isValid(Review)}, comme un avis
+     * d'un lot : sans commentaire, ou sans note d'une à cinq étoiles, elle renvoie false sans rien
+     * faire. Sinon, elle ajoute
+     * les informations fournies, datées de l'heure actuelle, aux colonnes du journal des avis en
+     * temps constant amorti, sans copier les avis existants.
+     */
+    @Override
+    public boolean addReview (String comment, Integer rating, String avatar, String userName) {
+        Review review = new Review(0L, userName, avatar, comment, rating == null ? 0 : rating, System.currentTimeMillis());
+        if (!RestaurantApi.isValid(review)) return false; //Sans commentaire ou sans note d'une à cinq étoiles, la méthode retourne immédiatement sans ajouter d'avis.
+        append(userName, avatar, comment, review.getRate(), review.getCreatedAt()); //Le nouvel avis est ajouté au journal, qui lui attribue un identifiant stable, et devient le premier de la liste renvoyée par getReviews.
+        return true;
+    }
+
+    /**
+     * Validates the whole batch, then adds it to the log in one mutation and indexes its comments.
+     * Valide tout le lot, puis l'ajoute au journal en une seule mutation et indexe ses commentaires.
+     */
+    @Override
+    public boolean addReviews(Collection<Review> batch) {
+        for (Review review : batch) {
+            if (!RestaurantApi.isValid(review)) return false;
+        }
+        synchronized (writeLock) {
+            int position = (int) (reviews.addAll(batch) - 1);
+            for (Review review : batch) {
+                searchIndex.add(position++, review.getComment());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends a review to the log and indexes its comment. A review is in the log before it is in
+     * the index, so a search never finds a position the log does not hold yet.
+     * Ajoute un avis au journal et indexe son commentaire. Un avis est dans le journal avant d'être
+     * dans l'index, une recherche ne trouve donc jamais une position que le journal ne contient pas encore.
+     */
+    private void append(String userName, String avatar, String comment, int rating, long createdAt) {
+        synchronized (writeLock) {
+            int position = (int) (reviews.add(userName, avatar, comment, rating, createdAt) - 1);
+            searchIndex.add(position, comment);
+        }
+    }
+
+    /** This code overrides the getUser method in a Java class and creates a User object with
+     * hardcoded values for avatar and username.
+     * Ce code redéfinit la méthode getUser dans une classe en Java et crée un objet User avec des
+     * valeurs codées en dur pour l'avatar et le nom d'utilisateur.
+     */
+    @Override
+    public User getUser() {
+        String avatar = "https://xsgames.co/randomusers/assets/avatars/female/1.jpg";
+        String userName = "Manon Garcia";
+        return new User(userName, avatar);
+    }
+}
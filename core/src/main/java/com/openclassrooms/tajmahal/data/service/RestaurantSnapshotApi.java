@@ -0,0 +1,559 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+import com.openclassrooms.tajmahal.domain.model.User;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An implementation of {@link RestaurantApi} reading the reviews from a {@link ReviewSnapshot}
+ * mapped in memory, the reviews added since being kept in a {@link ReviewLog}.
+ * <p>
+ * The reviews are numbered by position: the reviews of the snapshot first, then the added ones.
+ * Nothing is parsed when the snapshot is opened, and a {@link Review} is built only when its row is
+ * read, so the time to display the first page does not depend on the number of reviews. The
+ * positions of the reviews given each star are indexed on the first filtered page, by one scan of
+ * the ratings column, then kept up to date by the additions: a filtered page only reads the
+ * reviews it returns, as in {@link ReviewLog}. The search index is built on the first search, and
+ * the timeline of the snapshot on the first request of a trend. The pages can carry only a preview
+ * of the long comments, decoded without reading the rest of the comment, the full comment being
+ * read with {@link #getComment(long)} when the user expands it.
+ * <p>
+ * The snapshot is opened on the first call, not in the constructor, so that creating the API on the
+ * main thread does not read the disk. If it does not exist yet, it is written from the reviews of
+ * the seed API, which also gives the restaurant and the user. {@link #compact(int)} writes every
+ * review into a new snapshot, so that the added ones no longer have to be kept in memory; the
+ * positions do not change, and neither do the identifiers nor the indexes.
+ *<p>
+ * * Une implémentation de {@link RestaurantApi} qui lit les avis dans un {@link ReviewSnapshot}
+ * projeté en mémoire, les avis ajoutés depuis étant conservés dans un {@link ReviewLog}.
+ * <p>
+ * Les avis sont numérotés par position : ceux de l'instantané d'abord, puis ceux ajoutés. Rien
+ * n'est analysé à l'ouverture de l'instantané, et un {@link Review} n'est construit que lorsque sa
+ * ligne est lue : le temps d'affichage de la première page ne dépend donc pas du nombre d'avis. Les
+ * positions des avis ayant reçu chaque étoile sont indexées lors de la première page filtrée, en
+ * un parcours de la colonne des notes, puis tenues à jour par les ajouts : une page filtrée ne lit
+ * que les avis qu'elle renvoie, comme dans {@link ReviewLog}. L'index de recherche est construit
+ * lors de la première recherche, et la chronologie de l'instantané lors de la première demande
+ * d'une tendance. Les pages peuvent ne contenir qu'un aperçu des longs commentaires, décodé sans
+ * lire la suite du commentaire, le commentaire complet étant lu avec {@link #getComment(long)}
+ * lorsque l'utilisateur le déplie.
+ * <p>
+ * L'instantané est ouvert au premier appel, et non dans le constructeur, afin que la création de
+ * l'API sur le thread principal ne lise pas le disque. S'il n'existe pas encore, il est écrit à
+ * partir des avis de l'API d'amorçage, qui fournit aussi le restaurant et l'utilisateur.
+ * {@link #compact(int)} écrit tous les avis dans un nouvel instantané, afin que ceux ajoutés n'aient
+ * plus à être gardés en mémoire ; les positions ne changent pas, ni donc les identifiants et les
+ * index.
+ */
+public class RestaurantSnapshotApi implements RestaurantApi {
+
+    private final File file;
+
+    private final RestaurantApi seed;
+
+    /** The snapshot and the reviews added after it, opened on the first call and replaced by
+     * {@link #compact(int)}.
+     * L'instantané et les avis ajoutés après lui, ouverts au premier appel et remplacés par
+     * {@link #compact(int)}.
+     */
+    private volatile State state;
+
+    /** Held while reviews are added and indexed, so that the indexes receive the positions in
+     * order, and while the indexes are built or the snapshot compacted.
+     * Tenu pendant l'ajout et l'indexation d'avis, afin que les index reçoivent les positions dans
+     * l'ordre, et pendant la construction des index ou la compaction de l'instantané.
+     */
+    private final Object writeLock = new Object();
+
+    /** The index of the comments by position, built on the first search. Written with
+     * {@link #writeLock} held.
+     * L'index des commentaires par position, construit lors de la première recherche. Écrit avec
+     * {@link #writeLock} tenu.
+     */
+    private volatile ReviewSearchIndex searchIndex;
+
+    /** The positions of the reviews given each star, built on the first filtered page. Replaced
+     * with {@link #writeLock} held.
+     * Les positions des avis ayant reçu chaque étoile, construites lors de la première page filtrée.
+     * Remplacées avec {@link #writeLock} tenu.
+     */
+    private volatile StarIndex starIndex;
+
+    /** The statistics by day of the reviews of the snapshot, built on the first request of a trend.
+     * Les statistiques par jour des avis de l'instantané, construites lors de la première demande
+     * d'une tendance.
+     */
+    private volatile RatingTimeline snapshotTimeline;
+
+    /** The maximum length of the comments of the pages, or 0 to serve the full comments.
+     * La longueur maximale des commentaires des pages, ou 0 pour fournir les commentaires complets.
+     */
+    private final int commentPreviewLength;
+
+    /**
+     * Creates an API serving the full comments in its pages.
+     * @param file The file of the snapshot.
+     * @param seed The API giving the restaurant, the user, and the reviews of a missing snapshot.
+     * Crée une API fournissant les commentaires complets dans ses pages.
+     * @param file Le fichier de l'instantané.
+     * @param seed L'API fournissant le restaurant, l'utilisateur, et les avis d'un instantané absent.
+     */
+    public RestaurantSnapshotApi(File file, RestaurantApi seed) {
+        this(file, seed, 0);
+    }
+
+    /**
+     * @param file                 The file of the snapshot.
+     * @param seed                 The API giving the restaurant, the user, and the reviews of a missing snapshot.
+     * @param commentPreviewLength The maximum length of the comments of the pages, or 0 to serve the full comments.
+     * @param file                 Le fichier de l'instantané.
+     * @param seed                 L'API fournissant le restaurant, l'utilisateur, et les avis d'un instantané absent.
+     * @param commentPreviewLength La longueur maximale des commentaires des pages, ou 0 pour fournir les commentaires complets.
+     */
+    public RestaurantSnapshotApi(File file, RestaurantApi seed, int commentPreviewLength) {
+        this.file = file;
+        this.seed = seed;
+        this.commentPreviewLength = commentPreviewLength;
+    }
+
+    /**
+     * Returns the snapshot and the added reviews, writing the snapshot from the seed API if needed
+     * and mapping it on the first call.
+     * Renvoie l'instantané et les avis ajoutés, en écrivant l'instantané à partir de l'API
+     * d'amorçage si besoin et en le projetant au premier appel.
+     */
+    private State state() {
+        State opened = state;
+        if (opened == null) {
+            synchronized (this) {
+                opened = state;
+                if (opened == null) {
+                    try {
+                        if (!file.exists()) {
+                            ReviewSnapshot.write(file, seed.getReviews());
+                        }
+                        opened = new State(ReviewSnapshot.open(file), new ReviewLog());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    state = opened;
+                }
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * Returns the epoch of the write-ahead log whose records the snapshot already holds, 0 if it
+     * was never compacted.
+     * Renvoie l'époque du journal d'écriture anticipée dont l'instantané contient déjà les
+     * enregistrements, 0 s'il n'a jamais été compacté.
+     */
+    public int logEpoch() {
+        return state().snapshot.logEpoch();
+    }
+
+    /**
+     * Writes every review into a new snapshot, renamed over the current one, then serves the reviews
+     * from it. The reviews keep their positions, so the identifiers already given and the indexes
+     * stay valid, and the memory of the added reviews is released. The reads in progress keep the
+     * previous snapshot, still mapped.
+     * @param logEpoch The epoch of the write-ahead log whose records are now in the snapshot.
+     * @throws IOException if the new snapshot cannot be written; the current one is kept then.
+     * Écrit tous les avis dans un nouvel instantané, renommé à la place de l'actuel, puis fournit les
+     * avis à partir de celui-ci. Les avis gardent leur position : les identifiants déjà donnés et les
+     * index restent valides, et la mémoire des avis ajoutés est libérée. Les lectures en cours gardent
+     * l'instantané précédent, toujours projeté.
+     * @param logEpoch L'époque du journal d'écriture anticipée dont les enregistrements sont désormais
+     *                 dans l'instantané.
+     * @throws IOException si le nouvel instantané ne peut pas être écrit ; l'actuel est alors gardé.
+     */
+    public void compact(int logEpoch) throws IOException {
+        synchronized (writeLock) {
+            State current = state();
+            ReviewSnapshot.write(file, new NewestFirstView(current.snapshot, current.added, 0), logEpoch);
+            state = new State(ReviewSnapshot.open(file), new ReviewLog());
+            // The timeline only covered the previous snapshot. La chronologie ne couvrait que l'instantané précédent.
+            snapshotTimeline = null;
+        }
+    }
+
+    @Override
+    public Restaurant getRestaurant() {
+        return seed.getRestaurant();
+    }
+
+    /**
+     * Returns a read-only view of the reviews, newest first, building each review when it is read.
+     * Renvoie une vue en lecture seule des avis, du plus récent au plus ancien, construisant chaque
+     * avis lorsqu'il est lu.
+     */
+    @Override
+    public List<Review> getReviews() {
+        State current = state();
+        return new NewestFirstView(current.snapshot, current.added, 0);
+    }
+
+    @Override
+    public ReviewPage getReviews(Long cursor, int pageSize) {
+        State current = state();
+        NewestFirstView view = new NewestFirstView(current.snapshot, current.added, commentPreviewLength);
+        int count = view.size;
+        int end = cursor == null ? count : (int) Math.max(0, Math.min(cursor, count));
+        int start = Math.max(0, end - pageSize);
+        return new ReviewPage(view.subList(count - end, count - start), start > 0 ? Long.valueOf(start) : null);
+    }
+
+    /**
+     * Reads a page of filtered reviews from the positions indexed by star, building only the
+     * reviews of the page. The view is limited to the positions of the index, so a review added
+     * after the index was read is not missed by one page and repeated by the next.
+     * Lit une page d'avis filtrés à partir des positions indexées par étoile, en ne construisant que
+     * les avis de la page. La vue est limitée aux positions de l'index : un avis ajouté après la
+     * lecture de l'index n'est donc pas manqué par une page puis répété par la suivante.
+     */
+    @Override
+    public ReviewPage getReviews(ReviewFilter filter, Long cursor, int pageSize) {
+        if (filter.isAll()) {
+            return getReviews(cursor, pageSize);
+        }
+        StarIndex index = starIndex();
+        State current = state();
+        NewestFirstView view = new NewestFirstView(current.snapshot, current.added, commentPreviewLength, index.size);
+        if (filter.getOrder() == ReviewFilter.Order.NEWEST_FIRST) {
+            return ReviewLog.mergedPage(view, index.positions, index.counts, filter, cursor, pageSize);
+        }
+        return ReviewLog.sortedPage(view, index.positions, index.counts, filter, cursor, pageSize);
+    }
+
+    /**
+     * Returns the positions of the reviews by star, scanning the ratings once on the first call.
+     * The buckets are sized from the statistics of the header, so they do not grow while scanning.
+     * Renvoie les positions des avis par étoile, en parcourant les notes une fois au premier appel.
+     * Les compartiments sont dimensionnés à partir des statistiques de l'en-tête, ils ne grandissent
+     * donc pas pendant le parcours.
+     */
+    private StarIndex starIndex() {
+        StarIndex index = starIndex;
+        if (index == null) {
+            synchronized (writeLock) {
+                index = starIndex;
+                if (index == null) {
+                    State current = state();
+                    NewestFirstView view = new NewestFirstView(current.snapshot, current.added, 0);
+                    RatingAggregate aggregate = current.snapshot.ratingAggregate().plus(current.added.ratingAggregate());
+                    int[][] positions = new int[RatingAggregate.MAX_STARS + 1][];
+                    int[] counts = new int[RatingAggregate.MAX_STARS + 1];
+                    for (int star = RatingAggregate.MIN_STARS; star <= RatingAggregate.MAX_STARS; star++) {
+                        positions[star] = new int[Math.max(StarIndex.MIN_CAPACITY, aggregate.getStarCount(star))];
+                    }
+                    for (int position = 0; position < view.size; position++) {
+                        int rate = view.rate(position);
+                        if (rate >= RatingAggregate.MIN_STARS && rate <= RatingAggregate.MAX_STARS) {
+                            positions[rate][counts[rate]++] = position;
+                        }
+                    }
+                    index = new StarIndex(positions, counts, view.size);
+                    starIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds the statistics of the snapshot, stored in its header, to those of the added reviews.
+     * Ajoute les statistiques de l'instantané, stockées dans son en-tête, à celles des avis ajoutés.
+     */
+    @Override
+    public RatingAggregate getRatingAggregate() {
+        State current = state();
+        return current.snapshot.ratingAggregate().plus(current.added.ratingAggregate());
+    }
+
+    /**
+     * Adds the trend of the snapshot, from its timeline, to that of the added reviews.
+     * Ajoute la tendance de l'instantané, tirée de sa chronologie, à celle des avis ajoutés.
+     */
+    @Override
+    public RatingTrend getRatingTrend(long now, int days) {
+        State current = state();
+        return snapshotTimeline(current).trend(now, days).plus(current.added.ratingTrend(now, days));
+    }
+
+    /**
+     * Returns the timeline of the snapshot, building it on the first call. The reviews of the
+     * snapshot are in creation order, so only those of the retained days before the newest one are
+     * read, oldest first, each in constant time. The scan stops at the first review of unknown
+     * creation time, older ones being unknown too, so a snapshot of version 1 reads nothing.
+     * Renvoie la chronologie de l'instantané, en la construisant au premier appel. Les avis de
+     * l'instantané sont dans l'ordre de création, seuls ceux des jours conservés avant le plus récent
+     * sont donc lus, du plus ancien au plus récent, chacun en temps constant. Le parcours s'arrête au
+     * premier avis de date inconnue, les plus anciens l'étant aussi : un instantané de version 1 ne
+     * fait donc rien lire.
+     */
+    private RatingTimeline snapshotTimeline(State current) {
+        RatingTimeline timeline = snapshotTimeline;
+        if (timeline == null) {
+            ReviewSnapshot base = current.snapshot;
+            synchronized (this) {
+                timeline = snapshotTimeline;
+                if (timeline == null) {
+                    timeline = new RatingTimeline();
+                    int first = base.size();
+                    if (first > 0) {
+                        long oldest = Math.max(0L, base.createdAt(first - 1) - (long) RatingTimeline.RETENTION_DAYS * RatingTimeline.DAY_MILLIS);
+                        while (first > 0 && base.createdAt(first - 1) > oldest) {
+                            first--;
+                        }
+                    }
+                    for (int position = first; position < base.size(); position++) {
+                        timeline.add(base.createdAt(position), base.rate(position));
+                    }
+                    // A compaction may have replaced the snapshot meanwhile: the timeline is then only
+                    // used for this call.
+                    // Une compaction a pu remplacer l'instantané entre-temps : la chronologie ne sert
+                    // alors qu'à cet appel.
+                    if (state == current) {
+                        snapshotTimeline = timeline;
+                    }
+                }
+            }
+        }
+        return timeline;
+    }
+
+    /**
+     * Searches the comments with the index, then builds only the matching reviews.
+     * Recherche dans les commentaires avec l'index, puis construit uniquement les avis trouvés.
+     */
+    @Override
+    public List<Review> searchReviews(String query, int limit) {
+        int[] positions = searchIndex().search(query, limit);
+        State current = state();
+        NewestFirstView view = new NewestFirstView(current.snapshot, current.added, 0);
+        List<Review> matches = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            if (position < view.size) {
+                matches.add(view.at(position));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the comment at the position given by the identifier, in the snapshot or in the added reviews.
+     * Lit le commentaire à la position donnée par l'identifiant, dans l'instantané ou dans les avis ajoutés.
+     */
+    @Override
+    public String getComment(long reviewId) {
+        State current = state();
+        ReviewSnapshot base = current.snapshot;
+        if (reviewId < 1 || reviewId > (long) base.size() + current.added.size()) {
+            return null;
+        }
+        int position = (int) (reviewId - 1);
+        return position < base.size() ? base.comment(position) : current.added.comment(position - base.size());
+    }
+
+    /**
+     * Returns the search index, building it from every comment on the first call. It is built with
+     * {@link #writeLock} held, so no review is added while the index reads them.
+     * Renvoie l'index de recherche, en le construisant à partir de tous les commentaires au premier
+     * appel. Il est construit avec {@link #writeLock} tenu, aucun avis n'est donc ajouté pendant que
+     * l'index les lit.
+     */
+    private ReviewSearchIndex searchIndex() {
+        ReviewSearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (writeLock) {
+                index = searchIndex;
+                if (index == null) {
+                    State current = state();
+                    ReviewSnapshot base = current.snapshot;
+                    ReviewLog added = current.added;
+                    index = new ReviewSearchIndex();
+                    for (int position = 0; position < base.size(); position++) {
+                        index.add(position, base.comment(position));
+                    }
+                    for (int position = 0; position < added.size(); position++) {
+                        index.add(base.size() + position, added.get(position).getComment());
+                    }
+                    searchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public boolean addReview(String comment, Integer rating, String avatar, String userName) {
+        if (comment == null || comment.isEmpty() || rating == null) {
+            return false;
+        }
+        return addReviews(Collections.singletonList(new Review(0L, userName, avatar, comment, rating, System.currentTimeMillis())));
+    }
+
+    @Override
+    public boolean addReviews(Collection<Review> reviews) {
+        for (Review review : reviews) {
+            if (!RestaurantApi.isValid(review)) return false;
+        }
+        synchronized (writeLock) {
+            State current = state();
+            int position = current.snapshot.size() + (int) (current.added.addAll(reviews) - 1);
+            for (Review review : reviews) {
+                indexAdded(position++, review);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a review to the indexes that have been built. Called with {@link #writeLock} held.
+     * Ajoute un avis aux index qui ont été construits. Appelée avec {@link #writeLock} tenu.
+     */
+    private void indexAdded(int position, Review review) {
+        ReviewSearchIndex index = searchIndex;
+        if (index != null) {
+            index.add(position, review.getComment());
+        }
+        StarIndex stars = starIndex;
+        if (stars != null) {
+            starIndex = stars.plus(position, review.getRate());
+        }
+    }
+
+    @Override
+    public User getUser() {
+        return seed.getUser();
+    }
+
+    /** A snapshot and the reviews added after it. Un instantané et les avis ajoutés après lui. */
+    private static final class State {
+        final ReviewSnapshot snapshot;
+        final ReviewLog added;
+
+        State(ReviewSnapshot snapshot, ReviewLog added) {
+            this.snapshot = snapshot;
+            this.added = added;
+        }
+    }
+
+    /**
+     * The sorted positions of the reviews given each star, among the first {@link #size} positions.
+     * A new index is published for each added review, sharing the buckets with the previous one:
+     * an index only reads the positions it counts, which are never written again.
+     * Les positions triées des avis ayant reçu chaque étoile, parmi les {@link #size} premières
+     * positions. Un nouvel index est publié pour chaque avis ajouté, partageant les compartiments
+     * avec le précédent : un index ne lit que les positions qu'il compte, qui ne sont plus jamais
+     * écrites.
+     */
+    private static final class StarIndex {
+
+        static final int MIN_CAPACITY = 16;
+
+        final int[][] positions;
+        final int[] counts;
+        final int size;
+
+        StarIndex(int[][] positions, int[] counts, int size) {
+            this.positions = positions;
+            this.counts = counts;
+            this.size = size;
+        }
+
+        /** Returns the index with the next position added, growing its bucket if it is full.
+         * Renvoie l'index avec la position suivante ajoutée, en agrandissant son compartiment s'il est plein.
+         */
+        StarIndex plus(int position, int rate) {
+            int[][] grown = positions.clone();
+            int[] grownCounts = counts.clone();
+            if (rate >= RatingAggregate.MIN_STARS && rate <= RatingAggregate.MAX_STARS) {
+                int count = counts[rate];
+                if (count == grown[rate].length) {
+                    grown[rate] = Arrays.copyOf(grown[rate], Math.max(MIN_CAPACITY, count * 2));
+                }
+                grown[rate][count] = position;
+                grownCounts[rate] = count + 1;
+            }
+            return new StarIndex(grown, grownCounts, position + 1);
+        }
+    }
+
+    /**
+     * Read-only list of the reviews of the snapshot followed by the added ones, read backwards. It
+     * keeps the number of added reviews it was created with, and builds the reviews with a preview
+     * of their comment if a preview length is given.
+     * Liste en lecture seule des avis de l'instantané suivis de ceux ajoutés, lue à l'envers. Elle
+     * conserve le nombre d'avis ajoutés lors de sa création, et construit les avis avec un aperçu de
+     * leur commentaire si une longueur d'aperçu est donnée.
+     */
+    private static final class NewestFirstView extends AbstractList<Review> implements RandomAccess {
+
+        private final ReviewSnapshot snapshot;
+        private final ReviewLog added;
+        private final int size;
+        private final int previewLength;
+
+        NewestFirstView(ReviewSnapshot snapshot, ReviewLog added, int previewLength) {
+            this(snapshot, added, previewLength, Integer.MAX_VALUE);
+        }
+
+        /** Creates a view of at most the given number of reviews, the oldest ones.
+         * Crée une vue d'au plus le nombre d'avis donné, les plus anciens.
+         */
+        NewestFirstView(ReviewSnapshot snapshot, ReviewLog added, int previewLength, int maxSize) {
+            this.snapshot = snapshot;
+            this.added = added;
+            this.size = Math.min(snapshot.size() + added.size(), maxSize);
+            this.previewLength = previewLength;
+        }
+
+        @Override
+        public Review get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return at(size - 1 - index);
+        }
+
+        /** Builds the review at a position. Construit l'avis situé à une position. */
+        Review at(int position) {
+            if (position < snapshot.size()) {
+                return previewLength > 0 ? snapshot.preview(position, previewLength) : snapshot.get(position);
+            }
+            Review review = added.get(position - snapshot.size());
+            review = new Review(position + 1L, review.getUsername(), review.getPicture(), review.getComment(), review.getRate(), review.getCreatedAt());
+            return previewLength > 0 ? review.withCommentPreview(previewLength) : review;
+        }
+
+        /** Reads the rating at a position. Lit la note à une position. */
+        int rate(int position) {
+            if (position < snapshot.size()) {
+                return snapshot.rate(position);
+            }
+            return added.rate(position - snapshot.size());
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,578 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Append-only, column-oriented log of reviews that can be read newest first.
+ * <p>
+ * Instead of one {@link Review} object per review, each field is stored in its own column in
+ * creation order: the ratings in a {@code byte[]}, the usernames and avatar URLs as {@code int}
+ * codes of a {@link StringDictionary} (a few users write most of the reviews), the comments in
+ * a {@code String[]} and the creation times in a {@code long[]}. The identifier of a review is its
+ * position in the log, starting at 1, so it is not stored. {@link Review} objects are only built
+ * when a row is read, for example when the list binds it.
+ * <p>
+ * Next to the columns, the log keeps one bucket per star: the sorted positions of the reviews given
+ * that star. Filtered and sorted pages ({@link #page(ReviewFilter, Long, int)}) walk the buckets of
+ * the filter instead of the whole log, and the sizes of the buckets are the star histogram. A
+ * {@link RatingTimeline} counts the reviews by day for the recent trends.
+ * <p>
+ * Adding a review costs amortized O(1). {@link #newestFirst()} returns an immutable view reading the
+ * columns backwards: it does not copy anything and stays valid after later additions, because the
+ * log never overwrites a slot that has been published and a grown column leaves the previous one
+ * untouched.
+ * <p>
+ * The log is thread-safe. Readers never block: every read starts from an immutable snapshot of the
+ * columns and buckets, published through a volatile field after each mutation. Writers are
+ * serialised by the monitor of the log, which they only hold to fill the new rows, so no addition
+ * is ever lost, and the reviews keep the order in which their additions took the monitor.
+ *<p>
+ * * Journal d'avis en ajout seul, organisé en colonnes, qui peut être lu du plus récent au plus ancien.
+ * <p>
+ * Au lieu d'un objet {@link Review} par avis, chaque champ est stocké dans sa propre colonne dans
+ * l'ordre de création : les notes dans un {@code byte[]}, les noms d'utilisateur et les URL d'avatar
+ * sous forme de codes {@code int} d'un {@link StringDictionary} (quelques utilisateurs écrivent la
+ * plupart des avis), les commentaires dans un {@code String[]} et les dates d'écriture dans un
+ * {@code long[]}. L'identifiant d'un avis est sa position dans le journal, à partir de 1, il n'est
+ * donc pas stocké. Les objets {@link Review} ne sont construits que lorsqu'une ligne est lue, par
+ * exemple quand la liste l'affiche.
+ * <p>
+ * À côté des colonnes, le journal tient un compartiment par étoile : les positions triées des avis
+ * ayant reçu cette étoile. Les pages filtrées et triées ({@link #page(ReviewFilter, Long, int)})
+ * parcourent les compartiments du filtre au lieu de tout le journal, et la taille des compartiments
+ * forme l'histogramme des étoiles. Une {@link RatingTimeline} compte les avis par jour pour les
+ * tendances récentes.
+ * <p>
+ * L'ajout d'un avis coûte O(1) amorti. {@link #newestFirst()} renvoie une vue immuable qui lit les
+ * colonnes à l'envers : elle ne copie rien et reste valide après des ajouts ultérieurs, car le
+ * journal n'écrase jamais une case déjà publiée et l'agrandissement d'une colonne laisse l'ancienne
+ * intacte.
+ * <p>
+ * Le journal est sûr entre threads. Les lecteurs ne bloquent jamais : chaque lecture part d'un
+ * instantané immuable des colonnes et des compartiments, publié par un champ volatile après chaque
+ * mutation. Les écrivains sont sérialisés par le moniteur du journal, qu'ils ne tiennent que pour
+ * remplir les nouvelles lignes, aucun ajout n'est donc perdu, et les avis gardent l'ordre dans
+ * lequel leurs ajouts ont pris le moniteur.
+ */
+public class ReviewLog {
+
+    /** The capacity of a new log. La capacité d'un nouveau journal. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The number of bits of a position in a cursor of a page sorted by rating.
+     * Le nombre de bits d'une position dans le curseur d'une page triée par note.
+     */
+    private static final int CURSOR_STAR_SHIFT = 32;
+
+    private final StringDictionary usernameDictionary = new StringDictionary();
+    private final StringDictionary pictureDictionary = new StringDictionary();
+
+    /** The columns, oldest first. Only the first {@link #size} slots are used. Written under the
+     * monitor of the log, like the other mutable fields.
+     * Les colonnes, du plus ancien au plus récent. Seules les {@link #size} premières cases sont
+     * utilisées. Écrites sous le moniteur du journal, comme les autres champs modifiables.
+     */
+    private byte[] rates = new byte[INITIAL_CAPACITY];
+    private int[] usernames = new int[INITIAL_CAPACITY];
+    private int[] pictures = new int[INITIAL_CAPACITY];
+    private String[] comments = new String[INITIAL_CAPACITY];
+    private long[] createdAts = new long[INITIAL_CAPACITY];
+
+    /** The number of reviews in the log. Le nombre d'avis dans le journal. */
+    private int size;
+
+    /** The positions of the reviews given each star, oldest first, indexed by the star.
+     * Les positions des avis ayant reçu chaque étoile, du plus ancien au plus récent, indexées par l'étoile.
+     */
+    private final int[][] starPositions = new int[RatingAggregate.MAX_STARS + 1][];
+
+    /** The number of positions used in each bucket. Le nombre de positions utilisées dans chaque compartiment. */
+    private final int[] starCounts = new int[RatingAggregate.MAX_STARS + 1];
+
+    /** The sum of the ratings outside the range of stars, which belong to no bucket.
+     * La somme des notes hors de la plage d'étoiles, qui n'appartiennent à aucun compartiment.
+     */
+    private long outOfRangeSum;
+
+    /** The number of rows and star positions copied when growing the arrays, a measure of the cost
+     * of the appends.
+     * Le nombre de lignes et de positions d'étoiles copiées lors de l'agrandissement des tableaux,
+     * une mesure du coût des ajouts.
+     */
+    private long copiedElements;
+
+    /** The statistics by day of the reviews. Les statistiques par jour des avis. */
+    private final RatingTimeline timeline = new RatingTimeline();
+
+    /** The state read by the readers, replaced after each mutation.
+     * L'état lu par les lecteurs, remplacé après chaque mutation.
+     */
+    private volatile Snapshot published;
+
+    public ReviewLog() {
+        for (int star = RatingAggregate.MIN_STARS; star <= RatingAggregate.MAX_STARS; star++) {
+            starPositions[star] = new int[INITIAL_CAPACITY];
+        }
+        publish();
+    }
+
+    /**
+     * Publishes the rows written so far to the readers. The rows and the grown arrays are written
+     * before the volatile write, so a reader seeing the new snapshot sees them too.
+     * Publie aux lecteurs les lignes écrites jusqu'ici. Les lignes et les tableaux agrandis sont
+     * écrits avant l'écriture volatile, un lecteur voyant le nouvel instantané les voit donc aussi.
+     */
+    private void publish() {
+        published = new Snapshot(new NewestFirstView(rates, usernames, pictures, comments, createdAts,
+                usernameDictionary.values(), pictureDictionary.values(), size),
+                starPositions.clone(), starCounts.clone(), outOfRangeSum);
+    }
+
+    /**
+     * Adds a review whose creation time is unknown as the newest one, in amortized constant time.
+     * @param username The name of the author, may be null.
+     * @param picture  The avatar URL of the author, may be null.
+     * @param comment  The comment.
+     * @param rate     The rating, which must fit in a {@code byte}.
+     * @return The identifier given to the review.
+     * @throws IllegalArgumentException if the rating does not fit in a {@code byte}.
+     * Ajoute un avis dont la date d'écriture est inconnue comme le plus récent, en temps constant amorti.
+     * @param username Le nom de l'auteur, peut être nul.
+     * @param picture  L'URL de l'avatar de l'auteur, peut être nulle.
+     * @param comment  Le commentaire.
+     * @param rate     La note, qui doit tenir dans un {@code byte}.
+     * @return L'identifiant attribué à l'avis.
+     * @throws IllegalArgumentException si la note ne tient pas dans un {@code byte}.
+     */
+    public long add(String username, String picture, String comment, int rate) {
+        return add(username, picture, comment, rate, 0L);
+    }
+
+    /**
+     * Adds a review written at a known time as the newest one, in amortized constant time.
+     * @param username  The name of the author, may be null.
+     * @param picture   The avatar URL of the author, may be null.
+     * @param comment   The comment.
+     * @param rate      The rating, which must fit in a {@code byte}.
+     * @param createdAt The time the review was written, in milliseconds since the epoch, or 0 if unknown.
+     * @return The identifier given to the review.
+     * @throws IllegalArgumentException if the rating does not fit in a {@code byte}.
+     * Ajoute un avis écrit à une date connue comme le plus récent, en temps constant amorti.
+     * @param username  Le nom de l'auteur, peut être nul.
+     * @param picture   L'URL de l'avatar de l'auteur, peut être nulle.
+     * @param comment   Le commentaire.
+     * @param rate      La note, qui doit tenir dans un {@code byte}.
+     * @param createdAt La date d'écriture de l'avis, en millisecondes depuis l'epoch, ou 0 si elle est inconnue.
+     * @return L'identifiant attribué à l'avis.
+     * @throws IllegalArgumentException si la note ne tient pas dans un {@code byte}.
+     */
+    public synchronized long add(String username, String picture, String comment, int rate, long createdAt) {
+        checkRate(rate);
+        ensureCapacity(size + 1);
+        write(size, username, picture, comment, rate, createdAt);
+        long id = ++size;
+        publish();
+        return id;
+    }
+
+    /**
+     * Adds a batch of reviews, oldest first, as one mutation: the columns grow at most once, and
+     * the reviews become visible together, a page or a view never holding part of the batch.
+     * @param batch The reviews to add, oldest first. Their identifiers are ignored.
+     * @return The identifier given to the first review of the batch, the next ones following it.
+     * @throws IllegalArgumentException if a rating does not fit in a {@code byte}; nothing is added then.
+     * Ajoute un lot d'avis, du plus ancien au plus récent, en une seule mutation : les colonnes
+     * grandissent au plus une fois, et les avis deviennent visibles ensemble, une page ou une vue
+     * ne contenant jamais une partie du lot.
+     * @param batch Les avis à ajouter, du plus ancien au plus récent. Leurs identifiants sont ignorés.
+     * @return L'identifiant attribué au premier avis du lot, les suivants lui faisant suite.
+     * @throws IllegalArgumentException si une note ne tient pas dans un {@code byte} ; rien n'est alors ajouté.
+     */
+    public synchronized long addAll(Collection<Review> batch) {
+        for (Review review : batch) {
+            checkRate(review.getRate());
+        }
+        int row = size;
+        ensureCapacity(row + batch.size());
+        for (Review review : batch) {
+            write(row++, review.getUsername(), review.getPicture(), review.getComment(), review.getRate(), review.getCreatedAt());
+        }
+        long firstId = size + 1L;
+        size = row;
+        publish();
+        return firstId;
+    }
+
+    private static void checkRate(int rate) {
+        if (rate < Byte.MIN_VALUE || rate > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Rate out of range: " + rate);
+        }
+    }
+
+    /**
+     * Grows the columns, at least doubling them, so that they can hold {@code capacity} rows.
+     * Agrandit les colonnes, en les doublant au moins, afin qu'elles puissent contenir
+     * {@code capacity} lignes.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > rates.length) {
+            int newCapacity = Math.max(capacity, rates.length * 2);
+            copiedElements += size;
+            rates = Arrays.copyOf(rates, newCapacity);
+            usernames = Arrays.copyOf(usernames, newCapacity);
+            pictures = Arrays.copyOf(pictures, newCapacity);
+            comments = Arrays.copyOf(comments, newCapacity);
+            createdAts = Arrays.copyOf(createdAts, newCapacity);
+        }
+    }
+
+    /**
+     * Writes a review at a row beyond {@link #size}, files its position in the bucket of its star
+     * and counts it in the timeline. The row is only visible once a snapshot including it is
+     * published; the timeline counts it at once.
+     * Écrit un avis à une ligne au-delà de {@link #size}, range sa position dans le compartiment de
+     * son étoile et le compte dans la chronologie. La ligne n'est visible qu'une fois publié un
+     * instantané qui l'inclut ; la chronologie le compte tout de suite.
+     */
+    private void write(int row, String username, String picture, String comment, int rate, long createdAt) {
+        rates[row] = (byte) rate;
+        usernames[row] = usernameDictionary.encode(username);
+        pictures[row] = pictureDictionary.encode(picture);
+        comments[row] = comment;
+        createdAts[row] = createdAt;
+        timeline.add(createdAt, rate);
+        if (rate >= RatingAggregate.MIN_STARS && rate <= RatingAggregate.MAX_STARS) {
+            int count = starCounts[rate];
+            if (count == starPositions[rate].length) {
+                starPositions[rate] = Arrays.copyOf(starPositions[rate], count * 2);
+                copiedElements += count;
+            }
+            starPositions[rate][count] = row;
+            starCounts[rate] = count + 1;
+        } else {
+            outOfRangeSum += rate;
+        }
+    }
+
+    /** Returns the number of rows and star positions copied so far when growing the arrays.
+     * Renvoie le nombre de lignes et de positions d'étoiles copiées jusqu'ici lors de
+     * l'agrandissement des tableaux.
+     */
+    synchronized long copiedElements() {
+        return copiedElements;
+    }
+
+    /** Returns the number of reviews in the log. Renvoie le nombre d'avis dans le journal. */
+    public int size() {
+        return published.view.size;
+    }
+
+    /**
+     * Reads the rating at a position of the log, in creation order, without building the review.
+     * Lit la note située à une position du journal, dans l'ordre de création, sans construire l'avis.
+     */
+    public int rate(int position) {
+        NewestFirstView view = published.view;
+        if (position < 0 || position >= view.size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + view.size);
+        }
+        return view.rates[position];
+    }
+
+    /**
+     * Builds the review at a position of the log, in creation order.
+     * @param position The position of the review, from 0 for the oldest one.
+     * Construit l'avis situé à une position du journal, dans l'ordre de création.
+     * @param position La position de l'avis, à partir de 0 pour le plus ancien.
+     */
+    public Review get(int position) {
+        NewestFirstView view = published.view;
+        if (position < 0 || position >= view.size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + view.size);
+        }
+        return view.get(view.size - 1 - position);
+    }
+
+    /**
+     * Reads the comment at a position of the log, without building the review.
+     * Lit le commentaire situé à une position du journal, sans construire l'avis.
+     */
+    public String comment(int position) {
+        NewestFirstView view = published.view;
+        if (position < 0 || position >= view.size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + view.size);
+        }
+        return view.comments[position];
+    }
+
+    /**
+     * Returns an immutable view of the reviews currently in the log, newest first, without copying.
+     * Each call to {@link List#get(int)} builds a new {@link Review}. Reviews added afterwards are
+     * not visible in the returned view.
+     * Renvoie une vue immuable des avis actuellement dans le journal, du plus récent au plus ancien,
+     * sans copie. Chaque appel à {@link List#get(int)} construit un nouvel {@link Review}. Les avis
+     * ajoutés ensuite ne sont pas visibles dans la vue renvoyée.
+     */
+    public List<Review> newestFirst() {
+        return published.view;
+    }
+
+    /**
+     * Returns a page of reviews, newest first, without copying. The cursor is the position in the
+     * log, in creation order, just after the newest review of the page: it does not move when
+     * reviews are added, so pages stay consistent while the log grows.
+     * @param cursor   The cursor returned with the previous page, or null to start from the newest review.
+     * @param pageSize The maximum number of reviews in the page.
+     * @return The page and the cursor of the next one.
+     * Renvoie une page d'avis, du plus récent au plus ancien, sans copie. Le curseur est la
+     * position dans le journal, dans l'ordre de création, juste après l'avis le plus récent de la
+     * page : il ne bouge pas lorsque des avis sont ajoutés, les pages restent donc cohérentes
+     * pendant que le journal grandit.
+     * @param cursor   Le curseur renvoyé avec la page précédente, ou null pour partir de l'avis le plus récent.
+     * @param pageSize Le nombre maximal d'avis dans la page.
+     * @return La page et le curseur de la suivante.
+     */
+    public ReviewPage page(Long cursor, int pageSize) {
+        NewestFirstView view = published.view;
+        int count = view.size;
+        int end = cursor == null ? count : (int) Math.max(0, Math.min(cursor, count));
+        int start = Math.max(0, end - pageSize);
+        List<Review> reviews = view.subList(count - end, count - start);
+        return new ReviewPage(reviews, start > 0 ? Long.valueOf(start) : null);
+    }
+
+    /**
+     * Returns a page of the reviews passing a filter, in the order of the filter, without reading
+     * the reviews outside the page. Newest first, the buckets of the filter are merged from the
+     * cursor; sorted by rating, they are read one after the other. The cursor is only valid with
+     * the filter that produced it, and the pages stay consistent while the log grows: like a keyset
+     * query, a review added while a sorted view is read only shows up if its star is not read yet.
+     * @param filter   The stars to keep and their order.
+     * @param cursor   The cursor returned with the previous page, or null for the first page.
+     * @param pageSize The maximum number of reviews in the page.
+     * @return The page and the cursor of the next one.
+     * Renvoie une page des avis passant un filtre, dans l'ordre du filtre, sans lire les avis hors
+     * de la page. Du plus récent au plus ancien, les compartiments du filtre sont fusionnés à partir
+     * du curseur ; triés par note, ils sont lus l'un après l'autre. Le curseur n'est valable qu'avec
+     * le filtre qui l'a produit, et les pages restent cohérentes pendant que le journal grandit :
+     * comme pour une requête par clé, un avis ajouté pendant la lecture d'une vue triée n'apparaît
+     * que si son étoile n'a pas encore été lue.
+     * @param filter   Les étoiles à garder et leur ordre.
+     * @param cursor   Le curseur renvoyé avec la page précédente, ou null pour la première page.
+     * @param pageSize Le nombre maximal d'avis dans la page.
+     * @return La page et le curseur de la suivante.
+     */
+    public ReviewPage page(ReviewFilter filter, Long cursor, int pageSize) {
+        if (filter.isAll()) {
+            return page(cursor, pageSize);
+        }
+        Snapshot snapshot = published;
+        if (filter.getOrder() == ReviewFilter.Order.NEWEST_FIRST) {
+            return mergedPage(snapshot.view, snapshot.starPositions, snapshot.starCounts, filter, cursor, pageSize);
+        }
+        return sortedPage(snapshot.view, snapshot.starPositions, snapshot.starCounts, filter, cursor, pageSize);
+    }
+
+    /**
+     * Reads the buckets of the filter newest first, merging them; the cursor is the position of the
+     * last review read. Also used by {@link RestaurantSnapshotApi} with its own buckets.
+     * @param view    The reviews, newest first; the review at position p is at index size - 1 - p.
+     * @param buckets The sorted positions of the reviews given each star, indexed by the star.
+     * @param counts  The number of positions used in each bucket.
+     * Lit les compartiments du filtre du plus récent au plus ancien en les fusionnant ; le curseur
+     * est la position du dernier avis lu. Également utilisée par {@link RestaurantSnapshotApi} avec
+     * ses propres compartiments.
+     * @param view    Les avis, du plus récent au plus ancien ; l'avis à la position p est à l'index size - 1 - p.
+     * @param buckets Les positions triées des avis ayant reçu chaque étoile, indexées par l'étoile.
+     * @param counts  Le nombre de positions utilisées dans chaque compartiment.
+     */
+    static ReviewPage mergedPage(List<Review> view, int[][] buckets, int[] counts,
+                                 ReviewFilter filter, Long cursor, int pageSize) {
+        int size = view.size();
+        int end = cursor == null ? size : (int) Math.max(0, Math.min(cursor, size));
+        int[] next = new int[RatingAggregate.MAX_STARS + 1];
+        for (int star = filter.getMinStars(); star <= filter.getMaxStars(); star++) {
+            next[star] = lastIndexBefore(buckets[star], counts[star], end);
+        }
+        List<Review> reviews = new ArrayList<>(pageSize);
+        int lastPosition = end;
+        while (reviews.size() < pageSize) {
+            int newestStar = -1;
+            for (int star = filter.getMinStars(); star <= filter.getMaxStars(); star++) {
+                if (next[star] >= 0 && (newestStar < 0 || buckets[star][next[star]] > buckets[newestStar][next[newestStar]])) {
+                    newestStar = star;
+                }
+            }
+            if (newestStar < 0) {
+                return new ReviewPage(reviews, null);
+            }
+            lastPosition = buckets[newestStar][next[newestStar]--];
+            reviews.add(view.get(size - 1 - lastPosition));
+        }
+        for (int star = filter.getMinStars(); star <= filter.getMaxStars(); star++) {
+            if (next[star] >= 0) {
+                return new ReviewPage(reviews, Long.valueOf(lastPosition));
+            }
+        }
+        return new ReviewPage(reviews, null);
+    }
+
+    /**
+     * Reads the buckets of the filter one after the other, in the order of the stars of the filter,
+     * each one newest first; the cursor holds the star being read and the position of the last
+     * review read. Takes the same arguments as {@link #mergedPage}.
+     * Lit les compartiments du filtre l'un après l'autre, dans l'ordre des étoiles du filtre,
+     * chacun du plus récent au plus ancien ; le curseur contient l'étoile en cours de lecture et
+     * la position du dernier avis lu. Prend les mêmes arguments que {@link #mergedPage}.
+     */
+    static ReviewPage sortedPage(List<Review> view, int[][] buckets, int[] counts,
+                                 ReviewFilter filter, Long cursor, int pageSize) {
+        int size = view.size();
+        int step = filter.getOrder() == ReviewFilter.Order.HIGHEST_RATED_FIRST ? -1 : 1;
+        int firstStar = step < 0 ? filter.getMaxStars() : filter.getMinStars();
+        int star = cursor == null ? firstStar : (int) (cursor >>> CURSOR_STAR_SHIFT);
+        int end = cursor == null ? size : (int) Math.min(cursor & 0xFFFFFFFFL, size);
+        List<Review> reviews = new ArrayList<>(pageSize);
+        for (; filter.accepts(star); star += step, end = size) {
+            int index = lastIndexBefore(buckets[star], counts[star], end);
+            while (index >= 0 && reviews.size() < pageSize) {
+                int position = buckets[star][index--];
+                reviews.add(view.get(size - 1 - position));
+                end = position;
+            }
+            if (reviews.size() == pageSize) {
+                if (index >= 0) {
+                    return new ReviewPage(reviews, ((long) star << CURSOR_STAR_SHIFT) | end);
+                }
+                for (int nextStar = star + step; filter.accepts(nextStar); nextStar += step) {
+                    if (lastIndexBefore(buckets[nextStar], counts[nextStar], size) >= 0) {
+                        return new ReviewPage(reviews, ((long) nextStar << CURSOR_STAR_SHIFT) | size);
+                    }
+                }
+                return new ReviewPage(reviews, null);
+            }
+        }
+        return new ReviewPage(reviews, null);
+    }
+
+    /**
+     * Returns the index of the last position lower than {@code end} in a sorted bucket, or -1.
+     * Renvoie l'index de la dernière position inférieure à {@code end} dans un compartiment trié, ou -1.
+     */
+    private static int lastIndexBefore(int[] bucket, int count, int end) {
+        int index = Arrays.binarySearch(bucket, 0, count, end);
+        return (index >= 0 ? index : -index - 1) - 1;
+    }
+
+    /**
+     * Returns the rating statistics in constant time, from the sizes of the buckets.
+     * Renvoie les statistiques de notation en temps constant, à partir de la taille des compartiments.
+     */
+    public RatingAggregate ratingAggregate() {
+        Snapshot snapshot = published;
+        long sum = snapshot.outOfRangeSum;
+        for (int star = RatingAggregate.MIN_STARS; star <= RatingAggregate.MAX_STARS; star++) {
+            sum += (long) star * snapshot.starCounts[star];
+        }
+        return RatingAggregate.of(snapshot.view.size, sum, snapshot.starCounts);
+    }
+
+    /**
+     * Returns the statistics of the reviews of the last {@code days} days and of the days before,
+     * in constant time.
+     * @param now  The current time, in milliseconds since the epoch.
+     * @param days The number of days of each period.
+     * Renvoie, en temps constant, les statistiques des avis des {@code days} derniers jours et des
+     * jours précédents.
+     * @param now  L'heure actuelle, en millisecondes depuis l'epoch.
+     * @param days Le nombre de jours de chaque période.
+     */
+    public RatingTrend ratingTrend(long now, int days) {
+        return timeline.trend(now, days);
+    }
+
+    /**
+     * The state of the log published to the readers: the rows and buckets written before the
+     * publication. Only the slots below the published sizes are read, and the log never writes
+     * them again.
+     * L'état du journal publié aux lecteurs : les lignes et compartiments écrits avant la
+     * publication. Seules les cases sous les tailles publiées sont lues, et le journal ne les
+     * écrit plus jamais.
+     */
+    private static final class Snapshot {
+
+        final NewestFirstView view;
+        final int[][] starPositions;
+        final int[] starCounts;
+        final long outOfRangeSum;
+
+        Snapshot(NewestFirstView view, int[][] starPositions, int[] starCounts, long outOfRangeSum) {
+            this.view = view;
+            this.starPositions = starPositions;
+            this.starCounts = starCounts;
+            this.outOfRangeSum = outOfRangeSum;
+        }
+    }
+
+    /**
+     * Read-only list reading the first {@code size} rows of the columns backwards and building a
+     * {@link Review} for each row read. It keeps the columns and dictionaries of the log as they
+     * were when it was created.
+     * Liste en lecture seule qui lit les {@code size} premières lignes des colonnes à l'envers et
+     * construit un {@link Review} pour chaque ligne lue. Elle conserve les colonnes et les
+     * dictionnaires du journal tels qu'ils étaient lors de sa création.
+     */
+    private static final class NewestFirstView extends AbstractList<Review> implements RandomAccess {
+
+        private final byte[] rates;
+        private final int[] usernames;
+        private final int[] pictures;
+        private final String[] comments;
+        private final long[] createdAts;
+        private final String[] usernameValues;
+        private final String[] pictureValues;
+        private final int size;
+
+        NewestFirstView(byte[] rates, int[] usernames, int[] pictures, String[] comments, long[] createdAts,
+                        String[] usernameValues, String[] pictureValues, int size) {
+            this.rates = rates;
+            this.usernames = usernames;
+            this.pictures = pictures;
+            this.comments = comments;
+            this.createdAts = createdAts;
+            this.usernameValues = usernameValues;
+            this.pictureValues = pictureValues;
+            this.size = size;
+        }
+
+        @Override
+        public Review get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            int row = size - 1 - index;
+            return new Review(row + 1L,
+                    StringDictionary.decode(usernameValues, usernames[row]),
+                    StringDictionary.decode(pictureValues, pictures[row]),
+                    comments[row],
+                    rates[row],
+                    createdAts[row]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index of the review comments.
+ * <p>
+ * Comments are split into words folded to lower case and without accents ("Délicieuse" and
+ * "delicieuse" are the same word), and each word points to the sorted list of the reviews that
+ * contain it. Reviews are identified by an {@code int} given by the caller, which must increase
+ * with each added review: a position in a log or a rank. A review is indexed in time proportional
+ * to the length of its comment, so the index is kept up to date on each write.
+ * <p>
+ * A query matches the reviews containing every query word, each one as a prefix: "serv rap" finds
+ * "service rapide". Matches are ranked by the sum of the weights of their matched words, the weight
+ * of a word being its inverse document frequency, reduced when the word only starts with the query
+ * word, so that rare and exact words rank first. Equal scores are ranked newest first. Only the
+ * lists of the query words are read, rarest first, and only the best {@code limit} matches are kept.
+ *<p>
+ * * Index inversé en mémoire des commentaires des avis.
+ * <p>
+ * Les commentaires sont découpés en mots ramenés en minuscules et sans accents (« Délicieuse » et
+ * « delicieuse » sont le même mot), et chaque mot pointe vers la liste triée des avis qui le
+ * contiennent. Les avis sont identifiés par un {@code int} donné par l'appelant, qui doit croître à
+ * chaque avis ajouté : une position dans un journal ou un rang. Un avis est indexé
+ * en un temps proportionnel à la longueur de son commentaire, l'index est donc tenu à jour à chaque
+ * écriture.
+ * <p>
+ * Une requête correspond aux avis contenant chacun des mots de la requête, chacun comme préfixe :
+ * « serv rap » trouve « service rapide ». Les résultats sont classés par la somme des poids de leurs
+ * mots trouvés, le poids d'un mot étant sa fréquence documentaire inverse, réduite lorsque le mot ne
+ * fait que commencer par le mot de la requête, afin que les mots rares et exacts soient classés en
+ * premier. Les scores égaux sont classés du plus récent au plus ancien. Seules les listes des mots de
+ * la requête sont lues, de la plus rare à la plus fréquente, et seuls les {@code limit} meilleurs
+ * résultats sont conservés.
+ */
+public class ReviewSearchIndex {
+
+    /** Shorter words are neither indexed nor searched. Les mots plus courts ne sont ni indexés ni recherchés. */
+    static final int MIN_WORD_LENGTH = 2;
+
+    /** The factor applied to the weight of a word that only starts with the query word.
+     * Le facteur appliqué au poids d'un mot qui ne fait que commencer par le mot de la requête.
+     */
+    private static final double PREFIX_FACTOR = 0.5;
+
+    /** The words of the index, sorted so that the words starting with a prefix are contiguous.
+     * Les mots de l'index, triés afin que les mots commençant par un préfixe soient contigus.
+     */
+    private final NavigableMap<String, Postings> words = new TreeMap<>();
+
+    /** The number of indexed reviews. Le nombre d'avis indexés. */
+    private int documentCount;
+
+    /**
+     * Indexes the comment of a review.
+     * @param document The identifier of the review, greater than those of the reviews already indexed.
+     * @param comment  The comment of the review, may be null.
+     * Indexe le commentaire d'un avis.
+     * @param document L'identifiant de l'avis, supérieur à ceux des avis déjà indexés.
+     * @param comment  Le commentaire de l'avis, peut être nul.
+     */
+    public synchronized void add(int document, String comment) {
+        documentCount++;
+        for (String word : words(comment)) {
+            Postings postings = words.get(word);
+            if (postings == null) {
+                postings = new Postings();
+                words.put(word, postings);
+            }
+            postings.add(document);
+        }
+    }
+
+    /** Returns the number of indexed reviews. Renvoie le nombre d'avis indexés. */
+    public synchronized int size() {
+        return documentCount;
+    }
+
+    /**
+     * Searches the reviews whose comment contains every word of the query, as a prefix.
+     * @param query The words to search, in any case and with or without accents.
+     * @param limit The maximum number of results.
+     * @return The identifiers of the matching reviews, best first; empty if the query has no word.
+     * Recherche les avis dont le commentaire contient chaque mot de la requête, comme préfixe.
+     * @param query Les mots à rechercher, dans n'importe quelle casse et avec ou sans accents.
+     * @param limit Le nombre maximal de résultats.
+     * @return Les identifiants des avis trouvés, le meilleur en premier ; vide si la requête n'a aucun mot.
+     */
+    public synchronized int[] search(String query, int limit) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        List<Matches> matches = new ArrayList<>(queryWords.size());
+        for (String queryWord : queryWords) {
+            Matches wordMatches = match(queryWord);
+            if (wordMatches.lists.length == 0) {
+                return new int[0];
+            }
+            matches.add(wordMatches);
+        }
+        matches.sort(Comparator.comparingInt(m -> m.size));
+        return rank(matches, limit);
+    }
+
+    /**
+     * Keeps the best {@code limit} reviews present in every list of matches, walking the rarest list
+     * newest first and skipping backwards in the others: when another list has no match for the
+     * current review, the walk jumps directly to the review it stopped on. Since a newer review wins
+     * a tie, the walk stops as soon as the worst kept review reaches the best possible score.
+     * Garde les {@code limit} meilleurs avis présents dans chaque liste de résultats, en parcourant
+     * la liste la plus rare du plus récent au plus ancien et en reculant par sauts dans les autres :
+     * lorsqu'une autre liste n'a pas de résultat pour l'avis courant, le parcours saute directement
+     * à l'avis sur lequel elle s'est arrêtée. Comme un avis plus récent l'emporte en cas d'égalité,
+     * le parcours s'arrête dès que le pire avis conservé atteint le meilleur score possible.
+     */
+    private static int[] rank(List<Matches> matches, int limit) {
+        Matches rarest = matches.get(0);
+        float bestPossibleScore = 0f;
+        for (Matches wordMatches : matches) {
+            bestPossibleScore += wordMatches.maxWeight;
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+        int target = Integer.MAX_VALUE;
+        candidates:
+        while (rarest.seekBack(target)) {
+            if (best.size() == limit && best.peek().score >= bestPossibleScore) {
+                break;
+            }
+            int document = rarest.document;
+            float score = rarest.weight;
+            target = document - 1;
+            for (int m = 1; m < matches.size(); m++) {
+                Matches other = matches.get(m);
+                if (!other.seekBack(document)) {
+                    break candidates;
+                }
+                if (other.document != document) {
+                    target = other.document;
+                    continue candidates;
+                }
+                score += other.weight;
+            }
+            if (best.size() < limit) {
+                best.add(new Hit(document, score));
+            } else if (best.peek().score < score) {
+                best.poll();
+                best.add(new Hit(document, score));
+            }
+        }
+        int[] documents = new int[best.size()];
+        for (int i = documents.length - 1; i >= 0; i--) {
+            documents[i] = best.poll().document;
+        }
+        return documents;
+    }
+
+    /**
+     * Returns the lists of the words starting with {@code prefix}, with their weight. They are not
+     * merged: they are walked together by {@link Matches#seekBack(int)}.
+     * Renvoie les listes des mots commençant par {@code prefix}, avec leur poids. Elles ne sont pas
+     * fusionnées : elles sont parcourues ensemble par {@link Matches#seekBack(int)}.
+     */
+    private Matches match(String prefix) {
+        Map<String, Postings> expansions = words.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        Postings[] lists = new Postings[expansions.size()];
+        float[] weights = new float[lists.length];
+        int i = 0;
+        for (Map.Entry<String, Postings> expansion : expansions.entrySet()) {
+            lists[i] = expansion.getValue();
+            weights[i] = weight(prefix, expansion.getKey(), lists[i]);
+            i++;
+        }
+        return new Matches(lists, weights);
+    }
+
+    /**
+     * The weight of an index word found with a query word: its inverse document frequency, or, when
+     * the index word is longer, {@link #PREFIX_FACTOR} times that frequency times the share of the
+     * index word typed in the query.
+     * Le poids d'un mot de l'index trouvé avec un mot de la requête : sa fréquence documentaire
+     * inverse, ou, lorsque le mot de l'index est plus long, {@link #PREFIX_FACTOR} fois cette
+     * fréquence fois la part du mot de l'index saisie dans la requête.
+     */
+    private float weight(String queryWord, String word, Postings postings) {
+        double inverseFrequency = Math.log(1.0 + (double) documentCount / postings.size);
+        if (queryWord.length() == word.length()) {
+            return (float) inverseFrequency;
+        }
+        return (float) (PREFIX_FACTOR * inverseFrequency * queryWord.length() / word.length());
+    }
+
+    /**
+     * Splits a text into distinct folded words of at least {@value #MIN_WORD_LENGTH} characters.
+     * Découpe un texte en mots distincts ramenés, d'au moins {@value #MIN_WORD_LENGTH} caractères.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        Set<String> seen = new HashSet<>();
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letter = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                if (i - start >= MIN_WORD_LENGTH) {
+                    String word = folded.substring(start, i);
+                    if (seen.add(word)) {
+                        words.add(word);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Folds a text to lower case without accents: "Très" becomes "tres" and "Œuf" becomes "oeuf".
+     * Ramène un texte en minuscules sans accents : « Très » devient « tres » et « Œuf » devient « oeuf ».
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            c = Character.toLowerCase(c);
+            if (c == 'œ') {
+                folded.append("oe");
+            } else if (c == 'æ') {
+                folded.append("ae");
+            } else {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * The sorted list of the reviews containing a word.
+     * La liste triée des avis contenant un mot.
+     */
+    private static final class Postings {
+
+        private int[] documents = new int[4];
+        private int size;
+
+        void add(int document) {
+            if (size > 0 && documents[size - 1] == document) {
+                return;
+            }
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+    }
+
+    /**
+     * The reviews matching one query word: the lists of every word of the index starting with it,
+     * walked together newest first. The current review is the newest one of all the lists not newer
+     * than the last target, with the best weight of the words it contains.
+     * Les avis correspondant à un mot de la requête : les listes de chaque mot de l'index commençant
+     * par celui-ci, parcourues ensemble du plus récent au plus ancien. L'avis courant est le plus
+     * récent de toutes les listes qui ne soit pas plus récent que la dernière cible, avec le meilleur
+     * poids des mots qu'il contient.
+     */
+    private static final class Matches {
+
+        final Postings[] lists;
+        final float[] weights;
+        final int[] positions;
+        /** The total length of the lists, an upper bound of the number of matches.
+         * La longueur totale des listes, un majorant du nombre de résultats.
+         */
+        final int size;
+        final float maxWeight;
+
+        int document;
+        float weight;
+
+        Matches(Postings[] lists, float[] weights) {
+            this.lists = lists;
+            this.weights = weights;
+            this.positions = new int[lists.length];
+            int total = 0;
+            float max = 0f;
+            for (int i = 0; i < lists.length; i++) {
+                positions[i] = lists[i].size - 1;
+                total += lists[i].size;
+                max = Math.max(max, weights[i]);
+            }
+            this.size = total;
+            this.maxWeight = max;
+        }
+
+        /**
+         * Moves to the newest review not newer than {@code target}.
+         * @return false if there is no such review.
+         * Se déplace sur l'avis le plus récent qui ne soit pas plus récent que {@code target}.
+         * @return false s'il n'existe pas un tel avis.
+         */
+        boolean seekBack(int target) {
+            int found = -1;
+            float foundWeight = 0f;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < 0) {
+                    continue;
+                }
+                int[] documents = lists[i].documents;
+                int position = seekBack(documents, positions[i], target);
+                positions[i] = position;
+                if (position < 0) {
+                    continue;
+                }
+                if (documents[position] > found) {
+                    found = documents[position];
+                    foundWeight = weights[i];
+                } else if (documents[position] == found) {
+                    foundWeight = Math.max(foundWeight, weights[i]);
+                }
+            }
+            document = found;
+            weight = foundWeight;
+            return found >= 0;
+        }
+
+        /**
+         * Returns the last position at or before {@code from} whose review is not greater than
+         * {@code target}, or -1. Galloping then binary search, so skipping far costs a logarithm of
+         * the distance.
+         * Renvoie la dernière position jusqu'à {@code from} dont l'avis n'est pas supérieur à
+         * {@code target}, ou -1. Recherche par bonds puis dichotomique, sauter loin coûte donc le
+         * logarithme de la distance.
+         */
+        private static int seekBack(int[] documents, int from, int target) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (low >= 0 && documents[low] > target) {
+                high = low - 1;
+                low -= step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(documents, Math.max(low, 0), high + 1, target);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+
+    /** A ranked match. Un résultat classé. */
+    private static final class Hit {
+
+        /** Orders the hits from the worst to the best: lower score, then older review.
+         * Ordonne les résultats du pire au meilleur : score plus faible, puis avis plus ancien.
+         */
+        static final Comparator<Hit> WORST_FIRST = (a, b) -> {
+            int byScore = Float.compare(a.score, b.score);
+            return byScore != 0 ? byScore : Integer.compare(a.document, b.document);
+        };
+
+        final int document;
+        final float score;
+
+        Hit(int document, float score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only binary file of reviews, mapped in memory and read lazily.
+ * <p>
+ * The file holds a header with the number of reviews and their rating statistics, then a table of
+ * three string offsets per review (comment, username and avatar), the creation times column, the
+ * ratings column, and a heap of length-prefixed UTF-8 strings, each distinct string being stored
+ * once. The snapshots of version 1, written before the creation times were stored, are still read,
+ * their reviews having an unknown creation time. Opening a snapshot only
+ * maps the file and checks its header: its cost does not depend on the number of reviews, and a
+ * {@link Review} is only built when {@link #get(int)} reads its row. {@link #preview(int, int)}
+ * builds it with only the beginning of its comment, decoding a few hundred bytes of a long one.
+ * <p>
+ * A snapshot is written to a temporary file, synced, then renamed over the previous one, so a
+ * reader always sees either the previous snapshot or the new one, never a partial file.
+ *<p>
+ * * Fichier binaire d'avis en lecture seule, projeté en mémoire et lu à la demande.
+ * <p>
+ * Le fichier contient un en-tête avec le nombre d'avis et leurs statistiques de notation, puis une
+ * table de trois positions de chaînes par avis (commentaire, nom et avatar), la colonne des dates
+ * d'écriture, la colonne des notes, et un tas de chaînes UTF-8 préfixées par leur longueur, chaque
+ * chaîne distincte n'étant stockée qu'une fois. Les instantanés de version 1, écrits avant que les
+ * dates d'écriture ne soient stockées, sont toujours lus, leurs avis ayant une date inconnue. Ouvrir un instantané ne fait que projeter le fichier et vérifier son en-tête : son
+ * coût ne dépend pas du nombre d'avis, et un {@link Review} n'est construit que lorsque
+ * {@link #get(int)} lit sa ligne. {@link #preview(int, int)} le construit avec seulement le début
+ * de son commentaire, en ne décodant que quelques centaines d'octets d'un long commentaire.
+ * <p>
+ * Un instantané est écrit dans un fichier temporaire, synchronisé, puis renommé à la place du
+ * précédent : un lecteur voit donc toujours l'instantané précédent ou le nouveau, jamais un
+ * fichier partiel.
+ */
+public final class ReviewSnapshot {
+
+    /** The first bytes of the file, "TMSN". Les premiers octets du fichier, « TMSN ». */
+    private static final int MAGIC = 0x544D534E;
+
+    private static final int VERSION = 2;
+
+    /** The version without the creation times column. La version sans la colonne des dates d'écriture. */
+    private static final int VERSION_WITHOUT_TIMES = 1;
+
+    /** Magic, version, count, heap size, rating sum, one count per star and the log epoch.
+     * Signature, version, nombre, taille du tas, somme des notes, un nombre par étoile et l'époque du journal.
+     */
+    private static final int HEADER_SIZE = 48;
+
+    private static final int STAR_COUNTS_OFFSET = 24;
+
+    /** The offset of the log epoch, in what was the padding of the header, so 0 in older snapshots.
+     * La position de l'époque du journal, dans l'ancien remplissage de l'en-tête, donc 0 dans les
+     * instantanés plus anciens.
+     */
+    private static final int LOG_EPOCH_OFFSET = 44;
+
+    /** The three string offsets of a row. Les trois positions de chaînes d'une ligne. */
+    private static final int ROW_SIZE = 12;
+
+    /** The size of a creation time. La taille d'une date d'écriture. */
+    private static final int TIME_SIZE = 8;
+
+    /** The offset of a null string. La position d'une chaîne nulle. */
+    private static final int NULL_STRING = -1;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    /** The offset of the creation times, or -1 in a snapshot of version 1.
+     * La position des dates d'écriture, ou -1 dans un instantané de version 1.
+     */
+    private final int timesOffset;
+    private final int ratesOffset;
+    private final int heapOffset;
+    private final RatingAggregate ratingAggregate;
+    private final int logEpoch;
+
+    /** The names and avatars already decoded, shared by the reviews built from the snapshot.
+     * Les noms et avatars déjà décodés, partagés par les avis construits à partir de l'instantané.
+     */
+    private final StringPool authors = new StringPool();
+
+    private ReviewSnapshot(ByteBuffer buffer, int size, boolean hasTimes, RatingAggregate ratingAggregate, int logEpoch) {
+        this.buffer = buffer;
+        this.size = size;
+        this.timesOffset = hasTimes ? HEADER_SIZE + size * ROW_SIZE : -1;
+        this.ratesOffset = HEADER_SIZE + size * (ROW_SIZE + (hasTimes ? TIME_SIZE : 0));
+        this.heapOffset = ratesOffset + size;
+        this.ratingAggregate = ratingAggregate;
+        this.logEpoch = logEpoch;
+    }
+
+    /**
+     * Writes a snapshot of reviews atomically.
+     * @param file    The file of the snapshot, replaced if it exists.
+     * @param reviews The reviews, newest first, as returned by {@link RestaurantApi#getReviews()}.
+     * @throws IOException if the snapshot cannot be written; the previous one is then left as is.
+     * Écrit un instantané d'avis de façon atomique.
+     * @param file    Le fichier de l'instantané, remplacé s'il existe.
+     * @param reviews Les avis, du plus récent au plus ancien, tels que renvoyés par {@link RestaurantApi#getReviews()}.
+     * @throws IOException si l'instantané ne peut pas être écrit ; le précédent est alors laissé tel quel.
+     */
+    public static void write(File file, List<Review> reviews) throws IOException {
+        write(file, reviews, 0);
+    }
+
+    /**
+     * Writes a snapshot of reviews atomically, folding the write-ahead logs up to an epoch: the
+     * records of the logs of that epoch or before are already in the snapshot.
+     * @param file     The file of the snapshot, replaced if it exists.
+     * @param reviews  The reviews, newest first, as returned by {@link RestaurantApi#getReviews()}.
+     * @param logEpoch The epoch of the last log folded into the snapshot.
+     * @throws IOException if the snapshot cannot be written; the previous one is then left as is.
+     * Écrit un instantané d'avis de façon atomique, en y intégrant les journaux d'écriture anticipée
+     * jusqu'à une époque : les enregistrements des journaux de cette époque ou d'avant sont déjà
+     * dans l'instantané.
+     * @param file     Le fichier de l'instantané, remplacé s'il existe.
+     * @param reviews  Les avis, du plus récent au plus ancien, tels que renvoyés par {@link RestaurantApi#getReviews()}.
+     * @param logEpoch L'époque du dernier journal intégré à l'instantané.
+     * @throws IOException si l'instantané ne peut pas être écrit ; le précédent est alors laissé tel quel.
+     */
+    public static void write(File file, List<Review> reviews, int logEpoch) throws IOException {
+        int count = reviews.size();
+        int[] rows = new int[count * 3];
+        long[] times = new long[count];
+        byte[] rates = new byte[count];
+        int[] starCounts = new int[RatingAggregate.MAX_STARS + 1];
+        long sum = 0L;
+        ByteArrayOutputStream heapBytes = new ByteArrayOutputStream();
+        DataOutputStream heap = new DataOutputStream(heapBytes);
+        Map<String, Integer> offsets = new HashMap<>();
+        for (int position = 0; position < count; position++) {
+            Review review = reviews.get(count - 1 - position);
+            int rate = review.getRate();
+            if (rate < Byte.MIN_VALUE || rate > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Rate out of range: " + rate);
+            }
+            rates[position] = (byte) rate;
+            times[position] = review.getCreatedAt();
+            sum += rate;
+            if (rate >= RatingAggregate.MIN_STARS && rate <= RatingAggregate.MAX_STARS) {
+                starCounts[rate]++;
+            }
+            rows[position * 3] = intern(review.getComment(), offsets, heap);
+            rows[position * 3 + 1] = intern(review.getUsername(), offsets, heap);
+            rows[position * 3 + 2] = intern(review.getPicture(), offsets, heap);
+        }
+
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(heapBytes.size());
+            out.writeLong(sum);
+            for (int star = RatingAggregate.MIN_STARS; star <= RatingAggregate.MAX_STARS; star++) {
+                out.writeInt(starCounts[star]);
+            }
+            out.writeInt(logEpoch);
+            for (int ref : rows) {
+                out.writeInt(ref);
+            }
+            for (long time : times) {
+                out.writeLong(time);
+            }
+            out.write(rates);
+            heapBytes.writeTo(out);
+            out.flush();
+            output.getFD().sync();
+        }
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    /**
+     * Adds a string to the heap unless it is already there, and returns its offset.
+     * Ajoute une chaîne au tas sauf si elle y est déjà, et renvoie sa position.
+     */
+    private static int intern(String value, Map<String, Integer> offsets, DataOutputStream heap) throws IOException {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        Integer offset = offsets.get(value);
+        if (offset == null) {
+            offset = heap.size();
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            heap.writeInt(utf8.length);
+            heap.write(utf8);
+            offsets.put(value, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Maps a snapshot in memory. Only the header is read.
+     * @param file The file of the snapshot.
+     * @return The snapshot, readable until the process ends.
+     * @throws IOException if the file cannot be read or is not a complete snapshot.
+     * Projette un instantané en mémoire. Seul l'en-tête est lu.
+     * @param file Le fichier de l'instantané.
+     * @return L'instantané, lisible jusqu'à la fin du processus.
+     * @throws IOException si le fichier ne peut pas être lu ou n'est pas un instantané complet.
+     */
+    public static ReviewSnapshot open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a review snapshot: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int version = buffer.getInt(4);
+            if (buffer.getInt(0) != MAGIC || (version != VERSION && version != VERSION_WITHOUT_TIMES)) {
+                throw new IOException("Not a review snapshot: " + file);
+            }
+            boolean hasTimes = version != VERSION_WITHOUT_TIMES;
+            int count = buffer.getInt(8);
+            int heapSize = buffer.getInt(12);
+            int rowSize = ROW_SIZE + (hasTimes ? TIME_SIZE : 0) + 1;
+            if (count < 0 || heapSize < 0 || HEADER_SIZE + (long) count * rowSize + heapSize != length) {
+                throw new IOException("Incomplete review snapshot: " + file);
+            }
+            int[] starCounts = new int[RatingAggregate.MAX_STARS + 1];
+            for (int star = RatingAggregate.MIN_STARS; star <= RatingAggregate.MAX_STARS; star++) {
+                starCounts[star] = buffer.getInt(STAR_COUNTS_OFFSET + (star - RatingAggregate.MIN_STARS) * 4);
+            }
+            RatingAggregate aggregate = RatingAggregate.of(count, buffer.getLong(16), starCounts);
+            return new ReviewSnapshot(buffer, count, hasTimes, aggregate, buffer.getInt(LOG_EPOCH_OFFSET));
+        }
+    }
+
+    /** Returns the number of reviews. Renvoie le nombre d'avis. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the epoch of the last write-ahead log folded into the snapshot, 0 if none.
+     * Renvoie l'époque du dernier journal d'écriture anticipée intégré à l'instantané, 0 si aucun.
+     */
+    public int logEpoch() {
+        return logEpoch;
+    }
+
+    /**
+     * Returns the rating statistics stored in the header. Renvoie les statistiques de notation
+     * stockées dans l'en-tête.
+     */
+    public RatingAggregate ratingAggregate() {
+        return ratingAggregate;
+    }
+
+    /**
+     * Reads the rating at a position, without building the review.
+     * Lit la note à une position, sans construire l'avis.
+     */
+    public int rate(int position) {
+        checkPosition(position);
+        return buffer.get(ratesOffset + position);
+    }
+
+    /**
+     * Builds the review at a position, in creation order. Its identifier is its position plus one,
+     * and its name and avatar are shared with the other reviews of the same author.
+     * @param position The position of the review, from 0 for the oldest one.
+     * Construit l'avis situé à une position, dans l'ordre de création. Son identifiant est sa
+     * position plus un, et son nom et son avatar sont partagés avec les autres avis du même auteur.
+     * @param position La position de l'avis, à partir de 0 pour le plus ancien.
+     */
+    public Review get(int position) {
+        checkPosition(position);
+        int row = HEADER_SIZE + position * ROW_SIZE;
+        return new Review(position + 1L, authors.intern(string(buffer.getInt(row + 4))), authors.intern(string(buffer.getInt(row + 8))),
+                string(buffer.getInt(row)), buffer.get(ratesOffset + position), createdAt(position));
+    }
+
+    /**
+     * Builds the review at a position like {@link #get(int)}, with a preview of its comment, see
+     * {@link Review#withCommentPreview(int)}. Only the bytes of the preview are decoded, so the
+     * cost does not depend on the length of the comment.
+     * @param position  The position of the review, from 0 for the oldest one.
+     * @param maxLength The maximum number of characters of the preview.
+     * Construit l'avis situé à une position comme {@link #get(int)}, avec un aperçu de son
+     * commentaire, voir {@link Review#withCommentPreview(int)}. Seuls les octets de l'aperçu sont
+     * décodés, le coût ne dépend donc pas de la longueur du commentaire.
+     * @param position  La position de l'avis, à partir de 0 pour le plus ancien.
+     * @param maxLength Le nombre maximal de caractères de l'aperçu.
+     */
+    public Review preview(int position, int maxLength) {
+        checkPosition(position);
+        int row = HEADER_SIZE + position * ROW_SIZE;
+        int offset = buffer.getInt(row);
+        // A character takes at most 3 bytes, so these bytes hold more than maxLength characters.
+        // Un caractère occupe au plus 3 octets, ces octets contiennent donc plus de maxLength caractères.
+        int maxBytes = 3 * maxLength + 6;
+        if (offset == NULL_STRING || buffer.getInt(heapOffset + offset) <= maxBytes) {
+            return get(position).withCommentPreview(maxLength);
+        }
+        int start = heapOffset + offset + 4;
+        int length = maxBytes;
+        while ((buffer.get(start + length) & 0xC0) == 0x80) {
+            // Do not cut a character: the next byte must start one.
+            // Ne pas couper un caractère : l'octet suivant doit en commencer un.
+            length--;
+        }
+        String preview = ReviewUtils.commentPreview(decode(start, length), maxLength);
+        return new Review(position + 1L, authors.intern(string(buffer.getInt(row + 4))), authors.intern(string(buffer.getInt(row + 8))),
+                preview, buffer.get(ratesOffset + position), createdAt(position), true);
+    }
+
+    /**
+     * Reads the creation time at a position, without building the review.
+     * @return The time in milliseconds since the epoch, or 0 if it is unknown.
+     * Lit la date d'écriture à une position, sans construire l'avis.
+     * @return La date en millisecondes depuis l'epoch, ou 0 si elle est inconnue.
+     */
+    public long createdAt(int position) {
+        checkPosition(position);
+        return timesOffset < 0 ? 0L : buffer.getLong(timesOffset + position * TIME_SIZE);
+    }
+
+    /**
+     * Returns the comment at a position, without building the review.
+     * Renvoie le commentaire situé à une position, sans construire l'avis.
+     */
+    public String comment(int position) {
+        checkPosition(position);
+        return string(buffer.getInt(HEADER_SIZE + position * ROW_SIZE));
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Decodes the string at an offset of the heap. The bytes are read with absolute reads, so the
+     * buffer is shared by every thread without any copy.
+     * Décode la chaîne située à une position du tas. Les octets sont lus par des lectures absolues,
+     * le tampon est donc partagé par tous les threads sans aucune copie.
+     */
+    private String string(int offset) {
+        if (offset == NULL_STRING) {
+            return null;
+        }
+        int start = heapOffset + offset;
+        return decode(start + 4, buffer.getInt(start));
+    }
+
+    /** Decodes {@code length} bytes of the heap from {@code start}. Décode {@code length} octets du tas à partir de {@code start}. */
+    private String decode(int start, int length) {
+        byte[] utf8 = new byte[length];
+        for (int i = 0; i < length; i++) {
+            utf8[i] = buffer.get(start + i);
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,612 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file holding the reviews submitted by the user, so that they survive the death of the
+ * process.
+ * <p>
+ * The file starts with a header, followed by one record per review: the length of the payload, the
+ * CRC-32 of the payload, then the payload itself (the rating, the comment, the username, the
+ * avatar and the creation time; the records written before the creation time was added end
+ * after the avatar and are read with an unknown time). On {@link #open(File)}, the records are read
+ * back; the first record that is incomplete or whose checksum does not match marks a write torn by
+ * a crash, and the file is truncated there. A header shorter than its size, or left as zeros by a
+ * crash while the file was created, is a log that never held a record: it is written again.
+ * <p>
+ * The header also holds an epoch. Once its records are folded into a snapshot, which stores the
+ * next epoch, {@link #reset(int)} empties the log and starts that epoch; if the process dies
+ * between the two, {@link #open(File, int)} finds a log older than the snapshot and discards it
+ * instead of replaying its records twice. The logs of version 1, without an epoch, are read as
+ * epoch 0.
+ * <p>
+ * Appending only copies the record into a buffer in memory. A dedicated thread writes the buffer
+ * and forces it to the disk; the records appended while it is syncing are written together by the
+ * next sync (group commit), so one sync covers many records and appending does not wait for the
+ * disk, unless several megabytes are already waiting. {@link #awaitDurable(long)} waits until a
+ * record is on the disk; if the committer stops before, because a write failed or it was
+ * interrupted, the waiters fail instead of waiting forever.
+ *<p>
+ * * Fichier en ajout seul contenant les avis soumis par l'utilisateur, afin qu'ils survivent à la
+ * mort du processus.
+ * <p>
+ * Le fichier commence par un en-tête, suivi d'un enregistrement par avis : la longueur de la charge
+ * utile, le CRC-32 de la charge utile, puis la charge utile elle-même (la note, le commentaire, le
+ * nom, l'avatar et la date d'écriture ; les enregistrements écrits avant l'ajout de la date se
+ * terminent après l'avatar et sont relus avec une date inconnue). À l'{@link #open(File) ouverture},
+ * les enregistrements sont relus ; le premier enregistrement incomplet ou dont la somme de contrôle
+ * ne correspond pas marque une écriture interrompue par un plantage, et le fichier est tronqué à cet
+ * endroit. Un en-tête plus court que sa taille, ou laissé à zéro par un plantage pendant la création
+ * du fichier, est un journal qui n'a jamais contenu d'enregistrement : il est réécrit.
+ * <p>
+ * L'en-tête contient aussi une époque. Une fois ses enregistrements intégrés à un instantané, qui
+ * stocke l'époque suivante, {@link #reset(int)} vide le journal et commence cette époque ; si le
+ * processus meurt entre les deux, {@link #open(File, int)} trouve un journal plus ancien que
+ * l'instantané et l'écarte au lieu de rejouer ses enregistrements une seconde fois. Les journaux
+ * de version 1, sans époque, sont lus comme étant d'époque 0.
+ * <p>
+ * Un ajout ne fait que copier l'enregistrement dans un tampon en mémoire. Un thread dédié écrit le
+ * tampon et le force sur le disque ; les enregistrements ajoutés pendant cette synchronisation sont
+ * écrits ensemble par la suivante (validation groupée), une synchronisation couvre donc de nombreux
+ * enregistrements et un ajout n'attend pas le disque, sauf si plusieurs mégaoctets attendent déjà.
+ * {@link #awaitDurable(long)} attend qu'un enregistrement soit sur le disque ; si le thread
+ * d'écriture s'arrête avant, parce qu'une écriture a échoué ou qu'il a été interrompu, les attentes
+ * échouent au lieu d'attendre indéfiniment.
+ */
+public final class ReviewWriteAheadLog implements Closeable {
+
+    /** The first bytes of the file, "TMWL". Les premiers octets du fichier, « TMWL ». */
+    private static final int MAGIC = 0x544D574C;
+
+    private static final int VERSION = 2;
+
+    /** The version without an epoch in the header. La version sans époque dans l'en-tête. */
+    private static final int VERSION_WITHOUT_EPOCH = 1;
+
+    /** Magic, version and epoch. Signature, version et époque. */
+    private static final int HEADER_SIZE = 12;
+
+    /** The size of the header of version 1. La taille de l'en-tête de la version 1. */
+    private static final int HEADER_SIZE_WITHOUT_EPOCH = 8;
+
+    /** The size of the length and checksum preceding each payload.
+     * La taille de la longueur et de la somme de contrôle précédant chaque charge utile.
+     */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /** A longer payload can only be a corrupted length. Une charge utile plus longue ne peut être qu'une longueur corrompue. */
+    private static final int MAX_PAYLOAD_SIZE = 1 << 20;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    /** Beyond this many pending bytes, appending waits for the committer, so a slow disk cannot
+     * fill the memory.
+     * Au-delà de ce nombre d'octets en attente, l'ajout attend le thread d'écriture, afin qu'un
+     * disque lent ne puisse pas remplir la mémoire.
+     */
+    private static final int MAX_PENDING_SIZE = 4 << 20;
+
+    private final FileChannel channel;
+
+    private final Thread committer;
+
+    /** Guards the fields below. Protège les champs ci-dessous. */
+    private final Object lock = new Object();
+
+    /** The records appended and not yet handed to the committer. Les enregistrements ajoutés et pas encore remis au thread d'écriture. */
+    private byte[] pending = new byte[INITIAL_BUFFER_SIZE];
+    private int pendingSize;
+
+    /** The buffer being written by the committer, reused for the next batch.
+     * Le tampon en cours d'écriture par le thread d'écriture, réutilisé pour le lot suivant.
+     */
+    private byte[] spare = new byte[INITIAL_BUFFER_SIZE];
+
+    /** The sequence number of the last appended record. Le numéro du dernier enregistrement ajouté. */
+    private long appended;
+
+    /** The sequence number of the last record on the disk. Le numéro du dernier enregistrement sur le disque. */
+    private long durable;
+
+    private boolean closed;
+
+    /** The error that stopped the committer, if any. L'erreur qui a arrêté le thread d'écriture, le cas échéant. */
+    private IOException failure;
+
+    /** True once the committer has exited. Vrai une fois le thread d'écriture terminé. */
+    private boolean stopped;
+
+    /** The number of syncs of the records to the disk. Le nombre de synchronisations des enregistrements sur le disque. */
+    private long syncs;
+
+    /** The epoch of the header. L'époque de l'en-tête. */
+    private int epoch;
+
+    /** The reviews read by {@link #open(File)}, until taken. Les avis lus par {@link #open(File)}, jusqu'à ce qu'ils soient pris. */
+    private List<Review> recovered;
+
+    private final long truncatedBytes;
+
+    private ReviewWriteAheadLog(FileChannel channel, int epoch, List<Review> recovered, long truncatedBytes) {
+        this.channel = channel;
+        this.epoch = epoch;
+        this.recovered = recovered;
+        this.truncatedBytes = truncatedBytes;
+        this.committer = new Thread(this::commitLoop, "tajmahal-wal");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Opens the log, creating it if needed, reads back its records and truncates a torn tail.
+     * @param file The file of the log.
+     * @return The opened log, whose records are returned by {@link #takeRecovered()}.
+     * @throws IOException if the file cannot be read or written, or is not a review log.
+     * Ouvre le journal, en le créant si besoin, relit ses enregistrements et tronque une fin interrompue.
+     * @param file Le fichier du journal.
+     * @return Le journal ouvert, dont les enregistrements sont renvoyés par {@link #takeRecovered()}.
+     * @throws IOException si le fichier ne peut pas être lu ou écrit, ou n'est pas un journal d'avis.
+     */
+    public static ReviewWriteAheadLog open(File file) throws IOException {
+        return open(file, 0);
+    }
+
+    /**
+     * Opens the log like {@link #open(File)}, discarding it if its epoch is older than the given
+     * one: its records are already in the snapshot.
+     * @param file     The file of the log.
+     * @param minEpoch The epoch stored in the snapshot; a new or discarded log starts it.
+     * @return The opened log, whose records are returned by {@link #takeRecovered()}.
+     * @throws IOException if the file cannot be read or written, or is not a review log.
+     * Ouvre le journal comme {@link #open(File)}, en l'écartant si son époque est plus ancienne que
+     * celle donnée : ses enregistrements sont déjà dans l'instantané.
+     * @param file     Le fichier du journal.
+     * @param minEpoch L'époque stockée dans l'instantané ; un journal nouveau ou écarté la commence.
+     * @return Le journal ouvert, dont les enregistrements sont renvoyés par {@link #takeRecovered()}.
+     * @throws IOException si le fichier ne peut pas être lu ou écrit, ou n'est pas un journal d'avis.
+     */
+    public static ReviewWriteAheadLog open(File file, int minEpoch) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            long length = raf.length();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Not a review log: " + file);
+            }
+            byte[] content = new byte[(int) length];
+            raf.readFully(content);
+            // Created, then torn by a crash before its header was on the disk.
+            // Créé, puis interrompu par un plantage avant que son en-tête soit sur le disque.
+            boolean torn = length < HEADER_SIZE_WITHOUT_EPOCH || (readInt(content, 0) == 0 && readInt(content, 4) == 0)
+                    || (readInt(content, 4) == VERSION && length < HEADER_SIZE);
+            int headerSize = HEADER_SIZE;
+            int epoch = minEpoch;
+            if (!torn) {
+                int version = readInt(content, 4);
+                if (readInt(content, 0) != MAGIC || (version != VERSION && version != VERSION_WITHOUT_EPOCH)) {
+                    throw new IOException("Not a review log: " + file);
+                }
+                headerSize = version == VERSION ? HEADER_SIZE : HEADER_SIZE_WITHOUT_EPOCH;
+                epoch = version == VERSION ? readInt(content, 8) : 0;
+            }
+            long discarded = 0L;
+            if (torn || epoch < minEpoch) {
+                discarded = length;
+                content = header(minEpoch);
+                raf.setLength(0);
+                raf.seek(0);
+                raf.write(content);
+                raf.getFD().sync();
+                length = HEADER_SIZE;
+                headerSize = HEADER_SIZE;
+                epoch = minEpoch;
+            }
+            List<Review> reviews = new ArrayList<>();
+            int end = readRecords(content, headerSize, reviews);
+            if (end < length) {
+                raf.setLength(end);
+                raf.getFD().sync();
+            }
+            FileChannel channel = raf.getChannel();
+            channel.position(end);
+            return new ReviewWriteAheadLog(channel, epoch, reviews, discarded + length - end);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /** Returns the header of the current version. Renvoie l'en-tête de la version actuelle. */
+    private static byte[] header(int epoch) {
+        byte[] header = new byte[HEADER_SIZE];
+        writeInt(header, 0, MAGIC);
+        writeInt(header, 4, VERSION);
+        writeInt(header, 8, epoch);
+        return header;
+    }
+
+    /**
+     * Reads the records following the header and returns the offset of the end of the last valid one.
+     * Lit les enregistrements suivant l'en-tête et renvoie la position de la fin du dernier valide.
+     */
+    private static int readRecords(byte[] content, int headerSize, List<Review> reviews) {
+        int offset = headerSize;
+        CRC32 crc = new CRC32();
+        while (content.length - offset >= RECORD_HEADER_SIZE) {
+            int payloadSize = readInt(content, offset);
+            int checksum = readInt(content, offset + 4);
+            int payloadOffset = offset + RECORD_HEADER_SIZE;
+            if (payloadSize < 0 || payloadSize > MAX_PAYLOAD_SIZE || payloadSize > content.length - payloadOffset) {
+                break;
+            }
+            crc.reset();
+            crc.update(content, payloadOffset, payloadSize);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            try {
+                reviews.add(decode(content, payloadOffset, payloadSize));
+            } catch (IOException e) {
+                break;
+            }
+            offset = payloadOffset + payloadSize;
+        }
+        return offset;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Returns the reviews read back when the log was opened, oldest first, and forgets them.
+     * Renvoie les avis relus à l'ouverture du journal, du plus ancien au plus récent, et les oublie.
+     */
+    public List<Review> takeRecovered() {
+        synchronized (lock) {
+            List<Review> reviews = recovered == null ? Collections.<Review>emptyList() : recovered;
+            recovered = null;
+            return reviews;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the torn tail, torn header, or log older than the snapshot,
+     * removed when the log was opened.
+     * Renvoie le nombre d'octets de la fin interrompue, de l'en-tête interrompu, ou du journal plus
+     * ancien que l'instantané, supprimés à l'ouverture du journal.
+     */
+    public long getTruncatedBytes() {
+        return truncatedBytes;
+    }
+
+    /**
+     * Returns the number of syncs of the records to the disk, each covering every record appended
+     * while the previous one was running.
+     * Renvoie le nombre de synchronisations des enregistrements sur le disque, chacune couvrant tous
+     * les enregistrements ajoutés pendant la précédente.
+     */
+    public long getSyncCount() {
+        synchronized (lock) {
+            return syncs;
+        }
+    }
+
+    /**
+     * Appends a review, without waiting for the disk.
+     * @param review The review to log.
+     * @return The sequence number of the record, to pass to {@link #awaitDurable(long)}.
+     * @throws UncheckedIOException if a previous write failed.
+     * Ajoute un avis, sans attendre le disque.
+     * @param review L'avis à journaliser.
+     * @return Le numéro de l'enregistrement, à passer à {@link #awaitDurable(long)}.
+     * @throws UncheckedIOException si une écriture précédente a échoué.
+     */
+    public long append(Review review) {
+        return appendAll(Collections.singletonList(review));
+    }
+
+    /**
+     * Appends a batch of reviews, oldest first, without waiting for the disk. The records of the
+     * batch are handed to the same sync.
+     * @param reviews The reviews to log.
+     * @return The sequence number of the last record of the batch.
+     * @throws UncheckedIOException if a previous write failed.
+     * Ajoute un lot d'avis, du plus ancien au plus récent, sans attendre le disque. Les
+     * enregistrements du lot sont remis à la même synchronisation.
+     * @param reviews Les avis à journaliser.
+     * @return Le numéro du dernier enregistrement du lot.
+     * @throws UncheckedIOException si une écriture précédente a échoué.
+     */
+    public long appendAll(Collection<Review> reviews) {
+        byte[][] records = new byte[reviews.size()][];
+        int i = 0;
+        for (Review review : reviews) {
+            records[i++] = encode(review);
+        }
+        synchronized (lock) {
+            while (pendingSize >= MAX_PENDING_SIZE && failure == null && !closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("The review log is closed");
+            }
+            for (byte[] record : records) {
+                if (pending.length - pendingSize < record.length) {
+                    pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingSize + record.length));
+                }
+                System.arraycopy(record, 0, pending, pendingSize, record.length);
+                pendingSize += record.length;
+            }
+            appended += records.length;
+            lock.notifyAll();
+            return appended;
+        }
+    }
+
+    /**
+     * Waits until a record and every record before it are on the disk.
+     * @param sequence The sequence number returned by {@link #append(Review)}.
+     * @throws IOException if the log could not be written, or the committer stopped before.
+     * Attend qu'un enregistrement et tous ceux qui le précèdent soient sur le disque.
+     * @param sequence Le numéro renvoyé par {@link #append(Review)}.
+     * @throws IOException si le journal n'a pas pu être écrit, ou si le thread d'écriture s'est
+     *                     arrêté avant.
+     */
+    public void awaitDurable(long sequence) throws IOException, InterruptedException {
+        synchronized (lock) {
+            while (durable < sequence) {
+                if (failure != null) {
+                    throw failure;
+                }
+                if (stopped) {
+                    throw new IOException("The review log is closed");
+                }
+                lock.wait();
+            }
+        }
+    }
+
+    /** Returns the epoch of the log. Renvoie l'époque du journal. */
+    public int getEpoch() {
+        synchronized (lock) {
+            return epoch;
+        }
+    }
+
+    /**
+     * Empties the log and starts a new epoch, once its records are folded into a snapshot storing
+     * that epoch. Every record must be on the disk, so the committer is not writing. If the file
+     * cannot be written, the log fails: a record appended after could be discarded at the next
+     * start, with the records of the old epoch.
+     * @param epoch The epoch stored in the snapshot.
+     * @throws IOException if the file could not be written.
+     * @throws IllegalStateException if a record is not on the disk yet, or the log is closed.
+     * Vide le journal et commence une nouvelle époque, une fois ses enregistrements intégrés à un
+     * instantané stockant cette époque. Tous les enregistrements doivent être sur le disque, le
+     * thread d'écriture n'écrit donc pas. Si le fichier ne peut pas être écrit, le journal échoue :
+     * un enregistrement ajouté ensuite pourrait être écarté au démarrage suivant, avec ceux de
+     * l'ancienne époque.
+     * @param epoch L'époque stockée dans l'instantané.
+     * @throws IOException si le fichier n'a pas pu être écrit.
+     * @throws IllegalStateException si un enregistrement n'est pas encore sur le disque, ou si le
+     *                               journal est fermé.
+     */
+    public void reset(int epoch) throws IOException {
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                throw new IllegalStateException("The review log is closed");
+            }
+            if (pendingSize > 0 || durable < appended) {
+                throw new IllegalStateException("The review log has records not on the disk yet");
+            }
+            try {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.wrap(header(epoch));
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.position(HEADER_SIZE);
+                channel.force(true);
+            } catch (IOException e) {
+                failure = e;
+                lock.notifyAll();
+                throw e;
+            }
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * Writes the pending records, then closes the file.
+     * Écrit les enregistrements en attente, puis ferme le fichier.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Body of the committer thread: runs {@link #commit()}, then, however it ended, records that
+     * it stopped and wakes the waiters. Unless the log was closed and fully written, the records
+     * still pending can no longer reach the disk: the log fails.
+     * Corps du thread d'écriture : exécute {@link #commit()}, puis, quelle que soit sa fin, note
+     * qu'il s'est arrêté et réveille les attentes. Sauf si le journal a été fermé et entièrement
+     * écrit, les enregistrements encore en attente ne peuvent plus atteindre le disque : le journal
+     * échoue.
+     */
+    private void commitLoop() {
+        try {
+            commit();
+        } finally {
+            synchronized (lock) {
+                stopped = true;
+                if (failure == null && (!closed || durable < appended)) {
+                    failure = new IOException("The review log committer stopped");
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes every pending record, writes and syncs them, repeats until the log is closed and
+     * written, a write fails or the thread is interrupted.
+     * Prend tous les enregistrements en attente, les écrit et les synchronise, recommence jusqu'à
+     * ce que le journal soit fermé et écrit, qu'une écriture échoue ou que le thread soit interrompu.
+     */
+    private void commit() {
+        while (true) {
+            byte[] batch;
+            int batchSize;
+            long last;
+            synchronized (lock) {
+                while (pendingSize == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pendingSize == 0) {
+                    return;
+                }
+                batch = pending;
+                batchSize = pendingSize;
+                last = appended;
+                pending = spare;
+                pendingSize = 0;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch, 0, batchSize);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                spare = batch;
+                durable = last;
+                syncs++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Encodes a review into a complete record: length, checksum and payload.
+     * Encode un avis en un enregistrement complet : longueur, somme de contrôle et charge utile.
+     */
+    static byte[] encode(Review review) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (review.getComment() == null ? 0 : review.getComment().length() * 2));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(review.getRate());
+            writeString(out, review.getComment());
+            writeString(out, review.getUsername());
+            writeString(out, review.getPicture());
+            out.writeLong(review.getCreatedAt());
+            byte[] record = bytes.toByteArray();
+            int payloadSize = record.length - RECORD_HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            crc.update(record, RECORD_HEADER_SIZE, payloadSize);
+            writeInt(record, 0, payloadSize);
+            writeInt(record, 4, (int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Review decode(byte[] bytes, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length));
+        int rate = in.readInt();
+        String comment = readString(in);
+        String username = readString(in);
+        String picture = readString(in);
+        long createdAt = in.available() >= 8 ? in.readLong() : 0L;
+        return new Review(0L, username, picture, comment, rate, createdAt);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /** Writes a string that may be null, as its UTF-8 length (-1 if null) and bytes.
+     * Écrit une chaîne pouvant être nulle, sous la forme de sa longueur UTF-8 (-1 si nulle) et de ses octets.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
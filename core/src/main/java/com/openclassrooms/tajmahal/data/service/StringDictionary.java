@@ -0,0 +1,72 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of a column of strings: every distinct value is stored once and the column
+ * only keeps its code, an {@code int}.
+ * <p>
+ * Codes are given in order of first appearance and never change. The array of values only grows by
+ * copy, so an array returned by {@link #values()} stays valid for every code given before the call.
+ *<p>
+ * * Encodage par dictionnaire d'une colonne de chaînes : chaque valeur distincte n'est stockée
+ * qu'une seule fois et la colonne ne conserve que son code, un {@code int}.
+ * <p>
+ * Les codes sont attribués dans l'ordre de première apparition et ne changent jamais. Le tableau des
+ * valeurs ne grandit que par copie, un tableau renvoyé par {@link #values()} reste donc valide pour
+ * tous les codes attribués avant l'appel.
+ */
+final class StringDictionary {
+
+    /** The code of a null value. Le code d'une valeur nulle. */
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /** The values, indexed by their code. Les valeurs, indexées par leur code. */
+    private String[] values = new String[16];
+
+    /**
+     * Returns the code of a value, adding it to the dictionary if it is new.
+     * Renvoie le code d'une valeur, en l'ajoutant au dictionnaire si elle est nouvelle.
+     */
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int newCode = codes.size();
+        if (newCode == values.length) {
+            values = Arrays.copyOf(values, newCode * 2);
+        }
+        values[newCode] = value;
+        codes.put(value, newCode);
+        return newCode;
+    }
+
+    /** Returns the number of distinct values. Renvoie le nombre de valeurs distinctes. */
+    int size() {
+        return codes.size();
+    }
+
+    /**
+     * Returns the current array of values, indexed by their code, without copying it.
+     * Renvoie le tableau actuel des valeurs, indexées par leur code, sans le copier.
+     */
+    String[] values() {
+        return values;
+    }
+
+    /**
+     * Decodes a code with an array returned by {@link #values()}.
+     * Décode un code avec un tableau renvoyé par {@link #values()}.
+     */
+    static String decode(String[] values, int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+}
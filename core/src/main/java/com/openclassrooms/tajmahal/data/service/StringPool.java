@@ -0,0 +1,77 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool of canonical strings, for the values repeated across many reviews: the reviewer names and
+ * the avatar URLs. A data source decoding a row, from a file, a database or a response, gets a new
+ * string each time; passing it to {@link #intern(String)} returns the copy already in the pool, so
+ * the reviews of the same reviewer share one name and one URL and the decoded copy is garbage.
+ * <p>
+ * Unlike {@link String#intern()}, the pool belongs to its data source and is collected with it. It
+ * stops growing at its capacity, the strings seen afterwards being returned as they are, so a
+ * source with many one-off names cannot grow it without bound. The pool is thread-safe and lookups
+ * do not block.
+ *<p>
+ * * Réserve de chaînes canoniques, pour les valeurs répétées dans de nombreux avis : les noms des
+ * auteurs et les URL d'avatar. Une source de données décodant une ligne, d'un fichier, d'une base
+ * de données ou d'une réponse, obtient une nouvelle chaîne à chaque fois ; la passer à
+ * {@link #intern(String)} renvoie la copie déjà présente dans la réserve, les avis d'un même auteur
+ * partagent donc un seul nom et une seule URL et la copie décodée est libérée.
+ * <p>
+ * Contrairement à {@link String#intern()}, la réserve appartient à sa source de données et est
+ * libérée avec elle. Elle cesse de grandir à sa capacité, les chaînes vues ensuite étant renvoyées
+ * telles quelles, une source avec de nombreux noms uniques ne peut donc pas la faire grandir sans
+ * limite. La réserve est sûre entre threads et ses recherches ne bloquent pas.
+ */
+public final class StringPool {
+
+    /** The capacity of a pool built without one. La capacité d'une réserve construite sans capacité. */
+    public static final int DEFAULT_CAPACITY = 16_384;
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+
+    private final int capacity;
+
+    public StringPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The maximum number of strings kept.
+     * @param capacity Le nombre maximal de chaînes conservées.
+     */
+    public StringPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the canonical copy of a string, adding it to the pool if it is new and the pool is
+     * not full.
+     * @param value The string, may be null.
+     * @return An equal string, the same instance for every call while it is in the pool.
+     * Renvoie la copie canonique d'une chaîne, en l'ajoutant à la réserve si elle est nouvelle et
+     * que la réserve n'est pas pleine.
+     * @param value La chaîne, peut être nulle.
+     * @return Une chaîne égale, la même instance à chaque appel tant qu'elle est dans la réserve.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = strings.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (strings.size() >= capacity) {
+            return value;
+        }
+        pooled = strings.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    /** Returns the number of strings in the pool. Renvoie le nombre de chaînes dans la réserve. */
+    public int size() {
+        return strings.size();
+    }
+}
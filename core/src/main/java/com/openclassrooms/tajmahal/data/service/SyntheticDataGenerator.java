@@ -0,0 +1,298 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Generates deterministic synthetic restaurants and reviews, for load tests, benchmarks and memory
+ * profiling at a realistic scale.
+ * <p>
+ * The same seed and restaurant id always give the same restaurant and the same reviews, whatever
+ * the other restaurants generated before. The data imitates real restaurant reviews:
+ * <ul>
+ *     <li>ratings lean towards 4 and 5 stars, each restaurant being a little better or worse than
+ *     the others;</li>
+ *     <li>most comments are one or two sentences long, and a few are much longer;</li>
+ *     <li>a few users write most of the reviews, each user always having the same avatar, taken
+ *     from a pool of {@value #AVATAR_COUNT} URLs;</li>
+ *     <li>the reviews are spread evenly over the {@value #HISTORY_DAYS} days before the end of
+ *     the history, oldest first.</li>
+ * </ul>
+ * Reviews are generated one at a time by {@link #reviews(long, int)}, so millions of them can be
+ * streamed into a store without holding them all twice.
+ *<p>
+ * * Génère des restaurants et des avis synthétiques et déterministes, pour les tests de charge, les
+ * benchmarks et le profilage mémoire à une échelle réaliste.
+ * <p>
+ * La même graine et le même identifiant de restaurant donnent toujours le même restaurant et les
+ * mêmes avis, quels que soient les autres restaurants générés avant. Les données imitent de vrais
+ * avis de restaurant :
+ * <ul>
+ *     <li>les notes penchent vers 4 et 5 étoiles, chaque restaurant étant un peu meilleur ou moins
+ *     bon que les autres ;</li>
+ *     <li>la plupart des commentaires font une ou deux phrases, et quelques-uns sont bien plus
+ *     longs ;</li>
+ *     <li>quelques utilisateurs écrivent la plupart des avis, chaque utilisateur ayant toujours le
+ *     même avatar, tiré d'un ensemble de {@value #AVATAR_COUNT} URL ;</li>
+ *     <li>les avis sont répartis uniformément sur les {@value #HISTORY_DAYS} jours précédant la
+ *     fin de l'historique, du plus ancien au plus récent.</li>
+ * </ul>
+ * Les avis sont générés un par un par {@link #reviews(long, int)}, des millions d'avis peuvent donc
+ * être versés dans un stockage sans les conserver tous en double.
+ */
+public final class SyntheticDataGenerator {
+
+    /** The seed of the load tests and benchmarks. La graine des tests de charge et des benchmarks. */
+    public static final long DEFAULT_SEED = 0x7A3_4A11L;
+
+    /** The number of distinct authors. Le nombre d'auteurs distincts. */
+    static final int USER_COUNT = 5_000;
+
+    /** The number of distinct avatar URLs. Le nombre d'URL d'avatar distinctes. */
+    static final int AVATAR_COUNT = 100;
+
+    /** The number of days covered by the reviews of a restaurant. Le nombre de jours couverts par les avis d'un restaurant. */
+    static final int HISTORY_DAYS = 3 * 365;
+
+    /** The end of the history of a generator built without one, 2025-01-01 UTC, so that its data never changes.
+     * La fin de l'historique d'un générateur construit sans fin, le 01/01/2025 UTC, afin que ses
+     * données ne changent jamais.
+     */
+    private static final long DEFAULT_END_MILLIS = 1_735_689_600_000L;
+
+    /** Cumulative distribution of the ratings 1 to 5, in percent, for an average restaurant.
+     * Distribution cumulée des notes de 1 à 5, en pourcentage, pour un restaurant moyen.
+     */
+    private static final int[] RATING_CUMULATIVE_PERCENT = {5, 12, 25, 55, 100};
+
+    /** Cumulative distribution of the number of sentences of a comment, from 1, in percent.
+     * Distribution cumulée du nombre de phrases d'un commentaire, à partir de 1, en pourcentage.
+     */
+    private static final int[] SENTENCES_CUMULATIVE_PERCENT = {45, 75, 88, 94, 97, 99, 100};
+
+    /** The maximum number of sentences of a long comment. Le nombre maximal de phrases d'un long commentaire. */
+    private static final int LONG_COMMENT_MAX_SENTENCES = 20;
+
+    /** The sentences of the comments, by rating from 1 to 5. Les phrases des commentaires, par note de 1 à 5. */
+    private static final String[][] SENTENCES = {
+            {},
+            {"Attente beaucoup trop longue un samedi soir.",
+                    "Les plats sont arrivés froids et le serveur ne s'est pas excusé.",
+                    "Nous ne reviendrons pas.",
+                    "Le curry était trop salé et le riz pas assez cuit."},
+            {"Les currys manquaient de diversité de saveurs.",
+                    "Service lent malgré une salle à moitié vide.",
+                    "Le naan était bon mais le reste décevant.",
+                    "Prix élevés pour des portions assez petites."},
+            {"Cuisine correcte mais un peu trop épicée pour moi.",
+                    "Un repas sans surprise, ni bon ni mauvais.",
+                    "Le cadre est agréable mais le service est inégal.",
+                    "Le biryani était savoureux, les desserts moins."},
+            {"Très bon restaurant Indien ! Je recommande.",
+                    "Service très rapide et nourriture délicieuse.",
+                    "Le naan au fromage est une merveille, nous reviendrons.",
+                    "Bon rapport qualité prix et équipe accueillante."},
+            {"Un service excellent et des plats incroyablement savoureux.",
+                    "Le propriétaire est très sympathique et veille à tout.",
+                    "Le meilleur curry du quartier, de loin.",
+                    "Tout était parfait, de l'entrée au dessert."}
+    };
+
+    private static final String[] NAME_PREFIXES = {"Le Palais", "La Table", "Les Jardins", "Le Comptoir", "La Maison", "L'Étoile"};
+    private static final String[] NAME_SUFFIXES = {"du Curry", "de Delhi", "du Maharaja", "des Épices", "du Bengale", "de Jaipur"};
+    private static final String[] TYPES = {"Indien", "Pakistanais", "Népalais", "Sri-lankais"};
+    private static final String[] STREETS = {"Rue du Faubourg Saint-Denis", "Avenue de la Brique", "Rue de Paradis", "Boulevard de Magenta", "Rue Cail"};
+
+    private final long seed;
+
+    /** The creation time of the newest possible review. La date d'écriture du plus récent avis possible. */
+    private final long endMillis;
+
+    /** The names and avatars of the authors, shared by their reviews like those read from a store.
+     * Les noms et avatars des auteurs, partagés par leurs avis comme ceux lus dans un stockage.
+     */
+    private final StringPool authors = new StringPool();
+
+    /**
+     * @param seed The seed: the same seed always gives the same data.
+     * @param seed La graine : la même graine donne toujours les mêmes données.
+     */
+    public SyntheticDataGenerator(long seed) {
+        this(seed, DEFAULT_END_MILLIS);
+    }
+
+    /**
+     * @param seed      The seed: the same seed and end always give the same data.
+     * @param endMillis The end of the history, in milliseconds since the epoch, for example the
+     *                  current time so that the recent trends have reviews.
+     * @param seed      La graine : la même graine et la même fin donnent toujours les mêmes données.
+     * @param endMillis La fin de l'historique, en millisecondes depuis l'epoch, par exemple l'heure
+     *                  actuelle afin que les tendances récentes aient des avis.
+     */
+    public SyntheticDataGenerator(long seed, long endMillis) {
+        this.seed = seed;
+        this.endMillis = endMillis;
+    }
+
+    /**
+     * Generates the details of a restaurant.
+     * Génère les détails d'un restaurant.
+     */
+    public Restaurant restaurant(long restaurantId) {
+        SplittableRandom random = random(restaurantId, 0L);
+        String name = pick(random, NAME_PREFIXES) + " " + pick(random, NAME_SUFFIXES);
+        int opening = 11 + random.nextInt(2);
+        String hours = String.format(Locale.ROOT, "%dh30 - 14h30・18h30 - %dh00", opening, 22 + random.nextInt(2));
+        String address = (1 + random.nextInt(150)) + " " + pick(random, STREETS) + " - 750" + (10 + random.nextInt(10)) + " Paris";
+        String website = "http://www.restaurant-" + restaurantId + ".fr";
+        String phone = String.format(Locale.ROOT, "06 %02d %02d %02d %02d", random.nextInt(100), random.nextInt(100), random.nextInt(100), random.nextInt(100));
+        return new Restaurant(name, pick(random, TYPES), hours, address, website, phone, random.nextBoolean(), true);
+    }
+
+    /**
+     * Generates the reviews of a restaurant, oldest first, one at a time. Their identifiers are
+     * their position, from 1. Their creation times spread them over the whole history, so they
+     * depend on {@code count}; the other fields do not.
+     * @param restaurantId The id of the restaurant.
+     * @param count        The number of reviews.
+     * @return An iterator building each review when it is read.
+     * Génère les avis d'un restaurant, du plus ancien au plus récent, un par un. Leurs identifiants
+     * sont leur position, à partir de 1. Leurs dates d'écriture les répartissent sur tout
+     * l'historique, elles dépendent donc de {@code count} ; les autres champs n'en dépendent pas.
+     * @param restaurantId L'identifiant du restaurant.
+     * @param count        Le nombre d'avis.
+     * @return Un itérateur construisant chaque avis lorsqu'il est lu.
+     */
+    public Iterator<Review> reviews(long restaurantId, int count) {
+        SplittableRandom random = random(restaurantId, 1L);
+        // Moves the whole distribution of the restaurant by up to 10 points towards 1 or 5 stars.
+        // Décale toute la distribution du restaurant d'au plus 10 points vers 1 ou 5 étoiles.
+        int shift = random.nextInt(21) - 10;
+        // Each review is written at a random time of its own slot of the history, so the times grow.
+        // Chaque avis est écrit à un instant aléatoire de sa propre part de l'historique, les dates croissent donc.
+        SplittableRandom times = random(restaurantId, 2L);
+        long start = endMillis - HISTORY_DAYS * RatingTimeline.DAY_MILLIS;
+        long slot = Math.max(1L, HISTORY_DAYS * RatingTimeline.DAY_MILLIS / Math.max(1, count));
+        return new Iterator<Review>() {
+            private int generated;
+
+            @Override
+            public boolean hasNext() {
+                return generated < count;
+            }
+
+            @Override
+            public Review next() {
+                if (generated == count) {
+                    throw new NoSuchElementException();
+                }
+                int user = nextUser(random);
+                int rating = nextRating(random, shift);
+                long createdAt = start + generated * slot + times.nextLong(slot);
+                return new Review(++generated, authors.intern("Utilisateur " + user), authors.intern(avatar(user)), nextComment(random, rating), rating, createdAt);
+            }
+        };
+    }
+
+    /**
+     * Generates the reviews of a restaurant, oldest first, in a list.
+     * Génère les avis d'un restaurant, du plus ancien au plus récent, dans une liste.
+     */
+    public List<Review> reviewList(long restaurantId, int count) {
+        List<Review> reviews = new ArrayList<>(count);
+        for (Iterator<Review> generated = reviews(restaurantId, count); generated.hasNext(); ) {
+            reviews.add(generated.next());
+        }
+        return reviews;
+    }
+
+    /**
+     * Returns a random generator for one kind of data of a restaurant, independent of the others.
+     * Renvoie un générateur aléatoire pour un type de données d'un restaurant, indépendant des autres.
+     */
+    private SplittableRandom random(long restaurantId, long stream) {
+        long mixed = (seed ^ restaurantId * 0x9E3779B97F4A7C15L) + stream * 0xBF58476D1CE4E5B9L;
+        return new SplittableRandom(mixed);
+    }
+
+    /**
+     * Draws an author, the first users being much more likely: the square of a uniform number
+     * gives a quarter of the users half of the reviews.
+     * Tire un auteur, les premiers utilisateurs étant bien plus probables : le carré d'un nombre
+     * uniforme donne à un quart des utilisateurs la moitié des avis.
+     */
+    private static int nextUser(SplittableRandom random) {
+        double uniform = random.nextDouble();
+        return (int) (uniform * uniform * USER_COUNT);
+    }
+
+    /** Returns the avatar URL of a user. Renvoie l'URL de l'avatar d'un utilisateur. */
+    private static String avatar(int user) {
+        int avatar = user % AVATAR_COUNT;
+        return "https://xsgames.co/randomusers/assets/avatars/" + (avatar % 2 == 0 ? "male/" : "female/") + avatar + ".jpg";
+    }
+
+    /**
+     * Draws a rating from the skewed distribution, moved by {@code shift} percentage points.
+     * Tire une note selon la distribution biaisée, décalée de {@code shift} points de pourcentage.
+     */
+    static int nextRating(SplittableRandom random, int shift) {
+        int percent = random.nextInt(100) - shift;
+        for (int i = 0; i < RATING_CUMULATIVE_PERCENT.length; i++) {
+            if (percent < RATING_CUMULATIVE_PERCENT[i]) {
+                return i + 1;
+            }
+        }
+        return RATING_CUMULATIVE_PERCENT.length;
+    }
+
+    /**
+     * Builds a comment from sentences matching the rating. A one-sentence comment is a shared
+     * constant, like the short comments repeated in real reviews.
+     * Construit un commentaire à partir de phrases correspondant à la note. Un commentaire d'une
+     * phrase est une constante partagée, comme les commentaires courts répétés des vrais avis.
+     */
+    private static String nextComment(SplittableRandom random, int rating) {
+        String[] sentences = SENTENCES[rating];
+        int count = nextSentenceCount(random);
+        if (count == 1) {
+            return pick(random, sentences);
+        }
+        StringBuilder comment = new StringBuilder(count * 48);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                comment.append(' ');
+            }
+            comment.append(pick(random, sentences));
+        }
+        return comment.toString();
+    }
+
+    /**
+     * Draws the number of sentences of a comment: most have one or two, and the last percent are
+     * long comments of up to {@value #LONG_COMMENT_MAX_SENTENCES} sentences.
+     * Tire le nombre de phrases d'un commentaire : la plupart en ont une ou deux, et le dernier
+     * pour cent sont de longs commentaires d'au plus {@value #LONG_COMMENT_MAX_SENTENCES} phrases.
+     */
+    private static int nextSentenceCount(SplittableRandom random) {
+        int percent = random.nextInt(100);
+        int last = SENTENCES_CUMULATIVE_PERCENT.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (percent < SENTENCES_CUMULATIVE_PERCENT[i]) {
+                return i + 1;
+            }
+        }
+        return last + 1 + random.nextInt(LONG_COMMENT_MAX_SENTENCES - last);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
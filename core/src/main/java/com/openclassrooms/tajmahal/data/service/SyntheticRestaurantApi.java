@@ -0,0 +1,151 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Restaurant;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+import com.openclassrooms.tajmahal.domain.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@link RestaurantApi} serving a restaurant and a large number of reviews generated by a
+ * {@link SyntheticDataGenerator}, for load tests: scrolling, memory profiling and benchmarks on
+ * reproducible data.
+ * <p>
+ * The reviews are generated and stored in a {@link RestaurantFakeApi} on the first call, not in
+ * the constructor, so that creating the API on the main thread costs nothing: the repository makes
+ * every call on its executors. They are added in chunks, so the generated reviews are never all
+ * held twice. The reviews added afterwards are kept in memory only.
+ *<p>
+ * * Une {@link RestaurantApi} fournissant un restaurant et un grand nombre d'avis générés par un
+ * {@link SyntheticDataGenerator}, pour les tests de charge : défilement, profilage mémoire et
+ * benchmarks sur des données reproductibles.
+ * <p>
+ * Les avis sont générés et stockés dans un {@link RestaurantFakeApi} au premier appel, et non dans
+ * le constructeur, afin que la création de l'API sur le thread principal ne coûte rien : le
+ * référentiel fait tous ses appels sur ses exécuteurs. Ils sont ajoutés par morceaux, les avis
+ * générés ne sont donc jamais tous conservés en double. Les avis ajoutés ensuite ne sont conservés
+ * qu'en mémoire.
+ */
+public class SyntheticRestaurantApi implements RestaurantApi {
+
+    /** The number of generated reviews added to the store at once.
+     * Le nombre d'avis générés ajoutés au stockage en une fois.
+     */
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final SyntheticDataGenerator generator;
+
+    private final long restaurantId;
+
+    private final int reviewCount;
+
+    /** The store, filled on the first call. Le stockage, rempli au premier appel. */
+    private volatile RestaurantFakeApi store;
+
+    /**
+     * @param generator    The generator of the data.
+     * @param restaurantId The id of the restaurant, which selects its data.
+     * @param reviewCount  The number of reviews to generate.
+     * @param generator    Le générateur des données.
+     * @param restaurantId L'identifiant du restaurant, qui choisit ses données.
+     * @param reviewCount  Le nombre d'avis à générer.
+     */
+    public SyntheticRestaurantApi(SyntheticDataGenerator generator, long restaurantId, int reviewCount) {
+        this.generator = generator;
+        this.restaurantId = restaurantId;
+        this.reviewCount = reviewCount;
+    }
+
+    /**
+     * Returns the store, generating the reviews of the restaurant on the first call.
+     * Renvoie le stockage, en générant les avis du restaurant au premier appel.
+     */
+    private RestaurantFakeApi store() {
+        RestaurantFakeApi filled = store;
+        if (filled == null) {
+            synchronized (this) {
+                filled = store;
+                if (filled == null) {
+                    filled = new RestaurantFakeApi(generator.restaurant(restaurantId));
+                    Iterator<Review> reviews = generator.reviews(restaurantId, reviewCount);
+                    List<Review> chunk = new ArrayList<>(Math.min(CHUNK_SIZE, reviewCount));
+                    while (reviews.hasNext()) {
+                        chunk.add(reviews.next());
+                        if (chunk.size() == CHUNK_SIZE || !reviews.hasNext()) {
+                            filled.addReviews(chunk);
+                            chunk.clear();
+                        }
+                    }
+                    store = filled;
+                }
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * Generates the details of the restaurant without generating its reviews.
+     * Génère les détails du restaurant sans générer ses avis.
+     */
+    @Override
+    public Restaurant getRestaurant() {
+        return generator.restaurant(restaurantId);
+    }
+
+    @Override
+    public List<Review> getReviews() {
+        return store().getReviews();
+    }
+
+    @Override
+    public ReviewPage getReviews(Long cursor, int pageSize) {
+        return store().getReviews(cursor, pageSize);
+    }
+
+    @Override
+    public ReviewPage getReviews(ReviewFilter filter, Long cursor, int pageSize) {
+        return store().getReviews(filter, cursor, pageSize);
+    }
+
+    @Override
+    public RatingAggregate getRatingAggregate() {
+        return store().getRatingAggregate();
+    }
+
+    @Override
+    public RatingTrend getRatingTrend(long now, int days) {
+        return store().getRatingTrend(now, days);
+    }
+
+    @Override
+    public List<Review> searchReviews(String query, int limit) {
+        return store().searchReviews(query, limit);
+    }
+
+    @Override
+    public String getComment(long reviewId) {
+        return store().getComment(reviewId);
+    }
+
+    @Override
+    public boolean addReview(String comment, Integer rating, String avatar, String userName) {
+        return store().addReview(comment, rating, avatar, userName);
+    }
+
+    @Override
+    public boolean addReviews(Collection<Review> reviews) {
+        return store().addReviews(reviews);
+    }
+
+    @Override
+    public User getUser() {
+        return store().getUser();
+    }
+}
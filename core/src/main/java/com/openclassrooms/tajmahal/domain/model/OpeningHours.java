@@ -0,0 +1,615 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The opening hours of a restaurant, parsed once from their text into a weekly table, answering
+ * "is it open at this time" and "when does it open or close next" in O(log n).
+ * <p>
+ * The text is a list of ranges such as {@code "11h30 - 14h30・18h30 - 22h00"}, the same every day,
+ * or rules separated by {@code ';'} giving the days they apply to, such as
+ * {@code "lun-ven: 11h30 - 22h00; sam, dim: 18h00 - 01h00; mar: fermé"}, a later rule replacing the
+ * hours of the days of an earlier one. A range ending before it starts ends the next day. Text that
+ * cannot be read gives hours that are not {@linkplain #isKnown() known}, always closed.
+ * <p>
+ * The week is stored as a sorted array of the minutes of the week at which the restaurant opens
+ * and closes, alternately, so a time is open when the number of boundaries up to it is odd, found
+ * by binary search. A date with other hours, a public holiday or a closing for works, is an
+ * exception added with {@link #withException(int, int, int, String)}: its hours replace those of
+ * the week for that day only, the ranges of the day before going past midnight included. The
+ * queries allocate nothing, so many restaurants can be ranked by their status with one
+ * {@link #isOpen(long)} and one {@link #nextTransition(long)} each. The hours are immutable and
+ * thread-safe.
+ *<p>
+ * * Les horaires d'ouverture d'un restaurant, analysés une seule fois à partir de leur texte dans une
+ * table hebdomadaire, répondant en O(log n) à « est-il ouvert à cette heure » et « quand ouvre-t-il
+ * ou ferme-t-il la prochaine fois ».
+ * <p>
+ * Le texte est une liste de plages comme {@code "11h30 - 14h30・18h30 - 22h00"}, identiques chaque
+ * jour, ou des règles séparées par {@code ';'} indiquant les jours auxquels elles s'appliquent,
+ * comme {@code "lun-ven: 11h30 - 22h00; sam, dim: 18h00 - 01h00; mar: fermé"}, une règle suivante
+ * remplaçant les horaires des jours d'une règle précédente. Une plage finissant avant de commencer
+ * finit le lendemain. Un texte illisible donne des horaires non {@linkplain #isKnown() connus},
+ * toujours fermés.
+ * <p>
+ * La semaine est stockée sous forme d'un tableau trié des minutes de la semaine auxquelles le
+ * restaurant ouvre et ferme, alternativement : une heure est ouverte lorsque le nombre de bornes
+ * jusqu'à elle est impair, trouvé par recherche dichotomique. Une date aux horaires différents, un
+ * jour férié ou une fermeture pour travaux, est une exception ajoutée avec
+ * {@link #withException(int, int, int, String)} : ses horaires remplacent ceux de la semaine pour ce
+ * jour seulement, y compris les plages de la veille passant minuit. Les requêtes n'allouent rien,
+ * de nombreux restaurants peuvent donc être classés selon leur état avec un {@link #isOpen(long)}
+ * et un {@link #nextTransition(long)} chacun. Les horaires sont immuables et sûrs entre threads.
+ */
+public final class OpeningHours {
+
+    /** The number of minutes in a day. Le nombre de minutes dans un jour. */
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** The number of minutes in a week. Le nombre de minutes dans une semaine. */
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    /** The next transition of hours that never change. La prochaine transition d'horaires qui ne changent jamais. */
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private static final long DAY_MILLIS = MINUTES_PER_DAY * MINUTE_MILLIS;
+
+    /** The day of the week of 1970-01-01, a Thursday, from 0 for Monday.
+     * Le jour de la semaine du 01/01/1970, un jeudi, à partir de 0 pour lundi.
+     */
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    /** The first three letters of the days, in French then in English, from Monday.
+     * Les trois premières lettres des jours, en français puis en anglais, à partir de lundi.
+     */
+    private static final String[] DAY_PREFIXES = {
+            "lun", "mar", "mer", "jeu", "ven", "sam", "dim",
+            "mon", "tue", "wed", "thu", "fri", "sat", "sun"};
+
+    private static final Pattern RANGE = Pattern.compile(
+            "(\\d{1,2})\\s*(?:[hH:.]\\s*(\\d{2})?)?\\s*(?:-|–|—|à|to)\\s*(\\d{1,2})\\s*(?:[hH:.]\\s*(\\d{2})?)?");
+
+    private static final Pattern RANGE_SEPARATOR = Pattern.compile("\\s*(?:[・･,/|&]|\\bet\\b|\\band\\b)\\s*");
+
+    private static final Pattern CLOSED = Pattern.compile("ferm[ée]e?|fermeture|closed");
+
+    private static final int[] NO_BOUNDARIES = new int[0];
+
+    private final TimeZone zone;
+
+    /** Whether the text could be read. Si le texte a pu être lu. */
+    private final boolean known;
+
+    /** The minutes of the week from Monday 00:00 at which the restaurant opens and closes, alternately.
+     * Les minutes de la semaine depuis lundi 00h00 auxquelles le restaurant ouvre et ferme, alternativement.
+     */
+    private final int[] week;
+
+    /** The minutes of the day at which the restaurant opens and closes from Monday, without the
+     * ranges of the day before, used the day after an exception.
+     * Les minutes du jour auxquelles le restaurant ouvre et ferme à partir de lundi, sans les plages
+     * de la veille, utilisées le lendemain d'une exception.
+     */
+    private final int[][] days;
+
+    /** Whether {@link #week} opens and closes at all. Si {@link #week} ouvre et ferme effectivement. */
+    private final boolean weekChanges;
+
+    /** The local days of the exceptions, in days since 1970-01-01, sorted.
+     * Les jours locaux des exceptions, en jours depuis le 01/01/1970, triés.
+     */
+    private final long[] exceptionDays;
+
+    /** The minutes of the day at which the restaurant opens and closes on each exception day.
+     * Les minutes du jour auxquelles le restaurant ouvre et ferme chaque jour d'exception.
+     */
+    private final int[][] exceptionHours;
+
+    /** The most boundaries {@link #nextTransition(long)} may cross without a change of status.
+     * Le nombre maximal de bornes que {@link #nextTransition(long)} peut franchir sans changement d'état.
+     */
+    private final long maxSteps;
+
+    private OpeningHours(TimeZone zone, boolean known, int[] week, int[][] days, long[] exceptionDays,
+                         int[][] exceptionHours) {
+        this.zone = zone;
+        this.known = known;
+        this.week = week;
+        this.days = days;
+        this.weekChanges = week.length > 0 && !(week.length == 2 && week[0] == 0 && week[1] == MINUTES_PER_WEEK);
+        this.exceptionDays = exceptionDays;
+        this.exceptionHours = exceptionHours;
+        int longestDay = 0;
+        for (int[] day : days) {
+            longestDay = Math.max(longestDay, day.length);
+        }
+        long steps = (week.length + 2L) * (exceptionDays.length + 1L);
+        for (int[] day : exceptionHours) {
+            steps += day.length + longestDay + 2L;
+        }
+        this.maxSteps = steps;
+    }
+
+    /**
+     * Parses opening hours.
+     * @param hours The text of the hours, may be null.
+     * @param zone  The time zone of the restaurant.
+     * @return The hours, not {@linkplain #isKnown() known} if the text cannot be read.
+     * Analyse des horaires d'ouverture.
+     * @param hours Le texte des horaires, peut être nul.
+     * @param zone  Le fuseau horaire du restaurant.
+     * @return Les horaires, non {@linkplain #isKnown() connus} si le texte est illisible.
+     */
+    public static OpeningHours parse(String hours, TimeZone zone) {
+        Objects.requireNonNull(zone, "zone");
+        int[][] ranges = null;
+        try {
+            ranges = hours == null || hours.trim().isEmpty() ? null : parseRules(hours);
+        } catch (IllegalArgumentException e) {
+            // Unknown hours, always closed. Horaires inconnus, toujours fermés.
+        }
+        if (ranges == null) {
+            return new OpeningHours(zone, false, NO_BOUNDARIES, new int[7][0], new long[0], new int[0][]);
+        }
+        int[][] days = new int[7][];
+        for (int day = 0; day < 7; day++) {
+            days[day] = boundaries(clipToDay(ranges[day].clone()));
+        }
+        return new OpeningHours(zone, true, weekOf(ranges), days, new long[0], new int[0][]);
+    }
+
+    /**
+     * Returns these hours with other hours on one date, replacing any exception of that date.
+     * @param year       The year.
+     * @param month      The month, from 1 for January.
+     * @param dayOfMonth The day of the month, from 1.
+     * @param hours      The hours of that day, such as {@code "12h00 - 15h00"} or {@code "fermé"}.
+     *                   A range ending after midnight ends at midnight.
+     * @throws IllegalArgumentException If the hours cannot be read.
+     * Renvoie ces horaires avec d'autres horaires à une date, remplaçant une éventuelle exception
+     * de cette date.
+     * @param year       L'année.
+     * @param month      Le mois, à partir de 1 pour janvier.
+     * @param dayOfMonth Le jour du mois, à partir de 1.
+     * @param hours      Les horaires de ce jour, comme {@code "12h00 - 15h00"} ou {@code "fermé"}.
+     *                   Une plage finissant après minuit finit à minuit.
+     * @throws IllegalArgumentException Si les horaires sont illisibles.
+     */
+    public OpeningHours withException(int year, int month, int dayOfMonth, String hours) {
+        if (month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > 31) {
+            throw new IllegalArgumentException("Invalid date: " + year + "-" + month + "-" + dayOfMonth);
+        }
+        int[] day = boundaries(clipToDay(parseRanges(hours)));
+        long epochDay = epochDay(year, month, dayOfMonth);
+        int index = Arrays.binarySearch(exceptionDays, epochDay);
+        long[] exceptions;
+        int[][] dayHours;
+        if (index >= 0) {
+            exceptions = exceptionDays;
+            dayHours = exceptionHours.clone();
+        } else {
+            index = -index - 1;
+            exceptions = new long[exceptionDays.length + 1];
+            dayHours = new int[exceptionHours.length + 1][];
+            System.arraycopy(exceptionDays, 0, exceptions, 0, index);
+            System.arraycopy(exceptionDays, index, exceptions, index + 1, exceptionDays.length - index);
+            System.arraycopy(exceptionHours, 0, dayHours, 0, index);
+            System.arraycopy(exceptionHours, index, dayHours, index + 1, exceptionHours.length - index);
+            exceptions[index] = epochDay;
+        }
+        dayHours[index] = day;
+        return new OpeningHours(zone, known, week, days, exceptions, dayHours);
+    }
+
+    /** Returns whether the text of the hours could be read. Renvoie si le texte des horaires a pu être lu. */
+    public boolean isKnown() {
+        return known;
+    }
+
+    /** Returns the time zone of the restaurant. Renvoie le fuseau horaire du restaurant. */
+    public TimeZone getZone() {
+        return zone;
+    }
+
+    /**
+     * Returns whether the restaurant is open at a time, always false if the hours are not known.
+     * @param time The time, in milliseconds since the epoch.
+     * Renvoie si le restaurant est ouvert à une heure, toujours faux si les horaires ne sont pas connus.
+     * @param time L'heure, en millisecondes depuis l'epoch.
+     */
+    public boolean isOpen(long time) {
+        return known && isOpenLocal(toLocal(time));
+    }
+
+    /**
+     * Returns the next time the restaurant opens or closes.
+     * @param time The time, in milliseconds since the epoch.
+     * @return The first time after {@code time} at which the status changes, or {@link #NEVER} if
+     * it never changes.
+     * Renvoie la prochaine heure à laquelle le restaurant ouvre ou ferme.
+     * @param time L'heure, en millisecondes depuis l'epoch.
+     * @return La première heure après {@code time} à laquelle l'état change, ou {@link #NEVER} s'il
+     * ne change jamais.
+     */
+    public long nextTransition(long time) {
+        if (!known) {
+            return NEVER;
+        }
+        long local = toLocal(time);
+        boolean open = isOpenLocal(local);
+        // A boundary may not change the status: the end of the week when open on Sunday night and
+        // Monday morning, or midnight before or after an exception.
+        // Une borne peut ne pas changer l'état : la fin de la semaine lorsqu'il est ouvert le
+        // dimanche soir et le lundi matin, ou minuit avant ou après une exception.
+        for (long step = 0; step < maxSteps; step++) {
+            local = nextBoundary(local);
+            if (local == NEVER) {
+                return NEVER;
+            }
+            if (isOpenLocal(local) != open) {
+                return Math.max(toUtc(local), time + 1);
+            }
+        }
+        return NEVER;
+    }
+
+    /**
+     * Returns the status of the restaurant at a time. Renvoie l'état du restaurant à une heure.
+     * @param time The time, in milliseconds since the epoch. L'heure, en millisecondes depuis l'epoch.
+     */
+    public Status status(long time) {
+        return new Status(known, isOpen(time), nextTransition(time));
+    }
+
+    /**
+     * Returns the day of the week of a time, from 0 for Monday to 6 for Sunday.
+     * @param time The time, in milliseconds since the epoch.
+     * @param zone The time zone.
+     * Renvoie le jour de la semaine d'une heure, de 0 pour lundi à 6 pour dimanche.
+     * @param time L'heure, en millisecondes depuis l'epoch.
+     * @param zone Le fuseau horaire.
+     */
+    public static int dayOfWeek(long time, TimeZone zone) {
+        return dayOfWeek(Math.floorDiv(time + zone.getOffset(time), DAY_MILLIS));
+    }
+
+    private boolean isOpenLocal(long local) {
+        long day = Math.floorDiv(local, DAY_MILLIS);
+        int minute = (int) ((local - day * DAY_MILLIS) / MINUTE_MILLIS);
+        int exception = exceptionIndex(day);
+        if (exception >= 0) {
+            return isInside(exceptionHours[exception], minute);
+        }
+        if (exceptionIndex(day - 1) >= 0) {
+            return isInside(days[dayOfWeek(day)], minute);
+        }
+        return isInside(week, dayOfWeek(day) * MINUTES_PER_DAY + minute);
+    }
+
+    /**
+     * Returns the first local time after {@code local} at which the status may change: a boundary
+     * of the week, or of an exception day or the day after and their midnights.
+     * Renvoie la première heure locale après {@code local} à laquelle l'état peut changer : une
+     * borne de la semaine, ou d'un jour d'exception ou de son lendemain et de leurs minuits.
+     */
+    private long nextBoundary(long local) {
+        long day = Math.floorDiv(local, DAY_MILLIS);
+        long dayStart = day * DAY_MILLIS;
+        int minute = (int) ((local - dayStart) / MINUTE_MILLIS);
+        int exception = exceptionIndex(day);
+        if (exception >= 0 || exceptionIndex(day - 1) >= 0) {
+            int[] hours = exception >= 0 ? exceptionHours[exception] : days[dayOfWeek(day)];
+            int next = upperBound(hours, minute);
+            return next < hours.length ? dayStart + hours[next] * MINUTE_MILLIS : dayStart + DAY_MILLIS;
+        }
+        long candidate = NEVER;
+        if (weekChanges) {
+            int dayOfWeek = dayOfWeek(day);
+            long weekStart = dayStart - dayOfWeek * DAY_MILLIS;
+            int next = upperBound(week, dayOfWeek * MINUTES_PER_DAY + minute);
+            candidate = next < week.length
+                    ? weekStart + week[next] * MINUTE_MILLIS
+                    : weekStart + (MINUTES_PER_WEEK + week[0]) * MINUTE_MILLIS;
+        }
+        int nextException = -exception - 1;
+        if (nextException < exceptionDays.length) {
+            candidate = Math.min(candidate, exceptionDays[nextException] * DAY_MILLIS);
+        }
+        return candidate;
+    }
+
+    /** Returns the index of the exception of a day, negative if there is none. Renvoie l'index de l'exception d'un jour, négatif s'il n'y en a pas. */
+    private int exceptionIndex(long day) {
+        return exceptionDays.length == 0 ? -1 : Arrays.binarySearch(exceptionDays, day);
+    }
+
+    private long toLocal(long time) {
+        return time + zone.getOffset(time);
+    }
+
+    /** Converts a local time back, with the offset in force just before it. Reconvertit une heure locale, avec le décalage en vigueur juste avant. */
+    private long toUtc(long local) {
+        return local - zone.getOffset(local - zone.getOffset(local));
+    }
+
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK, 7L);
+    }
+
+    /** Returns whether a minute is inside the ranges of alternate boundaries. Renvoie si une minute est dans les plages de bornes alternées. */
+    private static boolean isInside(int[] boundaries, int minute) {
+        return (upperBound(boundaries, minute) & 1) == 1;
+    }
+
+    /** Returns the index of the first boundary after a minute. Renvoie l'index de la première borne après une minute. */
+    private static int upperBound(int[] boundaries, int minute) {
+        int low = 0;
+        int high = boundaries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (boundaries[middle] <= minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** Returns the days since 1970-01-01 of a date. Renvoie les jours depuis le 01/01/1970 d'une date. */
+    static long epochDay(int year, int month, int dayOfMonth) {
+        long y = month <= 2 ? year - 1L : year;
+        long era = Math.floorDiv(y, 400L);
+        long yearOfEra = y - era * 400L;
+        int monthFromMarch = (month + 9) % 12;
+        long dayOfYear = (153L * monthFromMarch + 2L) / 5L + dayOfMonth - 1L;
+        long dayOfEra = yearOfEra * 365L + yearOfEra / 4L - yearOfEra / 100L + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
+    }
+
+    /**
+     * Parses the rules of the text into the ranges of each day from Monday.
+     * Analyse les règles du texte en plages de chaque jour à partir de lundi.
+     */
+    private static int[][] parseRules(String text) {
+        int[][] days = new int[7][];
+        boolean byDay = false;
+        for (String rule : text.split("[;\\n]")) {
+            if (rule.trim().isEmpty()) {
+                continue;
+            }
+            int colon = rule.indexOf(':');
+            String dayText = colon < 0 ? "" : rule.substring(0, colon);
+            if (colon >= 0 && !dayText.trim().isEmpty() && !dayText.matches(".*\\d.*")) {
+                int[] ranges = parseRanges(rule.substring(colon + 1));
+                for (int day : parseDayNames(dayText)) {
+                    days[day] = ranges;
+                }
+                byDay = true;
+            } else if (byDay) {
+                throw new IllegalArgumentException("Rule without days after rules with days: " + rule);
+            } else {
+                Arrays.fill(days, parseRanges(rule));
+            }
+        }
+        for (int day = 0; day < 7; day++) {
+            if (days[day] == null) {
+                days[day] = NO_BOUNDARIES;
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Returns the boundaries of the week of the ranges of each day, Sunday night continuing on
+     * Monday morning.
+     * Renvoie les bornes de la semaine des plages de chaque jour, le dimanche soir continuant le
+     * lundi matin.
+     */
+    private static int[] weekOf(int[][] days) {
+        List<Integer> week = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            int[] ranges = days[day];
+            for (int i = 0; i < ranges.length; i += 2) {
+                int start = day * MINUTES_PER_DAY + ranges[i];
+                int end = day * MINUTES_PER_DAY + ranges[i + 1];
+                if (end <= MINUTES_PER_WEEK) {
+                    week.add(start);
+                    week.add(end);
+                } else {
+                    week.add(start);
+                    week.add(MINUTES_PER_WEEK);
+                    week.add(0);
+                    week.add(end - MINUTES_PER_WEEK);
+                }
+            }
+        }
+        int[] ranges = new int[week.size()];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = week.get(i);
+        }
+        return boundaries(ranges);
+    }
+
+    /**
+     * Parses the days of a rule, such as {@code "lun-ven"} or {@code "sat, sun"}, into indexes from
+     * 0 for Monday. A range may wrap around the end of the week.
+     * Analyse les jours d'une règle, comme {@code "lun-ven"} ou {@code "sat, sun"}, en index à partir
+     * de 0 pour lundi. Une plage peut passer la fin de la semaine.
+     */
+    private static List<Integer> parseDayNames(String text) {
+        List<Integer> days = new ArrayList<>();
+        for (String item : text.toLowerCase(Locale.ROOT).split("\\s*(?:,|&|\\bet\\b|\\band\\b)\\s*")) {
+            String[] range = item.trim().split("\\s*(?:-|–|\\bau\\b|\\bà\\b|\\bto\\b)\\s*");
+            if (range.length == 1) {
+                days.add(parseDay(range[0]));
+            } else if (range.length == 2) {
+                int first = parseDay(range[0]);
+                int last = parseDay(range[1]);
+                for (int day = first; ; day = (day + 1) % 7) {
+                    days.add(day);
+                    if (day == last) {
+                        break;
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Invalid days: " + text);
+            }
+        }
+        return days;
+    }
+
+    private static int parseDay(String text) {
+        String day = text.trim();
+        if (day.length() >= 3) {
+            for (int i = 0; i < DAY_PREFIXES.length; i++) {
+                if (day.startsWith(DAY_PREFIXES[i])) {
+                    return i % 7;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid day: " + text);
+    }
+
+    /**
+     * Parses ranges such as {@code "11h30 - 14h30・18h30 - 22h00"} into pairs of minutes of the day,
+     * the end being after midnight for a range ending the next day.
+     * Analyse des plages comme {@code "11h30 - 14h30・18h30 - 22h00"} en paires de minutes du jour, la
+     * fin étant après minuit pour une plage finissant le lendemain.
+     */
+    private static int[] parseRanges(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("No hours");
+        }
+        String ranges = text.trim().toLowerCase(Locale.ROOT);
+        if (ranges.isEmpty() || CLOSED.matcher(ranges).matches()) {
+            return NO_BOUNDARIES;
+        }
+        String[] items = RANGE_SEPARATOR.split(ranges);
+        int[] minutes = new int[items.length * 2];
+        for (int i = 0; i < items.length; i++) {
+            Matcher matcher = RANGE.matcher(items[i].trim());
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid range: " + items[i]);
+            }
+            int start = minuteOfDay(matcher.group(1), matcher.group(2));
+            int end = minuteOfDay(matcher.group(3), matcher.group(4));
+            if (start >= MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("Invalid range: " + items[i]);
+            }
+            minutes[2 * i] = start;
+            minutes[2 * i + 1] = end <= start ? end + MINUTES_PER_DAY : end;
+        }
+        return minutes;
+    }
+
+    private static int minuteOfDay(String hours, String minutes) {
+        int hour = Integer.parseInt(hours);
+        int minute = minutes == null ? 0 : Integer.parseInt(minutes);
+        if (hour > 24 || minute > 59 || (hour == 24 && minute > 0)) {
+            throw new IllegalArgumentException("Invalid time: " + hours + "h" + minutes);
+        }
+        return hour * 60 + minute;
+    }
+
+    /** Ends at midnight the ranges going past it. Termine à minuit les plages qui le dépassent. */
+    private static int[] clipToDay(int[] ranges) {
+        for (int i = 1; i < ranges.length; i += 2) {
+            ranges[i] = Math.min(ranges[i], MINUTES_PER_DAY);
+        }
+        return ranges;
+    }
+
+    /**
+     * Sorts and merges pairs of start and end minutes into alternate boundaries, the overlapping
+     * and touching ranges becoming one.
+     * Trie et fusionne des paires de minutes de début et de fin en bornes alternées, les plages qui
+     * se chevauchent ou se touchent n'en formant plus qu'une.
+     */
+    private static int[] boundaries(int[] ranges) {
+        long[] sorted = new long[ranges.length / 2];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ((long) ranges[2 * i] << 32) | ranges[2 * i + 1];
+        }
+        Arrays.sort(sorted);
+        int[] merged = new int[ranges.length];
+        int size = 0;
+        for (long range : sorted) {
+            int start = (int) (range >>> 32);
+            int end = (int) range;
+            if (size > 0 && start <= merged[size - 1]) {
+                merged[size - 1] = Math.max(merged[size - 1], end);
+            } else {
+                merged[size++] = start;
+                merged[size++] = end;
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * The status of a restaurant at a time: whether it is open and when that changes.
+     * L'état d'un restaurant à une heure : s'il est ouvert et quand cela change.
+     */
+    public static final class Status {
+
+        private final boolean known;
+        private final boolean open;
+        private final long nextTransition;
+
+        public Status(boolean known, boolean open, long nextTransition) {
+            this.known = known;
+            this.open = open;
+            this.nextTransition = nextTransition;
+        }
+
+        /** Returns whether the hours are known. Renvoie si les horaires sont connus. */
+        public boolean isKnown() {
+            return known;
+        }
+
+        /** Returns whether the restaurant is open. Renvoie si le restaurant est ouvert. */
+        public boolean isOpen() {
+            return open;
+        }
+
+        /** Returns when the restaurant next opens or closes, or {@link OpeningHours#NEVER}.
+         * Renvoie quand le restaurant ouvre ou ferme la prochaine fois, ou {@link #NEVER}.
+         */
+        public long getNextTransition() {
+            return nextTransition;
+        }
+
+        /** Returns whether the status changes one day. Renvoie si l'état change un jour. */
+        public boolean changes() {
+            return nextTransition != NEVER;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Status status = (Status) o;
+            return known == status.known && open == status.open && nextTransition == status.nextTransition;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(known, open, nextTransition);
+        }
+
+        @Override
+        public String toString() {
+            return "Status{known=" + known + ", open=" + open + ", nextTransition=" + nextTransition + '}';
+        }
+    }
+}
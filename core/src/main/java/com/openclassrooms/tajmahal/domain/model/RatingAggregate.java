@@ -0,0 +1,205 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents the rating statistics of a restaurant: the number of reviews, the exact sum of their
+ * ratings and the number of reviews for each star from 1 to 5.
+ * <p>
+ * An aggregate is immutable. Adding a rating with {@link #plus(int)} returns a new aggregate in
+ * constant time, so the statistics can be maintained when a review is written instead of walking
+ * the whole list of reviews every time they are displayed.
+ *<p>
+ * * Représente les statistiques de notation d'un restaurant : le nombre d'avis, la somme exacte de
+ * leurs notes et le nombre d'avis pour chaque étoile de 1 à 5.
+ * <p>
+ * Un agrégat est immuable. L'ajout d'une note avec {@link #plus(int)} renvoie un nouvel agrégat en
+ * temps constant, ce qui permet de tenir les statistiques à jour lors de l'écriture d'un avis au
+ * lieu de parcourir toute la liste des avis à chaque affichage.
+ */
+public final class RatingAggregate {
+
+    /** The lowest star a review can be given. La plus petite note qu'un avis peut recevoir. */
+    public static final int MIN_STARS = 1;
+
+    /** The highest star a review can be given. La plus haute note qu'un avis peut recevoir. */
+    public static final int MAX_STARS = 5;
+
+    /** An aggregate without any review. Un agrégat sans aucun avis. */
+    public static final RatingAggregate EMPTY = new RatingAggregate(0, 0L, new int[MAX_STARS + 1]);
+
+    /** The number of reviews. Le nombre d'avis. */
+    private final int count;
+
+    /** The exact sum of all the ratings. La somme exacte de toutes les notes. */
+    private final long sum;
+
+    /** The number of reviews per star, indexed by the star itself (index 0 is unused).
+     * Le nombre d'avis par étoile, indexé par l'étoile elle-même (l'index 0 n'est pas utilisé).
+     */
+    private final int[] starCounts;
+
+    private RatingAggregate(int count, long sum, int[] starCounts) {
+        this.count = count;
+        this.sum = sum;
+        this.starCounts = starCounts;
+    }
+
+    /**
+     * Builds the aggregate of a list of reviews. This walks the list once and should only be used
+     * to initialize the statistics, they are then kept up to date with {@link #plus(int)}.
+     * @param reviews The reviews to aggregate, may be null.
+     * @return The aggregate of the reviews.
+     * Construit l'agrégat d'une liste d'avis. La liste est parcourue une seule fois, cette méthode
+     * ne doit servir qu'à initialiser les statistiques qui sont ensuite tenues à jour avec
+     * {@link #plus(int)}.
+     * @param reviews Les avis à agréger, peut être nul.
+     * @return L'agrégat des avis.
+     */
+    public static RatingAggregate of(List<Review> reviews) {
+        if (reviews == null || reviews.isEmpty()) {
+            return EMPTY;
+        }
+        int[] starCounts = new int[MAX_STARS + 1];
+        long sum = 0L;
+        for (Review review : reviews) {
+            int rate = review.getRate();
+            sum += rate;
+            if (rate >= MIN_STARS && rate <= MAX_STARS) {
+                starCounts[rate]++;
+            }
+        }
+        return new RatingAggregate(reviews.size(), sum, starCounts);
+    }
+
+    /**
+     * Builds the aggregate from the number of reviews per star, for example when a data source can
+     * count them without loading the reviews.
+     * @param starCounts The number of reviews per star, indexed by the star (index 0 is ignored).
+     * @return The aggregate of those reviews.
+     * Construit l'agrégat à partir du nombre d'avis par étoile, par exemple lorsqu'une source de
+     * données peut les compter sans charger les avis.
+     * @param starCounts Le nombre d'avis par étoile, indexé par l'étoile (l'index 0 est ignoré).
+     * @return L'agrégat de ces avis.
+     */
+    public static RatingAggregate ofStarCounts(int[] starCounts) {
+        int[] counts = new int[MAX_STARS + 1];
+        int count = 0;
+        long sum = 0L;
+        for (int star = MIN_STARS; star <= MAX_STARS && star < starCounts.length; star++) {
+            counts[star] = starCounts[star];
+            count += starCounts[star];
+            sum += (long) star * starCounts[star];
+        }
+        return new RatingAggregate(count, sum, counts);
+    }
+
+    /**
+     * Builds an aggregate from statistics already computed by a data source, for example with a
+     * single pass over a column of ratings.
+     * @param count      The number of reviews, including those rated outside 1 to 5 stars.
+     * @param sum        The exact sum of all the ratings.
+     * @param starCounts The number of reviews per star, indexed by the star (index 0 is ignored).
+     * @return The aggregate of those reviews.
+     * Construit un agrégat à partir de statistiques déjà calculées par une source de données, par
+     * exemple en un seul passage sur une colonne de notes.
+     * @param count      Le nombre d'avis, y compris ceux notés en dehors de 1 à 5 étoiles.
+     * @param sum        La somme exacte de toutes les notes.
+     * @param starCounts Le nombre d'avis par étoile, indexé par l'étoile (l'index 0 est ignoré).
+     * @return L'agrégat de ces avis.
+     */
+    public static RatingAggregate of(int count, long sum, int[] starCounts) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        int[] counts = new int[MAX_STARS + 1];
+        for (int star = MIN_STARS; star <= MAX_STARS && star < starCounts.length; star++) {
+            counts[star] = starCounts[star];
+        }
+        return new RatingAggregate(count, sum, counts);
+    }
+
+    /**
+     * Returns a new aggregate including one more review with the given rating, in constant time.
+     * @param rate The rating of the added review.
+     * @return The updated aggregate.
+     * Renvoie, en temps constant, un nouvel agrégat comprenant un avis supplémentaire avec la note donnée.
+     * @param rate La note de l'avis ajouté.
+     * @return L'agrégat mis à jour.
+     */
+    public RatingAggregate plus(int rate) {
+        int[] counts = Arrays.copyOf(starCounts, starCounts.length);
+        if (rate >= MIN_STARS && rate <= MAX_STARS) {
+            counts[rate]++;
+        }
+        return new RatingAggregate(count + 1, sum + rate, counts);
+    }
+
+    /**
+     * Returns a new aggregate including the reviews of another one, for example a batch of added
+     * reviews, in constant time.
+     * @param other The aggregate of the added reviews.
+     * @return The updated aggregate.
+     * Renvoie, en temps constant, un nouvel agrégat comprenant les avis d'un autre, par exemple
+     * d'un lot d'avis ajoutés.
+     * @param other L'agrégat des avis ajoutés.
+     * @return L'agrégat mis à jour.
+     */
+    public RatingAggregate plus(RatingAggregate other) {
+        if (other.count == 0) {
+            return this;
+        }
+        int[] counts = new int[MAX_STARS + 1];
+        for (int star = MIN_STARS; star <= MAX_STARS; star++) {
+            counts[star] = starCounts[star] + other.starCounts[star];
+        }
+        return new RatingAggregate(count + other.count, sum + other.sum, counts);
+    }
+
+    /** Returns the number of reviews. Renvoie le nombre d'avis. */
+    public int getCount() {
+        return count;
+    }
+
+    /** Returns the exact sum of the ratings. Renvoie la somme exacte des notes. */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the number of reviews given the specified star, or 0 if the star is out of range.
+     * Renvoie le nombre d'avis ayant reçu l'étoile indiquée, ou 0 si l'étoile est hors limites.
+     */
+    public int getStarCount(int star) {
+        if (star < MIN_STARS || star > MAX_STARS) {
+            return 0;
+        }
+        return starCounts[star];
+    }
+
+    /**
+     * Returns the average rating, or 0.0f if there is no review.
+     * Renvoie la note moyenne, ou 0,0f s'il n'y a aucun avis.
+     */
+    public float getAverage() {
+        if (count == 0) {
+            return 0.0f;
+        }
+        return (float) ((double) sum / count);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RatingAggregate that = (RatingAggregate) o;
+        return count == that.count && sum == that.sum && Arrays.equals(starCounts, that.starCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * count + Long.hashCode(sum);
+        return 31 * result + Arrays.hashCode(starCounts);
+    }
+}
@@ -0,0 +1,107 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+/**
+ * Represents the recent rating trend of a restaurant: the statistics of the reviews written during
+ * the last {@code days} days, today included, and those of the same number of days just before.
+ * <p>
+ * A trend is immutable. It only counts the reviews whose creation time is known.
+ *<p>
+ * * Représente la tendance récente des notes d'un restaurant : les statistiques des avis écrits
+ * pendant les {@code days} derniers jours, aujourd'hui compris, et celles du même nombre de jours
+ * juste avant.
+ * <p>
+ * Une tendance est immuable. Elle ne compte que les avis dont la date d'écriture est connue.
+ */
+public final class RatingTrend {
+
+    /** The number of days of each period. Le nombre de jours de chaque période. */
+    private final int days;
+
+    /** The reviews of the last days. Les avis des derniers jours. */
+    private final RatingAggregate current;
+
+    /** The reviews of the period before. Les avis de la période précédente. */
+    private final RatingAggregate previous;
+
+    /**
+     * @param days     The number of days of each period.
+     * @param current  The statistics of the last days, today included.
+     * @param previous The statistics of the period just before.
+     * @param days     Le nombre de jours de chaque période.
+     * @param current  Les statistiques des derniers jours, aujourd'hui compris.
+     * @param previous Les statistiques de la période juste avant.
+     */
+    public RatingTrend(int days, RatingAggregate current, RatingAggregate previous) {
+        this.days = days;
+        this.current = current;
+        this.previous = previous;
+    }
+
+    /**
+     * Returns a trend without any review. Renvoie une tendance sans aucun avis.
+     */
+    public static RatingTrend empty(int days) {
+        return new RatingTrend(days, RatingAggregate.EMPTY, RatingAggregate.EMPTY);
+    }
+
+    /**
+     * Returns a new trend including the reviews of another one over the same days, for example the
+     * reviews added after a snapshot.
+     * @param other The trend of the other reviews.
+     * @return The combined trend.
+     * @throws IllegalArgumentException if the periods do not have the same number of days.
+     * Renvoie une nouvelle tendance comprenant les avis d'une autre sur les mêmes jours, par exemple
+     * les avis ajoutés après un instantané.
+     * @param other La tendance des autres avis.
+     * @return La tendance combinée.
+     * @throws IllegalArgumentException si les périodes n'ont pas le même nombre de jours.
+     */
+    public RatingTrend plus(RatingTrend other) {
+        if (other.days != days) {
+            throw new IllegalArgumentException("Periods of " + days + " and " + other.days + " days");
+        }
+        return new RatingTrend(days, current.plus(other.current), previous.plus(other.previous));
+    }
+
+    /** Returns the number of days of each period. Renvoie le nombre de jours de chaque période. */
+    public int getDays() {
+        return days;
+    }
+
+    /** Returns the statistics of the last days. Renvoie les statistiques des derniers jours. */
+    public RatingAggregate getCurrent() {
+        return current;
+    }
+
+    /** Returns the statistics of the period before. Renvoie les statistiques de la période précédente. */
+    public RatingAggregate getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Returns the change of the average rating from the period before to the last days, or 0.0f if
+     * one of them has no review.
+     * Renvoie l'évolution de la note moyenne entre la période précédente et les derniers jours, ou
+     * 0,0f si l'une d'elles n'a aucun avis.
+     */
+    public float getAverageChange() {
+        if (current.getCount() == 0 || previous.getCount() == 0) {
+            return 0.0f;
+        }
+        return current.getAverage() - previous.getAverage();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RatingTrend that = (RatingTrend) o;
+        return days == that.days && current.equals(that.current) && previous.equals(that.previous);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * days + current.hashCode();
+        return 31 * result + previous.hashCode();
+    }
+}
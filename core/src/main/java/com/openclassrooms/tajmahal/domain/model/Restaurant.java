@@ -2,6 +2,7 @@ package com.openclassrooms.tajmahal.domain.model;
 
 
 import java.util.Objects;
+import java.util.TimeZone;
 
 /**
  * Represents a restaurant and its various attributes.
@@ -37,6 +38,11 @@ import java.util.Objects;
 
 public class Restaurant {
 
+    /** The id of the Taj Mahal, the restaurant shown when the application starts.
+     * L'identifiant du Taj Mahal, le restaurant affiché au démarrage de l'application.
+     */
+    public static final long TAJ_MAHAL_ID = 1L;
+
     // Member variables representing attributes of a restaurant.
     private String name;
     private String type;
@@ -47,6 +53,26 @@ public class Restaurant {
     private boolean dineIn;
     private boolean takeAway;
 
+    /**
+     * The hours parsed last, with the text they were parsed from. Both are published together, so a
+     * thread reading the cache sees a parse of the text it names, in the zone it holds.
+     * Les derniers horaires analysés, avec le texte dont ils ont été analysés. Les deux sont publiés
+     * ensemble, un thread lisant le cache voit donc une analyse du texte qu'il nomme, dans le fuseau
+     * qu'elle contient.
+     */
+    private volatile ParsedHours openingHours;
+
+    /** Hours parsed and their text. Des horaires analysés et leur texte. */
+    private static final class ParsedHours {
+        final String text;
+        final OpeningHours hours;
+
+        ParsedHours(String text, OpeningHours hours) {
+            this.text = text;
+            this.hours = hours;
+        }
+    }
+
     /**
      * Constructor for the Restaurant class.
      *
@@ -163,6 +189,35 @@ public class Restaurant {
         this.hours = hours;
     }
 
+    /** Returns the hours parsed into a weekly table, in the current time zone of the device, the
+     * restaurants being local. See {@link #getOpeningHours(TimeZone)}.
+     * Renvoie les horaires analysés dans une table hebdomadaire, dans le fuseau horaire actuel de
+     * l'appareil, les restaurants étant locaux. Voir {@link #getOpeningHours(TimeZone)}.
+     */
+    public OpeningHours getOpeningHours() {
+        return getOpeningHours(TimeZone.getDefault());
+    }
+
+    /** Returns the hours parsed into a weekly table in a time zone. They are parsed again only when
+     * the text of the hours or the zone changed since the last call, the "open now" queries then
+     * costing a binary search.
+     * @param zone The time zone of the restaurant.
+     * Renvoie les horaires analysés dans une table hebdomadaire dans un fuseau horaire. Ils ne sont
+     * analysés à nouveau que lorsque le texte des horaires ou le fuseau a changé depuis le dernier
+     * appel, les requêtes « ouvert maintenant » coûtant ensuite une recherche dichotomique.
+     * @param zone Le fuseau horaire du restaurant.
+     */
+    public OpeningHours getOpeningHours(TimeZone zone) {
+        String text = hours;
+        ParsedHours parsed = openingHours;
+        if (parsed == null || !Objects.equals(parsed.text, text)
+                || !parsed.hours.getZone().getID().equals(zone.getID())) {
+            parsed = new ParsedHours(text, OpeningHours.parse(text, zone));
+            openingHours = parsed;
+        }
+        return parsed.hours;
+    }
+
     /** This code defines a method "getAddress()" as "public", which means it can be called from
      * anywhere with return type "String", which indicates that the method returns a string that
      * returns the value of the attribute "address".
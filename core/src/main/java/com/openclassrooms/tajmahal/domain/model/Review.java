@@ -0,0 +1,257 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Represents a user review.
+ * This class encapsulates all the details of a review, including the username of the reviewer,
+ * their profile picture, the comment they left, and the rating they gave.
+ *<p>
+ * * Représente un avis d'utilisateur.
+ * Cette classe encapsule tous les détails d'un avis, y compris le nom d'utilisateur de l'auteur
+ * de l'avis, sa photo de profil, le commentaire qu'il a laissé et la note qu'il a attribuée.
+ * <p>
+ * A review is immutable, so it can be shared between threads and lists without being copied, and
+ * its hash code is computed once, on the first call, then cached like that of a {@link String}.
+ * <p>
+ * Un avis est immuable, il peut donc être partagé entre threads et listes sans être copié, et son
+ * code de hachage est calculé une seule fois, au premier appel, puis mis en cache comme celui d'une
+ * {@link String}.
+ * <p>
+ * A data source can serve a review with only the beginning of its comment, see
+ * {@link #withCommentPreview(int)}: {@link #isCommentTruncated()} is then true and the full comment
+ * is read with {@code RestaurantApi.getComment(long)} when it is needed.
+ * <p>
+ * Une source de données peut fournir un avis avec seulement le début de son commentaire, voir
+ * {@link #withCommentPreview(int)} : {@link #isCommentTruncated()} est alors vrai et le commentaire
+ * complet est lu avec {@code RestaurantApi.getComment(long)} lorsqu'il est nécessaire.
+ */
+public final class Review {
+
+    /** The stable identifier of the review, unique for a restaurant, or 0 if it has not been stored yet.
+     * L'identifiant stable de l'avis, unique pour un restaurant, ou 0 s'il n'a pas encore été enregistré.
+     */
+    private final long id;
+
+    /** The name of the user who left the review. */
+    private final String username;
+
+    /** The profile picture of the user who left the review. */
+    private final String picture;
+
+    /** The comment or feedback given by the user. */
+    private final String comment;
+
+    /** The rating provided by the user. Typically out of 5 or 10. */
+    private final int rate;
+
+    /** The time the review was written, in milliseconds since the epoch, or 0 if it is unknown.
+     * La date d'écriture de l'avis, en millisecondes depuis l'epoch, ou 0 si elle est inconnue.
+     */
+    private final long createdAt;
+
+    /** True if the comment is only a preview of the full one.
+     * Vrai si le commentaire n'est qu'un aperçu du commentaire complet.
+     */
+    private final boolean commentTruncated;
+
+    /** The cached hash code, or 0 if it has not been computed yet.
+     * Le code de hachage en cache, ou 0 s'il n'a pas encore été calculé.
+     */
+    private int hash;
+
+    /**
+     * Constructs a new Review instance.
+     *
+     * @param username the name of the user leaving the review
+     * @param picture  the profile picture URL or path of the user
+     * @param comment  the feedback or comment from the user
+     * @param rate     the rating given by the user
+     */
+    public Review(String username, String picture, String comment, int rate) {
+        this(0L, username, picture, comment, rate);
+    }
+
+    /**
+     * Constructs a new Review instance with its stable identifier.
+     *
+     * @param id       the identifier given by the data source storing the review
+     * @param username the name of the user leaving the review
+     * @param picture  the profile picture URL or path of the user
+     * @param comment  the feedback or comment from the user
+     * @param rate     the rating given by the user
+     */
+    public Review(long id, String username, String picture, String comment, int rate) {
+        this(id, username, picture, comment, rate, 0L);
+    }
+
+    /**
+     * Constructs a new Review instance with its stable identifier and its creation time.
+     *
+     * @param id        the identifier given by the data source storing the review
+     * @param username  the name of the user leaving the review
+     * @param picture   the profile picture URL or path of the user
+     * @param comment   the feedback or comment from the user
+     * @param rate      the rating given by the user
+     * @param createdAt the time the review was written, in milliseconds since the epoch, or 0 if unknown
+     */
+    public Review(long id, String username, String picture, String comment, int rate, long createdAt) {
+        this(id, username, picture, comment, rate, createdAt, false);
+    }
+
+    /**
+     * Constructs a new Review instance whose comment may be a preview of the full one.
+     *
+     * @param id               the identifier given by the data source storing the review
+     * @param username         the name of the user leaving the review
+     * @param picture          the profile picture URL or path of the user
+     * @param comment          the feedback or comment from the user, or its preview
+     * @param rate             the rating given by the user
+     * @param createdAt        the time the review was written, in milliseconds since the epoch, or 0 if unknown
+     * @param commentTruncated true if the comment is only a preview of the full one
+     */
+    public Review(long id, String username, String picture, String comment, int rate, long createdAt,
+                  boolean commentTruncated) {
+        this.id = id;
+        this.username = username;
+        this.picture = picture;
+        this.comment = comment;
+        this.rate = rate;
+        this.createdAt = createdAt;
+        this.commentTruncated = commentTruncated;
+    }
+
+    /**
+     * Returns the stable identifier of the review. Renvoie l'identifiant stable de l'avis.
+     *
+     * @return the identifier, or 0 if the review has not been stored yet.
+     * @return l'identifiant, ou 0 si l'avis n'a pas encore été enregistré.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the username of the reviewer. Renvoie le nom d'utilisateur de la personne qui a laissé un avis.
+     *
+     * @return a String representing the username. @return une chaîne de characctère représentant le nom d'utilisateur
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Returns the profile picture of the reviewer. Renvoie la photo de profil de la personne qui a laissé un avis.
+     *<p>
+     * @return a String representing the picture's URL or path. @return une chaîne de charactère
+     * représentant l'URL ou le chemin de l'image
+     */
+    public String getPicture() {
+        return picture;
+    }
+
+    /**
+     * Returns the comment left by the reviewer. Renvoie le commentaire laissé par l'utilisateur.
+     *
+     * @return a String containing the feedback or comment.
+     * @return une chaîne de charactère contenant le retour ou le commentaire.
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    /**
+     * Returns the rating given by the reviewer. Renvoie la note attribuée par l'utilisateur.
+     *
+     * @return an integer representing the rating value. @return un entier représentant la valeur de la note
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * Returns the time the review was written. Renvoie la date d'écriture de l'avis.
+     *
+     * @return the time in milliseconds since the epoch, or 0 if it is unknown.
+     * @return la date en millisecondes depuis l'epoch, ou 0 si elle est inconnue.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Tells whether the comment is only a preview. Indique si le commentaire n'est qu'un aperçu.
+     *
+     * @return true if {@link #getComment()} is the beginning of a longer comment.
+     * @return true si {@link #getComment()} est le début d'un commentaire plus long.
+     */
+    public boolean isCommentTruncated() {
+        return commentTruncated;
+    }
+
+    /**
+     * Returns this review with its comment cut to a preview, see
+     * {@link ReviewUtils#commentPreview(String, int)}, or this review if the comment is short enough.
+     * @param maxLength The maximum number of characters of the preview.
+     * Renvoie cet avis avec son commentaire réduit à un aperçu, voir
+     * {@link ReviewUtils#commentPreview(String, int)}, ou cet avis si le commentaire est assez court.
+     * @param maxLength Le nombre maximal de caractères de l'aperçu.
+     */
+    public Review withCommentPreview(int maxLength) {
+        String preview = ReviewUtils.commentPreview(comment, maxLength);
+        if (preview == comment) {
+            return this;
+        }
+        return new Review(id, username, picture, preview, rate, createdAt, true);
+    }
+
+    /**
+     * Compares this review with another object for equality.
+     * Two reviews are considered equal if all their fields, including the identifier and the creation
+     * time, are identical.
+     *
+     * @param o the object to be compared with
+     * @return true if the objects are equal, false otherwise
+     * Compare cet avis avec un autre objet pour l'égalité.
+     * Deux avis sont considérés comme égaux si tous leurs champs, identifiant et date d'écriture
+     * compris, sont identiques.
+     * @param o l'objet à comparer avec
+     * @return true si les objets sont égaux, sinon false
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Review review = (Review) o;
+        if (hash != 0 && review.hash != 0 && hash != review.hash) return false;
+        return id == review.id && rate == review.rate && createdAt == review.createdAt && commentTruncated == review.commentTruncated && Objects.equals(username, review.username) && Objects.equals(picture, review.picture) && Objects.equals(comment, review.comment);
+    }
+
+    /**
+     * Generates a hash code for this review based on its fields. It is computed on the first call
+     * without allocating, then cached: the fields never change, so a thread computing it again
+     * finds the same value.
+     * Génère un code de hachage pour cet avis en fonction de ses champs. Il est calculé au premier
+     * appel sans allocation, puis mis en cache : les champs ne changent jamais, un thread qui le
+     * recalcule trouve donc la même valeur.
+     * @return the generated hash code. @return le code de hachage généré
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Long.hashCode(id);
+            h = 31 * h + Objects.hashCode(username);
+            h = 31 * h + Objects.hashCode(picture);
+            h = 31 * h + Objects.hashCode(comment);
+            h = 31 * h + rate;
+            h = 31 * h + Long.hashCode(createdAt);
+            h = 31 * h + (commentTruncated ? 1 : 0);
+            hash = h;
+        }
+        return h;
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import java.util.Objects;
+
+/**
+ * Represents which reviews to display and in which order: a range of stars, for example "only 1
+ * star" or "4 stars and up", and an {@link Order}.
+ * <p>
+ * A filter is immutable. Only the reviews rated from {@link RatingAggregate#MIN_STARS} to
+ * {@link RatingAggregate#MAX_STARS} stars belong to a filtered view.
+ *<p>
+ * * Représente les avis à afficher et leur ordre : une plage d'étoiles, par exemple « seulement
+ * 1 étoile » ou « 4 étoiles et plus », et un {@link Order}.
+ * <p>
+ * Un filtre est immuable. Seuls les avis notés de {@link RatingAggregate#MIN_STARS} à
+ * {@link RatingAggregate#MAX_STARS} étoiles appartiennent à une vue filtrée.
+ */
+public final class ReviewFilter {
+
+    /** The order of the reviews. L'ordre des avis. */
+    public enum Order {
+        /** Newest first. Du plus récent au plus ancien. */
+        NEWEST_FIRST,
+        /** Most stars first, then newest first. Le plus d'étoiles d'abord, puis du plus récent au plus ancien. */
+        HIGHEST_RATED_FIRST,
+        /** Fewest stars first, then newest first. Le moins d'étoiles d'abord, puis du plus récent au plus ancien. */
+        LOWEST_RATED_FIRST
+    }
+
+    /** Every review, newest first. Tous les avis, du plus récent au plus ancien. */
+    public static final ReviewFilter ALL = new ReviewFilter(RatingAggregate.MIN_STARS, RatingAggregate.MAX_STARS, Order.NEWEST_FIRST);
+
+    private final int minStars;
+    private final int maxStars;
+    private final Order order;
+
+    private ReviewFilter(int minStars, int maxStars, Order order) {
+        if (minStars < RatingAggregate.MIN_STARS || maxStars > RatingAggregate.MAX_STARS || minStars > maxStars) {
+            throw new IllegalArgumentException("Invalid range of stars: " + minStars + " to " + maxStars);
+        }
+        this.minStars = minStars;
+        this.maxStars = maxStars;
+        this.order = Objects.requireNonNull(order);
+    }
+
+    /**
+     * Returns the reviews given exactly {@code stars} stars, newest first.
+     * Renvoie les avis ayant reçu exactement {@code stars} étoiles, du plus récent au plus ancien.
+     */
+    public static ReviewFilter stars(int stars) {
+        return new ReviewFilter(stars, stars, Order.NEWEST_FIRST);
+    }
+
+    /**
+     * Returns the reviews given at least {@code stars} stars, newest first.
+     * Renvoie les avis ayant reçu au moins {@code stars} étoiles, du plus récent au plus ancien.
+     */
+    public static ReviewFilter atLeast(int stars) {
+        return new ReviewFilter(stars, RatingAggregate.MAX_STARS, Order.NEWEST_FIRST);
+    }
+
+    /**
+     * Returns the same reviews in the given order. Renvoie les mêmes avis dans l'ordre donné.
+     */
+    public ReviewFilter orderBy(Order order) {
+        return new ReviewFilter(minStars, maxStars, order);
+    }
+
+    public int getMinStars() {
+        return minStars;
+    }
+
+    public int getMaxStars() {
+        return maxStars;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns true if the filter keeps every star and the order of creation, like an unfiltered list.
+     * Renvoie vrai si le filtre garde toutes les étoiles et l'ordre de création, comme une liste non filtrée.
+     */
+    public boolean isAll() {
+        return equals(ALL);
+    }
+
+    /** Returns true if a review given {@code stars} stars passes the filter.
+     * Renvoie vrai si un avis ayant reçu {@code stars} étoiles passe le filtre.
+     */
+    public boolean accepts(int stars) {
+        return stars >= minStars && stars <= maxStars;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReviewFilter that = (ReviewFilter) o;
+        return minStars == that.minStars && maxStars == that.maxStars && order == that.order;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minStars, maxStars, order);
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewFilter{" + minStars + ".." + maxStars + ", " + order + '}';
+    }
+}
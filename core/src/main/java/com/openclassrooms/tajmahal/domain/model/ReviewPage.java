@@ -0,0 +1,58 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents one page of reviews, newest first, and the cursor to read the following (older) page.
+ * <p>
+ * The cursor is opaque for the callers: it is produced by the data source and must be given back
+ * as is to read the next page. It does not depend on the reviews added in the meantime, so a page
+ * is never skipped or read twice because a new review was submitted while scrolling.
+ *<p>
+ * * Représente une page d'avis, du plus récent au plus ancien, et le curseur permettant de lire la
+ * page suivante (plus ancienne).
+ * <p>
+ * Le curseur est opaque pour les appelants : il est produit par la source de données et doit lui
+ * être rendu tel quel pour lire la page suivante. Il ne dépend pas des avis ajoutés entre-temps,
+ * une page n'est donc jamais sautée ou lue deux fois parce qu'un nouvel avis a été soumis pendant
+ * le défilement.
+ */
+public final class ReviewPage {
+
+    /** The reviews of the page, newest first. Les avis de la page, du plus récent au plus ancien. */
+    private final List<Review> reviews;
+
+    /** The cursor of the next page, or null if this is the last page.
+     * Le curseur de la page suivante, ou null s'il s'agit de la dernière page.
+     */
+    private final Long nextCursor;
+
+    /**
+     * Constructs a new page.
+     *
+     * @param reviews    the reviews of the page, newest first
+     * @param nextCursor the cursor of the next page, or null if there is no more review
+     */
+    public ReviewPage(List<Review> reviews, Long nextCursor) {
+        this.reviews = Collections.unmodifiableList(reviews);
+        this.nextCursor = nextCursor;
+    }
+
+    /** Returns the reviews of the page, newest first. Renvoie les avis de la page, du plus récent au plus ancien. */
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    /** Returns the cursor of the next page, or null if this is the last page.
+     * Renvoie le curseur de la page suivante, ou null s'il s'agit de la dernière page.
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    /** Returns true if there is a page after this one. Renvoie true s'il existe une page après celle-ci. */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
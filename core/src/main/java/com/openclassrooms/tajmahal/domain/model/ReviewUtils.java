@@ -0,0 +1,84 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import java.util.List;
+
+/**
+ *  Utility class for handling operations related to reviews, including calculating the average
+ *  rating from a list of reviews and cutting a long comment to a preview.
+ * Classe utilitaire pour gérer les opérations liées aux avis, notamment le calcul de la note
+ * moyenne à partir d'une liste d'avis et la réduction d'un long commentaire à un aperçu.
+ */
+public class ReviewUtils {
+
+    /** The maximum number of characters of the preview of a comment shown in the list of reviews.
+     * Le nombre maximal de caractères de l'aperçu d'un commentaire affiché dans la liste des avis.
+     */
+    public static final int COMMENT_PREVIEW_LENGTH = 240;
+
+    /** The mark ending a preview. La marque terminant un aperçu. */
+    private static final char ELLIPSIS = '\u2026';
+
+    /**
+     * Calculates the average rating from a list of reviews.
+     * Returns 0.0f if the list is null or empty.
+     * @param reviews The list of reviews to calculate the average rating from.
+     * @return The average rating of the reviews, or 0.0f if the list is null or empty.
+     * Calcule la note moyenne à partir d'une liste d'avis.
+     * Renvoie 0,0f si la liste est nulle ou vide.
+     * @param reviews La liste des avis à partir de laquelle calculer la note moyenne.
+     * @return La note moyenne des avis, ou 0,0f si la liste est nulle ou vide.
+     */
+    public static float calculateAverageRating(List<Review> reviews) {
+        if (reviews == null || reviews.isEmpty()) {
+            return 0.0f;
+        }
+
+        float sum = 0.0f;
+        for (Review review : reviews) {
+            sum += review.getRate();
+        }
+
+        return sum / reviews.size();
+    }
+
+    /**
+     * Cuts a comment longer than {@code maxLength} characters to a preview of at most that length,
+     * ending with an ellipsis. The cut is made after the last whole word when there is one in the
+     * last third of the preview, and never splits a character. A preview of one character, or of a
+     * comment made of blanks only, is the ellipsis alone.
+     * @param comment   The comment, may be null.
+     * @param maxLength The maximum number of characters of the preview, at least 1.
+     * @return The preview, or the comment itself if it is not longer than {@code maxLength}.
+     * Réduit un commentaire de plus de {@code maxLength} caractères à un aperçu d'au plus cette
+     * longueur, terminé par des points de suspension. La coupure est faite après le dernier mot
+     * entier lorsqu'il y en a un dans le dernier tiers de l'aperçu, et ne coupe jamais un caractère.
+     * L'aperçu d'un caractère, ou d'un commentaire fait uniquement de blancs, est les seuls points de
+     * suspension.
+     * @param comment   Le commentaire, peut être nul.
+     * @param maxLength Le nombre maximal de caractères de l'aperçu, au moins 1.
+     * @return L'aperçu, ou le commentaire lui-même s'il ne dépasse pas {@code maxLength}.
+     * @throws IllegalArgumentException If {@code maxLength} is less than 1. Si {@code maxLength} est inférieur à 1.
+     */
+    public static String commentPreview(String comment, int maxLength) {
+        if (maxLength < 1) {
+            throw new IllegalArgumentException("Preview length must be at least 1: " + maxLength);
+        }
+        if (comment == null || comment.length() <= maxLength) {
+            return comment;
+        }
+        int end = maxLength - 1;
+        if (end > 0 && Character.isHighSurrogate(comment.charAt(end - 1))) {
+            end--;
+        }
+        for (int i = end; i > maxLength * 2 / 3; i--) {
+            if (Character.isWhitespace(comment.charAt(i))) {
+                end = i;
+                break;
+            }
+        }
+        while (end > 0 && Character.isWhitespace(comment.charAt(end - 1))) {
+            end--;
+        }
+        return comment.substring(0, end) + ELLIPSIS;
+    }
+}
@@ -0,0 +1,73 @@
+package com.openclassrooms.tajmahal.data.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link MetricsRegistry}.
+ * Tests unitaires de {@link MetricsRegistry}.
+ */
+public class MetricsRegistryTest {
+
+    /** Every kind of metric is exported in the text format of Prometheus, sorted by name, with
+     * cumulative histogram buckets.
+     * Chaque type de métrique est exporté au format texte de Prometheus, trié par nom, avec des
+     * intervalles d'histogramme cumulés.
+     */
+    @Test
+    public void metricsAreExportedForPrometheus() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter added = registry.counter("reviews_added_total", "Reviews added.");
+        registry.gauge("review_list_size", "Reviews in the list.").set(42);
+        Histogram sizes = registry.histogram("page_size", "Reviews per page.", 10, 20);
+        added.increment();
+        added.add(2);
+        sizes.record(5);
+        sizes.record(20);
+        sizes.record(50);
+
+        assertSame(added, registry.counter("reviews_added_total", "Reviews added."));
+        assertEquals("# HELP page_size Reviews per page.\n"
+                + "# TYPE page_size histogram\n"
+                + "page_size_bucket{le=\"10\"} 1\n"
+                + "page_size_bucket{le=\"20\"} 2\n"
+                + "page_size_bucket{le=\"+Inf\"} 3\n"
+                + "page_size_sum 75\n"
+                + "page_size_count 3\n"
+                + "# HELP review_list_size Reviews in the list.\n"
+                + "# TYPE review_list_size gauge\n"
+                + "review_list_size 42\n"
+                + "# HELP reviews_added_total Reviews added.\n"
+                + "# TYPE reviews_added_total counter\n"
+                + "reviews_added_total 3\n", registry.toPrometheus());
+    }
+
+    /** Latencies recorded in nanoseconds are exported in seconds.
+     * Les latences enregistrées en nanosecondes sont exportées en secondes.
+     */
+    @Test
+    public void latenciesAreExportedInSeconds() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Histogram latency = registry.latencyHistogram("load_seconds", "Loading time.");
+        latency.record(2_000_000L);
+
+        String text = registry.toPrometheus();
+        assertTrue(text, text.contains("load_seconds_bucket{le=\"0.001\"} 0\n"));
+        assertTrue(text, text.contains("load_seconds_bucket{le=\"0.0025\"} 1\n"));
+        assertTrue(text, text.contains("load_seconds_sum 0.002\n"));
+        assertEquals(1L, latency.getCount());
+    }
+
+    /** A name cannot be registered with two kinds of metric.
+     * Un nom ne peut pas être enregistré avec deux types de métrique.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nameKeepsItsKind() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("reviews", "Reviews.");
+        registry.gauge("reviews", "Reviews.");
+    }
+}
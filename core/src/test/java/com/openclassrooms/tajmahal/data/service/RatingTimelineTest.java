@@ -0,0 +1,115 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static com.openclassrooms.tajmahal.data.service.RatingTimeline.DAY_MILLIS;
+import static org.junit.Assert.assertEquals;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.RatingTrend;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Unit tests of {@link RatingTimeline}: the windows must match the aggregate of the reviews of their
+ * days, however the ring has moved.
+ * Tests unitaires de {@link RatingTimeline} : les fenêtres doivent correspondre à l'agrégat des avis
+ * de leurs jours, quel que soit le déplacement de l'anneau.
+ */
+public class RatingTimelineTest {
+
+    /** Noon of an arbitrary day. Midi d'un jour quelconque. */
+    private static final long TODAY = 20_000L * DAY_MILLIS + DAY_MILLIS / 2;
+
+    @Test
+    public void trendComparesTheLastDaysWithTheDaysBefore() {
+        RatingTimeline timeline = new RatingTimeline();
+        timeline.add(TODAY - 40 * DAY_MILLIS, 5);
+        timeline.add(TODAY - 10 * DAY_MILLIS, 2);
+        timeline.add(TODAY - 8 * DAY_MILLIS, 4);
+        timeline.add(TODAY - 2 * DAY_MILLIS, 5);
+        timeline.add(TODAY, 1);
+
+        RatingTrend trend = timeline.trend(TODAY, 7);
+
+        assertEquals(aggregate(5, 1), trend.getCurrent());
+        assertEquals(aggregate(2, 4), trend.getPrevious());
+        assertEquals(0.0f, trend.getAverageChange(), 0.0001f);
+        assertEquals(aggregate(5, 2, 4, 5, 1), timeline.window(TODAY, 0, 60));
+        assertEquals(RatingAggregate.EMPTY, timeline.window(TODAY, 100, 30));
+    }
+
+    @Test
+    public void reviewsWithoutTimeOrOlderThanTheRingAreNotCounted() {
+        RatingTimeline timeline = new RatingTimeline();
+        timeline.add(TODAY, 3);
+        timeline.add(0L, 5);
+        timeline.add(TODAY - RatingTimeline.RETENTION_DAYS * DAY_MILLIS, 5);
+
+        assertEquals(aggregate(3), timeline.window(TODAY, 0, 1000));
+    }
+
+    @Test
+    public void windowsMatchTheReviewsOfTheirDays() {
+        SplittableRandom random = new SplittableRandom(42L);
+        RatingTimeline timeline = new RatingTimeline();
+        List<Review> reviews = new ArrayList<>();
+        long time = TODAY - 1000 * DAY_MILLIS;
+        for (int i = 0; i < 5_000; i++) {
+            // Mostly forward in time, with gaps of several days and a few late reviews.
+            // Surtout en avançant dans le temps, avec des trous de plusieurs jours et quelques avis en retard.
+            time += random.nextInt(10) == 0 ? -random.nextLong(3 * DAY_MILLIS) : random.nextLong(DAY_MILLIS / 4);
+            if (random.nextInt(500) == 0) {
+                time += 400 * DAY_MILLIS;
+            }
+            int rate = 1 + random.nextInt(5);
+            reviews.add(new Review(0L, "u", "", "c", rate, time));
+            timeline.add(time, rate);
+        }
+        long now = time + random.nextLong(2 * DAY_MILLIS);
+        long newestDay = 0L;
+        for (Review review : reviews) {
+            newestDay = Math.max(newestDay, review.getCreatedAt() / DAY_MILLIS);
+        }
+        long oldestDay = newestDay - RatingTimeline.RETENTION_DAYS + 1;
+        for (int days : new int[]{1, 7, 30, 90, 365}) {
+            for (int fromDaysAgo = 0; fromDaysAgo < 400; fromDaysAgo += 13) {
+                long lastDay = now / DAY_MILLIS - fromDaysAgo;
+                long firstDay = Math.max(lastDay - days + 1, oldestDay);
+                assertEquals(days + " days, " + fromDaysAgo + " days ago",
+                        expected(reviews, firstDay, lastDay, oldestDay), timeline.window(now, fromDaysAgo, days));
+            }
+        }
+    }
+
+    /**
+     * Aggregates by brute force the reviews of the days from {@code firstDay} to {@code lastDay},
+     * leaving out those written before the ring reached them.
+     * Agrège par force brute les avis des jours de {@code firstDay} à {@code lastDay}, sans ceux
+     * écrits avant que l'anneau ne les atteigne.
+     */
+    private static RatingAggregate expected(List<Review> reviews, long firstDay, long lastDay, long oldestDay) {
+        List<Review> window = new ArrayList<>();
+        long ringNewest = Long.MIN_VALUE;
+        for (Review review : reviews) {
+            long day = review.getCreatedAt() / DAY_MILLIS;
+            ringNewest = Math.max(ringNewest, day);
+            boolean counted = day > ringNewest - RatingTimeline.RETENTION_DAYS;
+            if (counted && day >= firstDay && day <= lastDay && day >= oldestDay) {
+                window.add(review);
+            }
+        }
+        return RatingAggregate.of(window);
+    }
+
+    private static RatingAggregate aggregate(int... rates) {
+        List<Review> reviews = new ArrayList<>();
+        for (int rate : rates) {
+            reviews.add(new Review("u", "", "c", rate));
+        }
+        return RatingAggregate.of(reviews);
+    }
+}
@@ -0,0 +1,47 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * Unit tests of the validation of the reviews added to {@link RestaurantFakeApi}.
+ * Tests unitaires de la validation des avis ajoutés à {@link RestaurantFakeApi}.
+ */
+public class RestaurantFakeApiTest {
+
+    /** A single review follows the rules of a batch: no comment, or a rating outside one to five
+     * stars, is refused and changes nothing.
+     * Un avis seul suit les règles d'un lot : pas de commentaire, ou une note hors d'une à cinq
+     * étoiles, est refusé et ne change rien.
+     */
+    @Test
+    public void singleReviewFollowsTheRulesOfABatch() {
+        RestaurantFakeApi api = new RestaurantFakeApi();
+        int before = api.getReviews().size();
+        RatingAggregate aggregate = api.getRatingAggregate();
+
+        assertFalse(api.addReview("Trop bon", 0, "", "Manon Garcia"));
+        assertFalse(api.addReview("Trop bon", 6, "", "Manon Garcia"));
+        assertFalse(api.addReview("Trop bon", -3, "", "Manon Garcia"));
+        assertFalse(api.addReview("Trop bon", null, "", "Manon Garcia"));
+        assertFalse(api.addReview(null, 4, "", "Manon Garcia"));
+        assertFalse(api.addReview("", 4, "", "Manon Garcia"));
+        for (int rate : new int[]{0, 6}) {
+            assertFalse(api.addReviews(Collections.singletonList(new Review("Manon Garcia", "", "Trop bon", rate))));
+        }
+        assertEquals(before, api.getReviews().size());
+        assertEquals(aggregate, api.getRatingAggregate());
+
+        assertTrue(api.addReview("Très bon", 5, "", "Manon Garcia"));
+        assertEquals(before + 1, api.getReviews().size());
+        assertEquals("Très bon", api.getReviews().get(0).getComment());
+    }
+}
@@ -0,0 +1,204 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Unit tests of {@link ReviewLog}.
+ * Tests unitaires de {@link ReviewLog}.
+ */
+public class ReviewLogTest {
+
+    private static final int ONE_MILLION = 1_000_000;
+
+    /** Checks that the log is read newest first and that a view is not affected by later additions.
+     * Vérifie que le journal est lu du plus récent au plus ancien et qu'une vue n'est pas affectée
+     * par des ajouts ultérieurs.
+     */
+    @Test
+    public void viewIsNewestFirstAndStable() {
+        ReviewLog log = new ReviewLog();
+        log.add("a", "", "first", 1);
+        log.add("b", "", "second", 2);
+
+        List<Review> view = log.newestFirst();
+        for (int i = 0; i < 100; i++) {
+            log.add("c", "", "later", 3);
+        }
+
+        assertEquals(2, view.size());
+        assertEquals(new Review(2L, "b", "", "second", 2), view.get(0));
+        assertEquals(new Review(1L, "a", "", "first", 1), view.get(1));
+        assertEquals(102, log.newestFirst().size());
+    }
+
+    /** The view returned by the log must not be modifiable.
+     * La vue renvoyée par le journal ne doit pas être modifiable.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void viewIsImmutable() {
+        ReviewLog log = new ReviewLog();
+        log.newestFirst().add(new Review("a", "", "comment", 1));
+    }
+
+    /** Walks the log page by page while reviews are added between two pages: every review present
+     * before the first page is read exactly once, in newest first order.
+     * Parcourt le journal page par page pendant que des avis sont ajoutés entre deux pages : chaque
+     * avis présent avant la première page est lu exactement une fois, du plus récent au plus ancien.
+     */
+    @Test
+    public void pagesAreStableWhileLogGrows() {
+        ReviewLog log = new ReviewLog();
+        for (int i = 0; i < 25; i++) {
+            log.add("user", "", "comment " + i, 1 + i % 5);
+        }
+
+        ReviewPage first = log.page(null, 10);
+        log.add("user", "", "new", 5);
+        ReviewPage second = log.page(first.getNextCursor(), 10);
+        ReviewPage third = log.page(second.getNextCursor(), 10);
+
+        assertEquals("comment 24", first.getReviews().get(0).getComment());
+        assertEquals("comment 14", second.getReviews().get(0).getComment());
+        assertEquals(5, third.getReviews().size());
+        assertEquals("comment 0", third.getReviews().get(4).getComment());
+        assertFalse(third.hasNext());
+        assertNull(third.getNextCursor());
+    }
+
+    /** The statistics computed on the ratings column match those computed from the materialized
+     * reviews, including a rating outside 1 to 5 stars and a null username.
+     * Les statistiques calculées sur la colonne des notes correspondent à celles calculées à partir
+     * des avis construits, y compris pour une note en dehors de 1 à 5 étoiles et un nom nul.
+     */
+    @Test
+    public void columnAggregateMatchesReviews() {
+        ReviewLog log = new ReviewLog();
+        for (int i = 0; i < 1000; i++) {
+            log.add("user " + i % 7, "avatar " + i % 3, "comment", 1 + i * 31 % 5);
+        }
+        log.add(null, null, "no rating", 0);
+
+        List<Review> reviews = log.newestFirst();
+        assertEquals(RatingAggregate.of(reviews), log.ratingAggregate());
+        assertNull(reviews.get(0).getUsername());
+        assertEquals("user 5", reviews.get(1).getUsername());
+    }
+
+    /** Walks every filtered view page by page while reviews with the first star of the view are
+     * added between two pages: the pages hold the reviews present before the first page that pass
+     * the filter, in the order of the filter, each one exactly once.
+     * Parcourt chaque vue filtrée page par page pendant que des avis ayant la première étoile de la
+     * vue sont ajoutés entre deux pages : les pages contiennent les avis présents avant la première
+     * page qui passent le filtre, dans l'ordre du filtre, chacun exactement une fois.
+     */
+    @Test
+    public void filteredPagesMatchFilteredList() {
+        ReviewFilter[] filters = {ReviewFilter.stars(1), ReviewFilter.atLeast(4),
+                ReviewFilter.ALL.orderBy(ReviewFilter.Order.HIGHEST_RATED_FIRST),
+                ReviewFilter.atLeast(2).orderBy(ReviewFilter.Order.LOWEST_RATED_FIRST)};
+        for (ReviewFilter filter : filters) {
+            ReviewLog log = new ReviewLog();
+            for (int i = 0; i < 200; i++) {
+                log.add("user", "", "comment " + i, i % 11 == 0 ? 0 : 1 + i * 7 % 5);
+            }
+            List<Review> expected = new ArrayList<>();
+            for (Review review : log.newestFirst()) {
+                if (filter.accepts(review.getRate())) {
+                    expected.add(review);
+                }
+            }
+            if (filter.getOrder() == ReviewFilter.Order.HIGHEST_RATED_FIRST) {
+                expected.sort(Comparator.comparingInt(Review::getRate).reversed());
+            } else if (filter.getOrder() == ReviewFilter.Order.LOWEST_RATED_FIRST) {
+                expected.sort(Comparator.comparingInt(Review::getRate));
+            }
+
+            int firstStar = filter.getOrder() == ReviewFilter.Order.LOWEST_RATED_FIRST ? filter.getMinStars() : filter.getMaxStars();
+            List<Review> actual = new ArrayList<>();
+            ReviewPage page = null;
+            do {
+                page = log.page(filter, page == null ? null : page.getNextCursor(), 7);
+                actual.addAll(page.getReviews());
+                log.add("user", "", "later", firstStar);
+            } while (page.hasNext());
+            assertEquals(filter.toString(), expected, actual);
+        }
+    }
+
+    /** A batch is validated as a whole: one review without rating, or rated above five stars,
+     * rejects it and nothing is added; an accepted batch is added oldest first, indexed and counted
+     * like single additions.
+     * Un lot est validé en entier : un avis sans note, ou noté au-delà de cinq étoiles, le fait
+     * refuser et rien n'est ajouté ; un lot accepté est ajouté du plus ancien au plus récent, indexé
+     * et compté comme des ajouts unitaires.
+     */
+    @Test
+    public void batchIsAddedAsAWhole() {
+        RestaurantApi api = new RestaurantFakeApi();
+        RatingAggregate before = api.getRatingAggregate();
+        List<Review> batch = new ArrayList<>(Arrays.asList(
+                new Review("a", "", "premier avis importé", 3),
+                new Review("b", "", "second avis importé", 0)));
+
+        assertFalse(api.addReviews(batch));
+        assertEquals(before, api.getRatingAggregate());
+        batch.set(1, new Review("b", "", "second avis importé", RatingAggregate.MAX_STARS + 1));
+        assertFalse(api.addReviews(batch));
+        assertEquals(before, api.getRatingAggregate());
+
+        batch.set(1, new Review("b", "", "second avis importé", 1));
+        assertTrue(api.addReviews(batch));
+        assertEquals(before.plus(3).plus(1), api.getRatingAggregate());
+        assertEquals("second avis importé", api.getReviews().get(0).getComment());
+        assertEquals(2, api.searchReviews("importé", 10).size());
+        assertEquals(1, api.getReviews(ReviewFilter.stars(3), null, 10).getReviews().size());
+    }
+
+    /** Inserts one million reviews through {@link RestaurantFakeApi#addReview}. With copy-on-add this
+     * costs about 5.10^11 element copies; with the append-only log the copies made by the growth of
+     * the arrays stay below three times the number of reviews, whatever the size.
+     * Insère un million d'avis via {@link RestaurantFakeApi#addReview}. Avec une copie à chaque
+     * ajout, cela coûte environ 5.10^11 copies d'éléments ; avec le journal en ajout seul, les copies
+     * faites par l'agrandissement des tableaux restent inférieures au triple du nombre d'avis, quelle
+     * que soit la taille.
+     */
+    @Test
+    public void oneMillionInsertsAreLinear() {
+        RestaurantApi api = new RestaurantFakeApi();
+        for (int i = 0; i < ONE_MILLION; i++) {
+            api.addReview("comment " + i, 1 + i % 5, "", "user");
+        }
+
+        List<Review> reviews = api.getReviews();
+        assertEquals(ONE_MILLION + 5, reviews.size());
+        assertEquals("comment " + (ONE_MILLION - 1), reviews.get(0).getComment());
+        assertEquals("comment 0", reviews.get(ONE_MILLION - 1).getComment());
+
+        for (int size : new int[]{1_000, 10_000, ONE_MILLION}) {
+            ReviewLog log = new ReviewLog();
+            for (int i = 0; i < size; i++) {
+                log.add("user", "", "comment " + i, 1 + i % 5);
+            }
+            // Doubling copies each row about once, the star buckets about as much again, while
+            // copy-on-add would copy size² / 2 elements.
+            // Le doublement copie chaque ligne environ une fois, les compartiments d'étoiles à peu
+            // près autant, alors qu'une copie à chaque ajout copierait taille² / 2 éléments.
+            assertTrue(size + " reviews: " + log.copiedElements() + " copies", log.copiedElements() < 3L * size);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests of {@link ReviewSearchIndex}.
+ * Tests unitaires de {@link ReviewSearchIndex}.
+ */
+public class ReviewSearchIndexTest {
+
+    /** Case and French accents are ignored, on both sides.
+     * La casse et les accents français sont ignorés, des deux côtés.
+     */
+    @Test
+    public void foldsCaseAndAccents() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.add(0, "Nourriture DÉLICIEUSE, un vrai cœur de cuisine");
+        index.add(1, "Plats sans saveur");
+
+        assertArrayEquals(new int[]{0}, index.search("delicieuse", 10));
+        assertArrayEquals(new int[]{0}, index.search("Délicieuse", 10));
+        assertArrayEquals(new int[]{0}, index.search("coeur", 10));
+        assertEquals("tres epice", ReviewSearchIndex.fold("Très ÉPICÉ"));
+    }
+
+    /** Every query word must start a word of the comment, and exact words rank before longer ones.
+     * Chaque mot de la requête doit commencer un mot du commentaire, et les mots exacts sont classés
+     * avant les mots plus longs.
+     */
+    @Test
+    public void matchesEveryWordAsPrefix() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.add(0, "Service rapide");
+        index.add(1, "Service lent");
+        index.add(2, "Des services rapides");
+        index.add(3, "Rapide mais froid");
+
+        assertArrayEquals(new int[]{0, 2}, index.search("service rapide", 10));
+        assertEquals(2, index.search("serv rap", 10).length);
+        assertArrayEquals(new int[]{3, 0}, index.search("rapide", 2));
+        assertArrayEquals(new int[0], index.search("service froid", 10));
+        assertArrayEquals(new int[0], index.search("a", 10));
+    }
+
+    /** The fake API keeps the index up to date and returns the matching reviews.
+     * La fausse API tient l'index à jour et renvoie les avis trouvés.
+     */
+    @Test
+    public void fakeApiSearchesAddedReviews() {
+        RestaurantApi api = new RestaurantFakeApi();
+        api.addReview("Le curry était parfait", 5, "", "Manon Garcia");
+
+        List<Review> matches = api.searchReviews("CURRY", 10);
+
+        assertEquals(2, matches.size());
+        assertEquals("Le curry était parfait", matches.get(0).getComment());
+        assertEquals(6L, matches.get(0).getId());
+        assertEquals("David John", matches.get(1).getUsername());
+    }
+}
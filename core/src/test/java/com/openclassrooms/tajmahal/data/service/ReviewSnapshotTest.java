@@ -0,0 +1,214 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.Review;
+import com.openclassrooms.tajmahal.domain.model.ReviewFilter;
+import com.openclassrooms.tajmahal.domain.model.ReviewPage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Unit tests of {@link ReviewSnapshot} and {@link RestaurantSnapshotApi}.
+ * Tests unitaires de {@link ReviewSnapshot} et de {@link RestaurantSnapshotApi}.
+ */
+public class ReviewSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** The reviews read from a snapshot are those written, in the same order, with the same statistics.
+     * Les avis lus dans un instantané sont ceux écrits, dans le même ordre, avec les mêmes statistiques.
+     */
+    @Test
+    public void snapshotReadsBackReviews() throws IOException {
+        RestaurantFakeApi fake = new RestaurantFakeApi();
+        fake.addReview("Épicé, très bon", 5, null, "Manon Garcia");
+        File file = new File(folder.getRoot(), "reviews.snapshot");
+
+        ReviewSnapshot.write(file, fake.getReviews());
+        ReviewSnapshot snapshot = ReviewSnapshot.open(file);
+
+        List<Review> expected = fake.getReviews();
+        assertEquals(expected.size(), snapshot.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), snapshot.get(expected.size() - 1 - i));
+        }
+        assertEquals(fake.getRatingAggregate(), snapshot.ratingAggregate());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    /** A truncated snapshot is refused instead of being read past its end.
+     * Un instantané tronqué est refusé au lieu d'être lu au-delà de sa fin.
+     */
+    @Test(expected = IOException.class)
+    public void truncatedSnapshotIsRefused() throws IOException {
+        File file = new File(folder.getRoot(), "reviews.snapshot");
+        ReviewSnapshot.write(file, new RestaurantFakeApi().getReviews());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        ReviewSnapshot.open(file);
+    }
+
+    /** The snapshot API is seeded on the first call, then pages, filters, searches and adds across
+     * the snapshot and the added reviews.
+     * L'API instantané est amorcée au premier appel, puis pagine, filtre, recherche et ajoute à
+     * travers l'instantané et les avis ajoutés.
+     */
+    @Test
+    public void snapshotApiCombinesSnapshotAndAddedReviews() {
+        File file = new File(folder.getRoot(), "reviews.snapshot");
+        RestaurantApi api = new RestaurantSnapshotApi(file, new RestaurantFakeApi());
+        assertEquals(5, api.getReviews().size());
+        assertTrue(file.exists());
+
+        api.addReview("Curry délicieux", 1, "", "a");
+        api.addReview("Trop salé", 1, "", "b");
+        assertEquals(1, api.searchReviews("sale", 10).size());
+        api.addReview("Curry trop salé", 3, "", "c");
+
+        ReviewPage first = api.getReviews(null, 4);
+        assertEquals("Curry trop salé", first.getReviews().get(0).getComment());
+        assertEquals(8L, first.getReviews().get(0).getId());
+        List<Review> all = new ArrayList<>(first.getReviews());
+        all.addAll(api.getReviews(first.getNextCursor(), 4).getReviews());
+        assertEquals(api.getReviews(), all);
+
+        ReviewPage oneStar = api.getReviews(ReviewFilter.stars(1), null, 10);
+        assertEquals(2, oneStar.getReviews().size());
+        assertEquals("Trop salé", oneStar.getReviews().get(0).getComment());
+        ReviewPage byRating = api.getReviews(ReviewFilter.ALL.orderBy(ReviewFilter.Order.LOWEST_RATED_FIRST), null, 3);
+        assertEquals(2, byRating.getReviews().get(2).getRate());
+        assertEquals(5, api.getReviews(ReviewFilter.ALL.orderBy(ReviewFilter.Order.LOWEST_RATED_FIRST), byRating.getNextCursor(), 10).getReviews().size());
+
+        assertEquals(2, api.searchReviews("sale", 10).size());
+        assertEquals(RatingAggregate.of(api.getReviews()), api.getRatingAggregate());
+    }
+
+    /** A page preview decodes only the start of a long comment but gives the same preview as the
+     * full comment, whatever the characters; the full comment is then read by id.
+     * L'aperçu d'une page ne décode que le début d'un long commentaire mais donne le même aperçu que
+     * le commentaire complet, quels que soient les caractères ; le commentaire complet est ensuite lu
+     * par identifiant.
+     */
+    @Test
+    public void snapshotServesCommentPreviews() throws IOException {
+        SplittableRandom random = new SplittableRandom(7L);
+        String alphabet = "ab cdé çà ñ€ 日本 \uD83C\uDF5B";
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            StringBuilder comment = new StringBuilder();
+            int length = 1 + random.nextInt(300);
+            while (comment.length() < length) {
+                int at = alphabet.offsetByCodePoints(0, random.nextInt(alphabet.codePointCount(0, alphabet.length())));
+                comment.appendCodePoint(alphabet.codePointAt(at));
+            }
+            reviews.add(new Review(0L, "u" + i, "", comment.toString(), 1 + random.nextInt(5), 1_000L + i));
+        }
+        File file = new File(folder.getRoot(), "reviews.snapshot");
+        ReviewSnapshot.write(file, reviews);
+        ReviewSnapshot snapshot = ReviewSnapshot.open(file);
+
+        for (int position = 0; position < snapshot.size(); position++) {
+            Review full = snapshot.get(position);
+            Review preview = snapshot.preview(position, 40);
+            assertEquals(full.withCommentPreview(40), preview);
+            assertEquals(full.getComment().length() > 40, preview.isCommentTruncated());
+            assertTrue(preview.getComment().length() <= 40);
+        }
+
+        RestaurantApi api = new RestaurantSnapshotApi(file, null, 40);
+        for (Review review : api.getReviews(null, 50).getReviews()) {
+            String comment = api.getComment(review.getId());
+            // The reviews are written newest first. Les avis sont écrits du plus récent au plus ancien.
+            assertEquals(reviews.get(reviews.size() - (int) review.getId()).getComment(), comment);
+            if (review.isCommentTruncated()) {
+                String start = review.getComment().substring(0, review.getComment().length() - 1);
+                assertTrue(comment.startsWith(start));
+            } else {
+                assertEquals(comment, review.getComment());
+            }
+        }
+        assertNull(api.getComment(0L));
+    }
+
+    /** Filtered pages read from the star index give every review once in the order of the filter,
+     * before and after the index receives added reviews, and after the reviews are compacted into a
+     * new snapshot, which keeps their identifiers.
+     * Les pages filtrées lues dans l'index par étoile donnent chaque avis une fois dans l'ordre du
+     * filtre, avant et après que l'index reçoive des avis ajoutés, et après la compaction des avis
+     * dans un nouvel instantané, qui garde leurs identifiants.
+     */
+    @Test
+    public void filteredPagesFollowTheStarIndexAcrossCompaction() throws IOException {
+        SplittableRandom random = new SplittableRandom(11L);
+        File file = new File(folder.getRoot(), "reviews.snapshot");
+        ReviewSnapshot.write(file, randomReviews(random, 300));
+        RestaurantSnapshotApi api = new RestaurantSnapshotApi(file, null);
+        assertTrue(api.addReviews(randomReviews(random, 40)));
+        assertFilteredPages(api);
+        assertTrue(api.addReviews(randomReviews(random, 60)));
+        assertFilteredPages(api);
+
+        List<Review> before = api.getReviews();
+        api.compact(1);
+        assertEquals(before, api.getReviews());
+        assertEquals(1, api.logEpoch());
+        assertTrue(api.addReview("Après la compaction", 2, "", "z"));
+        assertFilteredPages(api);
+
+        RestaurantSnapshotApi reopened = new RestaurantSnapshotApi(file, null);
+        assertEquals(before, reopened.getReviews());
+        assertEquals(1, reopened.logEpoch());
+    }
+
+    private static List<Review> randomReviews(SplittableRandom random, int count) {
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reviews.add(new Review(0L, "u" + i, "", "comment " + random.nextInt(1000), 1 + random.nextInt(5), 1_000L + i));
+        }
+        return reviews;
+    }
+
+    private static void assertFilteredPages(RestaurantApi api) {
+        List<Review> all = api.getReviews();
+        for (ReviewFilter filter : new ReviewFilter[]{ReviewFilter.stars(2), ReviewFilter.atLeast(4),
+                ReviewFilter.atLeast(2).orderBy(ReviewFilter.Order.HIGHEST_RATED_FIRST),
+                ReviewFilter.ALL.orderBy(ReviewFilter.Order.LOWEST_RATED_FIRST)}) {
+            List<Review> expected = new ArrayList<>();
+            for (Review review : all) {
+                if (filter.accepts(review.getRate())) {
+                    expected.add(review);
+                }
+            }
+            if (filter.getOrder() == ReviewFilter.Order.HIGHEST_RATED_FIRST) {
+                expected.sort(Comparator.comparingInt(Review::getRate).reversed());
+            } else if (filter.getOrder() == ReviewFilter.Order.LOWEST_RATED_FIRST) {
+                expected.sort(Comparator.comparingInt(Review::getRate));
+            }
+            List<Review> read = new ArrayList<>();
+            Long cursor = null;
+            do {
+                ReviewPage page = api.getReviews(filter, cursor, 7);
+                read.addAll(page.getReviews());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            assertEquals(filter.toString(), expected, read);
+        }
+    }
+}
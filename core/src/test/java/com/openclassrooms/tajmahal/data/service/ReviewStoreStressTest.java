@@ -0,0 +1,181 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stress tests of the review stores: several threads add reviews, one by one or in batches, while
+ * other threads read them. No review may be lost, each reader must see a growing list of
+ * contiguous identifiers, and the reviews of each writer must keep the order in which it added them.
+ * Tests de charge des stockages d'avis : plusieurs threads ajoutent des avis, un par un ou par
+ * lots, pendant que d'autres threads les lisent. Aucun avis ne doit être perdu, chaque lecteur doit
+ * voir une liste croissante d'identifiants contigus, et les avis de chaque écrivain doivent garder
+ * l'ordre dans lequel il les a ajoutés.
+ */
+public class ReviewStoreStressTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 2;
+    private static final int REVIEWS_PER_WRITER = 2_000;
+    private static final int BATCH_SIZE = 8;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void fakeApiLosesNoConcurrentReview() throws InterruptedException {
+        hammer(new RestaurantFakeApi());
+    }
+
+    @Test
+    public void snapshotApiLosesNoConcurrentReview() throws InterruptedException {
+        RestaurantSnapshotApi api = new RestaurantSnapshotApi(new File(folder.getRoot(), "reviews.snapshot"), new RestaurantFakeApi());
+        api.searchReviews("bon", 1);
+        hammer(api);
+    }
+
+    @Test
+    public void journaledApiLosesNoConcurrentReview() throws Exception {
+        try (JournaledRestaurantApi api = new JournaledRestaurantApi(new RestaurantFakeApi(), new File(folder.getRoot(), "reviews.wal"))) {
+            hammer(api);
+        }
+    }
+
+    /**
+     * Runs the writers and the readers together, then checks the final state of the store.
+     * Lance les écrivains et les lecteurs ensemble, puis vérifie l'état final du stockage.
+     */
+    private static void hammer(RestaurantApi api) throws InterruptedException {
+        int initial = api.getReviews().size();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    write(api, writer);
+                } catch (Throwable t) {
+                    failures.add(t);
+                } finally {
+                    writersDone.countDown();
+                }
+            }, "writer-" + w));
+        }
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    int lastSize = 0;
+                    while (running.get()) {
+                        lastSize = checkView(api.getReviews(), lastSize);
+                        assertTrue(api.getRatingAggregate().getCount() >= lastSize);
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }, "reader-" + r));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        assertTrue(writersDone.await(60, TimeUnit.SECONDS));
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.peek());
+        }
+
+        List<Review> reviews = api.getReviews();
+        assertEquals(initial + WRITERS * REVIEWS_PER_WRITER, reviews.size());
+        assertEquals(reviews.size(), checkView(reviews, 0));
+        int[] counts = new int[WRITERS];
+        for (Review review : reviews) {
+            int writer = writerOf(review);
+            if (writer >= 0) {
+                counts[writer]++;
+            }
+        }
+        for (int writer = 0; writer < WRITERS; writer++) {
+            assertEquals(REVIEWS_PER_WRITER, counts[writer]);
+            assertEquals(REVIEWS_PER_WRITER, api.searchReviews("writer" + writer, REVIEWS_PER_WRITER + 1).size());
+        }
+        assertEquals(reviews.size(), api.getRatingAggregate().getCount());
+    }
+
+    /**
+     * Adds the reviews of a writer, one by one for the even writers and in batches for the odd ones.
+     * Ajoute les avis d'un écrivain, un par un pour les écrivains pairs et par lots pour les impairs.
+     */
+    private static void write(RestaurantApi api, int writer) {
+        List<Review> batch = new ArrayList<>(BATCH_SIZE);
+        for (int sequence = 0; sequence < REVIEWS_PER_WRITER; sequence++) {
+            String comment = "writer" + writer + " " + sequence;
+            int rating = 1 + sequence % 5;
+            if (writer % 2 == 0) {
+                assertTrue(api.addReview(comment, rating, null, "Writer " + writer));
+            } else {
+                batch.add(new Review("Writer " + writer, null, comment, rating));
+                if (batch.size() == BATCH_SIZE) {
+                    assertTrue(api.addReviews(batch));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a view is not smaller than the previous one, that its identifiers are contiguous
+     * newest first, and that the reviews of each writer are in order.
+     * @return The size of the view.
+     * Vérifie qu'une vue n'est pas plus petite que la précédente, que ses identifiants sont contigus
+     * du plus récent au plus ancien, et que les avis de chaque écrivain sont dans l'ordre.
+     * @return La taille de la vue.
+     */
+    private static int checkView(List<Review> view, int lastSize) {
+        int size = view.size();
+        assertTrue(size + " < " + lastSize, size >= lastSize);
+        int[] nextSequence = new int[WRITERS];
+        for (int writer = 0; writer < WRITERS; writer++) {
+            nextSequence[writer] = Integer.MAX_VALUE;
+        }
+        for (int i = 0; i < size; i++) {
+            Review review = view.get(i);
+            assertEquals(size - i, review.getId());
+            int writer = writerOf(review);
+            if (writer >= 0) {
+                int sequence = Integer.parseInt(review.getComment().substring(review.getComment().indexOf(' ') + 1));
+                assertTrue(review.getComment(), sequence < nextSequence[writer]);
+                nextSequence[writer] = sequence;
+            }
+        }
+        return size;
+    }
+
+    /** Returns the writer of a review, or -1 for an initial one. Renvoie l'écrivain d'un avis, ou -1 pour un avis initial. */
+    private static int writerOf(Review review) {
+        String comment = review.getComment();
+        return comment.startsWith("writer") ? comment.charAt("writer".length()) - '0' : -1;
+    }
+}
@@ -0,0 +1,326 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests of {@link ReviewWriteAheadLog} and {@link JournaledRestaurantApi}.
+ * Tests unitaires de {@link ReviewWriteAheadLog} et de {@link JournaledRestaurantApi}.
+ */
+public class ReviewWriteAheadLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Records written before closing are read back in order, null fields included.
+     * Les enregistrements écrits avant la fermeture sont relus dans l'ordre, champs nuls compris.
+     */
+    @Test
+    public void recordsAreReplayedInOrder() throws Exception {
+        File file = folder.newFile("reviews.wal");
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file)) {
+            log.append(new Review("Manon Garcia", "avatar", "Très bon, épicé à souhait", 5));
+            long last = log.appendAll(Arrays.asList(new Review(null, null, "sans nom", 3),
+                    new Review("b", "", "troisième", 1)));
+            log.awaitDurable(last);
+        }
+
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file)) {
+            List<Review> reviews = log.takeRecovered();
+            assertEquals(Arrays.asList(new Review("Manon Garcia", "avatar", "Très bon, épicé à souhait", 5),
+                    new Review(null, null, "sans nom", 3), new Review("b", "", "troisième", 1)), reviews);
+            assertEquals(0L, log.getTruncatedBytes());
+            assertTrue(log.takeRecovered().isEmpty());
+        }
+    }
+
+    /** A record cut by a crash, or whose bytes changed, is dropped with everything after it, and
+     * the next records are appended after the last valid one.
+     * Un enregistrement coupé par un plantage, ou dont les octets ont changé, est abandonné avec
+     * tout ce qui le suit, et les enregistrements suivants sont ajoutés après le dernier valide.
+     */
+    @Test
+    public void tornTailIsTruncated() throws Exception {
+        File file = folder.newFile("reviews.wal");
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file)) {
+            log.append(new Review("a", "", "premier", 4));
+            log.awaitDurable(log.append(new Review("b", "", "second", 2)));
+        }
+        long complete = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(complete - 3);
+        }
+
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file)) {
+            assertEquals(1, log.takeRecovered().size());
+            assertTrue(log.getTruncatedBytes() > 0);
+            log.awaitDurable(log.append(new Review("c", "", "après la coupure", 5)));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(file.length() - 1);
+            raf.write('!');
+        }
+
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file)) {
+            List<Review> reviews = log.takeRecovered();
+            assertEquals(1, reviews.size());
+            assertEquals("premier", reviews.get(0).getComment());
+        }
+    }
+
+    /** A header cut by a crash, or left as zeros, is an empty log written again, not an error.
+     * Un en-tête coupé par un plantage, ou laissé à zéro, est un journal vide réécrit, et non une erreur.
+     */
+    @Test
+    public void tornHeaderIsAnEmptyLog() throws Exception {
+        for (byte[] torn : new byte[][]{{0x54, 0x4D, 0x57}, new byte[12]}) {
+            File file = folder.newFile();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.write(torn);
+            }
+
+            try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file)) {
+                assertTrue(log.takeRecovered().isEmpty());
+                assertEquals(torn.length, log.getTruncatedBytes());
+                log.awaitDurable(log.append(new Review("a", "", "premier", 4)));
+            }
+            try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file)) {
+                assertEquals(1, log.takeRecovered().size());
+            }
+        }
+    }
+
+    /** Once the committer has stopped, by an interrupt or by closing, waiting for a record fails
+     * instead of blocking, and so does appending.
+     * Une fois le thread d'écriture arrêté, par une interruption ou par la fermeture, attendre un
+     * enregistrement échoue au lieu de bloquer, de même que l'ajout.
+     */
+    @Test(timeout = 10_000)
+    public void waitersFailWhenTheCommitterStops() throws Exception {
+        ReviewWriteAheadLog log = ReviewWriteAheadLog.open(folder.newFile());
+        long sequence = log.append(new Review("a", "", "premier", 4));
+        log.awaitDurable(sequence);
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("tajmahal-wal")) {
+                thread.interrupt();
+                thread.join();
+            }
+        }
+
+        try {
+            log.awaitDurable(sequence + 1);
+            fail();
+        } catch (IOException expected) {
+            // The committer is gone. Le thread d'écriture n'est plus là.
+        }
+        try {
+            log.append(new Review("b", "", "second", 2));
+            fail();
+        } catch (UncheckedIOException expected) {
+            // The log has failed. Le journal a échoué.
+        }
+        try {
+            log.close();
+            fail();
+        } catch (IOException expected) {
+            // The failure is reported once more. L'échec est signalé une fois de plus.
+        }
+
+        ReviewWriteAheadLog closed = ReviewWriteAheadLog.open(folder.newFile());
+        closed.close();
+        try {
+            closed.awaitDurable(1L);
+            fail();
+        } catch (IOException expected) {
+            // Nothing can be written anymore. Plus rien ne peut être écrit.
+        }
+    }
+
+    /** The journaled API refuses, before logging it, a review the store would refuse, and the
+     * replay skips the records it cannot apply instead of failing.
+     * L'API journalisée refuse, avant de le journaliser, un avis que le stockage refuserait, et le
+     * rejeu ignore les enregistrements qu'il ne peut pas appliquer au lieu d'échouer.
+     */
+    @Test
+    public void journaledApiNeverReplaysABadRecord() throws Exception {
+        File file = new File(folder.getRoot(), "reviews.wal");
+        JournaledRestaurantApi api = new JournaledRestaurantApi(new RestaurantFakeApi(), file);
+        int seeded = api.getReviews().size();
+        assertFalse(api.addReview("Trop bon", 200, "", "Manon Garcia"));
+        assertFalse(api.addReview(null, 4, "", "Manon Garcia"));
+        api.close();
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file)) {
+            assertTrue(log.takeRecovered().isEmpty());
+            // A record written by an older version, before the ratings were checked.
+            // Un enregistrement écrit par une version plus ancienne, avant la vérification des notes.
+            log.appendAll(Arrays.asList(new Review("a", "", "trop bon", 200), new Review("b", "", "bon", 4)));
+        }
+
+        RestaurantApi restarted = new JournaledRestaurantApi(new RestaurantFakeApi(), file);
+        List<Review> reviews = restarted.getReviews();
+        assertEquals(seeded + 1, reviews.size());
+        assertEquals("bon", reviews.get(0).getComment());
+    }
+
+    /** Reviews added through the journaled API are found again by a new API on the same file.
+     * Les avis ajoutés via l'API journalisée sont retrouvés par une nouvelle API sur le même fichier.
+     */
+    @Test
+    public void journaledApiReplaysReviews() throws Exception {
+        File file = new File(folder.getRoot(), "reviews.wal");
+        JournaledRestaurantApi api = new JournaledRestaurantApi(new RestaurantFakeApi(), file);
+        int seeded = api.getReviews().size();
+        api.addReview("Délicieux", 5, "avatar", "Manon Garcia");
+        api.addReview("", 5, "avatar", "Manon Garcia");
+        api.addReviews(Arrays.asList(new Review("a", "", "un", 1), new Review("b", "", "deux", 2)));
+        api.close();
+
+        RestaurantApi restarted = new JournaledRestaurantApi(new RestaurantFakeApi(), file);
+        List<Review> reviews = restarted.getReviews();
+        assertEquals(seeded + 3, reviews.size());
+        assertEquals("deux", reviews.get(0).getComment());
+        assertEquals("Délicieux", reviews.get(2).getComment());
+        assertEquals(1, restarted.searchReviews("delicieux", 10).size());
+    }
+
+    /** Concurrent writers wait for the disk together: their batches share syncs, and the store
+     * holds the reviews in the order of the log, found again after a restart.
+     * Des écrivains concurrents attendent le disque ensemble : leurs lots partagent des
+     * synchronisations, et le stockage contient les avis dans l'ordre du journal, retrouvé après un
+     * redémarrage.
+     */
+    @Test
+    public void concurrentWritersShareSyncs() throws Exception {
+        File file = new File(folder.getRoot(), "reviews.wal");
+        JournaledRestaurantApi api = new JournaledRestaurantApi(new RestaurantFakeApi(), file);
+        int seeded = api.getReviews().size();
+        int writers = 8;
+        int writes = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < writes; i++) {
+                        if (!api.addReview("avis " + writer + "-" + i, 1 + i % 5, "", "écrivain " + writer)) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException | RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.get());
+        List<Review> reviews = api.getReviews();
+        assertEquals(seeded + writers * writes, reviews.size());
+        long syncs = api.log().getSyncCount();
+        assertTrue("syncs: " + syncs, syncs < writers * writes);
+        api.close();
+
+        RestaurantApi restarted = new JournaledRestaurantApi(new RestaurantFakeApi(), file);
+        assertEquals(comments(reviews), comments(restarted.getReviews()));
+    }
+
+    private static List<String> comments(List<Review> reviews) {
+        List<String> comments = new ArrayList<>();
+        for (Review review : reviews) {
+            comments.add(review.getComment());
+        }
+        return comments;
+    }
+
+    /** The fake API and the journaled one read a comment by the id of its review, before and after
+     * a restart, and read nothing for an unknown id.
+     * L'API factice et l'API journalisée lisent un commentaire par l'identifiant de son avis, avant et
+     * après un redémarrage, et ne lisent rien pour un identifiant inconnu.
+     */
+    @Test
+    public void commentsAreReadById() throws Exception {
+        RestaurantFakeApi fake = new RestaurantFakeApi();
+        for (Review review : fake.getReviews()) {
+            assertEquals(review.getComment(), fake.getComment(review.getId()));
+        }
+        assertNull(fake.getComment(0L));
+        assertNull(fake.getComment(fake.getReviews().size() + 1L));
+
+        File file = new File(folder.getRoot(), "reviews.wal");
+        JournaledRestaurantApi api = new JournaledRestaurantApi(new RestaurantFakeApi(), file);
+        api.addReview("Délicieux, et le naan au fromage est parfait", 5, "avatar", "Manon Garcia");
+        long id = api.getReviews().get(0).getId();
+        assertEquals("Délicieux, et le naan au fromage est parfait", api.getComment(id));
+        api.close();
+
+        RestaurantApi restarted = new JournaledRestaurantApi(new RestaurantFakeApi(), file);
+        assertEquals("Délicieux, et le naan au fromage est parfait", restarted.getComment(id));
+        assertNull(restarted.getComment(id + 1));
+    }
+
+    /** Past the threshold, the log is folded into the snapshot and emptied; a restart finds every
+     * review once, even when the process died after the snapshot was written but before the log
+     * was emptied.
+     * Au-delà du seuil, le journal est intégré à l'instantané puis vidé ; un redémarrage retrouve
+     * chaque avis une fois, même si le processus est mort après l'écriture de l'instantané mais
+     * avant que le journal soit vidé.
+     */
+    @Test
+    public void journaledSnapshotIsCompactedOnce() throws Exception {
+        File snapshot = new File(folder.getRoot(), "reviews.snapshot");
+        File file = new File(folder.getRoot(), "reviews.wal");
+        JournaledRestaurantApi api = new JournaledRestaurantApi(new RestaurantSnapshotApi(snapshot, new RestaurantFakeApi()), file, 3);
+        int seeded = api.getReviews().size();
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(api.addReview("avis " + i, 4, "", "Manon Garcia"));
+        }
+        api.close();
+        assertEquals(1, ReviewSnapshot.open(snapshot).logEpoch());
+        try (ReviewWriteAheadLog log = ReviewWriteAheadLog.open(file, 1)) {
+            assertEquals(1, log.getEpoch());
+            assertEquals(1, log.takeRecovered().size());
+        }
+
+        // The snapshot is compacted, then the process dies before the log is emptied.
+        // L'instantané est compacté, puis le processus meurt avant que le journal soit vidé.
+        RestaurantSnapshotApi store = new RestaurantSnapshotApi(snapshot, new RestaurantFakeApi());
+        api = new JournaledRestaurantApi(store, file, 100);
+        assertTrue(api.addReview("avis 5", 5, "", "Manon Garcia"));
+        store.compact(2);
+        api.close();
+
+        RestaurantApi restarted = new JournaledRestaurantApi(new RestaurantSnapshotApi(snapshot, new RestaurantFakeApi()), file, 100);
+        List<Review> reviews = restarted.getReviews();
+        assertEquals(seeded + 5, reviews.size());
+        assertEquals("avis 5", reviews.get(0).getComment());
+        assertEquals("avis 1", reviews.get(4).getComment());
+        assertEquals(5L + seeded, reviews.get(0).getId());
+    }
+}
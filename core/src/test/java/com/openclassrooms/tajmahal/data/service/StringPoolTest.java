@@ -0,0 +1,84 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests of {@link StringPool}.
+ * Tests unitaires de {@link StringPool}.
+ */
+public class StringPoolTest {
+
+    /** Equal strings decoded separately are replaced by one instance, and null stays null.
+     * Des chaînes égales décodées séparément sont remplacées par une seule instance, et null reste null.
+     */
+    @Test
+    public void equalStringsShareOneInstance() {
+        StringPool pool = new StringPool();
+        String first = new String("Ranjit Singh");
+        String second = new String("Ranjit Singh");
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertNull(pool.intern(null));
+        assertEquals(1, pool.size());
+    }
+
+    /** A full pool returns the new strings as they are, and keeps serving those it holds.
+     * Une réserve pleine renvoie les nouvelles chaînes telles quelles, et continue de fournir celles
+     * qu'elle contient.
+     */
+    @Test
+    public void poolStopsGrowingAtItsCapacity() {
+        StringPool pool = new StringPool(2);
+        String a = pool.intern(new String("a"));
+        pool.intern(new String("b"));
+        String c = new String("c");
+
+        assertSame(c, pool.intern(c));
+        assertEquals(2, pool.size());
+        String otherC = new String("c");
+        assertSame(otherC, pool.intern(otherC));
+        assertSame(a, pool.intern(new String("a")));
+    }
+
+    /** Threads interning the same strings at the same time all get the same instance.
+     * Des threads réservant les mêmes chaînes en même temps obtiennent tous la même instance.
+     */
+    @Test
+    public void threadsGetTheSameInstance() throws Exception {
+        StringPool pool = new StringPool();
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(threads.submit(() -> {
+                    String[] interned = new String[1000];
+                    for (int i = 0; i < interned.length; i++) {
+                        interned[i] = pool.intern(new String("user " + i));
+                    }
+                    return interned;
+                }));
+            }
+            String[] first = results.get(0).get();
+            for (Future<String[]> result : results) {
+                String[] interned = result.get();
+                for (int i = 0; i < interned.length; i++) {
+                    assertSame(first[i], interned[i]);
+                }
+            }
+            assertEquals(1000, pool.size());
+        } finally {
+            threads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.tajmahal.data.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.openclassrooms.tajmahal.domain.model.RatingAggregate;
+import com.openclassrooms.tajmahal.domain.model.Review;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests of {@link SyntheticDataGenerator} and {@link SyntheticRestaurantApi}.
+ * Tests unitaires de {@link SyntheticDataGenerator} et de {@link SyntheticRestaurantApi}.
+ */
+public class SyntheticDataGeneratorTest {
+
+    private static final int SIZE = 20_000;
+
+    /** The same seed and restaurant give the same data, another restaurant gives other data.
+     * La même graine et le même restaurant donnent les mêmes données, un autre restaurant donne
+     * d'autres données.
+     */
+    @Test
+    public void generationIsDeterministic() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(SyntheticDataGenerator.DEFAULT_SEED);
+        List<Review> first = generator.reviewList(1L, 1_000);
+        generator.reviewList(2L, 1_000);
+
+        assertEquals(first, new SyntheticDataGenerator(SyntheticDataGenerator.DEFAULT_SEED).reviewList(1L, 1_000));
+        assertEquals(generator.restaurant(1L), generator.restaurant(1L));
+        assertNotEquals(first, generator.reviewList(2L, 1_000));
+    }
+
+    /** Ratings lean towards the high stars, comments vary in length, and each user keeps one avatar
+     * from a small pool.
+     * Les notes penchent vers les étoiles élevées, les commentaires varient en longueur, et chaque
+     * utilisateur garde un avatar d'un petit ensemble.
+     */
+    @Test
+    public void dataLooksLikeRealReviews() {
+        List<Review> reviews = new SyntheticDataGenerator(SyntheticDataGenerator.DEFAULT_SEED).reviewList(1L, SIZE);
+
+        RatingAggregate aggregate = RatingAggregate.of(reviews);
+        assertTrue(aggregate.getStarCount(5) > aggregate.getStarCount(1) * 3);
+        Map<String, String> avatars = new HashMap<>();
+        Set<String> pictures = new HashSet<>();
+        int longComments = 0;
+        int shortComments = 0;
+        for (int i = 0; i < reviews.size(); i++) {
+            Review review = reviews.get(i);
+            assertEquals(i + 1L, review.getId());
+            assertTrue(RestaurantApi.isValid(review));
+            String previous = avatars.put(review.getUsername(), review.getPicture());
+            assertTrue(previous == null || previous.equals(review.getPicture()));
+            pictures.add(review.getPicture());
+            int length = review.getComment().length();
+            if (length > 300) longComments++;
+            if (length < 80) shortComments++;
+        }
+        assertTrue(pictures.size() <= SyntheticDataGenerator.AVATAR_COUNT);
+        assertTrue(avatars.size() < SyntheticDataGenerator.USER_COUNT);
+        assertTrue(shortComments > SIZE / 3);
+        assertTrue(longComments > 0);
+    }
+
+    /** The API serves every generated review, newest first.
+     * L'API fournit tous les avis générés, du plus récent au plus ancien.
+     */
+    @Test
+    public void apiServesGeneratedReviews() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(SyntheticDataGenerator.DEFAULT_SEED);
+        SyntheticRestaurantApi api = new SyntheticRestaurantApi(generator, 3L, 25_000);
+
+        List<Review> reviews = api.getReviews();
+
+        assertEquals(25_000, reviews.size());
+        assertEquals(generator.reviewList(3L, 25_000).get(0), reviews.get(reviews.size() - 1));
+        assertEquals(generator.restaurant(3L), api.getRestaurant());
+        assertEquals(25_000, api.getRatingAggregate().getCount());
+    }
+}
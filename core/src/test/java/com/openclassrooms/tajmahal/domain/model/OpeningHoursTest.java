@@ -0,0 +1,218 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import static com.openclassrooms.tajmahal.domain.model.OpeningHours.MINUTES_PER_DAY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TimeZone;
+
+/**
+ * Unit tests of {@link OpeningHours}: the status and the next transition must match, minute by
+ * minute, the hours read by brute force.
+ * Tests unitaires de {@link OpeningHours} : l'état et la prochaine transition doivent correspondre,
+ * minute par minute, aux horaires lus par force brute.
+ */
+public class OpeningHoursTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static final long MINUTE = 60_000L;
+
+    /** Monday 2024-01-01, in days since the epoch. Le lundi 01/01/2024, en jours depuis l'epoch. */
+    private static final long MONDAY = 19_723L;
+
+    private static final String[][] DAY_NAMES = {
+            {"lun", "mar", "mer", "jeu", "ven", "sam", "dim"},
+            {"mon", "tue", "wed", "thu", "fri", "sat", "sun"}};
+
+    @Test
+    public void restaurantHoursGiveOpenNowAndClosesAt() {
+        OpeningHours hours = OpeningHours.parse("11h30 - 14h30・18h30 - 22h00", UTC);
+        long tuesday = (MONDAY + 1) * MINUTES_PER_DAY * MINUTE;
+
+        assertTrue(hours.isKnown());
+        assertEquals(new OpeningHours.Status(true, true, at(tuesday, 14, 30)), hours.status(at(tuesday, 12, 0)));
+        assertEquals(new OpeningHours.Status(true, false, at(tuesday, 18, 30)), hours.status(at(tuesday, 14, 30)));
+        assertEquals(at(tuesday + MINUTES_PER_DAY * MINUTE, 11, 30), hours.nextTransition(at(tuesday, 23, 0)));
+        assertEquals(1, OpeningHours.dayOfWeek(at(tuesday, 23, 59), UTC));
+    }
+
+    @Test
+    public void hoursFollowTheTimeZone() {
+        OpeningHours hours = OpeningHours.parse("11h30 - 14h30", TimeZone.getTimeZone("Europe/Paris"));
+        // 12h00 in Paris in winter, then on the day the clocks go forward.
+        // 12h00 à Paris en hiver, puis le jour du passage à l'heure d'été.
+        long winter = MONDAY * MINUTES_PER_DAY * MINUTE;
+        long summer = OpeningHours.epochDay(2024, 3, 31) * MINUTES_PER_DAY * MINUTE;
+
+        assertTrue(hours.isOpen(at(winter, 11, 0)));
+        assertEquals(at(winter, 13, 30), hours.nextTransition(at(winter, 11, 0)));
+        assertTrue(hours.isOpen(at(summer, 10, 0)));
+        assertEquals(at(summer, 12, 30), hours.nextTransition(at(summer, 10, 0)));
+    }
+
+    /** The hours of a restaurant are parsed again when the zone or the text changes, not otherwise.
+     * Les horaires d'un restaurant sont analysés à nouveau lorsque le fuseau ou le texte change, pas sinon.
+     */
+    @Test
+    public void restaurantHoursAreCachedByZoneAndText() {
+        Restaurant restaurant = new Restaurant("Taj Mahal", "Indien", "11h30 - 14h30", "", "", "", true, true);
+        TimeZone paris = TimeZone.getTimeZone("Europe/Paris");
+        OpeningHours inParis = restaurant.getOpeningHours(paris);
+
+        assertSame(inParis, restaurant.getOpeningHours(TimeZone.getTimeZone("Europe/Paris")));
+        OpeningHours inUtc = restaurant.getOpeningHours(UTC);
+        assertEquals("UTC", inUtc.getZone().getID());
+        assertTrue(inUtc.isOpen(at(MONDAY * MINUTES_PER_DAY * MINUTE, 12, 0)));
+        assertFalse(inParis.isOpen(at(MONDAY * MINUTES_PER_DAY * MINUTE, 14, 0)));
+
+        restaurant.setHours("18h30 - 22h00");
+        assertFalse(restaurant.getOpeningHours(UTC).isOpen(at(MONDAY * MINUTES_PER_DAY * MINUTE, 12, 0)));
+    }
+
+    @Test
+    public void unreadableOrConstantHoursNeverChange() {
+        OpeningHours unknown = OpeningHours.parse("Sur rendez-vous", UTC);
+        OpeningHours always = OpeningHours.parse("00h00 - 24h00", UTC);
+        long time = at(MONDAY * MINUTES_PER_DAY * MINUTE, 9, 0);
+
+        assertFalse(unknown.isKnown());
+        assertEquals(new OpeningHours.Status(false, false, OpeningHours.NEVER), unknown.status(time));
+        assertEquals(new OpeningHours.Status(true, true, OpeningHours.NEVER), always.status(time));
+        // Closed on 2024-12-25 only. Fermé le 25/12/2024 seulement.
+        OpeningHours christmas = always.withException(2024, 12, 25, "fermé");
+        long closing = OpeningHours.epochDay(2024, 12, 25) * MINUTES_PER_DAY * MINUTE;
+        assertEquals(closing, christmas.nextTransition(time));
+        assertEquals(closing + MINUTES_PER_DAY * MINUTE, christmas.nextTransition(closing));
+    }
+
+    @Test
+    public void epochDaysMatchTheCalendar() {
+        assertEquals(0L, OpeningHours.epochDay(1970, 1, 1));
+        assertEquals(MONDAY, OpeningHours.epochDay(2024, 1, 1));
+        assertEquals(11_016L, OpeningHours.epochDay(2000, 2, 29));
+        assertEquals(-1L, OpeningHours.epochDay(1969, 12, 31));
+    }
+
+    @Test
+    public void queriesMatchTheHoursReadByBruteForce() {
+        SplittableRandom random = new SplittableRandom(42L);
+        for (int schedule = 0; schedule < 40; schedule++) {
+            int[][] days = new int[7][];
+            StringBuilder text = new StringBuilder();
+            String[] names = DAY_NAMES[random.nextInt(2)];
+            for (int day = 0; day < 7; day++) {
+                days[day] = randomRanges(random, MINUTES_PER_DAY * 2);
+                text.append(names[day]).append(": ").append(format(days[day])).append("; ");
+            }
+            OpeningHours hours = OpeningHours.parse(text.toString(), UTC);
+            assertTrue(text.toString(), hours.isKnown());
+            Map<Long, int[]> exceptions = new HashMap<>();
+            for (int i = random.nextInt(4); i > 0; i--) {
+                int dayOfMonth = 1 + random.nextInt(21);
+                int[] ranges = randomRanges(random, MINUTES_PER_DAY);
+                hours = hours.withException(2024, 1, dayOfMonth, format(ranges));
+                exceptions.put(MONDAY + dayOfMonth - 1, ranges);
+            }
+
+            // Every minute of four weeks, and the next change of each found backwards.
+            // Chaque minute de quatre semaines, et le prochain changement de chacune trouvé à rebours.
+            int minutes = 28 * MINUTES_PER_DAY;
+            boolean[] open = new boolean[minutes];
+            for (int m = 0; m < minutes; m++) {
+                open[m] = expectedOpen(days, exceptions, MONDAY * MINUTES_PER_DAY + m);
+            }
+            long next = OpeningHours.NEVER;
+            for (int m = minutes - 2; m >= 0; m--) {
+                if (open[m + 1] != open[m]) {
+                    next = (MONDAY * MINUTES_PER_DAY + m + 1) * MINUTE;
+                }
+                if (m < 21 * MINUTES_PER_DAY) {
+                    long time = (MONDAY * MINUTES_PER_DAY + m) * MINUTE + random.nextLong(MINUTE);
+                    assertEquals(text + " at minute " + m, open[m], hours.isOpen(time));
+                    if (next != OpeningHours.NEVER) {
+                        assertEquals(text + " at minute " + m, next, hours.nextTransition(time));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads by brute force whether a minute since the epoch is open: in a range of its day, or in
+     * a range of the day before going past midnight, an exception day replacing both.
+     * Lit par force brute si une minute depuis l'epoch est ouverte : dans une plage de son jour, ou
+     * dans une plage de la veille passant minuit, un jour d'exception remplaçant les deux.
+     */
+    private static boolean expectedOpen(int[][] days, Map<Long, int[]> exceptions, long minute) {
+        long day = minute / MINUTES_PER_DAY;
+        int minuteOfDay = (int) (minute % MINUTES_PER_DAY);
+        int[] exception = exceptions.get(day);
+        if (exception != null) {
+            return inside(exception, minuteOfDay, 0, MINUTES_PER_DAY);
+        }
+        int dayOfWeek = (int) ((day - MONDAY) % 7);
+        if (inside(days[dayOfWeek], minuteOfDay, 0, MINUTES_PER_DAY * 2)) {
+            return true;
+        }
+        return !exceptions.containsKey(day - 1)
+                && inside(days[(dayOfWeek + 6) % 7], minuteOfDay + MINUTES_PER_DAY, 0, MINUTES_PER_DAY * 2);
+    }
+
+    private static boolean inside(int[] ranges, int minute, int from, int to) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            int end = ranges[i + 1] <= ranges[i] ? ranges[i + 1] + MINUTES_PER_DAY : ranges[i + 1];
+            if (minute >= Math.max(ranges[i], from) && minute < Math.min(end, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Up to three ranges of whole minutes, some of them overlapping or going past midnight.
+     * Jusqu'à trois plages de minutes entières, certaines se chevauchant ou passant minuit.
+     */
+    private static int[] randomRanges(SplittableRandom random, int maxEnd) {
+        int[] ranges = new int[2 * random.nextInt(4)];
+        for (int i = 0; i < ranges.length; i += 2) {
+            int start = random.nextInt(MINUTES_PER_DAY);
+            ranges[i] = start;
+            ranges[i + 1] = Math.min(start + 1 + random.nextInt(10 * 60), maxEnd) % MINUTES_PER_DAY;
+        }
+        if (maxEnd == MINUTES_PER_DAY) {
+            // An exception ends at midnight. Une exception finit à minuit.
+            for (int i = 1; i < ranges.length; i += 2) {
+                if (ranges[i] <= ranges[i - 1]) {
+                    ranges[i] = MINUTES_PER_DAY;
+                }
+            }
+        }
+        return ranges;
+    }
+
+    private static String format(int[] ranges) {
+        if (ranges.length == 0) {
+            return "fermé";
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (i > 0) {
+                text.append("・");
+            }
+            text.append(String.format("%02dh%02d - %02dh%02d",
+                    ranges[i] / 60, ranges[i] % 60, ranges[i + 1] / 60, ranges[i + 1] % 60));
+        }
+        return text.toString();
+    }
+
+    private static long at(long dayStart, int hour, int minute) {
+        return dayStart + (hour * 60L + minute) * MINUTE;
+    }
+}
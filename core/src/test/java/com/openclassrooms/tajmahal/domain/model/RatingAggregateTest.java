@@ -0,0 +1,53 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import static org.junit.Assert.assertEquals;
+
+import com.openclassrooms.tajmahal.data.service.RestaurantFakeApi;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests of {@link RatingAggregate}.
+ * Tests unitaires de {@link RatingAggregate}.
+ */
+public class RatingAggregateTest {
+
+    /** Checks that the aggregate of the hard-coded reviews matches a full scan of the list.
+     * Vérifie que l'agrégat des avis codés en dur correspond à un parcours complet de la liste.
+     */
+    @Test
+    public void aggregateMatchesFullScan() {
+        List<Review> reviews = new RestaurantFakeApi().getReviews();
+        RatingAggregate aggregate = RatingAggregate.of(reviews);
+
+        assertEquals(5, aggregate.getCount());
+        assertEquals(20L, aggregate.getSum());
+        assertEquals(ReviewUtils.calculateAverageRating(reviews), aggregate.getAverage(), 0.0001f);
+        assertEquals(2, aggregate.getStarCount(5));
+        assertEquals(2, aggregate.getStarCount(4));
+        assertEquals(0, aggregate.getStarCount(3));
+        assertEquals(1, aggregate.getStarCount(2));
+        assertEquals(0, aggregate.getStarCount(1));
+    }
+
+    /** Checks that adding ratings one by one gives the same aggregate as building it from the list,
+     * and leaves the previous aggregate unchanged.
+     * Vérifie que l'ajout des notes une par une donne le même agrégat que sa construction à partir
+     * de la liste, et laisse l'agrégat précédent inchangé.
+     */
+    @Test
+    public void plusIsIncremental() {
+        RatingAggregate aggregate = RatingAggregate.EMPTY.plus(5).plus(1).plus(3);
+        RatingAggregate expected = RatingAggregate.of(Arrays.asList(
+                new Review("a", "", "c", 5),
+                new Review("b", "", "c", 1),
+                new Review("c", "", "c", 3)));
+
+        assertEquals(expected, aggregate);
+        assertEquals(0, RatingAggregate.EMPTY.getCount());
+        assertEquals(0.0f, RatingAggregate.EMPTY.getAverage(), 0.0f);
+    }
+}
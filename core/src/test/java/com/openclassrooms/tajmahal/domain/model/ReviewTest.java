@@ -0,0 +1,78 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the equality and the cached hash code of {@link Review}.
+ * Tests unitaires de l'égalité et du code de hachage mis en cache de {@link Review}.
+ */
+public class ReviewTest {
+
+    private static final String COMMENT = "Service très rapide et nourriture délicieuse, nous mangeons ici chaque week-end.";
+
+    /** Equal reviews are equal and have the same hash code, whether or not one of them already
+     * cached it.
+     * Des avis égaux sont égaux et ont le même code de hachage, que l'un d'eux l'ait déjà mis en
+     * cache ou non.
+     */
+    @Test
+    public void equalReviewsMatchWithOrWithoutCachedHash() {
+        Review cached = new Review(3L, "Ranjit", "avatar", COMMENT, 5, 1_000L);
+        int hash = cached.hashCode();
+        Review uncached = new Review(3L, "Ranjit", "avatar", new String(COMMENT), 5, 1_000L);
+
+        assertEquals(cached, uncached);
+        assertEquals(uncached, cached);
+        assertEquals(hash, uncached.hashCode());
+        assertEquals(hash, cached.hashCode());
+        assertEquals(cached, uncached);
+    }
+
+    /** Reviews differing by one field are different, even when both hash codes are cached.
+     * Des avis différant d'un champ sont différents, même lorsque les deux codes de hachage sont en cache.
+     */
+    @Test
+    public void differentReviewsDoNotMatch() {
+        Review review = new Review(3L, "Ranjit", "avatar", COMMENT, 5, 1_000L);
+        Review[] others = {
+                new Review(4L, "Ranjit", "avatar", COMMENT, 5, 1_000L),
+                new Review(3L, "Martyna", "avatar", COMMENT, 5, 1_000L),
+                new Review(3L, "Ranjit", null, COMMENT, 5, 1_000L),
+                new Review(3L, "Ranjit", "avatar", "Très bon", 5, 1_000L),
+                new Review(3L, "Ranjit", "avatar", COMMENT, 4, 1_000L),
+                new Review(3L, "Ranjit", "avatar", COMMENT, 5, 2_000L),
+        };
+        for (Review other : others) {
+            assertNotEquals(review, other);
+            other.hashCode();
+            review.hashCode();
+            assertNotEquals(review, other);
+            assertNotEquals(other, review);
+        }
+    }
+
+    /** A preview is not equal to the full review, nor to a review whose full comment is the preview
+     * text, and a short comment keeps the same review.
+     * Un aperçu n'est égal ni à l'avis complet, ni à un avis dont le commentaire complet est le texte
+     * de l'aperçu, et un commentaire court garde le même avis.
+     */
+    @Test
+    public void truncatedCommentIsPartOfTheEquality() {
+        Review full = new Review(3L, "Ranjit", "avatar", COMMENT, 5, 1_000L);
+        Review preview = full.withCommentPreview(20);
+        Review sameText = new Review(3L, "Ranjit", "avatar", preview.getComment(), 5, 1_000L);
+
+        assertTrue(preview.isCommentTruncated());
+        assertNotEquals(full, preview);
+        assertNotEquals(sameText, preview);
+        assertNotEquals(sameText.hashCode(), preview.hashCode());
+        assertEquals(preview, new Review(3L, "Ranjit", "avatar", preview.getComment(), 5, 1_000L, true));
+        assertEquals(preview.hashCode(), new Review(3L, "Ranjit", "avatar", preview.getComment(), 5, 1_000L, true).hashCode());
+        assertSame(full, full.withCommentPreview(COMMENT.length()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.tajmahal.domain.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the comment previews of {@link ReviewUtils}.
+ * Tests unitaires des aperçus de commentaire de {@link ReviewUtils}.
+ */
+public class ReviewUtilsTest {
+
+    /** A preview is cut after the last whole word and ends with an ellipsis, a short comment is kept.
+     * Un aperçu est coupé après le dernier mot entier et se termine par des points de suspension, un
+     * commentaire court est gardé.
+     */
+    @Test
+    public void previewEndsAfterAWholeWord() {
+        String comment = "Très bon restaurant indien";
+        assertSame(comment, ReviewUtils.commentPreview(comment, comment.length()));
+        assertNull(ReviewUtils.commentPreview(null, 10));
+        assertEquals("Très bon restaurant…", ReviewUtils.commentPreview(comment, 22));
+        assertEquals("Trè…", ReviewUtils.commentPreview("Trèsbonrestaurant", 4));
+    }
+
+    /** A character written with two chars, at the cut, is kept whole or dropped whole.
+     * Un caractère écrit sur deux chars, à la coupure, est gardé entier ou abandonné entier.
+     */
+    @Test
+    public void previewNeverSplitsASurrogatePair() {
+        String comment = "aaaa🌶bbbbbb";
+        assertEquals("aaaa…", ReviewUtils.commentPreview(comment, 6));
+        assertEquals("aaaa🌶…", ReviewUtils.commentPreview(comment, 7));
+        assertEquals("…", ReviewUtils.commentPreview("🌶🌶", 2));
+        for (int maxLength = 1; maxLength < comment.length(); maxLength++) {
+            String cut = ReviewUtils.commentPreview(comment, maxLength);
+            String kept = cut.substring(0, cut.length() - 1);
+            assertTrue(cut.length() <= maxLength);
+            assertFalse(cut, !kept.isEmpty() && Character.isHighSurrogate(kept.charAt(kept.length() - 1)));
+        }
+    }
+
+    /** A comment made of blanks only, or a preview of one or two characters, keeps the ellipsis
+     * within the length, and a length under one is refused.
+     * Un commentaire fait uniquement de blancs, ou un aperçu d'un ou deux caractères, garde les points
+     * de suspension dans la longueur, et une longueur inférieure à un est refusée.
+     */
+    @Test
+    public void blankAndTinyPreviews() {
+        assertEquals("…", ReviewUtils.commentPreview("          ", 5));
+        assertEquals("a…", ReviewUtils.commentPreview("abc", 2));
+        assertEquals("a…", ReviewUtils.commentPreview("a bc", 2));
+        assertEquals("…", ReviewUtils.commentPreview("abc", 1));
+        assertEquals("a", ReviewUtils.commentPreview("a", 1));
+        try {
+            ReviewUtils.commentPreview("abc", 0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // The preview could not even hold the ellipsis. L'aperçu ne pourrait même pas contenir les points de suspension.
+        }
+    }
+}
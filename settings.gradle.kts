@@ -15,3 +15,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "TajMahal"
 include(":app")
+include(":core")
+include(":benchmark")